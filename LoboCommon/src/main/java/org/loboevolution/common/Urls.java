@@ -164,30 +164,38 @@ public class Urls {
 	/**
 	 * <p>getExpiration.</p>
 	 *
+	 * A response with no-cache expires at once. Otherwise max-age, in seconds,
+	 * wins over the Expires header; must-revalidate only forbids serving the
+	 * response once stale, so it does not shorten its lifetime.
+	 *
 	 * @param connection a {@link java.net.URLConnection} object.
 	 * @param baseTime a long.
-	 * @return a {@link java.lang.Long} object.
+	 * @return the expiration time in milliseconds, 0 if the response is stale at once.
 	 */
 	public static Long getExpiration(URLConnection connection, long baseTime) {
 		String cacheControl = connection.getHeaderField("Cache-Control");
 		if (cacheControl != null) {
+			Long maxAge = null;
 			StringTokenizer tok = new StringTokenizer(cacheControl, ",");
 			while (tok.hasMoreTokens()) {
 				String token = tok.nextToken().trim().toLowerCase();
-				if ("must-revalidate".equals(token)) {
+				if ("no-cache".equals(token)) {
 					return 0L;
 				} else if (token.startsWith("max-age")) {
 					int eqIdx = token.indexOf('=');
 					if (eqIdx != -1) {
 						String value = token.substring(eqIdx + 1).trim();
 						try {
-							return baseTime + Integer.parseInt(value);
+							maxAge = baseTime + Integer.parseInt(value) * 1000L;
 						} catch (NumberFormatException e) {
 							logger.log(Level.SEVERE, e.getMessage(), e);
 						}
 					}
 				}
 			}
+			if (maxAge != null) {
+				return maxAge;
+			}
 		}
 		String expires = connection.getHeaderField("Expires");
 		if (expires != null) {
@@ -25,7 +25,6 @@ import org.loboevolution.store.SQLiteCommon;
 
 import java.awt.*;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.Statement;
 import java.util.Arrays;
@@ -254,7 +253,7 @@ public final class ColorFactory {
 	private Map<String, Color> mapColor() {
 		final Map<String, Color> colorMap = new HashMap<>();
 		colorMap.put("transparent", new Color(0, 0, 0, 0));
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				Statement stmt = conn.createStatement()) {
 			try (ResultSet rs = stmt.executeQuery(this.COLORS)) {
 				while (rs != null && rs.next()) {
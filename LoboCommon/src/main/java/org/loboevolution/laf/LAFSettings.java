@@ -23,7 +23,6 @@ package org.loboevolution.laf;
 import java.awt.Color;
 import java.io.Serializable;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.Statement;
 import java.util.ArrayList;
@@ -138,7 +137,7 @@ public class LAFSettings implements Serializable {
 	public static String[] getFonts(String type) {
 		final List<String> fonts = new ArrayList<>();
 		final String query = "SELECT name FROM " + type;
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				Statement stmt = conn.createStatement();
 				ResultSet rs = stmt.executeQuery(query)) {
 			while (rs != null && rs.next()) {
@@ -165,7 +164,7 @@ public class LAFSettings implements Serializable {
 	
 	private LAFSettings retriveFontDate() {
 		LAFSettings laf = null;
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				Statement stmt = conn.createStatement();
 				ResultSet rs = stmt.executeQuery(this.LOOK_AND_FEEL)) {
 			while (rs != null && rs.next()) {
@@ -21,19 +21,14 @@
 package org.loboevolution.net;
 
 import java.awt.Image;
-import java.awt.Toolkit;
-import java.awt.image.BufferedImage;
 import java.io.*;
 import java.net.HttpURLConnection;
 import java.net.SocketTimeoutException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.charset.StandardCharsets;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.util.Base64;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -45,7 +40,7 @@ import javax.swing.ImageIcon;
 
 import org.loboevolution.common.Strings;
 import org.loboevolution.common.Urls;
-import org.loboevolution.store.SQLiteCommon;
+import org.loboevolution.store.GeneralStore;
 
 /**
  * <p>HttpNetwork class.</p>
@@ -64,8 +59,6 @@ public class HttpNetwork {
 	/** Constant TIMEOUT_VALUE="2000" */
 	public static final int TIMEOUT_VALUE = 2000;
 
-	private static final String USER_AGENT = "SELECT DISTINCT description FROM USER_AGENT";
-
 	private static InputStream getGzipStream(URLConnection con) throws IOException {
 		final InputStream cis = con.getInputStream();
 		if (cis != null) {
@@ -131,57 +124,66 @@ public class HttpNetwork {
 					return ImageIO.read(stream);
 				}
 			} else {
-
-				String scriptURI = href;
-				if (Strings.isNotBlank(baseUri)) {
-					final URL baseURL = new URL(baseUri);
-					final URL scriptURL = Urls.createURL(baseURL, href);
-					scriptURI = scriptURL == null ? href : scriptURL.toExternalForm();
+				final String scriptURI = resolveUrl(href, baseUri);
+				final ImageCache cache = ImageCache.getInstance();
+				Image image = cache.get(scriptURI);
+				if (image == null) {
+					image = readImage(href, scriptURI);
+					cache.put(scriptURI, image);
 				}
+				return image;
+			}
+		} catch (final Exception e) {
+			logger.log(Level.SEVERE, e.getMessage(), e);
+		}
+		return null;
+	}
 
-				final URL u = new URL(scriptURI);
-				final URLConnection connection = u.openConnection();
-				connection.setRequestProperty("User-Agent", HttpNetwork.getUserAgentValue());
-				try (InputStream in = HttpNetwork.openConnectionCheckRedirects(connection)) {
+	/**
+	 * <p>resolveUrl.</p>
+	 *
+	 * @param href a {@link java.lang.String} object.
+	 * @param baseUri a {@link java.lang.String} object.
+	 * @return the absolute url of href, used as key of the {@link org.loboevolution.net.ImageCache}.
+	 * @throws java.lang.Exception if any.
+	 */
+	public static String resolveUrl(String href, String baseUri) throws Exception {
+		if (Strings.isNotBlank(baseUri)) {
+			final URL baseURL = new URL(baseUri);
+			final URL scriptURL = Urls.createURL(baseURL, href);
+			return scriptURL == null ? href : scriptURL.toExternalForm();
+		}
+		return href;
+	}
 
-					if (href.contains(";base64,")) {
-						final String base64 = href.split(";base64,")[1];
-						byte[] decodedBytes = Base64.getDecoder().decode(base64);
-						InputStream stream = new ByteArrayInputStream(decodedBytes);
-						return ImageIO.read(stream);
-					} else if (href.endsWith(".svg")) {
-						return null; //TODO SVG From URL
-					} else if (href.startsWith("https")) {
-						if (in != null) {
-							BufferedImage bi = ImageIO.read(in);
-							if (bi != null) {
-								return Toolkit.getDefaultToolkit().createImage(bi.getSource());
-							}
-						}
-						return null;
-					} else if (href.endsWith(".gif")) {
-						try {
-							return new ImageIcon(u).getImage();
-						} catch (final Exception e) {
-							return ImageIO.read(in);
-						}
-					} else if (href.endsWith(".bmp")) {
-						try {
-							return ImageIO.read(in);
-						} catch (final IOException e) {
-							logger.log(Level.SEVERE, e.getMessage(), e);
-						}
-					} else {
-						return ImageIO.read(in);
-					}
-				} catch (SocketTimeoutException e) {
-					logger.log(Level.SEVERE, "More than " + TIMEOUT_VALUE + " elapsed.");
-			    } catch (FileNotFoundException e) {
-					logger.log(Level.INFO, e.getMessage());
+	private static Image readImage(String href, String scriptURI) throws Exception {
+		final URL u = new URL(scriptURI);
+		final URLConnection connection = u.openConnection();
+		connection.setRequestProperty("User-Agent", HttpNetwork.getUserAgentValue());
+		try (InputStream in = HttpNetwork.openConnectionCheckRedirects(connection)) {
+			if (href.endsWith(".svg")) {
+				return null; //TODO SVG From URL
+			} else if (href.startsWith("https")) {
+				return in == null ? null : ImageIO.read(in);
+			} else if (href.endsWith(".gif")) {
+				try {
+					return new ImageIcon(u).getImage();
+				} catch (final Exception e) {
+					return ImageIO.read(in);
+				}
+			} else if (href.endsWith(".bmp")) {
+				try {
+					return ImageIO.read(in);
+				} catch (final IOException e) {
+					logger.log(Level.SEVERE, e.getMessage(), e);
 				}
+			} else {
+				return ImageIO.read(in);
 			}
-		} catch (final Exception e) {
-			logger.log(Level.SEVERE, e.getMessage(), e);
+		} catch (SocketTimeoutException e) {
+			logger.log(Level.SEVERE, "More than " + TIMEOUT_VALUE + " elapsed.");
+		} catch (FileNotFoundException e) {
+			logger.log(Level.INFO, e.getMessage());
 		}
 		return null;
 	}
@@ -212,18 +214,7 @@ public class HttpNetwork {
 	 * @return a {@link java.lang.String} object.
 	 */
 	public static String getUserAgentValue() {
-		String userAgent = "";
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
-				PreparedStatement pstmt = conn.prepareStatement(USER_AGENT)) {
-			try (ResultSet rs = pstmt.executeQuery()) {
-				while (rs != null && rs.next()) {
-					userAgent = rs.getString(1);
-				}
-			}
-		} catch (final Exception e) {
-			logger.log(Level.SEVERE, e.getMessage(), e);
-		}
-		return userAgent;
+		return GeneralStore.getUserAgentValue();
 	}
 
 	/**
@@ -269,6 +260,50 @@ public class HttpNetwork {
 		return in;
 	}
 
+	/**
+	 * <p>openConnectionFollowRedirects.</p>
+	 *
+	 * Opens the connection sending the given request headers, following the
+	 * redirects (also from http to https) with the same headers, and returns the
+	 * final connection so that status, headers and body are read from one request.
+	 *
+	 * @param url a {@link java.net.URL} object.
+	 * @param headers the request headers.
+	 * @return the connected {@link java.net.URLConnection}.
+	 * @throws java.lang.Exception if any.
+	 */
+	public static URLConnection openConnectionFollowRedirects(URL url, Map<String, String> headers) throws Exception {
+		URLConnection c = url.openConnection();
+		int redirects = 0;
+		while (true) {
+			c.setConnectTimeout(TIMEOUT_VALUE);
+			c.setReadTimeout(TIMEOUT_VALUE);
+			c.setRequestProperty("User-Agent", getUserAgentValue());
+			for (final Map.Entry<String, String> header : headers.entrySet()) {
+				c.setRequestProperty(header.getKey(), header.getValue());
+			}
+			if (!(c instanceof HttpURLConnection)) {
+				c.connect();
+				return c;
+			}
+			final HttpURLConnection http = (HttpURLConnection) c;
+			http.setInstanceFollowRedirects(false);
+			final int stat = http.getResponseCode();
+			if (stat < 300 || stat > 307 || stat == 306 || stat == HttpURLConnection.HTTP_NOT_MODIFIED) {
+				return c;
+			}
+			final String loc = http.getHeaderField("Location");
+			final URL target = loc == null ? null : new URL(http.getURL(), loc);
+			http.disconnect();
+			if (target == null || !(target.getProtocol().equals("http") || target.getProtocol().equals("https"))
+					|| redirects >= 5) {
+				throw new SecurityException("illegal URL redirect");
+			}
+			c = target.openConnection();
+			redirects++;
+		}
+	}
+
 	/**
 	 * <p>toString.</p>
 	 *
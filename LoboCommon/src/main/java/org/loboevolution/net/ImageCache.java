@@ -0,0 +1,274 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.net;
+
+import java.awt.Image;
+import java.awt.image.ImageObserver;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>ImageCache class.</p>
+ *
+ * Process wide cache of decoded images, keyed by resolved URL. Entries are held
+ * strongly, in LRU order, up to a byte budget (system property
+ * {@code lobo.imageCache.maxBytes}, 64MB by default). Entries pushed out of the
+ * budget stay reachable through soft references until the garbage collector
+ * needs the memory.
+ * <p>
+ * An image whose size is not known yet, such as a toolkit image still loading,
+ * is counted at {@code UNKNOWN_SIZE} bytes and counted again at its real size
+ * once its dimensions are reported.
+ *
+ *
+ */
+public final class ImageCache {
+
+	/** The default byte budget. */
+	private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+	/** The bytes counted for an image of unknown size, that of 128x128 pixels. */
+	static final long UNKNOWN_SIZE = 4L * 128 * 128;
+
+	/** The Constant INSTANCE. */
+	private static final ImageCache INSTANCE = new ImageCache(Long.getLong("lobo.imageCache.maxBytes", DEFAULT_MAX_BYTES));
+
+	/** The images held strongly, in access order. */
+	private final LinkedHashMap<String, Entry> strong = new LinkedHashMap<>(64, 0.75f, true);
+
+	/** The images evicted from the budget. */
+	private final Map<String, SoftEntry> soft = new HashMap<>();
+
+	/** The queue of the cleared soft entries. */
+	private final ReferenceQueue<Image> queue = new ReferenceQueue<>();
+
+	/** The byte budget. */
+	private long maxBytes;
+
+	/** The bytes held strongly. */
+	private long bytes;
+
+	private long hits;
+
+	private long softHits;
+
+	private long misses;
+
+	private long evictions;
+
+	private ImageCache(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * <p>getInstance.</p>
+	 *
+	 * @return a {@link org.loboevolution.net.ImageCache} object.
+	 */
+	public static ImageCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * <p>get.</p>
+	 *
+	 * @param url the resolved url.
+	 * @return the cached image, or null.
+	 */
+	public synchronized Image get(String url) {
+		final Entry entry = strong.get(url);
+		if (entry != null) {
+			hits++;
+			return entry.image;
+		}
+
+		expungeStaleEntries();
+		final SoftEntry ref = soft.remove(url);
+		final Image image = ref == null ? null : ref.get();
+		if (image != null) {
+			softHits++;
+			putStrong(url, image);
+			return image;
+		}
+		misses++;
+		return null;
+	}
+
+	/**
+	 * <p>put.</p>
+	 *
+	 * @param url the resolved url.
+	 * @param image the image.
+	 */
+	public synchronized void put(String url, Image image) {
+		if (url == null || image == null) {
+			return;
+		}
+		soft.remove(url);
+		putStrong(url, image);
+	}
+
+	/**
+	 * Drops every cached image.
+	 */
+	public synchronized void clear() {
+		for (final Entry entry : strong.values()) {
+			entry.held = false;
+		}
+		strong.clear();
+		soft.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * <p>Setter for the field maxBytes.</p>
+	 *
+	 * @param maxBytes the byte budget of the images held strongly.
+	 */
+	public synchronized void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+		trim();
+	}
+
+	/**
+	 * <p>Getter for the field bytes.</p>
+	 *
+	 * @return the estimated bytes held strongly.
+	 */
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * <p>getStatistics.</p>
+	 *
+	 * @return a {@link java.lang.String} object.
+	 */
+	public synchronized String getStatistics() {
+		return "hits=" + hits + ", softHits=" + softHits + ", misses=" + misses + ", evictions=" + evictions
+				+ ", entries=" + strong.size() + ", softEntries=" + soft.size() + ", bytes=" + bytes + "/" + maxBytes;
+	}
+
+	private void putStrong(String key, Image image) {
+		final Entry entry = new Entry(image);
+		final Entry previous = strong.put(key, entry);
+		if (previous != null) {
+			previous.held = false;
+			bytes -= previous.size;
+		}
+		entry.held = true;
+		bytes += entry.size;
+		if (entry.size == UNKNOWN_SIZE) {
+			entry.observe();
+		}
+		trim();
+	}
+
+	/**
+	 * Counts an entry again once its image reports its dimensions.
+	 */
+	private synchronized void resize(Entry entry, long size) {
+		if (entry.held) {
+			bytes += size - entry.size;
+		}
+		entry.size = size;
+		trim();
+	}
+
+	private void trim() {
+		final Iterator<Map.Entry<String, Entry>> it = strong.entrySet().iterator();
+		while (bytes > maxBytes && it.hasNext()) {
+			final Map.Entry<String, Entry> eldest = it.next();
+			it.remove();
+			eldest.getValue().held = false;
+			bytes -= eldest.getValue().size;
+			evictions++;
+			soft.put(eldest.getKey(), new SoftEntry(eldest.getKey(), eldest.getValue().image, queue));
+		}
+	}
+
+	private void expungeStaleEntries() {
+		SoftEntry ref;
+		while ((ref = (SoftEntry) queue.poll()) != null) {
+			soft.remove(ref.key, ref);
+		}
+	}
+
+	private static long sizeOf(int width, int height) {
+		return width > 0 && height > 0 ? 4L * width * height : UNKNOWN_SIZE;
+	}
+
+	private final class Entry implements ImageObserver {
+
+		private final Image image;
+
+		/** The bytes counted, guarded by the cache. */
+		private long size;
+
+		/** Whether the entry is held strongly, guarded by the cache. */
+		private boolean held;
+
+		private Entry(Image image) {
+			this.image = image;
+			this.size = sizeOf(image.getWidth(null), image.getHeight(null));
+		}
+
+		/**
+		 * Asks the image for its dimensions again, to be told when they are known.
+		 */
+		private void observe() {
+			final int width = image.getWidth(this);
+			final int height = image.getHeight(this);
+			if (width > 0 && height > 0) {
+				resize(this, sizeOf(width, height));
+			}
+		}
+
+		@Override
+		public boolean imageUpdate(Image img, int infoflags, int x, int y, int width, int height) {
+			if ((infoflags & (ERROR | ABORT)) != 0) {
+				return false;
+			}
+			// The width and height may be reported by separate updates.
+			final int w = img.getWidth(null);
+			final int h = img.getHeight(null);
+			if (w > 0 && h > 0) {
+				resize(this, sizeOf(w, h));
+				return false;
+			}
+			return true;
+		}
+	}
+
+	private static final class SoftEntry extends SoftReference<Image> {
+
+		private final String key;
+
+		private SoftEntry(String key, Image image, ReferenceQueue<Image> queue) {
+			super(image, queue);
+			this.key = key;
+		}
+	}
+}
@@ -0,0 +1,252 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.net;
+
+import java.awt.Image;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.loboevolution.common.Strings;
+
+/**
+ * <p>ResourceLoader class.</p>
+ *
+ * Loads network resources off the calling thread on a bounded pool of workers.
+ * Pending requests are started by {@link org.loboevolution.net.ResourcePriority}
+ * and then in submission order, never running more than {@code MAX_PER_HOST}
+ * requests against the same host at the same time.
+ *
+ *
+ */
+public final class ResourceLoader {
+
+	/** The Constant logger. */
+	private static final Logger logger = Logger.getLogger(ResourceLoader.class.getName());
+
+	/** The max number of concurrent requests. */
+	private static final int MAX_WORKERS = 8;
+
+	/** The max number of concurrent requests against a single host. */
+	private static final int MAX_PER_HOST = 4;
+
+	/** The Constant INSTANCE. */
+	private static final ResourceLoader INSTANCE = new ResourceLoader();
+
+	/** The workers. */
+	private final ExecutorService executor;
+
+	/** The requests waiting for a worker. */
+	private final TreeSet<Task<?>> pending = new TreeSet<>();
+
+	/** The running requests per host. */
+	private final Map<String, Integer> activeByHost = new HashMap<>();
+
+	/** The images being loaded, to share a single request between callers. */
+	private final Map<String, CompletableFuture<Image>> loadingImages = new ConcurrentHashMap<>();
+
+	/** The submission sequence. */
+	private final AtomicLong sequence = new AtomicLong();
+
+	/** The running requests. */
+	private int active;
+
+	private ResourceLoader() {
+		final AtomicInteger count = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(MAX_WORKERS, r -> {
+			final Thread t = new Thread(r, "ResourceLoader-" + count.incrementAndGet());
+			t.setDaemon(true);
+			t.setPriority(Thread.NORM_PRIORITY - 1);
+			return t;
+		});
+	}
+
+	/**
+	 * <p>getInstance.</p>
+	 *
+	 * @return a {@link org.loboevolution.net.ResourceLoader} object.
+	 */
+	public static ResourceLoader getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * <p>submit.</p>
+	 *
+	 * @param host the host the loader connects to, used for the per host limit.
+	 * @param priority a {@link org.loboevolution.net.ResourcePriority} object.
+	 * @param loader the blocking load.
+	 * @param <T> the type of the resource.
+	 * @return a {@link java.util.concurrent.CompletableFuture} completed by a worker thread.
+	 */
+	public <T> CompletableFuture<T> submit(String host, ResourcePriority priority, Callable<T> loader) {
+		final Task<T> task = new Task<>(host == null ? "" : host, priority, sequence.incrementAndGet(), loader);
+		synchronized (this) {
+			pending.add(task);
+			dispatch();
+		}
+		return task.future;
+	}
+
+	/**
+	 * <p>loadImage.</p>
+	 *
+	 * @param href a {@link java.lang.String} object.
+	 * @param baseUri a {@link java.lang.String} object.
+	 * @param priority a {@link org.loboevolution.net.ResourcePriority} object.
+	 * @return a {@link java.util.concurrent.CompletableFuture} completed with the image, or null if it can not be loaded.
+	 */
+	public CompletableFuture<Image> loadImage(String href, String baseUri, ResourcePriority priority) {
+		if (Strings.isBlank(href)) {
+			return CompletableFuture.completedFuture(null);
+		}
+
+		if (href.contains(";base64,")) {
+			return CompletableFuture.completedFuture(HttpNetwork.getImage(href, baseUri));
+		}
+
+		String key;
+		try {
+			key = HttpNetwork.resolveUrl(href, baseUri);
+		} catch (final Exception e) {
+			key = href;
+		}
+
+		final Image cached = ImageCache.getInstance().get(key);
+		if (cached != null) {
+			return CompletableFuture.completedFuture(cached);
+		}
+
+		// Register the future before the request starts, so that a caller
+		// asking for the same image meanwhile shares it.
+		final CompletableFuture<Image> future = new CompletableFuture<>();
+		final CompletableFuture<Image> previous = loadingImages.putIfAbsent(key, future);
+		if (previous != null) {
+			return previous;
+		}
+		final String loadingKey = key;
+		future.whenComplete((image, error) -> loadingImages.remove(loadingKey, future));
+
+		// The image may have been stored by a load that ended since the lookup.
+		final Image loaded = ImageCache.getInstance().get(key);
+		if (loaded != null) {
+			future.complete(loaded);
+			return future;
+		}
+
+		// A failed load completes with null, as callers only check for an image.
+		submit(getHost(key), priority, () -> HttpNetwork.getImage(href, baseUri))
+				.whenComplete((image, error) -> future.complete(error == null ? image : null));
+		return future;
+	}
+
+	private static String getHost(String url) {
+		try {
+			final String host = new URL(url).getHost();
+			return host == null ? "" : host;
+		} catch (final Exception e) {
+			return "";
+		}
+	}
+
+	private synchronized void dispatch() {
+		final Iterator<Task<?>> it = pending.iterator();
+		while (active < MAX_WORKERS && it.hasNext()) {
+			final Task<?> task = it.next();
+			if (task.future.isDone()) {
+				it.remove();
+				continue;
+			}
+			final int running = activeByHost.getOrDefault(task.host, 0);
+			if (running < MAX_PER_HOST) {
+				it.remove();
+				activeByHost.put(task.host, running + 1);
+				active++;
+				executor.execute(task);
+			}
+		}
+	}
+
+	private synchronized void finished(Task<?> task) {
+		final int running = activeByHost.getOrDefault(task.host, 1) - 1;
+		if (running > 0) {
+			activeByHost.put(task.host, running);
+		} else {
+			activeByHost.remove(task.host);
+		}
+		active--;
+		dispatch();
+	}
+
+	/**
+	 * A pending or running request.
+	 */
+	private final class Task<T> implements Runnable, Comparable<Task<?>> {
+
+		private final String host;
+
+		private final ResourcePriority priority;
+
+		private final long sequence;
+
+		private final Callable<T> loader;
+
+		private final CompletableFuture<T> future = new CompletableFuture<>();
+
+		private Task(String host, ResourcePriority priority, long sequence, Callable<T> loader) {
+			this.host = host;
+			this.priority = priority;
+			this.sequence = sequence;
+			this.loader = loader;
+		}
+
+		@Override
+		public void run() {
+			try {
+				if (!future.isDone()) {
+					future.complete(loader.call());
+				}
+			} catch (final Throwable e) {
+				logger.log(Level.SEVERE, e.getMessage(), e);
+				future.completeExceptionally(e);
+			} finally {
+				finished(this);
+			}
+		}
+
+		@Override
+		public int compareTo(Task<?> o) {
+			final int cmp = priority.compareTo(o.priority);
+			return cmp != 0 ? cmp : Long.compare(sequence, o.sequence);
+		}
+	}
+}
@@ -18,20 +18,19 @@
  * Contact info: ivan.difrancesco@yahoo.it
  */
 
-package org.loboevolution.html.js;
+package org.loboevolution.net;
 
-import javax.swing.Timer;
+/**
+ * <p>ResourcePriority class.</p>
+ *
+ * Priority classes of the {@link org.loboevolution.net.ResourceLoader}, from the
+ * most urgent to the least urgent.
+ *
+ *
+ */
+public enum ResourcePriority {
 
-class TaskWrapper {
-	public final Timer timer;
+	VISIBLE_IMAGE,
 
-	/**
-	 * <p>Constructor for TaskWrapper.</p>
-	 *
-	 * @param timer a {@link javax.swing.Timer} object.
-	 * @param retained a {@link java.lang.Object} object.
-	 */
-	public TaskWrapper(Timer timer, Object retained) {
-		this.timer = timer;
-	}
+	OFFSCREEN_IMAGE
 }
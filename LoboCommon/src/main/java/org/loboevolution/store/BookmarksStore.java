@@ -22,7 +22,6 @@ package org.loboevolution.store;
 
 import java.io.Serializable;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
@@ -59,7 +58,7 @@ public class BookmarksStore implements Serializable {
 	 * <p>deleteBookmarks.</p>
 	 */
 	public void deleteBookmarks() {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(this.DELETE_BOOKMARKS)) {
 			pstmt.executeUpdate();
 		} catch (final Exception e) {
@@ -73,7 +72,7 @@ public class BookmarksStore implements Serializable {
 	 * @param url a {@link java.lang.String} object.
 	 */
 	public void deleteBookmark(String url) {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(this.DELETE_BOOKMARKS_BY_URL)) {
 			pstmt.setString(1, url.trim());
 			pstmt.executeUpdate();
@@ -95,7 +94,7 @@ public class BookmarksStore implements Serializable {
 			if (num != null) {
 				query = query + " LIMIT " + num;
 			}
-			try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+			try (Connection conn = SQLiteCommon.getConnection();
 					Statement stmt = conn.createStatement();
 					ResultSet rs = stmt.executeQuery(query)) {
 				while (rs != null && rs.next()) {
@@ -121,7 +120,7 @@ public class BookmarksStore implements Serializable {
 	 */
 	public BookmarkInfo getExistingInfo(String item) {
 		BookmarkInfo info = null;
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(this.BOOKMARKS)) {
 			pstmt.setString(1, item);
 			try (ResultSet rs = pstmt.executeQuery()) {
@@ -145,7 +144,7 @@ public class BookmarksStore implements Serializable {
 	 * @param info a {@link org.loboevolution.info.BookmarkInfo} object.
 	 */
 	public void insertBookmark(BookmarkInfo info) {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(this.INSERT_BOOKMARKS)) {
 			pstmt.setString(1, info.getTitle());
 			pstmt.setString(2, info.getDescription());
@@ -25,7 +25,6 @@ import java.net.InetSocketAddress;
 import java.net.PasswordAuthentication;
 import java.net.Proxy;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.logging.Level;
@@ -86,8 +85,12 @@ public class ConnectionStore implements Serializable {
 	 * @return a {@link org.loboevolution.store.ConnectionStore} object.
 	 */
 	public static ConnectionStore getConnection() {
+		return SettingsSnapshot.getInstance().getConnection();
+	}
+
+	static ConnectionStore loadConnection() {
 		final ConnectionStore setting = new ConnectionStore();
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(CONNECTIONS)) {
 			try (ResultSet rs = pstmt.executeQuery()) {
 				while (rs != null && rs.next()) {
@@ -110,12 +113,13 @@ public class ConnectionStore implements Serializable {
 	 * <p>deleteConnection.</p>
 	 */
 	public void deleteConnection() {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(DELETE_CONNECTIONS)) {
 			pstmt.executeUpdate();
 		} catch (final Exception e) {
 			logger.log(Level.SEVERE, e.getMessage(), e);
 		}
+		SettingsSnapshot.invalidate();
 	}
 
 	/**
@@ -196,7 +200,7 @@ public class ConnectionStore implements Serializable {
 	 * <p>insertConnection.</p>
 	 */
 	public void insertConnection() {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(INSERT_CONNECTIONS)) {
 			pstmt.setString(1, getProxyType().name());
 			pstmt.setString(2, getUserName());
@@ -209,6 +213,7 @@ public class ConnectionStore implements Serializable {
 		} catch (final Exception e) {
 			logger.log(Level.SEVERE, e.getMessage(), e);
 		}
+		SettingsSnapshot.invalidate();
 	}
 
 	/**
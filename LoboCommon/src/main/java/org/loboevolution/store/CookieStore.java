@@ -21,7 +21,6 @@
 package org.loboevolution.store;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.text.SimpleDateFormat;
@@ -150,7 +149,7 @@ public class CookieStore {
 	 * @param httponly a boolean.
 	 */
 	public static void saveCookie(String domain, String path, String name, Date expires, String value, String maxAge, boolean secure, boolean httponly) {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(SQLiteCommon.INSERT_COOKIES)) {
 			SimpleDateFormat dateFormatter = new SimpleDateFormat(PATTERN);
 			pstmt.setString(1, name);
@@ -178,7 +177,7 @@ public class CookieStore {
 		List<Cookie> cookies = new ArrayList<>();
 		GeneralStore settings = GeneralStore.getNetwork();
 		if (settings.isCookie()) {
-			try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+			try (Connection conn = SQLiteCommon.getConnection();
 					PreparedStatement pstmt = conn.prepareStatement(SQLiteCommon.COOKIES)) {
 				pstmt.setString(1, hostName);
 				pstmt.setString(2, path);
@@ -22,7 +22,6 @@ package org.loboevolution.store;
 
 import java.net.URL;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.ArrayList;
@@ -53,7 +52,7 @@ public class DownloadStore {
 	 * @param uri a {@link java.lang.String} object.
 	 */
 	public void addAsRecent(String uri) {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(INSERT_DOWNLOAD)) {
 			pstmt.setString(1, new URL(uri).toExternalForm());
 			pstmt.executeUpdate();
@@ -66,7 +65,7 @@ public class DownloadStore {
 	 * <p>deleteDownload.</p>
 	 */
 	public void deleteDownload() {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(DELETE_DOWNLOAD)) {
 			pstmt.executeUpdate();
 		} catch (final Exception e) {
@@ -81,7 +80,7 @@ public class DownloadStore {
 	 */
 	public List<String> getDownload() {
 		final List<String> recent = new ArrayList<>();
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(DOWNLOAD_ORDERED)) {
 			try (ResultSet rs = pstmt.executeQuery()) {
 				while (rs != null && rs.next()) {
@@ -20,20 +20,33 @@
 
 package org.loboevolution.store;
 
+import java.io.File;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.StringTokenizer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.loboevolution.common.IORoutines;
 import org.loboevolution.common.Strings;
 import org.loboevolution.common.Urls;
 import org.loboevolution.net.HttpNetwork;
@@ -41,6 +54,14 @@ import org.loboevolution.net.HttpNetwork;
 /**
  * <p>ExternalResourcesStore class.</p>
  *
+ * HTTP cache of the external style sheets and scripts. Bodies are stored once
+ * on disk, named by their SHA-256, and memory mapped when read back; the
+ * RESOURCE_CACHE table maps every url to its body together with the validators
+ * (ETag, Last-Modified) and the expiration sent by the server. A stale entry is
+ * revalidated with a conditional request and reused when the server answers 304.
+ * Scripts are decoded by their byte order mark, else by the charset of their
+ * Content-Type, else by the charset given by the page, else as UTF-8; the bodies
+ * are stored decoded, in UTF-8.
  *
  *
  */
@@ -49,8 +70,11 @@ public class ExternalResourcesStore {
 	/** The Constant logger. */
 	private static final Logger logger = Logger.getLogger(ExternalResourcesStore.class.getName());
 
-	/** The date pattern. */
-	private static final String DATE_PATTERN = "yyyy-MM-dd hh:mm:ss";
+	/** The directory of the cached bodies. */
+	private static final String RESOURCES_DIR = "resources";
+
+	/** Whether the RESOURCE_CACHE table is known to exist. */
+	private static volatile boolean tableReady;
 
 	/**
 	 * <p>getSourceCache.</p>
@@ -60,132 +84,305 @@ public class ExternalResourcesStore {
 	 * @return a {@link java.lang.String} object.
 	 */
 	public static String getSourceCache(String baseUrl, String type) {
-		String source = "";
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
-				PreparedStatement pstmt = conn.prepareStatement(SQLiteCommon.SOURCE_CACHE)) {
-			pstmt.setString(1, baseUrl);
-			pstmt.setString(2, type);
-			try (ResultSet rs = pstmt.executeQuery()) {
-				while (rs != null && rs.next()) {
-					source = rs.getString(1);
-				}
+		return getSourceCache(baseUrl, type, null);
+	}
+
+	/**
+	 * <p>getSourceCache.</p>
+	 *
+	 * @param baseUrl a {@link java.lang.String} object.
+	 * @param type a {@link java.lang.String} object.
+	 * @param charset the charset of a script given by the page, such as the
+	 *                charset attribute of the script element, or null.
+	 * @return a {@link java.lang.String} object.
+	 */
+	public static String getSourceCache(String baseUrl, String type, String charset) {
+		try {
+			final URL url = toUrl(baseUrl, type);
+			// Render blocking, so fetched in the calling thread rather than
+			// queued behind the images of the ResourceLoader.
+			final boolean http = "http".equals(url.getProtocol()) || "https".equals(url.getProtocol());
+			if (!http || !GeneralStore.getNetwork().isCache()) {
+				return fetch(url, baseUrl, type, null, charset);
 			}
 
-			if (Strings.isBlank(source)) {
-				deleteCache(baseUrl, type);
-				source = sourceResponse(baseUrl, type);
+			final CacheEntry entry = findCache(baseUrl, type);
+			if (entry != null && entry.expires > System.currentTimeMillis()) {
+				return readBody(entry.hash);
 			}
+			return fetch(url, baseUrl, type, entry, charset);
+		} catch (Exception err) {
+			logger.log(Level.SEVERE, err.getMessage(), err);
+			return "";
+		}
+	}
 
+	/**
+	 * Drops every cached resource.
+	 */
+	public static void deleteCache() {
+		try (Connection conn = SQLiteCommon.getConnection();
+				Statement stmt = conn.createStatement()) {
+			stmt.execute(SQLiteCommon.CREATE_RESOURCE_CACHE);
+			stmt.executeUpdate("DELETE FROM RESOURCE_CACHE");
 		} catch (Exception err) {
 			logger.log(Level.SEVERE, err.getMessage(), err);
 		}
-		return source;
 	}
 
-	private static void saveCache(String baseUrl, String source, String type) throws Exception {
-		final URL url = new URL(baseUrl);
-		final URLConnection con = url.openConnection();
-		String eTag = con.getHeaderField("Etag");
-		long lastModified = Urls.getExpiration(con, System.currentTimeMillis());
-		int contentLenght = Integer.parseInt(con.getHeaderField("Content-Length") == null ? "0" : con.getHeaderField("Content-Length"));
-		String cacheControl = con.getHeaderField("Cache-Control");
-		boolean isNoStore = false;
-		if (cacheControl != null) {
-			StringTokenizer tok = new StringTokenizer(cacheControl, ",");
-			while (tok.hasMoreTokens()) {
-				String token = tok.nextToken().trim().toLowerCase();
-				if ("no-store".equals(token)) {
-					isNoStore = true;
+	private static URL toUrl(String scriptURI, String type) throws Exception {
+		URL url;
+		switch (type) {
+		case "CSS":
+			try {
+				if (scriptURI.startsWith("//")) {
+					scriptURI = "http:" + scriptURI;
+				}
+				url = new URL(scriptURI);
+			} catch (MalformedURLException mfu) {
+				int idx = scriptURI.indexOf(':');
+				if (idx == -1 || idx == 1) {
+					url = new URL("file:" + scriptURI);
+				} else {
+					throw mfu;
 				}
 			}
+			break;
+		default:
+			url = new URL(scriptURI);
+			URI uri = new URI(url.getProtocol(), url.getUserInfo(), url.getHost(), url.getPort(), url.getPath(), url.getQuery(), url.getRef());
+			url = uri.toURL();
+			break;
 		}
+		return url;
+	}
 
-		int check = checkCache(baseUrl, contentLenght, eTag, type);
-		if (!isNoStore && check == 0) {
-			insertCache(baseUrl, source, contentLenght, eTag, new Date(lastModified), type);
+	private static String fetch(URL url, String baseUrl, String type, CacheEntry entry, String charset) throws Exception {
+		final Map<String, String> headers = new HashMap<>();
+		if (entry != null) {
+			if (Strings.isNotBlank(entry.etag)) {
+				headers.put("If-None-Match", entry.etag);
+			}
+			if (Strings.isNotBlank(entry.lastModified)) {
+				headers.put("If-Modified-Since", entry.lastModified);
+			}
 		}
+
+		final URLConnection con = HttpNetwork.openConnectionFollowRedirects(url, headers);
+		final int status = con instanceof HttpURLConnection ? ((HttpURLConnection) con).getResponseCode() : HttpURLConnection.HTTP_OK;
+		final long expires = Urls.getExpiration(con, System.currentTimeMillis());
+		if (status == HttpURLConnection.HTTP_NOT_MODIFIED && entry != null) {
+			updateCache(baseUrl, type, expires);
+			return readBody(entry.hash);
+		}
+
+		final String source;
+		try (InputStream in = HttpNetwork.getInputStream(con)) {
+			source = readSource(in, type, con, charset);
+		}
+		if (!(con instanceof HttpURLConnection) || !GeneralStore.getNetwork().isCache()) {
+			return source;
+		}
+
+		final String eTag = con.getHeaderField("ETag");
+		final String lastModified = con.getHeaderField("Last-Modified");
+		final boolean validators = Strings.isNotBlank(eTag) || Strings.isNotBlank(lastModified);
+		if (status == HttpURLConnection.HTTP_OK && !isNoStore(con) && (validators || expires > System.currentTimeMillis())) {
+			saveCache(baseUrl, type, source, eTag, lastModified, expires, entry);
+		} else if (entry != null) {
+			removeCache(baseUrl, type, entry.hash);
+		}
+		return source;
 	}
 
-	private static String sourceResponse(String scriptURI, String type) {
-		String response = "";
-		URL url = null;
-		try {
-			switch (type) {
-			case "CSS":
-				try {
-					if (scriptURI.startsWith("//")) {
-						scriptURI = "http:" + scriptURI;
-					}
-					url = new URL(scriptURI);
-				} catch (MalformedURLException mfu) {
-					int idx = scriptURI.indexOf(':');
-					if (idx == -1 || idx == 1) {
-						url = new URL("file:" + scriptURI);
-					} else {
-						throw mfu;
-					}
-				}
-				break;
-			default:
-				url = new URL(scriptURI);
-				URI uri = new URI(url.getProtocol(), url.getUserInfo(), url.getHost(), url.getPort(), url.getPath(), url.getQuery(), url.getRef());
-				url = uri.toURL();
-				break;
+	private static String readSource(InputStream in, String type, URLConnection con, String charset) throws Exception {
+		if (in == null) {
+			return "";
+		}
+		if ("CSS".equals(type)) {
+			return HttpNetwork.toString(in);
+		}
+		final byte[] bytes = IORoutines.load(in, 8192);
+		if (bytes.length >= 3 && (bytes[0] & 0xFF) == 0xEF && (bytes[1] & 0xFF) == 0xBB && (bytes[2] & 0xFF) == 0xBF) {
+			return new String(bytes, 3, bytes.length - 3, StandardCharsets.UTF_8);
+		}
+		if (bytes.length >= 2 && (bytes[0] & 0xFF) == 0xFE && (bytes[1] & 0xFF) == 0xFF) {
+			return new String(bytes, 2, bytes.length - 2, StandardCharsets.UTF_16BE);
+		}
+		if (bytes.length >= 2 && (bytes[0] & 0xFF) == 0xFF && (bytes[1] & 0xFF) == 0xFE) {
+			return new String(bytes, 2, bytes.length - 2, StandardCharsets.UTF_16LE);
+		}
+		return new String(bytes, getCharset(con, charset));
+	}
+
+	private static Charset getCharset(URLConnection con, String charset) {
+		final String contentType = con.getContentType();
+		String name = charset;
+		if (contentType != null && contentType.toLowerCase().contains("charset=")) {
+			name = Urls.getCharset(con);
+		}
+		if (Strings.isNotBlank(name)) {
+			try {
+				return Charset.forName(name.trim());
+			} catch (Exception e) {
+				logger.log(Level.WARNING, "Unsupported charset " + name + " of " + con.getURL());
 			}
+		}
+		return StandardCharsets.UTF_8;
+	}
 
-			response = HttpNetwork.getSource(url.toString());
-			saveCache(scriptURI, response, type);
-			return response;
-		} catch (Exception err) {
-			logger.log(Level.SEVERE, err.getMessage(), err);
-			return "";
+	private static boolean isNoStore(URLConnection con) {
+		final String cacheControl = con.getHeaderField("Cache-Control");
+		if (cacheControl != null) {
+			final StringTokenizer tok = new StringTokenizer(cacheControl, ",");
+			while (tok.hasMoreTokens()) {
+				if ("no-store".equals(tok.nextToken().trim().toLowerCase())) {
+					return true;
+				}
+			}
 		}
+		return false;
 	}
 
-	private static int checkCache(String baseUrl, int contentLenght, String eTag, String type) {
-		int check = 0;
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
-				PreparedStatement pstmt = conn.prepareStatement(SQLiteCommon.CHECK_CACHE)) {
+	private static CacheEntry findCache(String baseUrl, String type) {
+		try (Connection conn = getConnection();
+				PreparedStatement pstmt = conn.prepareStatement(SQLiteCommon.RESOURCE_CACHE)) {
 			pstmt.setString(1, baseUrl);
-			pstmt.setInt(2, contentLenght);
-			pstmt.setString(3, eTag);
-			pstmt.setString(3, type);
+			pstmt.setString(2, type);
 			try (ResultSet rs = pstmt.executeQuery()) {
-				while (rs != null && rs.next()) {
-					check = rs.getInt(1);
+				if (rs != null && rs.next()) {
+					final CacheEntry entry = new CacheEntry(rs.getString(1), rs.getString(2), rs.getString(3), rs.getLong(4));
+					if (getBodyFile(entry.hash).isFile()) {
+						return entry;
+					}
 				}
 			}
 		} catch (Exception err) {
 			logger.log(Level.SEVERE, err.getMessage(), err);
 		}
-		return check;
+		return null;
 	}
 
-	private static void insertCache(String baseUrl, String source, int contentLenght, String eTag, Date lastModified,
-			String type) {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
-				PreparedStatement pstmt = conn.prepareStatement(SQLiteCommon.INSERT_CACHE)) {
-			SimpleDateFormat dateFormatter = new SimpleDateFormat(DATE_PATTERN);
+	private static void saveCache(String baseUrl, String type, String source, String eTag, String lastModified,
+			long expires, CacheEntry previous) throws Exception {
+		final byte[] body = source.getBytes(StandardCharsets.UTF_8);
+		final String hash = sha256(body);
+		final File file = getBodyFile(hash);
+		if (!file.isFile()) {
+			file.getParentFile().mkdirs();
+			final Path tmp = Files.createTempFile(file.getParentFile().toPath(), hash, ".tmp");
+			Files.write(tmp, body);
+			Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+
+		try (Connection conn = getConnection();
+				PreparedStatement pstmt = conn.prepareStatement(SQLiteCommon.INSERT_RESOURCE_CACHE)) {
 			pstmt.setString(1, baseUrl);
-			pstmt.setString(2, source);
-			pstmt.setInt(3, contentLenght);
-			pstmt.setString(4, eTag);
-			pstmt.setString(5, lastModified != null ? dateFormatter.format(lastModified) : null);
-			pstmt.setString(6, type);
+			pstmt.setString(2, type);
+			pstmt.setString(3, hash);
+			pstmt.setInt(4, body.length);
+			pstmt.setString(5, eTag);
+			pstmt.setString(6, lastModified);
+			pstmt.setLong(7, expires);
+			pstmt.executeUpdate();
+		}
+
+		if (previous != null && !hash.equals(previous.hash)) {
+			deleteOrphan(previous.hash);
+		}
+	}
+
+	private static void updateCache(String baseUrl, String type, long expires) {
+		try (Connection conn = getConnection();
+				PreparedStatement pstmt = conn.prepareStatement(SQLiteCommon.UPDATE_RESOURCE_CACHE)) {
+			pstmt.setLong(1, expires);
+			pstmt.setString(2, baseUrl);
+			pstmt.setString(3, type);
 			pstmt.executeUpdate();
 		} catch (Exception err) {
 			logger.log(Level.SEVERE, err.getMessage(), err);
 		}
 	}
 
-	private static void deleteCache(String baseUrl, String type) {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
-				PreparedStatement pstmt = conn.prepareStatement(SQLiteCommon.DELETE_SOURCE_CACHE)) {
+	private static void removeCache(String baseUrl, String type, String hash) {
+		try (Connection conn = getConnection();
+				PreparedStatement pstmt = conn.prepareStatement(SQLiteCommon.DELETE_RESOURCE_CACHE)) {
 			pstmt.setString(1, baseUrl);
 			pstmt.setString(2, type);
 			pstmt.executeUpdate();
 		} catch (Exception err) {
 			logger.log(Level.SEVERE, err.getMessage(), err);
 		}
+		deleteOrphan(hash);
+	}
+
+	private static void deleteOrphan(String hash) {
+		try (Connection conn = getConnection();
+				PreparedStatement pstmt = conn.prepareStatement(SQLiteCommon.COUNT_RESOURCE_HASH)) {
+			pstmt.setString(1, hash);
+			try (ResultSet rs = pstmt.executeQuery()) {
+				if (rs != null && rs.next() && rs.getInt(1) == 0) {
+					Files.deleteIfExists(getBodyFile(hash).toPath());
+				}
+			}
+		} catch (Exception err) {
+			logger.log(Level.SEVERE, err.getMessage(), err);
+		}
+	}
+
+	private static String readBody(String hash) throws Exception {
+		try (FileChannel channel = FileChannel.open(getBodyFile(hash).toPath(), StandardOpenOption.READ)) {
+			final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return StandardCharsets.UTF_8.decode(buffer).toString();
+		}
+	}
+
+	private static File getBodyFile(String hash) {
+		final File dir = new File(new File(SQLiteCommon.getCacheStore(), RESOURCES_DIR), hash.substring(0, 2));
+		return new File(dir, hash);
+	}
+
+	private static String sha256(byte[] body) throws Exception {
+		final byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+		final StringBuilder sb = new StringBuilder(digest.length * 2);
+		for (final byte b : digest) {
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return sb.toString();
+	}
+
+	private static Connection getConnection() throws Exception {
+		final Connection conn = SQLiteCommon.getConnection();
+		if (!tableReady) {
+			try (Statement stmt = conn.createStatement()) {
+				stmt.execute(SQLiteCommon.CREATE_RESOURCE_CACHE);
+			} catch (Exception e) {
+				conn.close();
+				throw e;
+			}
+			tableReady = true;
+		}
+		return conn;
+	}
+
+	/**
+	 * A row of the RESOURCE_CACHE table.
+	 */
+	private static final class CacheEntry {
+
+		private final String hash;
+
+		private final String etag;
+
+		private final String lastModified;
+
+		private final long expires;
+
+		private CacheEntry(String hash, String etag, String lastModified, long expires) {
+			this.hash = hash;
+			this.etag = etag;
+			this.lastModified = lastModified;
+			this.expires = expires;
+		}
 	}
 }
@@ -24,7 +24,6 @@ import java.awt.GraphicsEnvironment;
 import java.awt.Rectangle;
 import java.io.Serializable;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.ArrayList;
@@ -68,11 +67,13 @@ public class GeneralStore implements Serializable {
 
 	private static final String STARTUP = "SELECT DISTINCT baseUrl FROM STARTUP";
 
+	private static final String USER_AGENT = "SELECT DISTINCT description FROM USER_AGENT";
+
 	/**
 	 * <p>deleteBounds.</p>
 	 */
 	public static void deleteBounds() {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(DELETE_SIZE)) {
 			pstmt.executeUpdate();
 		} catch (final Exception e) {
@@ -84,19 +85,20 @@ public class GeneralStore implements Serializable {
 	 * <p>deleteNetwork.</p>
 	 */
 	public static void deleteNetwork() {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(DELETE_NETWORK)) {
 			pstmt.executeUpdate();
 		} catch (final Exception e) {
 			logger.log(Level.SEVERE, e.getMessage(), e);
 		}
+		SettingsSnapshot.invalidate();
 	}
 
 	/**
 	 * <p>deleteStartUpUrl.</p>
 	 */
 	public static void deleteStartUpUrl() {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(DELETE_STARTUP)) {
 			pstmt.executeUpdate();
 		} catch (final Exception e) {
@@ -108,12 +110,13 @@ public class GeneralStore implements Serializable {
 	 * <p>deleteUserAgent.</p>
 	 */
 	public static void deleteUserAgent() {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(DELETE_USER_AGENT)) {
 			pstmt.executeUpdate();
 		} catch (final Exception e) {
 			logger.log(Level.SEVERE, e.getMessage(), e);
 		}
+		SettingsSnapshot.invalidate();
 	}
 
 	/**
@@ -125,7 +128,7 @@ public class GeneralStore implements Serializable {
 		Rectangle bounds = GraphicsEnvironment.getLocalGraphicsEnvironment().getMaximumWindowBounds();
 		int width = -1;
 		int height = -1;
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(SIZE)) {
 			try (ResultSet rs = pstmt.executeQuery()) {
 				while (rs != null && rs.next()) {
@@ -149,8 +152,21 @@ public class GeneralStore implements Serializable {
 	 * @return a {@link org.loboevolution.store.GeneralStore} object.
 	 */
 	public static GeneralStore getNetwork() {
+		return SettingsSnapshot.getInstance().getNetwork();
+	}
+
+	/**
+	 * <p>getUserAgentValue.</p>
+	 *
+	 * @return a {@link java.lang.String} object.
+	 */
+	public static String getUserAgentValue() {
+		return SettingsSnapshot.getInstance().getUserAgent();
+	}
+
+	static GeneralStore loadNetwork() {
 		final GeneralStore setting = new GeneralStore();
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(NETWORK)) {
 			try (ResultSet rs = pstmt.executeQuery()) {
 				while (rs != null && rs.next()) {
@@ -167,6 +183,21 @@ public class GeneralStore implements Serializable {
 		return setting;
 	}
 
+	static String loadUserAgent() {
+		String userAgent = "";
+		try (Connection conn = SQLiteCommon.getConnection();
+				PreparedStatement pstmt = conn.prepareStatement(USER_AGENT)) {
+			try (ResultSet rs = pstmt.executeQuery()) {
+				while (rs != null && rs.next()) {
+					userAgent = rs.getString(1);
+				}
+			}
+		} catch (final Exception e) {
+			logger.log(Level.SEVERE, e.getMessage(), e);
+		}
+		return userAgent;
+	}
+
 	/**
 	 * <p>getStartupURLs.</p>
 	 *
@@ -174,7 +205,7 @@ public class GeneralStore implements Serializable {
 	 */
 	public static List<String> getStartupURLs() {
 		final List<String> urls = new ArrayList<>();
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(STARTUP)) {
 			try (ResultSet rs = pstmt.executeQuery()) {
 				while (rs != null && rs.next()) {
@@ -193,7 +224,7 @@ public class GeneralStore implements Serializable {
 	 * @param rect a {@link java.awt.Rectangle} object.
 	 */
 	public static void insertBounds(Rectangle rect) {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(INSERT_SIZE)) {
 			pstmt.setInt(1, rect.width);
 			pstmt.setInt(2, rect.height);
@@ -213,7 +244,7 @@ public class GeneralStore implements Serializable {
 	 * @param navigation a boolean.
 	 */
 	public static void insertNetwork(boolean js, boolean css, boolean cookie, boolean cache, boolean navigation) {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(INSERT_NETWORK)) {
 			pstmt.setInt(1, js ? 1 : 0);
 			pstmt.setInt(2, css ? 1 : 0);
@@ -224,6 +255,7 @@ public class GeneralStore implements Serializable {
 		} catch (final Exception e) {
 			logger.log(Level.SEVERE, e.getMessage(), e);
 		}
+		SettingsSnapshot.invalidate();
 	}
 
 	/**
@@ -232,7 +264,7 @@ public class GeneralStore implements Serializable {
 	 * @param url a {@link java.lang.String} object.
 	 */
 	public static void insertStartupUrl(String url) {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(INSERT_STARTUP)) {
 			pstmt.setString(1, url);
 			pstmt.executeUpdate();
@@ -247,13 +279,14 @@ public class GeneralStore implements Serializable {
 	 * @param userAgent a {@link java.lang.String} object.
 	 */
 	public static void insertUserAgent(String userAgent) {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(INSERT_USER_AGENT)) {
 			pstmt.setString(1, userAgent);
 			pstmt.executeUpdate();
 		} catch (final Exception e) {
 			logger.log(Level.SEVERE, e.getMessage(), e);
 		}
+		SettingsSnapshot.invalidate();
 	}
 
 	/**
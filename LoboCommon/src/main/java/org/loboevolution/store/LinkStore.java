@@ -21,7 +21,6 @@
 package org.loboevolution.store;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.logging.Level;
@@ -46,7 +45,7 @@ public class LinkStore {
 	 */
 	public static boolean isVisited(String link) {
         boolean vis = false;
-    	try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+    	try (Connection conn = SQLiteCommon.getConnection();
 			PreparedStatement pstmt = conn.prepareStatement(SQLiteCommon.LINK)) {
     		pstmt.setString(1, link);
 			try (ResultSet rs = pstmt.executeQuery()) {
@@ -66,7 +65,7 @@ public class LinkStore {
 	 * @param link a {@link java.lang.String} object.
 	 */
 	public static void insertLinkVisited(String link) {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(SQLiteCommon.INSERT_LINK)) {
 			pstmt.setString(1, link);
 			pstmt.executeUpdate();
@@ -79,7 +78,7 @@ public class LinkStore {
 	 * <p>deleteLinks.</p>
 	 */
 	public static void deleteLinks() {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				 PreparedStatement pstmt = conn.prepareStatement(SQLiteCommon.DELETE_LINK)) {
 			pstmt.executeUpdate();
 		} catch (Exception e) {
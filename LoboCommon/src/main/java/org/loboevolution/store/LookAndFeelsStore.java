@@ -22,7 +22,6 @@ package org.loboevolution.store;
 
 import java.awt.Color;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -56,7 +55,7 @@ public class LookAndFeelsStore {
 	private Connection connect(String dbPath) {
 		Connection conn = null;
 		try {
-			conn = DriverManager.getConnection(dbPath);
+			conn = SQLiteConnectionPool.getConnection(dbPath);
 		} catch (final Exception e) {
 			logger.log(Level.SEVERE, e.getMessage(), e);
 		}
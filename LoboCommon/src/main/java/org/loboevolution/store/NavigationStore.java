@@ -22,7 +22,6 @@ package org.loboevolution.store;
 
 import java.net.URL;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.ArrayList;
@@ -61,7 +60,7 @@ public class NavigationStore {
 	 * @param title a {@link java.lang.String} object.
 	 */
 	public void addAsRecent(String uri, String title, int index) {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(INSERT_HOST)) {
 			pstmt.setString(1, new URL(uri).toExternalForm());
 			pstmt.setString(2, title);
@@ -76,7 +75,7 @@ public class NavigationStore {
 	 * <p>deleteHost.</p>
 	 */
 	public void deleteHost() {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(DELETE_HOST)) {
 			pstmt.executeUpdate();
 		} catch (final Exception e) {
@@ -90,7 +89,7 @@ public class NavigationStore {
 	 * @param host a {@link java.lang.String} object.
 	 */
 	public void deleteHost(String host) {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(DELETE_HOST_BY_URL)) {
 			pstmt.setString(1, host);
 			pstmt.executeUpdate();
@@ -108,7 +107,7 @@ public class NavigationStore {
 	 */
 	public List<BookmarkInfo> getRecentHost(int index, boolean isTab) {
 		final List<BookmarkInfo> recentHostEntries = new ArrayList<>();
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(isTab ? HOST_TAB : HOST)) {
 			pstmt.setInt(1, index);
 			try (ResultSet rs = pstmt.executeQuery()) {
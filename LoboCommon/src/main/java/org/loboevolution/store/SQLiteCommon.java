@@ -21,6 +21,8 @@
 package org.loboevolution.store;
 
 import java.io.File;
+import java.sql.Connection;
+import java.sql.SQLException;
 
 /**
  * <p>SQLiteCommon class.</p>
@@ -36,15 +38,24 @@ public class SQLiteCommon {
 	/** Constant INSERT_COOKIES="INSERT INTO COOKIE (cookieName, cookieV"{trunked} */
 	public static final String INSERT_COOKIES = "INSERT INTO COOKIE (cookieName, cookieValue, domain, path, expires, maxAge,secure, httponly) VALUES(?,?,?,?,?,?,?,?)";
 
-	/** Constant SOURCE_CACHE="SELECT source FROM cache WHERE baseUrl "{trunked} */
-	public static final String SOURCE_CACHE = "SELECT source FROM cache WHERE baseUrl = ? AND type = ? AND strftime('%Y-%m-%d %H:%M:%S', lastModified) > strftime('%Y-%m-%d %H:%M:%S', 'now', 'localtime')";
-        
-    /** Constant CHECK_CACHE="SELECT count(*) FROM cache WHERE baseUr"{trunked} */
-    public static final String CHECK_CACHE = "SELECT count(*) FROM cache WHERE baseUrl = ? AND contenLenght = ? AND etag = ? AND type = ?";
-    
-    /** Constant INSERT_CACHE="INSERT INTO CACHE (baseUrl, source, con"{trunked} */
-    public static final String INSERT_CACHE = "INSERT INTO CACHE (baseUrl, source, contenLenght, etag, lastModified, type) VALUES(?,?,?,?,?,?)";
-    
+	/** Constant CREATE_RESOURCE_CACHE="CREATE TABLE IF NOT EXISTS RESOURCE_CACHE"{trunked} */
+	public static final String CREATE_RESOURCE_CACHE = "CREATE TABLE IF NOT EXISTS RESOURCE_CACHE (baseUrl text, type text, hash text, contentLength integer, etag text, lastModified text, expires integer, PRIMARY KEY (baseUrl, type))";
+
+	/** Constant RESOURCE_CACHE="SELECT hash, etag, lastModified, expires"{trunked} */
+	public static final String RESOURCE_CACHE = "SELECT hash, etag, lastModified, expires FROM RESOURCE_CACHE WHERE baseUrl = ? AND type = ?";
+
+	/** Constant INSERT_RESOURCE_CACHE="INSERT OR REPLACE INTO RESOURCE_CACHE"{trunked} */
+	public static final String INSERT_RESOURCE_CACHE = "INSERT OR REPLACE INTO RESOURCE_CACHE (baseUrl, type, hash, contentLength, etag, lastModified, expires) VALUES(?,?,?,?,?,?,?)";
+
+	/** Constant UPDATE_RESOURCE_CACHE="UPDATE RESOURCE_CACHE SET expires = ? "{trunked} */
+	public static final String UPDATE_RESOURCE_CACHE = "UPDATE RESOURCE_CACHE SET expires = ? WHERE baseUrl = ? AND type = ?";
+
+	/** Constant DELETE_RESOURCE_CACHE="DELETE FROM RESOURCE_CACHE WHERE baseUr"{trunked} */
+	public static final String DELETE_RESOURCE_CACHE = "DELETE FROM RESOURCE_CACHE WHERE baseUrl = ? AND type = ?";
+
+	/** Constant COUNT_RESOURCE_HASH="SELECT count(*) FROM RESOURCE_CACHE WHE"{trunked} */
+	public static final String COUNT_RESOURCE_HASH = "SELECT count(*) FROM RESOURCE_CACHE WHERE hash = ?";
+
     /** Constant INPUT="SELECT DISTINCT value from INPUT where "{trunked} */
     public static final String INPUT = "SELECT DISTINCT value from INPUT where name = ? and value like ? and baseUrl = ?";
     
@@ -60,9 +71,6 @@ public class SQLiteCommon {
 	/** Constant DELETE_INPUT="DELETE FROM INPUT" */
 	public static final String DELETE_INPUT2 = "DELETE FROM INPUT where value = ? and baseUrl = ?";
 	
-    /** Constant DELETE_SOURCE_CACHE="DELETE FROM cache WHERE baseUrl = ? AND"{trunked} */
-    public static final String DELETE_SOURCE_CACHE = "DELETE FROM cache WHERE baseUrl = ? AND type = ? AND strftime('%Y-%m-%d %H:%M:%S', lastModified) < strftime('%Y-%m-%d %H:%M:%S', 'now', 'localtime')";
-	
     /** Constant DELETE_LINK="DELETE FROM LINK_VISITED" */
     public static final String DELETE_LINK = "DELETE FROM LINK_VISITED";
     
@@ -134,6 +142,16 @@ public class SQLiteCommon {
 		return JDBC_SQLITE + store + "\\" + LOBO_DB;
 	}
 
+	/**
+	 * <p>getConnection.</p>
+	 *
+	 * @return a pooled {@link java.sql.Connection} to the lobo database.
+	 * @throws java.sql.SQLException if any.
+	 */
+	public static Connection getConnection() throws SQLException {
+		return SQLiteConnectionPool.getConnection(getDatabaseDirectory());
+	}
+
 	/**
 	 * <p>getDatabaseStore.</p>
 	 *
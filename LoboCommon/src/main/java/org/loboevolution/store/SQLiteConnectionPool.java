@@ -0,0 +1,415 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.store;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>SQLiteConnectionPool class.</p>
+ *
+ * Keeps physical SQLite connections open between store calls. The connection
+ * handed out is a proxy: closing it returns the physical connection to the pool
+ * and closing a prepared statement only closes its result sets and clears its
+ * parameters, so the compiled statement is reused by the next caller asking
+ * for the same SQL. The statements handed out are proxies as well, answering
+ * the leased connection to getConnection; the ones still open when the
+ * connection is closed are closed with it.
+ *
+ *
+ */
+public final class SQLiteConnectionPool {
+
+	/** The Constant logger. */
+	private static final Logger logger = Logger.getLogger(SQLiteConnectionPool.class.getName());
+
+	/** The max number of idle connections kept open per database. */
+	private static final int MAX_IDLE = 4;
+
+	/** The max number of prepared statements cached per connection. */
+	private static final int MAX_STATEMENTS = 64;
+
+	/** The pools, one for each jdbc url. */
+	private static final Map<String, SQLiteConnectionPool> POOLS = new ConcurrentHashMap<>();
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread(SQLiteConnectionPool::shutdown, "SQLiteConnectionPool-shutdown"));
+	}
+
+	/** The url. */
+	private final String url;
+
+	/** The idle connections. */
+	private final Deque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+
+	/** The number of connections physically opened. */
+	private final AtomicLong opened = new AtomicLong();
+
+	/** The number of connections served from the pool. */
+	private final AtomicLong reused = new AtomicLong();
+
+	/** The number of prepared statements served from the cache. */
+	private final AtomicLong statementHits = new AtomicLong();
+
+	/** The number of prepared statements compiled. */
+	private final AtomicLong statementMisses = new AtomicLong();
+
+	private SQLiteConnectionPool(String url) {
+		this.url = url;
+	}
+
+	/**
+	 * <p>getConnection.</p>
+	 *
+	 * @param url the jdbc url
+	 * @return a pooled {@link java.sql.Connection}, to be closed by the caller.
+	 * @throws java.sql.SQLException if any.
+	 */
+	public static Connection getConnection(String url) throws SQLException {
+		return POOLS.computeIfAbsent(url, SQLiteConnectionPool::new).borrow();
+	}
+
+	/**
+	 * <p>getStatistics.</p>
+	 *
+	 * @param url the jdbc url
+	 * @return a {@link java.lang.String} object.
+	 */
+	public static String getStatistics(String url) {
+		final SQLiteConnectionPool pool = POOLS.get(url);
+		if (pool == null) {
+			return "";
+		}
+		return "opened=" + pool.opened.get() + ", reused=" + pool.reused.get() + ", idle=" + pool.idle.size()
+				+ ", statementHits=" + pool.statementHits.get() + ", statementMisses=" + pool.statementMisses.get();
+	}
+
+	/**
+	 * Closes all the idle connections of every pool.
+	 */
+	public static void shutdown() {
+		for (final SQLiteConnectionPool pool : POOLS.values()) {
+			PooledConnection pc;
+			while ((pc = pool.idle.pollFirst()) != null) {
+				pc.closePhysical();
+			}
+		}
+	}
+
+	private Connection borrow() throws SQLException {
+		PooledConnection pc;
+		while ((pc = idle.pollFirst()) != null) {
+			if (pc.isValid()) {
+				reused.incrementAndGet();
+				return pc.lease();
+			}
+			pc.closePhysical();
+		}
+		pc = new PooledConnection(DriverManager.getConnection(url));
+		opened.incrementAndGet();
+		return pc.lease();
+	}
+
+	private void release(PooledConnection pc) {
+		if (pc.isValid() && idle.size() < MAX_IDLE) {
+			idle.offerFirst(pc);
+		} else {
+			pc.closePhysical();
+		}
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * A physical connection together with its prepared statement cache.
+	 */
+	private final class PooledConnection {
+
+		private final Connection physical;
+
+		private final Map<String, CachedStatement> statements = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+				if (size() > MAX_STATEMENTS && !eldest.getValue().inUse) {
+					eldest.getValue().closePhysical();
+					return true;
+				}
+				return false;
+			}
+		};
+
+		private PooledConnection(Connection physical) throws SQLException {
+			this.physical = physical;
+			try (Statement stmt = physical.createStatement()) {
+				stmt.execute("PRAGMA journal_mode=WAL");
+				stmt.execute("PRAGMA synchronous=NORMAL");
+				stmt.execute("PRAGMA busy_timeout=5000");
+			}
+		}
+
+		private Connection lease() {
+			final LeaseHandler handler = new LeaseHandler(this);
+			handler.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, handler);
+			return handler.proxy;
+		}
+
+		private boolean isValid() {
+			try {
+				return !physical.isClosed();
+			} catch (SQLException e) {
+				return false;
+			}
+		}
+
+		private PreparedStatement prepare(String sql, LeaseHandler lease) throws SQLException {
+			CachedStatement cached = statements.get(sql);
+			if (cached == null) {
+				statementMisses.incrementAndGet();
+				cached = new CachedStatement(physical.prepareStatement(sql), PreparedStatement.class, true);
+				statements.put(sql, cached);
+			} else if (cached.inUse) {
+				statementMisses.incrementAndGet();
+				return (PreparedStatement) lease.track(physical.prepareStatement(sql), PreparedStatement.class);
+			} else {
+				statementHits.incrementAndGet();
+			}
+			cached.inUse = true;
+			cached.lease = lease.proxy;
+			return (PreparedStatement) cached.proxy;
+		}
+
+		private void reset() throws SQLException {
+			for (final CachedStatement cached : statements.values()) {
+				cached.release();
+			}
+			if (!physical.getAutoCommit()) {
+				physical.rollback();
+				physical.setAutoCommit(true);
+			}
+		}
+
+		private void closePhysical() {
+			final Iterator<CachedStatement> it = statements.values().iterator();
+			while (it.hasNext()) {
+				it.next().closePhysical();
+				it.remove();
+			}
+			try {
+				physical.close();
+			} catch (SQLException e) {
+				logger.log(Level.SEVERE, e.getMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * The handler of a leased connection: close gives it back to the pool.
+	 */
+	private final class LeaseHandler implements InvocationHandler {
+
+		private final PooledConnection pc;
+
+		/** The statements outside of the cache handed out by this lease. */
+		private final List<CachedStatement> statements = new ArrayList<>();
+
+		private Connection proxy;
+
+		private boolean closed;
+
+		private LeaseHandler(PooledConnection pc) {
+			this.pc = pc;
+		}
+
+		private Statement track(Statement statement, Class<?> type) {
+			final CachedStatement handler = new CachedStatement(statement, type, false);
+			handler.inUse = true;
+			handler.lease = this.proxy;
+			this.statements.add(handler);
+			return handler.proxy;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "close":
+				if (!closed) {
+					closed = true;
+					for (final CachedStatement statement : statements) {
+						statement.release();
+					}
+					statements.clear();
+					try {
+						pc.reset();
+						release(pc);
+					} catch (SQLException e) {
+						logger.log(Level.SEVERE, e.getMessage(), e);
+						pc.closePhysical();
+					}
+				}
+				return null;
+			case "isClosed":
+				return closed || !pc.isValid();
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "Pooled " + pc.physical;
+			default:
+				break;
+			}
+
+			if (closed) {
+				throw new SQLException("Connection is closed");
+			}
+
+			if ("prepareStatement".equals(method.getName()) && args.length == 1) {
+				return pc.prepare((String) args[0], this);
+			}
+			final Object result = SQLiteConnectionPool.invoke(pc.physical, method, args);
+			if (result instanceof Statement) {
+				return track((Statement) result, method.getReturnType());
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * A statement handed out by a leased connection. A cached one is a prepared
+	 * statement kept open for the lifetime of its connection; any other one is
+	 * closed when it, or its connection, is closed.
+	 */
+	private static final class CachedStatement implements InvocationHandler {
+
+		private final Statement physical;
+
+		private final Statement proxy;
+
+		private final boolean cached;
+
+		/** The result sets opened since the statement was handed out. */
+		private final List<ResultSet> resultSets = new ArrayList<>();
+
+		/** The leased connection the statement was last handed out by. */
+		private Connection lease;
+
+		private boolean inUse;
+
+		private CachedStatement(Statement physical, Class<?> type, boolean cached) {
+			this.physical = physical;
+			this.cached = cached;
+			this.proxy = (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(),
+					new Class<?>[] { type }, this);
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "close":
+				release();
+				return null;
+			case "isClosed":
+				return !inUse || physical.isClosed();
+			case "getConnection":
+				return lease;
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			default:
+				break;
+			}
+			if (!inUse) {
+				throw new SQLException("Statement is closed");
+			}
+			final Object result = SQLiteConnectionPool.invoke(physical, method, args);
+			if (result instanceof ResultSet) {
+				resultSets.add((ResultSet) result);
+			}
+			return result;
+		}
+
+		/**
+		 * Closes the result sets left open and gives the statement back, or
+		 * closes it if it is not cached.
+		 */
+		private void release() {
+			if (!inUse) {
+				return;
+			}
+			inUse = false;
+			lease = null;
+			for (final ResultSet rs : resultSets) {
+				try {
+					rs.close();
+				} catch (SQLException e) {
+					logger.log(Level.SEVERE, e.getMessage(), e);
+				}
+			}
+			resultSets.clear();
+			if (cached) {
+				try {
+					((PreparedStatement) physical).clearParameters();
+				} catch (SQLException e) {
+					logger.log(Level.SEVERE, e.getMessage(), e);
+				}
+			} else {
+				closePhysical();
+			}
+		}
+
+		private void closePhysical() {
+			try {
+				physical.close();
+			} catch (SQLException e) {
+				logger.log(Level.SEVERE, e.getMessage(), e);
+			}
+		}
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.store;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>SettingsSnapshot class.</p>
+ *
+ * In memory copy of the settings read on every request (network flags, user agent,
+ * proxy and search engines). It is loaded on first use and dropped by the stores
+ * whenever one of the settings tables is written.
+ *
+ *
+ */
+public final class SettingsSnapshot {
+
+	/** The lock. */
+	private static final Object LOCK = new Object();
+
+	/** The current snapshot. */
+	private static volatile SettingsSnapshot instance;
+
+	/** The generation, incremented on every invalidation. */
+	private static int generation;
+
+	/** The network. */
+	private final GeneralStore network;
+
+	/** The user agent. */
+	private final String userAgent;
+
+	/** The connection. */
+	private final ConnectionStore connection;
+
+	/** The search engines. */
+	private final List<SearchEngineStore> searchEngines;
+
+	private SettingsSnapshot() {
+		this.network = GeneralStore.loadNetwork();
+		this.userAgent = GeneralStore.loadUserAgent();
+		this.connection = ConnectionStore.loadConnection();
+		this.searchEngines = Collections.unmodifiableList(ToolsStore.loadSearchEngines());
+	}
+
+	/**
+	 * <p>getInstance.</p>
+	 *
+	 * @return the current {@link org.loboevolution.store.SettingsSnapshot}.
+	 */
+	public static SettingsSnapshot getInstance() {
+		SettingsSnapshot snapshot = instance;
+		if (snapshot == null) {
+			final int loadGeneration;
+			synchronized (LOCK) {
+				loadGeneration = generation;
+			}
+			snapshot = new SettingsSnapshot();
+			synchronized (LOCK) {
+				if (loadGeneration == generation) {
+					instance = snapshot;
+				}
+			}
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Drops the current snapshot, the next read goes to the database.
+	 */
+	public static void invalidate() {
+		synchronized (LOCK) {
+			generation++;
+			instance = null;
+		}
+	}
+
+	/**
+	 * <p>Getter for the field network.</p>
+	 *
+	 * @return a {@link org.loboevolution.store.GeneralStore} object.
+	 */
+	public GeneralStore getNetwork() {
+		return network;
+	}
+
+	/**
+	 * <p>Getter for the field userAgent.</p>
+	 *
+	 * @return a {@link java.lang.String} object.
+	 */
+	public String getUserAgent() {
+		return userAgent;
+	}
+
+	/**
+	 * <p>Getter for the field connection.</p>
+	 *
+	 * @return a {@link org.loboevolution.store.ConnectionStore} object.
+	 */
+	public ConnectionStore getConnection() {
+		return connection;
+	}
+
+	/**
+	 * <p>Getter for the field searchEngines.</p>
+	 *
+	 * @return a {@link java.util.List} object.
+	 */
+	public List<SearchEngineStore> getSearchEngines() {
+		return new ArrayList<>(searchEngines);
+	}
+}
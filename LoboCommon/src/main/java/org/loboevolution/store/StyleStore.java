@@ -22,7 +22,6 @@ package org.loboevolution.store;
 
 import java.io.Serializable;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.ArrayList;
@@ -66,7 +65,7 @@ public class StyleStore implements Serializable {
      */
     public List<String> getStyles(String href, String baseUrl) {
         final List<String> values = new ArrayList<>();
-        try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+        try (Connection conn = SQLiteCommon.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(this.STYLE)) {
             pstmt.setString(1, href);
             pstmt.setString(1, baseUrl);
@@ -87,7 +86,7 @@ public class StyleStore implements Serializable {
      * @param title a {@link java.lang.String} object.
      */
     public void selectStyle(String title) {
-        try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+        try (Connection conn = SQLiteCommon.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(UPDATE_STYLE_ALL)) {
             pstmt.executeUpdate();
 
@@ -111,7 +110,7 @@ public class StyleStore implements Serializable {
      */
     public List<String> getStylesAll(String baseUrl) {
         final List<String> values = new ArrayList<>();
-        try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+        try (Connection conn = SQLiteCommon.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(this.STYLE_ALL)) {
             pstmt.setString(1, baseUrl);
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -135,7 +134,7 @@ public class StyleStore implements Serializable {
      */
     public void insertStyle(String title, String href, String baseUrl, int enable) {
 
-        try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+        try (Connection conn = SQLiteCommon.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(DELETE_STYLE_HREF)) {
             pstmt.setString(1, href);
             pstmt.setString(2, baseUrl);
@@ -161,7 +160,7 @@ public class StyleStore implements Serializable {
      * <p>deleteStyle.</p>
      */
     public void deleteStyle() {
-        try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+        try (Connection conn = SQLiteCommon.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(DELETE_STYLE)) {
             pstmt.executeUpdate();
         } catch (final Exception e) {
@@ -21,7 +21,6 @@
 package org.loboevolution.store;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.ArrayList;
@@ -72,7 +71,7 @@ public class TabStore {
 	 * @param title a {@link java.lang.String} object.
 	 */
 	public static void insertTab(Integer index, String url, String title) {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(INSERT_TAB)) {
 			pstmt.setInt(1, index);
 			pstmt.setString(2, url);
@@ -89,7 +88,7 @@ public class TabStore {
 	 * @param index a {@link java.lang.Integer} object.
 	 */
 	public static void deleteTab(Integer index) {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(DELETE_TAB)) {
 			pstmt.setInt(1, index);
 			pstmt.executeUpdate();
@@ -102,7 +101,7 @@ public class TabStore {
 	 * <p>deleteAll.</p>
 	 */
 	public static void deleteAll() {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(DELETE_TAB_ALL)) {
 			pstmt.executeUpdate();
 		} catch (final Exception e) {
@@ -118,7 +117,7 @@ public class TabStore {
 	 */
 	public static String getTab(Integer index) {
 		String url = "";
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(TAB)) {
 			pstmt.setInt(1, index);
 			try (ResultSet rs = pstmt.executeQuery()) {
@@ -139,7 +138,7 @@ public class TabStore {
 	 */
 	public static List<TabInfo> getTabs() {
 		List<TabInfo> urls = new ArrayList<>();
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(TABS)) {
 			try (ResultSet rs = pstmt.executeQuery()) {
 				while (rs != null && rs.next()) {
@@ -163,7 +162,7 @@ public class TabStore {
 	 */
 	public static List<String> getUrls() {
 		List<String> urls = new ArrayList<>();
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(TAB_URL)) {
 			try (ResultSet rs = pstmt.executeQuery()) {
 				while (rs != null && rs.next()) {
@@ -22,7 +22,6 @@ package org.loboevolution.store;
 
 import java.io.Serializable;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
@@ -48,7 +47,7 @@ public class ToolsStore implements Serializable {
 
 	private final String INSERT_SEARCH = "INSERT INTO SEARCH (name, description, type, baseUrl, queryParameter, selected) VALUES(?,?,?,?,?,?)";
 
-	private final String SEARCH2 = "SELECT DISTINCT name, description, baseUrl, queryParameter, type, selected FROM SEARCH WHERE type = 'SEARCH_ENGINE' ORDER BY 6 DESC";
+	private static final String SEARCH2 = "SELECT DISTINCT name, description, baseUrl, queryParameter, type, selected FROM SEARCH WHERE type = 'SEARCH_ENGINE' ORDER BY 6 DESC";
 
 	private final String UPDATE_SEARCH = "UPDATE SEARCH SET selected = 0 WHERE selected = 1 and type = 'SEARCH_ENGINE'";
 
@@ -58,12 +57,13 @@ public class ToolsStore implements Serializable {
 	 * <p>deleteSearchEngine.</p>
 	 */
 	public void deleteSearchEngine() {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(this.DELETE_SEARCH)) {
 			pstmt.executeUpdate();
 		} catch (final Exception e) {
 			logger.log(Level.SEVERE, e.getMessage(), e);
 		}
+		SettingsSnapshot.invalidate();
 	}
 
 	/**
@@ -72,10 +72,14 @@ public class ToolsStore implements Serializable {
 	 * @return a {@link java.util.List} object.
 	 */
 	public List<SearchEngineStore> getSearchEngines() {
+		return SettingsSnapshot.getInstance().getSearchEngines();
+	}
+
+	static List<SearchEngineStore> loadSearchEngines() {
 		final List<SearchEngineStore> searchEngineStores = new ArrayList<>();
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				Statement stmt = conn.createStatement();
-				ResultSet rs = stmt.executeQuery(this.SEARCH2)) {
+				ResultSet rs = stmt.executeQuery(SEARCH2)) {
 			while (rs != null && rs.next()) {
 				final SearchEngineStore se = new SearchEngineStore();
 				se.setName(rs.getString(1));
@@ -117,7 +121,7 @@ public class ToolsStore implements Serializable {
 	 * @param selected a boolean.
 	 */
 	public void insertSearch(String name, String description, String baseUrl, String queryParameter, boolean selected) {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(this.INSERT_SEARCH)) {
 			pstmt.setString(1, name);
 			pstmt.setString(2, description);
@@ -129,6 +133,7 @@ public class ToolsStore implements Serializable {
 		} catch (final Exception e) {
 			logger.log(Level.SEVERE, e.getMessage(), e);
 		}
+		SettingsSnapshot.invalidate();
 	}
 
 	/**
@@ -145,24 +150,26 @@ public class ToolsStore implements Serializable {
 	 * @param name a {@link java.lang.String} object.
 	 */
 	public void selectedSearch(String name) {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(this.UPDATE_SEARCH2)) {
 			pstmt.setString(1, name);
 			pstmt.executeUpdate();
 		} catch (final Exception e) {
 			logger.log(Level.SEVERE, e.getMessage(), e);
 		}
+		SettingsSnapshot.invalidate();
 	}
 
 	/**
 	 * <p>unselectedSearch.</p>
 	 */
 	public void unselectedSearch() {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(this.UPDATE_SEARCH)) {
 			pstmt.executeUpdate();
 		} catch (final Exception e) {
 			logger.log(Level.SEVERE, e.getMessage(), e);
 		}
+		SettingsSnapshot.invalidate();
 	}
 }
@@ -1,6 +1,5 @@
 CREATE TABLE AUTHENTICATION (name text, baseUrl text);
 CREATE TABLE BOOKMARKS (name text, description text, baseUrl text, tags text);
-CREATE TABLE CACHE (baseUrl text, source blob, contenLenght num, etag text, lastModified date, type text);
 CREATE TABLE CHAR (name text, value integer);
 CREATE TABLE COLOR (name text, value text);
 CREATE TABLE COOKIE (cookieName text, cookieValue text, domain text, path text, expires date, maxAge text, secure integer, httponly integer);
@@ -10,6 +9,7 @@ CREATE TABLE FONT_SIZE (name text);
 CREATE TABLE HOST (baseUrl text, name text, tab integer, dt date);
 CREATE TABLE INPUT (name text, value text, baseUrl text);
 CREATE TABLE LOOK_AND_FEEL (acryl integer, aero integer, aluminium integer, bernstein integer, fast integer, graphite integer, hiFi integer,luna integer, mcWin integer, mint integer, noire integer, smart integer, texture integer,bold integer, italic integer, underline integer, strikethrough integer, subscript integer, superscript integer, modern integer, black integer, white integer, fontSize text, font text, color text);
+CREATE TABLE RESOURCE_CACHE (baseUrl text, type text, hash text, contentLength integer, etag text, lastModified text, expires integer, PRIMARY KEY (baseUrl, type));
 CREATE TABLE NETWORK (js integer, css integer, cookie integer, cache integer, navigation integer);
 CREATE TABLE SEARCH (name text, description text, baseUrl text, queryParameter text, selected integer, type text);
 CREATE TABLE STARTUP (baseUrl text);
@@ -23,7 +23,6 @@ package org.loboevolution.http;
 import java.net.URL;
 import java.net.URLConnection;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.text.SimpleDateFormat;
@@ -62,7 +61,7 @@ public class CookieManager {
 	 * <p>deleteCookies.</p>
 	 */
 	public static void deleteCookies() {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(DELETE_COOKIES)) {
 			pstmt.executeUpdate();
 		} catch (final Exception e) {
@@ -93,7 +92,7 @@ public class CookieManager {
 		final List<CookieInfo> cookies = new ArrayList<>();
 		final GeneralStore settings = GeneralStore.getNetwork();
 		if (settings.isCookie()) {
-			try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+			try (Connection conn = SQLiteCommon.getConnection();
 					PreparedStatement pstmt = conn.prepareStatement(SQLiteCommon.COOKIES)) {
 				pstmt.setString(1, hostName);
 				pstmt.setString(2, path);
@@ -239,7 +238,7 @@ public class CookieManager {
 	 */
 	public static void saveCookie(String domain, String path, String name, Date expires, String value, String maxAge,
 			boolean secure, boolean httponly) {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				PreparedStatement pstmt = conn.prepareStatement(SQLiteCommon.INSERT_COOKIES)) {
 			final SimpleDateFormat dateFormatter = new SimpleDateFormat(PATTERN);
 			pstmt.setString(1, name);
@@ -26,7 +26,6 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.InputStream;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
@@ -40,6 +39,7 @@ import org.loboevolution.common.Files;
 import org.loboevolution.common.Strings;
 import org.loboevolution.init.GuiInit;
 import org.loboevolution.store.SQLiteCommon;
+import org.loboevolution.store.SettingsSnapshot;
 
 /**
  * <p>StorageManager class.</p>
@@ -84,6 +84,7 @@ public class StorageManager extends SwingWorker<Void, Void> {
 				Thread.sleep(500);
 				count++;
 			}
+			SettingsSnapshot.invalidate();
 
 			setProgress(Math.min(100, 100));
 			Thread.sleep(1000);
@@ -127,7 +128,7 @@ public class StorageManager extends SwingWorker<Void, Void> {
 	}
 
 	private void populateDatabse(File fl) {
-		try (Connection conn = DriverManager.getConnection(SQLiteCommon.getDatabaseDirectory());
+		try (Connection conn = SQLiteCommon.getConnection();
 				Statement stmt = conn.createStatement()) {
 			String s = new String();
 			final StringBuilder sb = new StringBuilder();
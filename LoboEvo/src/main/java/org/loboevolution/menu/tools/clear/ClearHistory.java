@@ -22,8 +22,10 @@ package org.loboevolution.menu.tools.clear;
 
 import java.io.File;
 
+import org.loboevolution.html.js.ScriptCache;
 import org.loboevolution.http.CookieManager;
 import org.loboevolution.store.BookmarksStore;
+import org.loboevolution.store.ExternalResourcesStore;
 import org.loboevolution.store.NavigationStore;
 import org.loboevolution.store.SQLiteCommon;
 import org.loboevolution.store.ToolsStore;
@@ -51,6 +53,8 @@ public class ClearHistory {
 		final File cacheHome = new File(SQLiteCommon.getCacheStore());
 		deleteRecursive(cacheHome);
 		cacheHome.mkdir();
+		ExternalResourcesStore.deleteCache();
+		ScriptCache.getInstance().clear();
 	}
 
 	/**
@@ -29,8 +29,9 @@ import java.awt.Image;
 import java.awt.Insets;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import javax.swing.SwingUtilities;
 
 import org.loboevolution.common.Strings;
 import org.loboevolution.common.WrapperLayout;
@@ -41,7 +42,8 @@ import org.loboevolution.html.dom.domimpl.HTMLImageElementImpl;
 import org.loboevolution.html.renderer.HtmlController;
 import org.loboevolution.html.style.AbstractCSSProperties;
 import org.loboevolution.html.style.HtmlValues;
-import org.loboevolution.net.HttpNetwork;
+import org.loboevolution.net.ResourceLoader;
+import org.loboevolution.net.ResourcePriority;
 
 /**
  * <p>ImgControl class.</p>
@@ -65,15 +67,17 @@ public class ImgControl extends BaseControl {
 	 *
 	 * @param modelNode a {@link org.loboevolution.html.dom.domimpl.HTMLImageElementImpl} object.
 	 */
-	public ImgControl(HTMLImageElementImpl modelNode, Map<String, Image> map) {
+	public ImgControl(HTMLImageElementImpl modelNode) {
 		super(modelNode);
 		setLayout(WrapperLayout.getInstance());
 		alt = modelNode.getAlt() != null ? modelNode.getAlt() : "";
 
-		image = map.get(modelNode.getSrc());
-		if (image == null) {
-			image = HttpNetwork.getImage(modelNode.getSrc(), modelNode.getOwnerDocument().getBaseURI());
-			map.put(modelNode.getSrc(), image);
+		final ResourcePriority priority = "lazy".equalsIgnoreCase(modelNode.getAttribute("loading")) ? ResourcePriority.OFFSCREEN_IMAGE : ResourcePriority.VISIBLE_IMAGE;
+		final CompletableFuture<Image> future = ResourceLoader.getInstance().loadImage(modelNode.getSrc(), modelNode.getOwnerDocument().getBaseURI(), priority);
+		if (future.isDone()) {
+			image = future.getNow(null);
+		} else {
+			future.thenAccept(img -> SwingUtilities.invokeLater(() -> imageLoaded(img)));
 		}
 		addMouseListener(new MouseAdapter() {
 			@Override
@@ -97,6 +101,14 @@ public class ImgControl extends BaseControl {
 		});
 	}
 
+	private void imageLoaded(Image img) {
+		if (img != null) {
+			this.image = img;
+			this.controlElement.informSizeInvalid();
+			repaint();
+		}
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public Dimension getPreferredSize() {
@@ -20,8 +20,6 @@
 package org.loboevolution.html.control;
 
 import java.awt.*;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.loboevolution.common.WrapperLayout;
 import org.loboevolution.html.dom.domimpl.HTMLInputElementImpl;
@@ -37,26 +35,22 @@ public class InputControl extends BaseControl {
 	private static final long serialVersionUID = 1L;
 	
 	private final HTMLInputElementImpl  modelNode;
-
-	private Map<String, Image> map;
 	
 	/**
 	 * <p>Constructor for InputControl.</p>
 	 * @param modelNode a {@link org.loboevolution.html.dom.domimpl.HTMLInputElementImpl} object.
-	 * @param map a {@link java.util.Map} object.
 	 */
-	public InputControl(HTMLInputElementImpl modelNode,  Map<String, Image> map) {
+	public InputControl(HTMLInputElementImpl modelNode) {
 		super(modelNode);
 		setLayout(WrapperLayout.getInstance());
 		this.modelNode = modelNode;
-		this.map = map;
 	}
 
 	/** {@inheritDoc} */
 	@Override
 	public void reset(final int availWidth, final int availHeight) {
 		super.reset(availWidth, availHeight);
-		modelNode.draw(this, map);
+		modelNode.draw(this);
 	}
 	
 	/**
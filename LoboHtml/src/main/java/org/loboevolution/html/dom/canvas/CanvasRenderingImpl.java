@@ -648,7 +648,15 @@ public class CanvasRenderingImpl implements CanvasRenderingContext2D {
 	/** {@inheritDoc} */
 	@Override
 	public ImageData getImageData(int sx, int sy, int sw, int sh) {
-		return new ImageDataImpl(image, sw, sh);
+		final ImageDataImpl data = new ImageDataImpl(sw, sh);
+		final Graphics2D graphics = data.getImage().createGraphics();
+		try {
+			graphics.setComposite(AlphaComposite.Src);
+			graphics.drawImage(image, -sx, -sy, null);
+		} finally {
+			graphics.dispose();
+		}
+		return data;
 	}
 
 	/** {@inheritDoc} */
@@ -691,10 +699,23 @@ public class CanvasRenderingImpl implements CanvasRenderingContext2D {
 	/** {@inheritDoc} */
 	@Override
 	public void putImageData(ImageData imagedata, int dx, int dy, int dirtyX, int dirtyY, int dirtyWidth, int dirtyHeight) {
-		Graphics2D graphics = createGraphics();
-		BufferedImage image = (BufferedImage)imagedata.getData();
-		graphics.drawImage(image, dx, dy, null);
-    }
+		final BufferedImage source = ((ImageDataImpl) imagedata).getImage();
+		final int x = Math.max(dirtyX, 0);
+		final int y = Math.max(dirtyY, 0);
+		final int w = Math.min(dirtyX + dirtyWidth, source.getWidth()) - x;
+		final int h = Math.min(dirtyY + dirtyHeight, source.getHeight()) - y;
+		if (w <= 0 || h <= 0) {
+			return;
+		}
+		// the pixels replace the ones of the canvas, whatever the transform
+		final Graphics2D graphics = image.createGraphics();
+		try {
+			graphics.setComposite(AlphaComposite.Src);
+			graphics.drawImage(source, dx + x, dy + y, dx + x + w, dy + y + h, x, y, x + w, y + h, null);
+		} finally {
+			graphics.dispose();
+		}
+	}
 
 	/** {@inheritDoc} */
 	@Override
@@ -19,40 +19,79 @@
  */
 package org.loboevolution.html.dom.canvas;
 
+import java.awt.Transparency;
+import java.awt.color.ColorSpace;
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
 
 import org.loboevolution.html.dom.ImageData;
+import org.mozilla.javascript.typedarrays.NativeArrayBuffer;
+import org.mozilla.javascript.typedarrays.NativeUint8ClampedArray;
 
 /**
  * <p>ImageDataImpl class.</p>
  *
+ * The pixels are held once, as non premultiplied RGBA bytes, by an
+ * ArrayBuffer: the Uint8ClampedArray given to JavaScript and the image drawn
+ * on the canvas are views of the same array, so that neither reading nor
+ * writing the data copies it.
  *
  *
  */
 public class ImageDataImpl implements ImageData {
 
+	private static final ColorModel RGBA = new ComponentColorModel(ColorSpace.getInstance(ColorSpace.CS_sRGB), true,
+			false, Transparency.TRANSLUCENT, DataBuffer.TYPE_BYTE);
+
 	private final int width;
 	
 	private final int height;
 	
+	private final NativeArrayBuffer buffer;
+
 	private final BufferedImage image;
 
+	private NativeUint8ClampedArray data;
+
 	/**
 	 * <p>Constructor for ImageDataImpl.</p>
 	 *
-	 * @param image a {@link java.awt.image.BufferedImage} object.
 	 * @param sw a int.
 	 * @param sh a int.
 	 */
-	public ImageDataImpl(BufferedImage image, int sw, int sh) {
-		this.image = image;
-		this.width = sw;
-		this.height = sh;
+	public ImageDataImpl(int sw, int sh) {
+		this.width = Math.max(sw, 1);
+		this.height = Math.max(sh, 1);
+		final int length = this.width * this.height * 4;
+		this.buffer = new NativeArrayBuffer(length);
+		final byte[] bytes = this.buffer.getBuffer();
+		final WritableRaster raster = Raster.createInterleavedRaster(new DataBufferByte(bytes, length), this.width,
+				this.height, this.width * 4, 4, new int[] { 0, 1, 2, 3 }, null);
+		this.image = new BufferedImage(RGBA, raster, false, null);
 	}
 
 	/** {@inheritDoc} */
 	@Override
 	public Object getData() {
+		synchronized (this) {
+			if (data == null) {
+				data = new NativeUint8ClampedArray(buffer, 0, buffer.getLength());
+			}
+			return data;
+		}
+	}
+
+	/**
+	 * <p>Getter for the field image.</p>
+	 *
+	 * @return the image sharing the pixels of the data.
+	 */
+	public BufferedImage getImage() {
 		return image;
 	}
 
@@ -23,6 +23,7 @@ package org.loboevolution.html.dom.domimpl;
 import org.loboevolution.common.Strings;
 import org.loboevolution.html.dom.*;
 import org.loboevolution.html.dom.filter.*;
+import org.loboevolution.html.dom.nodeimpl.LiveNodeList;
 import org.loboevolution.html.dom.nodeimpl.NodeImpl;
 import org.loboevolution.html.dom.nodeimpl.TextImpl;
 import org.loboevolution.html.dom.xpath.XPathEvaluatorImpl;
@@ -45,9 +46,12 @@ import org.loboevolution.jsenum.VisibilityState;
 
 import java.io.IOException;
 import java.io.LineNumberReader;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * <p>DocumentImpl class.</p>
@@ -78,6 +82,12 @@ public class DocumentImpl extends GlobalEventHandlersImpl implements Document, X
 
 	public WritableLineReader reader;
 
+	/** The elements connected to the document with an id, in tree order for each id. */
+	private final Map<String, List<Element>> elementsById = new HashMap<>();
+
+	/** The number of changes of the tree and of the attributes of its elements. */
+	private final AtomicInteger modificationCount = new AtomicInteger();
+
 	/** {@inheritDoc} */
 	@Override
 	public Node adoptNode(Node source) {
@@ -193,8 +203,159 @@ public class DocumentImpl extends GlobalEventHandlersImpl implements Document, X
 	/** {@inheritDoc} */
 	@Override
 	public Element getElementById(String elementId) {
-		NodeList nodeList = getNodeList(new IdFilter(elementId));
-		return nodeList != null && nodeList.getLength() > 0 ? (Element)nodeList.item(0) : null;
+		if (Strings.isBlank(elementId)) {
+			return null;
+		}
+		synchronized (this.elementsById) {
+			final List<Element> elements = this.elementsById.get(elementId);
+			if (elements == null) {
+				return null;
+			}
+			for (Element element : elements) {
+				if (elementId.equals(element.getId()) && ((NodeImpl) element).getConnectedDocument() == this) {
+					return element;
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * <p>Getter for the field modificationCount.</p>
+	 *
+	 * @return the number of changes of the tree and of the attributes of its elements.
+	 */
+	public int getModificationCount() {
+		return this.modificationCount.get();
+	}
+
+	/**
+	 * <p>incrementModificationCount.</p>
+	 */
+	public void incrementModificationCount() {
+		this.modificationCount.incrementAndGet();
+	}
+
+	/**
+	 * <p>getElementsById.</p>
+	 *
+	 * @param elementId a {@link java.lang.String} object.
+	 * @return the elements connected to the document with the given id, in tree order.
+	 */
+	public List<Element> getElementsById(String elementId) {
+		final List<Element> result = new ArrayList<>();
+		if (Strings.isNotBlank(elementId)) {
+			synchronized (this.elementsById) {
+				final List<Element> elements = this.elementsById.get(elementId);
+				if (elements != null) {
+					for (Element element : elements) {
+						if (elementId.equals(element.getId()) && ((NodeImpl) element).getConnectedDocument() == this) {
+							result.add(element);
+						}
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the elements with an id of a subtree just connected to the document to
+	 * the id index.
+	 *
+	 * @param node the root of the subtree.
+	 */
+	public void indexElements(NodeImpl node) {
+		if (node instanceof Element) {
+			final String id = ((Element) node).getId();
+			if (Strings.isNotBlank(id)) {
+				addElementById(id, (Element) node);
+			}
+		}
+		node.getNodeList().forEach(child -> indexElements((NodeImpl) child));
+	}
+
+	/**
+	 * Removes the elements of a subtree just disconnected from the document from
+	 * the id index.
+	 *
+	 * @param node the root of the subtree.
+	 */
+	public void unindexElements(NodeImpl node) {
+		if (node instanceof Element) {
+			final String id = ((Element) node).getId();
+			if (Strings.isNotBlank(id)) {
+				removeElementById(id, (Element) node);
+			}
+		}
+		node.getNodeList().forEach(child -> unindexElements((NodeImpl) child));
+	}
+
+	/**
+	 * Moves a connected element to its new id in the id index.
+	 *
+	 * @param oldId the previous id, or null.
+	 * @param newId the new id, or null.
+	 * @param element the element.
+	 */
+	void updateElementId(String oldId, String newId, Element element) {
+		if (Strings.isNotBlank(oldId)) {
+			removeElementById(oldId, element);
+		}
+		if (Strings.isNotBlank(newId)) {
+			addElementById(newId, element);
+		}
+	}
+
+	private void addElementById(String id, Element element) {
+		synchronized (this.elementsById) {
+			final List<Element> elements = this.elementsById.computeIfAbsent(id, k -> new ArrayList<>(1));
+			if (elements.contains(element)) {
+				return;
+			}
+			int index = elements.size();
+			while (index > 0 && compareTreeOrder(elements.get(index - 1), element) > 0) {
+				index--;
+			}
+			elements.add(index, element);
+		}
+	}
+
+	private void removeElementById(String id, Element element) {
+		synchronized (this.elementsById) {
+			final List<Element> elements = this.elementsById.get(id);
+			if (elements != null && elements.remove(element) && elements.isEmpty()) {
+				this.elementsById.remove(id);
+			}
+		}
+	}
+
+	private static int compareTreeOrder(Node first, Node second) {
+		final List<Node> firstPath = getAncestors(first);
+		final List<Node> secondPath = getAncestors(second);
+		int depth = 0;
+		while (depth < firstPath.size() && depth < secondPath.size() && firstPath.get(depth) == secondPath.get(depth)) {
+			depth++;
+		}
+		if (depth == 0) {
+			return 1;
+		}
+		if (depth == firstPath.size()) {
+			return -1;
+		}
+		if (depth == secondPath.size()) {
+			return 1;
+		}
+		final NodeImpl parent = (NodeImpl) firstPath.get(depth - 1);
+		return Integer.compare(parent.getChildIndex(firstPath.get(depth)), parent.getChildIndex(secondPath.get(depth)));
+	}
+
+	private static List<Node> getAncestors(Node node) {
+		final LinkedList<Node> path = new LinkedList<>();
+		for (Node n = node; n != null; n = n.getParentNode()) {
+			path.addFirst(n);
+		}
+		return new ArrayList<>(path);
 	}
 
 	/** {@inheritDoc} */
@@ -495,12 +656,8 @@ public class DocumentImpl extends GlobalEventHandlersImpl implements Document, X
 	/** {@inheritDoc} */
 	@Override
 	public HTMLHeadElement getHead() {
-		synchronized (this) {
-			final List<Node> list = new LinkedList<>(Arrays.asList(this.getNodeList(new HeadFilter()).toArray()));
-			HTMLCollection collection =  new HTMLCollectionImpl(this, list);
-			if(collection.getLength() > 0) return (HTMLHeadElement)collection.item(0);
-			else return null;
-		}
+		final List<Node> list = new LiveNodeList(this, new HeadFilter(), true);
+		return list.isEmpty() ? null : (HTMLHeadElement) list.get(0);
 	}
 
 	/** {@inheritDoc} */
@@ -508,10 +665,8 @@ public class DocumentImpl extends GlobalEventHandlersImpl implements Document, X
 	public HTMLElement getBody() {
 		synchronized (this) {
 			if(this.body != null) return this.body;
-			final List<Node> list = new LinkedList<>(Arrays.asList(this.getNodeList(new HeadFilter()).toArray()));
-			HTMLCollection collection =  new HTMLCollectionImpl(this, list);
-			if(collection.getLength() > 0) return (HTMLElement) collection.item(0);
-			else return null;
+			final List<Node> list = new LiveNodeList(this, new HeadFilter(), true);
+			return list.isEmpty() ? null : (HTMLElement) list.get(0);
 		}
 	}
 
@@ -524,48 +679,32 @@ public class DocumentImpl extends GlobalEventHandlersImpl implements Document, X
 	/** {@inheritDoc} */
 	@Override
 	public HTMLCollection getApplets() {
-		synchronized (this) {
-			final List<Node> list = new LinkedList<>(Arrays.asList(this.getNodeList(new ElementFilter("APPLET")).toArray()));
-			return new HTMLCollectionImpl(this, list);
-		}
+		return new HTMLCollectionImpl(this, new LiveNodeList(this, new ElementFilter("APPLET"), true));
 	}
 
 	/** {@inheritDoc} */
 	@Override
 	public HTMLCollection getImages() {
-        synchronized (this) {
-			final List<Node> list = new LinkedList<>(Arrays.asList(this.getNodeList(new ImageFilter()).toArray()));
-			return  new HTMLCollectionImpl(this, list);
-        }
-    }
+		return new HTMLCollectionImpl(this, new LiveNodeList(this, new ImageFilter(), true));
+	}
 	
 	/** {@inheritDoc} */
 	@Override
 	public HTMLCollection getLinks() {
-        synchronized (this) {
-			final List<Node> list = new LinkedList<>(Arrays.asList(this.getNodeList(new LinkFilter()).toArray()));
-			return  new HTMLCollectionImpl(this, list);
-		}
-    }
+		return new HTMLCollectionImpl(this, new LiveNodeList(this, new LinkFilter(), true));
+	}
 	
-    /** {@inheritDoc} */
-    @Override
-    public HTMLCollection getForms() {
-        synchronized (this) {
-			final List<Node> list = new LinkedList<>(Arrays.asList(this.getNodeList(new FormFilter()).toArray()));
-			return  new HTMLCollectionImpl(this, list);
-        }
-    }
-        
-    
-    /** {@inheritDoc} */
-    @Override
-    public HTMLCollection getEmbeds() {
-        synchronized (this) {
-			final List<Node> list = new LinkedList<>(Arrays.asList(this.getNodeList(new EmbedFilter()).toArray()));
-			return  new HTMLCollectionImpl(this, list);
-        }
-    }
+	/** {@inheritDoc} */
+	@Override
+	public HTMLCollection getForms() {
+		return new HTMLCollectionImpl(this, new LiveNodeList(this, new FormFilter(), true));
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public HTMLCollection getEmbeds() {
+		return new HTMLCollectionImpl(this, new LiveNodeList(this, new EmbedFilter(), true));
+	}
 
     /** {@inheritDoc} */
     @Override
@@ -573,43 +712,34 @@ public class DocumentImpl extends GlobalEventHandlersImpl implements Document, X
         return getEmbeds();
     }
 
-    /** {@inheritDoc} */
-    @Override
-    public HTMLCollection getScripts() {
-        synchronized (this) {
-			final List<Node> list = new LinkedList<>(Arrays.asList(this.getNodeList(new ScriptFilter()).toArray()));
-			return  new HTMLCollectionImpl(this, list);
-        }
-    }
+	/** {@inheritDoc} */
+	@Override
+	public HTMLCollection getScripts() {
+		return new HTMLCollectionImpl(this, new LiveNodeList(this, new ScriptFilter(), true));
+	}
 
-    /** {@inheritDoc} */
-    @Override
-    public HTMLCollection getCommands() {
-        synchronized (this) {
-			final List<Node> list = new LinkedList<>(Arrays.asList(this.getNodeList(new CommandFilter()).toArray()));
-			return  new HTMLCollectionImpl(this, list);
-        }
-    }
+	/** {@inheritDoc} */
+	@Override
+	public HTMLCollection getCommands() {
+		return new HTMLCollectionImpl(this, new LiveNodeList(this, new CommandFilter(), true));
+	}
     
 	/** {@inheritDoc} */
     @Override
 	public HTMLCollection getAnchors() {
-		final List<Node> list = new LinkedList<>(Arrays.asList(this.getNodeList(new AnchorFilter()).toArray()));
-		return new HTMLCollectionImpl(this, list);
+		return new HTMLCollectionImpl(this, new LiveNodeList(this, new AnchorFilter(), true));
 	}
     
 	/** {@inheritDoc} */
     @Override
 	public HTMLCollection getAll() {
-		final List<Node> list = new LinkedList<>(Arrays.asList(this.getNodeList(new ElementFilter(null)).toArray()));
-		return new HTMLCollectionImpl(this, list);
+		return new HTMLCollectionImpl(this, new LiveNodeList(this, new ElementFilter(null), true));
 	}
     
     /** {@inheritDoc} */
     @Override
 	public HTMLCollection getElementsByName(String elementName) {
-		final List<Node> list = new LinkedList<>(Arrays.asList(this.getNodeList(new ElementNameFilter(elementName)).toArray()));
-		return new HTMLCollectionImpl(this, list);
+		return new HTMLCollectionImpl(this, new LiveNodeList(this, new ElementNameFilter(elementName), true));
 	}
 
 	/** {@inheritDoc} */
@@ -833,7 +963,7 @@ public class DocumentImpl extends GlobalEventHandlersImpl implements Document, X
 	}
 
 	public void removeAllChildrenImpl() {
-		this.nodeList.clear();
+		clearChildren();
 		if (!this.notificationsSuspended) {
 			informStructureInvalid();
 		}
@@ -31,6 +31,7 @@ import org.loboevolution.html.node.*;
 import org.loboevolution.html.parser.HtmlParser;
 import org.loboevolution.html.renderer.RBlock;
 import org.loboevolution.html.style.AbstractCSSProperties;
+import org.loboevolution.html.style.CompiledSelector;
 import org.loboevolution.html.style.HtmlValues;
 import org.loboevolution.http.HtmlRendererContext;
 
@@ -69,25 +70,29 @@ public class ElementImpl extends WindowEventHandlersImpl implements Element {
 	 * <p>assignAttributeField.</p>
 	 */
 	protected void assignAttributeField(String normalName, String value) {
-		boolean isName = false;
-		if ("id".equals(normalName) || (isName = "name".equals(normalName))) {
-			if (!isName) {
-				this.id = value;
-			}
+		if ("id".equals(normalName)) {
+			updateId(value);
+		} else if ("name".equals(normalName)) {
 			final HTMLDocumentImpl document = (HTMLDocumentImpl) this.document;
 			if (document != null) {
-				document.setElementById(value, this);
-				if (isName) {
-					final String oldName = getAttribute("name");
-					if (oldName != null) {
-						document.removeNamedItem(oldName);
-					}
-					document.setNamedItem(value, this);
+				final String oldName = getAttribute("name");
+				if (oldName != null) {
+					document.removeNamedItem(oldName);
 				}
+				document.setNamedItem(value, this);
 			}
 		}
 	}
 
+	private void updateId(String value) {
+		final String oldId = this.id;
+		this.id = value;
+		final DocumentImpl document = getConnectedDocument();
+		if (document != null) {
+			document.updateElementId(oldId, value, this);
+		}
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public boolean equalAttributes(Node arg) {
@@ -320,20 +325,29 @@ public class ElementImpl extends WindowEventHandlersImpl implements Element {
 				attributes.remove(normalName);
 			}
 		}
+		if ("id".equals(normalName)) {
+			updateId(null);
+		}
+		countModification();
 	}
 
 	/** {@inheritDoc} */
 	@Override
 	public Attr removeAttributeNode(Attr oldAttr) {
 		final String normalName = Strings.normalizeAttributeName(oldAttr.getName());
+		final String oldValue;
 		synchronized (this) {
 			final Map<String, String> attributes = this.attributes;
 			if (attributes == null) {
 				return null;
 			}
-			final String oldValue = attributes.remove(normalName);
-			return oldValue == null ? null : getAttr(normalName, oldValue);
+			oldValue = attributes.remove(normalName);
 		}
+		if ("id".equals(normalName)) {
+			updateId(null);
+		}
+		countModification();
+		return oldValue == null ? null : getAttr(normalName, oldValue);
 	}
 
 	/** {@inheritDoc} */
@@ -349,6 +363,7 @@ public class ElementImpl extends WindowEventHandlersImpl implements Element {
 			attribs.put(normalName, value);
 		}
 		assignAttributeField(normalName, value);
+		countModification();
 	}
 
 	/** {@inheritDoc} */
@@ -364,6 +379,7 @@ public class ElementImpl extends WindowEventHandlersImpl implements Element {
 			// this.setIdAttribute(normalName, newAttr.isId());
 		}
 		assignAttributeField(normalName, value);
+		countModification();
 		return newAttr;
 	}
 
@@ -411,7 +427,7 @@ public class ElementImpl extends WindowEventHandlersImpl implements Element {
 	public void setInnerText(String newText) {
 		final Document document = this.document;
 		if (document != null) {
-			this.nodeList.clear();
+			clearChildren();
 			final Node textNode = document.createTextNode(newText);
 			appendChild(textNode);
 		} else {
@@ -460,7 +476,7 @@ public class ElementImpl extends WindowEventHandlersImpl implements Element {
 		final HTMLDocumentImpl document = (HTMLDocumentImpl) this.document;
 		if (document != null) {
 			final HtmlParser parser = new HtmlParser(document.getUserAgentContext(), document, null, false);
-			this.nodeList.clear();
+			clearChildren();
 			try {
 				try (Reader reader = new StringReader(newHtml)) {
 					parser.parse(reader, this);
@@ -578,7 +594,7 @@ public class ElementImpl extends WindowEventHandlersImpl implements Element {
 			final HTMLDocumentImpl document = (HTMLDocumentImpl) this.document;
 			if (document != null) {
 				final HtmlParser parser = new HtmlParser(document.getUserAgentContext(), document, null, false);
-				this.nodeList.clear();
+				clearChildren();
 				try {
 					try (Reader reader = new StringReader(newHtml)) {
 						parser.parse(reader, this);
@@ -608,8 +624,17 @@ public class ElementImpl extends WindowEventHandlersImpl implements Element {
 
 	/** {@inheritDoc} */
 	@Override
+	@SuppressWarnings("unchecked")
 	public <E extends Element> E closest(String selector) {
-		// TODO Auto-generated method stub
+		final CompiledSelector compiled = CompiledSelector.compile(selector);
+		if (compiled == null) {
+			return null;
+		}
+		for (Node node = this; node instanceof Element; node = node.getParentNode()) {
+			if (compiled.matches((Element) node)) {
+				return (E) node;
+			}
+		}
 		return null;
 	}
 
@@ -630,8 +655,8 @@ public class ElementImpl extends WindowEventHandlersImpl implements Element {
 	/** {@inheritDoc} */
 	@Override
 	public boolean matches(String selectors) {
-		// TODO Auto-generated method stub
-		return false;
+		final CompiledSelector compiled = CompiledSelector.compile(selectors);
+		return compiled != null && compiled.matches(this);
 	}
 
 	/** {@inheritDoc} */
@@ -21,20 +21,18 @@
 package org.loboevolution.html.dom.domimpl;
 
 import com.gargoylesoftware.css.dom.DOMException;
-import com.gargoylesoftware.css.parser.selector.Selector;
-import com.gargoylesoftware.css.parser.selector.SelectorList;
 import org.loboevolution.html.dom.HTMLCollection;
 import org.loboevolution.html.dom.filter.ClassNameFilter;
 import org.loboevolution.html.dom.filter.ElementFilter;
 import org.loboevolution.html.dom.filter.TagNameFilter;
+import org.loboevolution.html.dom.nodeimpl.LiveNodeList;
 import org.loboevolution.html.dom.nodeimpl.NodeImpl;
 import org.loboevolution.html.dom.nodeimpl.NodeListImpl;
 import org.loboevolution.html.js.Executor;
 import org.loboevolution.html.node.*;
 import org.loboevolution.html.node.events.Event;
 import org.loboevolution.html.node.events.EventTarget;
-import org.loboevolution.html.style.CSSUtilities;
-import org.loboevolution.html.style.StyleSheetAggregator;
+import org.loboevolution.html.style.CompiledSelector;
 import org.mozilla.javascript.Function;
 import org.w3c.dom.EntityReference;
 import org.w3c.dom.TypeInfo;
@@ -60,9 +58,9 @@ public class EventTargetImpl extends NodeImpl implements EventTarget {
 	 */
 	public HTMLCollection getElementsByTagName(String tagname) {
 		if ("*".equals(tagname)) {
-			return new HTMLCollectionImpl(this, Arrays.asList(this.getNodeList(new ElementFilter(null)).toArray()));
+			return new HTMLCollectionImpl(this, new LiveNodeList(this, new ElementFilter(null), true));
 		} else {
-			return new HTMLCollectionImpl(this, Arrays.asList(this.getNodeList(new TagNameFilter(tagname)).toArray()));
+			return new HTMLCollectionImpl(this, new LiveNodeList(this, new TagNameFilter(tagname), true));
 		}
 	}
 	
@@ -73,7 +71,7 @@ public class EventTargetImpl extends NodeImpl implements EventTarget {
 	 * @return a {@link org.loboevolution.html.node.NodeList} object.
 	 */
 	public HTMLCollection getElementsByClassName(String classNames) {
-		return new HTMLCollectionImpl(this, Arrays.asList(this.getNodeList(new ClassNameFilter(classNames)).toArray()));
+		return new HTMLCollectionImpl(this, new LiveNodeList(this, new ClassNameFilter(classNames), true));
 
 	}
 	
@@ -85,19 +83,13 @@ public class EventTargetImpl extends NodeImpl implements EventTarget {
      * @return a {@link org.loboevolution.html.node.Element} object.
      */
     public Element querySelector(String selectors) {
-    	SelectorList selectorList = CSSUtilities.getSelectorList(selectors);
-    	List<Element> elem = new ArrayList<>();
-    	if (selectorList != null) {
-    		NodeListImpl childNodes = (NodeListImpl) getDescendents(new ElementFilter(null), true);
-    		childNodes.forEach(child -> {
-    			for (Selector selector : selectorList) {                	
-                	if (child instanceof Element && StyleSheetAggregator.selects(selector, child, null)) {
-                		elem.add((Element)child);
-                    }
-                }
-    		});    		
-        }
-        return elem.size() > 0  ? elem.get(0) : null;
+    	final CompiledSelector compiled = CompiledSelector.compile(selectors);
+    	if (compiled == null) {
+    		return null;
+    	}
+    	synchronized (this.treeLock) {
+    		return compiled.first(this);
+    	}
     }
     
     /**
@@ -108,10 +100,8 @@ public class EventTargetImpl extends NodeImpl implements EventTarget {
      */
     public NodeList querySelectorAll(String selector) {
 
-		final ArrayList<Node> al = new ArrayList<>();
-
 		if(selector == null) {
-			return new NodeListImpl(al);
+			return new NodeListImpl(new ArrayList<>());
 		}
 
     	if(selector.isEmpty()){
@@ -122,20 +112,15 @@ public class EventTargetImpl extends NodeImpl implements EventTarget {
 			throw new DOMException(DOMException.NOT_FOUND_ERR, "is not a valid selector.");
 		}
 
-    	SelectorList selectorList = CSSUtilities.getSelectorList(selector);
-    	if (selectorList != null) {
-    		NodeListImpl childNodes = (NodeListImpl) getDescendents(new ElementFilter(null), true);
-    		childNodes.forEach(child -> {
-                for (Selector select : selectorList) {
-                	if (child instanceof Element && StyleSheetAggregator.selects(select, child, null)) {
-                        al.add(child);
-                    }
-                }
-    		});
-        }
-        return new NodeListImpl(al);
+    	final CompiledSelector compiled = CompiledSelector.compile(selector);
+    	if (compiled == null) {
+    		return new NodeListImpl(new ArrayList<>());
+    	}
+    	synchronized (this.treeLock) {
+    		return new NodeListImpl(compiled.all(this));
+    	}
     }
-		
+
 	/**
 	 * {@inheritDoc}
 	 *
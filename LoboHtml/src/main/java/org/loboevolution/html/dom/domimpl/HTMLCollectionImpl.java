@@ -21,6 +21,7 @@
 package org.loboevolution.html.dom.domimpl;
 
 import org.loboevolution.html.dom.HTMLCollection;
+import org.loboevolution.html.dom.nodeimpl.LiveNodeList;
 import org.loboevolution.html.dom.nodeimpl.NodeImpl;
 import org.loboevolution.html.node.Document;
 import org.loboevolution.html.node.Element;
@@ -70,6 +71,9 @@ public class HTMLCollectionImpl extends AbstractList<Node> implements HTMLCollec
 	public Node item(Object index) {
 		try {
 			double idx = Double.parseDouble(index.toString());
+			if (getList() instanceof LiveNodeList) {
+				return idx < 0 ? null : ((LiveNodeList) getList()).item((int) idx);
+			}
 			if (idx >= getLength() || idx == -1) return null;
 			return this.get((int) idx);
 		} catch (NumberFormatException e) {
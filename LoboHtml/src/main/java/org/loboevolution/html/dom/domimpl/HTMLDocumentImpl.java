@@ -24,11 +24,11 @@ package org.loboevolution.html.dom.domimpl;
 
 import com.gargoylesoftware.css.dom.DOMException;
 import org.loboevolution.common.Urls;
-import org.loboevolution.html.dom.HTMLCollection;
 import org.loboevolution.html.dom.HTMLDocument;
 import org.loboevolution.html.dom.HTMLElement;
 import org.loboevolution.html.dom.filter.BodyFilter;
 import org.loboevolution.html.dom.filter.HeadFilter;
+import org.loboevolution.html.dom.nodeimpl.LiveNodeList;
 import org.loboevolution.html.dom.nodeimpl.NodeImpl;
 import org.loboevolution.html.io.LocalErrorHandler;
 import org.loboevolution.html.io.WritableLineReader;
@@ -79,8 +79,6 @@ public class HTMLDocumentImpl extends DocumentImpl implements HTMLDocument, Docu
 
 	private URL documentURL;
 
-    private final Map<String, Element> elementsById = new HashMap<>();
-
 	private final Map<String, Element> elementsByName = new HashMap<>();
 
 	private Set<Locale> locales;
@@ -325,15 +323,8 @@ public class HTMLDocumentImpl extends DocumentImpl implements HTMLDocument, Docu
 	/** {@inheritDoc} */
     @Override
 	public HTMLHeadElementImpl getHead() {
-		synchronized (this) {
-			final List<Node> list = new LinkedList<>(Arrays.asList(this.getNodeList(new HeadFilter()).toArray()));
-			HTMLCollection collection = new HTMLCollectionImpl(this, list);
-			if (collection.getLength() > 0) {
-				return (HTMLHeadElementImpl) collection.item(0);
-			} else {
-				return null;
-			}
-		}
+		final List<Node> list = new LiveNodeList(this, new HeadFilter(), true);
+		return list.isEmpty() ? null : (HTMLHeadElementImpl) list.get(0);
 	}
     
 	/** {@inheritDoc} */
@@ -341,13 +332,8 @@ public class HTMLDocumentImpl extends DocumentImpl implements HTMLDocument, Docu
 	public HTMLElement getBody() {
 		synchronized (this) {
 			if (this.body == null) {
-				final List<Node> list = new LinkedList<>(Arrays.asList(this.getNodeList(new BodyFilter()).toArray()));
-				HTMLCollection collection = new HTMLCollectionImpl(this, list);
-				if (collection.getLength() > 0) {
-					return (HTMLElement) collection.item(0);
-				} else {
-					return null;
-				}
+				final List<Node> list = new LiveNodeList(this, new BodyFilter(), true);
+				return list.isEmpty() ? null : (HTMLElement) list.get(0);
 			}
             return this.body;
 		}
@@ -609,15 +595,6 @@ public class HTMLDocumentImpl extends DocumentImpl implements HTMLDocument, Docu
 		this.defaultTarget = value;
 	}
 
-	/**
-	 * Caller should synchronize on document.
-	 */
-	void setElementById(String id, Element element) {
-		synchronized (this) {
-			this.elementsById.put(id, element);
-		}
-	}
-
 	/**
 	 * Sets the locales of the document. This helps determine whether specific fonts
 	 * can display text in the languages of all the locales.
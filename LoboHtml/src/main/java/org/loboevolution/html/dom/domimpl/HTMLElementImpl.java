@@ -276,6 +276,7 @@ public class HTMLElementImpl extends ElementImpl implements HTMLElement, CSSProp
 			sds.setStyleDeclarations(localStyle.getStyleDeclarations());
 		}
 
+		sds.shareValues();
 		sds.setLocalStyleProperties(localStyle);
 
 		synchronized (this) {
@@ -314,6 +315,7 @@ public class HTMLElementImpl extends ElementImpl implements HTMLElement, CSSProp
 		if (sds == null) {
 			sds = new AbstractCSSProperties(this);
 		}
+		sds.shareValues();
 		sds.setLocalStyleProperties(localStyle);
 		synchronized (this) {
 			final AbstractCSSProperties setProps = this.currentStyleDeclarationState;
@@ -446,6 +448,7 @@ public class HTMLElementImpl extends ElementImpl implements HTMLElement, CSSProp
 					this.warn("Unable to parse style attribute value for element " + getTagName() + withId + " in " + getDocumentURL() + ".", err);
 				}
 			}
+			sds.shareValues();
 			this.localStyleDeclarationState = sds;
 		}
 		// Synchronization note: Make sure getStyle() does not return multiple values.
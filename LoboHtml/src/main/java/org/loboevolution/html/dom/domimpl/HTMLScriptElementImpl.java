@@ -22,25 +22,20 @@
  */
 package org.loboevolution.html.dom.domimpl;
 
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.net.SocketTimeoutException;
 import java.net.URL;
-import java.net.URLConnection;
-import java.util.MissingResourceException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.loboevolution.common.Strings;
 import org.loboevolution.html.dom.HTMLScriptElement;
 import org.loboevolution.html.js.Executor;
+import org.loboevolution.html.js.ScriptCache;
 import org.loboevolution.html.parser.HtmlParser;
 import org.loboevolution.html.renderstate.DisplayRenderState;
 import org.loboevolution.html.renderstate.RenderState;
 import org.loboevolution.http.UserAgentContext;
-import org.loboevolution.net.HttpNetwork;
+import org.loboevolution.store.ExternalResourcesStore;
+import org.loboevolution.store.GeneralStore;
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.RhinoException;
 import org.mozilla.javascript.Scriptable;
@@ -162,46 +157,48 @@ public class HTMLScriptElementImpl extends HTMLElementImpl implements HTMLScript
 		}
 
 		if (bcontext.isScriptingEnabled()) {
-			final Context ctx = Executor.createContext(getDocumentURL(), bcontext);
-			ctx.setLanguageVersion(Context.VERSION_1_8);
-			ctx.setOptimizationLevel(-1);
+			// the source is fetched here, the script thread only runs it
 			final String src = getSrc();
+			final String scriptURI;
+			final String source;
+			final boolean external = Strings.isNotBlank(src);
 			try {
-				if (Strings.isNotBlank(src)) {
+				if (external) {
 					final URL scriptURL = ((HTMLDocumentImpl) doc).getFullURL(src);
-					final String scriptURI = scriptURL == null ? src : scriptURL.toExternalForm();
-					final URL u = new URL(scriptURI);
-					final URLConnection connection = u.openConnection();
-					connection.setRequestProperty("User-Agent", HttpNetwork.getUserAgentValue());
-					try (InputStream in = HttpNetwork.openConnectionCheckRedirects(connection);
-							Reader reader = new InputStreamReader(in, "utf-8")) {
-						BufferedReader br = new BufferedReader(reader);						
-						ctx.evaluateReader(scope, br, scriptURI, 1, null);
-					} catch (SocketTimeoutException e) {
-						logger.log(Level.SEVERE, "More than " + connection.getConnectTimeout() + " elapsed.");
-				    } catch (Exception e) {
-						if (e instanceof MissingResourceException) {
-							logger.log(Level.INFO, e.getMessage());
-						} else{
-							logger.log(Level.SEVERE, e.getMessage(), e);
-						}
-
-					}
+					scriptURI = scriptURL == null ? src : scriptURL.toExternalForm();
+					source = ExternalResourcesStore.getSourceCache(scriptURI, "JS", getCharset());
 				} else {
-					String scriptURI = doc.getBaseURI();
+					scriptURI = doc.getBaseURI();
 					text = getText();
-					ctx.evaluateString(scope, text, scriptURI, 1, null);
+					source = text;
 				}
-			} catch (final RhinoException ecmaError) {
-				final String error = ecmaError.sourceName() + ":" + ecmaError.lineNumber() + ": " + ecmaError.getMessage();
-				logger.log(Level.WARNING, "Javascript error at " + error, ecmaError.getMessage());
-			} catch (java.util.MissingResourceException mre) {
-				logger.log(Level.WARNING, mre.getMessage());
 			} catch (final Throwable err) {
-				logger.log(Level.WARNING, "Unable to evaluate Javascript code", err);
-			} finally {
-				Context.exit();
+				logger.log(Level.WARNING, "Unable to load Javascript code", err);
+				return;
 			}
+			Executor.invokeAndWait(doc, () -> {
+				runScript(scope, bcontext, source, scriptURI, external);
+				return null;
+			});
+		}
+	}
+
+	private void runScript(Scriptable scope, UserAgentContext bcontext, String source, String scriptURI, boolean external) {
+		final Context ctx = Executor.createContext(getDocumentURL(), bcontext);
+		ctx.setLanguageVersion(Context.VERSION_1_8);
+		ctx.setOptimizationLevel(-1);
+		try {
+			final boolean persistent = external && GeneralStore.getNetwork().isCache();
+			ScriptCache.getInstance().getScript(ctx, source, scriptURI, persistent).exec(ctx, scope);
+		} catch (final RhinoException ecmaError) {
+			final String error = ecmaError.sourceName() + ":" + ecmaError.lineNumber() + ": " + ecmaError.getMessage();
+			logger.log(Level.WARNING, "Javascript error at " + error, ecmaError.getMessage());
+		} catch (java.util.MissingResourceException mre) {
+			logger.log(Level.WARNING, mre.getMessage());
+		} catch (final Throwable err) {
+			logger.log(Level.WARNING, "Unable to evaluate Javascript code", err);
+		} finally {
+			Context.exit();
 		}
 	}
 
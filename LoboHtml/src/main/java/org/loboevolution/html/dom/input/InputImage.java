@@ -30,18 +30,20 @@ import java.awt.Transparency;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
 import java.awt.image.PixelGrabber;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.swing.ImageIcon;
 import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
 
 import org.loboevolution.html.control.InputControl;
 import org.loboevolution.html.dom.domimpl.HTMLDocumentImpl;
 import org.loboevolution.html.dom.domimpl.HTMLInputElementImpl;
 import org.loboevolution.html.style.HtmlValues;
-import org.loboevolution.net.HttpNetwork;
+import org.loboevolution.net.ResourceLoader;
+import org.loboevolution.net.ResourcePriority;
 
 /**
  * <p>InputImage class.</p>
@@ -59,22 +61,27 @@ public class InputImage {
 	 * @param modelNode a {@link org.loboevolution.html.dom.domimpl.HTMLInputElementImpl} object.
 	 * @param ic a {@link org.loboevolution.html.control.InputControl} object.
 	 */
-	public InputImage(HTMLInputElementImpl modelNode, InputControl ic, Map<String, Image> map) {
+	public InputImage(HTMLInputElementImpl modelNode, InputControl ic) {
 		this.modelNode = modelNode;
-		final Image img = map.get(modelNode.getSrc());
-
-		BufferedImage image;
-		if (img == null) {
-			image = toBufferedImage(HttpNetwork.getImage(modelNode.getSrc(), modelNode.getOwnerDocument().getBaseURI()));
-			map.put(modelNode.getSrc(), image);
-		} else{
-			image = toBufferedImage(img);
+		final JLabel wIcon = new JLabel();
+		final CompletableFuture<Image> future = ResourceLoader.getInstance().loadImage(modelNode.getSrc(), modelNode.getOwnerDocument().getBaseURI(), ResourcePriority.VISIBLE_IMAGE);
+		if (future.isDone()) {
+			imageLoaded(wIcon, future.getNow(null));
+		} else {
+			future.thenAccept(loaded -> SwingUtilities.invokeLater(() -> {
+				imageLoaded(wIcon, loaded);
+				modelNode.informSizeInvalid();
+			}));
 		}
-
-		JLabel wIcon = new JLabel(new ImageIcon(image));
 		ic.add(wIcon);
 	}
 
+	private void imageLoaded(JLabel wIcon, Image img) {
+		if (img != null) {
+			wIcon.setIcon(new ImageIcon(toBufferedImage(img)));
+		}
+	}
+
 	private BufferedImage toBufferedImage(Image image) {
 		image = new ImageIcon(image).getImage();
 		boolean hasAlpha = hasAlpha(image);
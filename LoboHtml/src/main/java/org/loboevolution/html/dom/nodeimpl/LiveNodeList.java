@@ -0,0 +1,172 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.html.dom.nodeimpl;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.loboevolution.html.dom.NodeFilter;
+import org.loboevolution.html.dom.domimpl.DocumentImpl;
+import org.loboevolution.html.node.Node;
+
+/**
+ * <p>LiveNodeList class.</p>
+ *
+ * The children or descendants of a node accepted by a filter, in tree order,
+ * backing the live collections. The nodes are collected only as far as they
+ * are read, and are collected again once the modification count of the
+ * document has changed.
+ *
+ *
+ */
+public class LiveNodeList extends AbstractList<Node> implements RandomAccess {
+
+	private final NodeImpl rootNode;
+
+	private final NodeFilter filter;
+
+	private final boolean deep;
+
+	private final List<Node> nodes = new ArrayList<>();
+
+	/** The position of the walk, or null once every node has been collected. */
+	private Cursor cursor;
+
+	/** The modification count the nodes were collected at. */
+	private int modificationCount;
+
+	private boolean started;
+
+	/**
+	 * <p>Constructor for LiveNodeList.</p>
+	 *
+	 * @param rootNode a {@link org.loboevolution.html.dom.nodeimpl.NodeImpl} object.
+	 * @param filter a {@link org.loboevolution.html.dom.NodeFilter} object.
+	 * @param deep true for the descendants of rootNode, false for its children.
+	 */
+	public LiveNodeList(NodeImpl rootNode, NodeFilter filter, boolean deep) {
+		this.rootNode = rootNode;
+		this.filter = filter;
+		this.deep = deep;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Node get(int index) {
+		synchronized (this.rootNode.treeLock) {
+			if (index < 0 || !collect(index)) {
+				throw new IndexOutOfBoundsException("Index: " + index);
+			}
+			return this.nodes.get(index);
+		}
+	}
+
+	/**
+	 * <p>item.</p>
+	 *
+	 * @param index a int.
+	 * @return the node at index, or null.
+	 */
+	public Node item(int index) {
+		synchronized (this.rootNode.treeLock) {
+			return index >= 0 && collect(index) ? this.nodes.get(index) : null;
+		}
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public int size() {
+		synchronized (this.rootNode.treeLock) {
+			collect(Integer.MAX_VALUE);
+			return this.nodes.size();
+		}
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public boolean isEmpty() {
+		synchronized (this.rootNode.treeLock) {
+			return !collect(0);
+		}
+	}
+
+	/**
+	 * Collects the nodes up to index.
+	 *
+	 * @return true if the list has a node at index.
+	 */
+	private boolean collect(int index) {
+		final DocumentImpl doc = getDocument();
+		final int count = doc == null ? 0 : doc.getModificationCount();
+		if (!this.started || doc == null || count != this.modificationCount) {
+			this.nodes.clear();
+			this.cursor = new Cursor(this.rootNode, null);
+			this.modificationCount = count;
+			this.started = true;
+		}
+
+		while (this.nodes.size() <= index && this.cursor != null) {
+			if (this.cursor.index >= this.cursor.size) {
+				this.cursor = this.cursor.up;
+				continue;
+			}
+			final Node child = this.cursor.parent.nodeList.get(this.cursor.index++);
+			if (this.deep && child instanceof NodeImpl && ((NodeImpl) child).hasChildNodes()) {
+				this.cursor = new Cursor((NodeImpl) child, this.cursor);
+			}
+			if (this.filter.acceptNode(child)) {
+				this.nodes.add(child);
+			}
+		}
+		return this.nodes.size() > index;
+	}
+
+	private DocumentImpl getDocument() {
+		final DocumentImpl doc = this.rootNode.getConnectedDocument();
+		if (doc != null) {
+			return doc;
+		}
+		final Object owner = this.rootNode.getOwnerDocument();
+		return owner instanceof DocumentImpl ? (DocumentImpl) owner : null;
+	}
+
+	/**
+	 * A node being walked and the index of its next child.
+	 */
+	private static final class Cursor {
+
+		private final NodeImpl parent;
+
+		private final Cursor up;
+
+		private final int size;
+
+		private int index;
+
+		private Cursor(NodeImpl parent, Cursor up) {
+			this.parent = parent;
+			this.up = up;
+			this.size = parent.nodeList.size();
+		}
+	}
+}
@@ -30,6 +30,7 @@ import org.loboevolution.html.dom.HTMLCollection;
 import org.loboevolution.html.dom.HTMLElement;
 import org.loboevolution.html.dom.NodeFilter;
 import org.loboevolution.html.dom.domimpl.*;
+import org.loboevolution.html.dom.filter.ElementFilter;
 import org.loboevolution.html.dom.filter.TextFilter;
 import org.loboevolution.html.node.*;
 import org.loboevolution.html.parser.HtmlParser;
@@ -71,6 +72,9 @@ public abstract class NodeImpl extends AbstractScriptableDelegate implements Nod
 
 	private RenderState renderState = INVALID_RENDER_STATE;
 
+	/** The index in the child list of the parent, as of the last lookup. */
+	int siblingIndex = -1;
+
 	protected volatile Object treeLock = this;
 
 	protected UINode uiNode;
@@ -90,10 +94,10 @@ public abstract class NodeImpl extends AbstractScriptableDelegate implements Nod
 	@Override
 	public Node appendChild(Node newChild) {
 		synchronized (this.treeLock) {
+			checkHierarchy(newChild);
+			detachFromParent(newChild);
 			nodeList.add(newChild);
-			if (newChild instanceof NodeImpl) {
-				((NodeImpl) newChild).setParentImpl(this);
-			}
+			childAttached(newChild);
 		}
 		if (!this.notificationsSuspended) {
 			informStructureInvalid();
@@ -313,7 +317,7 @@ public abstract class NodeImpl extends AbstractScriptableDelegate implements Nod
 	 * @return a int.
 	 */
 	public int getChildIndex(Node child) {
-		return this.nodeList.indexOf(child);
+		return this.nodeList.indexOfNode(child);
 	}
 
 	/** {@inheritDoc} */
@@ -331,7 +335,7 @@ public abstract class NodeImpl extends AbstractScriptableDelegate implements Nod
 		synchronized (this) {
 			HTMLCollection collection = this.childrenCollection;
 			if (collection == null) {
-				collection = new HTMLCollectionImpl(this);
+				collection = new HTMLCollectionImpl(this, new LiveNodeList(this, new ElementFilter(null), false));
 				this.childrenCollection = collection;
 			}
 			return collection;
@@ -515,30 +519,27 @@ public abstract class NodeImpl extends AbstractScriptableDelegate implements Nod
 	public Element getNextElementSibling() {
 		final NodeImpl parent = (NodeImpl) this.getParentNode();
 		if (parent != null) {
-			Node next = this;
-			do {
-				next = parent.getNextTo(next);
+			final NodeListImpl siblings = parent.nodeList;
+			for (int i = parent.getIndexOf(this) + 1; i < siblings.getLength(); i++) {
+				final Node next = siblings.item(i);
 				if (next instanceof Element) {
 					return (Element) next;
 				}
-			} while (next != null);
+			}
 		}
 		return null;
 	}
 
 	private Node getNextTo(Node node) {
-		int idx = this.nodeList.indexOf(node);
+		return this.nodeList.item(getIndexOf(node) + 1);
+	}
+
+	private int getIndexOf(Node node) {
+		final int idx = this.nodeList.indexOfNode(node);
 		if (idx == -1) {
 			throw new DOMException(DOMException.NOT_FOUND_ERR, "node not found");
 		}
-
-		int size = this.nodeList.getLength();
-		int index = idx + 1;
-		if (size > index) {
-			return this.nodeList.item(index);
-		} else {
-			return null;
-		}
+		return idx;
 	}
 
 	private int getNodeIndex() {
@@ -635,30 +636,19 @@ public abstract class NodeImpl extends AbstractScriptableDelegate implements Nod
 	public Element getPreviousElementSibling() {
 		final NodeImpl parent = (NodeImpl) this.getParentNode();
 		if (parent != null) {
-			Node previous = this;
-			do {
-				previous = parent.getPreviousTo(previous);
+			final NodeListImpl siblings = parent.nodeList;
+			for (int i = parent.getIndexOf(this) - 1; i >= 0; i--) {
+				final Node previous = siblings.item(i);
 				if (previous instanceof Element) {
 					return (Element) previous;
 				}
-			} while (previous != null);
+			}
 		}
 		return null;
 	}
 
 	private Node getPreviousTo(Node node) {
-		final int idx = this.nodeList.indexOf(node);
-		if (idx == -1) {
-			throw new DOMException(DOMException.NOT_FOUND_ERR, "node not found");
-		}
-		
-		int size = this.nodeList.getLength();
-		int index = idx - 1;
-		if (size > index && index > -1) {
-			return this.nodeList.item(index);
-		} else {
-			return null;
-		}
+		return this.nodeList.item(getIndexOf(node) - 1);
 	}
 	
 
@@ -856,14 +846,16 @@ public abstract class NodeImpl extends AbstractScriptableDelegate implements Nod
 	 * @return a {@link org.loboevolution.html.node.Node} object.
 	 */
 	public Node insertAfter(Node newChild, Node refChild) {
-		final int idx = this.nodeList.indexOf(refChild);
-		if (idx == -1) {
+		checkHierarchy(newChild);
+		if (!this.nodeList.contains(refChild)) {
 			throw new DOMException(DOMException.NOT_FOUND_ERR, "refChild not found");
 		}
-		this.nodeList.add(idx + 1, newChild);
-		if (newChild instanceof NodeImpl) {
-			((NodeImpl) newChild).setParentImpl(this);
+		if (newChild == refChild) {
+			return newChild;
 		}
+		detachFromParent(newChild);
+		this.nodeList.add(this.nodeList.indexOf(refChild) + 1, newChild);
+		childAttached(newChild);
 
 		if (!this.notificationsSuspended) {
 			informStructureInvalid();
@@ -880,10 +872,9 @@ public abstract class NodeImpl extends AbstractScriptableDelegate implements Nod
 	 * @throws org.w3c.dom.DOMException if any.
 	 */
 	protected Node insertAt(Node newChild, int idx) {
+		checkHierarchy(newChild);
 		this.nodeList.add(idx, newChild);
-		if (newChild instanceof NodeImpl) {
-			((NodeImpl) newChild).setParentImpl(this);
-		}
+		childAttached(newChild);
 
 		if (!this.notificationsSuspended) {
 			informStructureInvalid();
@@ -903,14 +894,16 @@ public abstract class NodeImpl extends AbstractScriptableDelegate implements Nod
 				return newChild;
 			}
 
-			final int idx = this.nodeList.indexOf(refChild);
-			if (idx == -1) {
+			checkHierarchy(newChild);
+			if (!this.nodeList.contains(refChild)) {
 				throw new DOMException(DOMException.NOT_FOUND_ERR, "refChild not found");
 			}
-			this.nodeList.add(idx, newChild);
-			if (newChild instanceof NodeImpl) {
-				((NodeImpl) newChild).setParentImpl(this);
+			if (newChild == refChild) {
+				return newChild;
 			}
+			detachFromParent(newChild);
+			this.nodeList.add(this.nodeList.indexOf(refChild), newChild);
+			childAttached(newChild);
 		}
 		if (!this.notificationsSuspended) {
 			informStructureInvalid();
@@ -1015,6 +1008,7 @@ public abstract class NodeImpl extends AbstractScriptableDelegate implements Nod
 			if (!this.nodeList.remove(oldChild)) {
 				throw new DOMException(DOMException.NOT_FOUND_ERR, "oldChild not found");
 			}
+			childDetached(oldChild);
 		}
 		if (!this.notificationsSuspended) {
 			informStructureInvalid();
@@ -1035,6 +1029,7 @@ public abstract class NodeImpl extends AbstractScriptableDelegate implements Nod
 			if (n == null) {
 				throw new DOMException(DOMException.INDEX_SIZE_ERR, "No node with that index");
 			}
+			childDetached(n);
 			return n;
 		} finally {
 			if (!this.notificationsSuspended) {
@@ -1073,7 +1068,7 @@ public abstract class NodeImpl extends AbstractScriptableDelegate implements Nod
 				}
 			}
 		});
-		if (index.get() > -1) nodeList.remove(index.get());
+		if (index.get() > -1) childDetached(nodeList.remove(index.get()));
 	}
 
 	/**
@@ -1112,6 +1107,7 @@ public abstract class NodeImpl extends AbstractScriptableDelegate implements Nod
 				textNode.setOwnerDocument(this.document);
 				textNode.setParentImpl(this);
 				this.nodeList.add(firstIdx, textNode);
+				countModification();
 				return textNode;
 		} finally {
 			if (!this.notificationsSuspended) {
@@ -1154,6 +1150,7 @@ public abstract class NodeImpl extends AbstractScriptableDelegate implements Nod
 			textNode.setOwnerDocument(this.document);
 			textNode.setParentImpl(this);
 			this.nodeList.add(firstIdx, textNode);
+			countModification();
 			return textNode;
 
 		} finally {
@@ -1166,13 +1163,20 @@ public abstract class NodeImpl extends AbstractScriptableDelegate implements Nod
 	/** {@inheritDoc} */
 	@Override
 	public Node replaceChild(Node newChild, Node oldChild) {
-	
-			final int idx = this.nodeList.indexOf(oldChild);
-			if (idx == -1) {
+		synchronized (this.treeLock) {
+			checkHierarchy(newChild);
+			if (!this.nodeList.contains(oldChild)) {
 				throw new DOMException(DOMException.NOT_FOUND_ERR, "oldChild not found");
 			}
-			this.nodeList.set(idx, newChild);
-		
+			if (newChild != oldChild) {
+				detachFromParent(newChild);
+			}
+			this.nodeList.set(this.nodeList.indexOf(oldChild), newChild);
+			if (newChild != oldChild) {
+				childDetached(oldChild);
+				childAttached(newChild);
+			}
+		}
 		if (!this.notificationsSuspended) {
 			informStructureInvalid();
 		}
@@ -1226,6 +1230,104 @@ public abstract class NodeImpl extends AbstractScriptableDelegate implements Nod
 		}
 	}
 
+	/**
+	 * <p>clearChildren.</p>
+	 *
+	 * Removes all the children without informing the document.
+	 */
+	protected void clearChildren() {
+		nodeList.forEach(this::childDetached);
+		nodeList.clear();
+	}
+
+	/**
+	 * Rejects a node about to be inserted under itself or one of its descendants.
+	 */
+	private void checkHierarchy(Node newChild) {
+		for (Node node = this; node != null; node = node.getParentNode()) {
+			if (node == newChild) {
+				throw new DOMException(DOMException.HIERARCHY_REQUEST_ERR, "The new child is an ancestor of the parent");
+			}
+		}
+	}
+
+	/**
+	 * Takes a node about to be inserted out of its current parent.
+	 */
+	private static void detachFromParent(Node child) {
+		if (child instanceof NodeImpl) {
+			final Node parent = ((NodeImpl) child).parentNode;
+			if (parent instanceof NodeImpl) {
+				final NodeImpl parentImpl = (NodeImpl) parent;
+				if (parentImpl.nodeList.remove(child)) {
+					parentImpl.childDetached(child);
+					if (!parentImpl.notificationsSuspended) {
+						parentImpl.informStructureInvalid();
+					}
+				}
+			}
+		}
+	}
+
+	private void childAttached(Node child) {
+		if (child instanceof NodeImpl) {
+			final NodeImpl node = (NodeImpl) child;
+			node.setParentImpl(this);
+			final DocumentImpl doc = getConnectedDocument();
+			if (doc != null) {
+				doc.indexElements(node);
+			}
+			countModification(doc);
+		}
+	}
+
+	private void childDetached(Node child) {
+		if (child instanceof NodeImpl) {
+			final NodeImpl node = (NodeImpl) child;
+			final DocumentImpl doc = getConnectedDocument();
+			if (doc != null) {
+				doc.unindexElements(node);
+			}
+			countModification(doc);
+			if (node.parentNode == this) {
+				node.setParentImpl(null);
+			}
+		}
+	}
+
+	/**
+	 * <p>countModification.</p>
+	 *
+	 * Counts a change of the children or of the attributes of this node, for the
+	 * live collections of its document.
+	 */
+	protected void countModification() {
+		countModification(getConnectedDocument());
+	}
+
+	private void countModification(DocumentImpl connected) {
+		if (connected != null) {
+			connected.incrementModificationCount();
+		}
+		final Object owner = this instanceof DocumentImpl ? this : this.document;
+		if (owner instanceof DocumentImpl && owner != connected) {
+			((DocumentImpl) owner).incrementModificationCount();
+		}
+	}
+
+	/**
+	 * <p>getConnectedDocument.</p>
+	 *
+	 * @return the document at the root of the tree holding this node, or null.
+	 */
+	public DocumentImpl getConnectedDocument() {
+		Node node = this;
+		while (node.getParentNode() != null) {
+			node = node.getParentNode();
+		}
+		return node instanceof DocumentImpl ? (DocumentImpl) node : null;
+	}
+
 	/**
 	 * <p>setParentImpl.</p>
 	 *
@@ -1251,6 +1353,7 @@ public abstract class NodeImpl extends AbstractScriptableDelegate implements Nod
 				t.setOwnerDocument(this.document);
 				t.setParentImpl(this);
 				this.nodeList.add(t);
+				countModification();
 			}
 		}
 		if (!this.notificationsSuspended) {
@@ -1306,7 +1409,11 @@ public abstract class NodeImpl extends AbstractScriptableDelegate implements Nod
 	/** {@inheritDoc} */
 	@Override
 	public boolean isIsConnected() {
-		return false;
+		Node node = this;
+		while (node.getParentNode() != null) {
+			node = node.getParentNode();
+		}
+		return node instanceof Document;
 	}
 
 	/** {@inheritDoc} */
@@ -72,6 +72,42 @@ public class NodeListImpl extends AbstractList<Node> implements NodeList {
 		}
 	}
 
+	/**
+	 * <p>indexOfNode.</p>
+	 *
+	 * Looks the node up at the index it had on the previous lookup, and
+	 * renumbers every node of the list only when it has moved since.
+	 *
+	 * @param node a {@link org.loboevolution.html.node.Node} object.
+	 * @return the index of the node, or -1.
+	 */
+	int indexOfNode(Node node) {
+		if (!(node instanceof NodeImpl)) {
+			return indexOf(node);
+		}
+
+		final List<Node> list = getList();
+		synchronized (list) {
+			final int hint = ((NodeImpl) node).siblingIndex;
+			if (hint >= 0 && hint < list.size() && list.get(hint) == node) {
+				return hint;
+			}
+
+			int index = -1;
+			final int size = list.size();
+			for (int i = 0; i < size; i++) {
+				final Node child = list.get(i);
+				if (child instanceof NodeImpl) {
+					((NodeImpl) child).siblingIndex = i;
+				}
+				if (child == node) {
+					index = i;
+				}
+			}
+			return index;
+		}
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public ES6Iterator entries() {
@@ -31,6 +31,8 @@ class DocumentNotification {
 	public static final int POSITION = 1;
 	/** Constant SIZE=2 */
 	public static final int SIZE = 2;
+	/** Constant STRUCTURE=4 */
+	public static final int STRUCTURE = 4;
 
 	public final NodeImpl node;
 	public final int type;
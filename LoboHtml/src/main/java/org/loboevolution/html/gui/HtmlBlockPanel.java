@@ -63,6 +63,7 @@ import org.loboevolution.html.dom.nodeimpl.ModelNode;
 import org.loboevolution.html.dom.nodeimpl.NodeImpl;
 import org.loboevolution.html.renderer.*;
 import org.loboevolution.html.renderstate.RenderState;
+import org.loboevolution.html.renderstate.RenderThreadState;
 import org.loboevolution.http.HtmlRendererContext;
 import org.loboevolution.http.UserAgentContext;
 import org.loboevolution.laf.ColorFactory;
@@ -82,6 +83,10 @@ public class HtmlBlockPanel extends JComponent implements NodeRenderer, Renderab
 	private static final Logger logger = Logger.getLogger(HtmlBlockPanel.class.getName());
 
 	private static final long serialVersionUID = 1L;
+
+	/** Whether the root block paints its viewport from a {@link TileCache}. */
+	private static final boolean TILED_PAINT = Boolean.getBoolean("lobo.paint.tiles");
+
 	private Set<Component> components;
 	protected int defaultOverflowX = RenderState.OVERFLOW_AUTO;
 	protected int defaultOverflowY = RenderState.OVERFLOW_SCROLL;
@@ -98,6 +103,14 @@ public class HtmlBlockPanel extends JComponent implements NodeRenderer, Renderab
 
 	protected final UserAgentContext ucontext;
 
+	private final TileCache tileCache;
+
+	private boolean scrolling;
+
+	private long paintFrames;
+
+	private long paintNanos;
+
 	/**
 	 * <p>Constructor for HtmlBlockPanel.</p>
 	 *
@@ -111,6 +124,7 @@ public class HtmlBlockPanel extends JComponent implements NodeRenderer, Renderab
 						  FrameContext frameContext) {
 		setLayout(null);
 		setAutoscrolls(true);
+		this.tileCache = TILED_PAINT ? new TileCache(this) : null;
 		this.frameContext = frameContext;
 		this.ucontext = pcontext;
 		this.rcontext = rcontext;
@@ -232,9 +246,18 @@ public class HtmlBlockPanel extends JComponent implements NodeRenderer, Renderab
 		try {
 			final Dimension size = this.getSize();
 			clearComponents();
+			if (this.tileCache != null) {
+				this.tileCache.invalidateAll();
+			}
 			final RBlock block = this.rblock;
 			if (block != null) {
+				final RenderThreadState state = RenderThreadState.getState();
+				state.blocksLaidOut = 0;
+				state.blocksReused = 0;
 				block.layout(size.width, size.height, true, true, null, false);
+				if (logger.isLoggable(Level.FINE)) {
+					logger.fine("doLayout(): laid out " + state.blocksLaidOut + " blocks, reused " + state.blocksReused + ".");
+				}
 				// Only set origin
 				block.setOrigin(0, 0);
 				block.updateWidgetBounds(0, 0);
@@ -678,15 +701,33 @@ public class HtmlBlockPanel extends JComponent implements NodeRenderer, Renderab
 		}
 		final RBlock block = this.rblock;
 		if (block != null) {
+			final long startTime = System.nanoTime();
 			block.paint(g);
 			final RenderableSpot start = this.startSelection;
 			final RenderableSpot end = this.endSelection;
 			if (start != null && end != null && !start.equals(end)) {
 				block.paintSelection(g, false, start, end);
 			}
+			if (logger.isLoggable(Level.FINE)) {
+				logFrame(System.nanoTime() - startTime);
+			}
 		}
 	}
 
+	private void logFrame(long nanos) {
+		this.paintFrames++;
+		this.paintNanos += nanos;
+		final StringBuilder message = new StringBuilder("paint(): ");
+		message.append(this.tileCache == null ? "direct" : "tiled").append(" frame in ").append(nanos / 1000)
+				.append(" us, average ").append(this.paintNanos / this.paintFrames / 1000).append(" us over ")
+				.append(this.paintFrames).append(" frames");
+		if (this.tileCache != null) {
+			final int[] counts = this.tileCache.takeCounts();
+			message.append(", ").append(counts[0]).append(" tiles drawn, ").append(counts[1]).append(" rendered");
+		}
+		logger.fine(message.append('.').toString());
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	protected void paintChildren(Graphics g) {
@@ -710,37 +751,44 @@ public class HtmlBlockPanel extends JComponent implements NodeRenderer, Renderab
 			// notifications come in batches. Other types
 			// of noitifications probably come one by one.
 			boolean topLayout = false;
+			final ReflowScheduler reflow = new ReflowScheduler(this.rblock);
 			List<RElement> repainters = null;
 			for (final DocumentNotification dn : notifications) {
 				final int type = dn.type;
 				switch (type) {
 					case DocumentNotification.GENERIC:
-					case DocumentNotification.SIZE: {
+					case DocumentNotification.SIZE:
+					case DocumentNotification.STRUCTURE: {
 						final NodeImpl node = dn.node;
 						if (node == null) {
 							this.rblock.invalidateLayoutDeep();
+							topLayout = true;
 						} else {
 							final UINode uiNode = node.findUINode();
 							if (uiNode != null) {
 								final RElement relement = (RElement) uiNode;
-								relement.invalidateLayoutUpTree();
+								// The style of the element itself is intact when only its children
+								// changed, or when the change is in a node rendered as part of it.
+								final boolean contentOnly = type == DocumentNotification.STRUCTURE || relement.getModelNode() != node;
+								reflow.add(relement, contentOnly);
+							} else {
+								topLayout = true;
 							}
 						}
-						topLayout = true;
 						break;
 					}
 					case DocumentNotification.POSITION: {
-						// TODO: Could be more efficient.
 						final NodeImpl node = dn.node;
 						final NodeImpl parent = (NodeImpl) node.getParentNode();
 						if (parent != null) {
 							final UINode uiNode = parent.findUINode();
 							if (uiNode != null) {
-								final RElement relement = (RElement) uiNode;
-								relement.invalidateLayoutUpTree();
+								// Only the content of the parent moves.
+								reflow.add((RElement) uiNode, true);
+							} else {
+								topLayout = true;
 							}
 						}
-						topLayout = true;
 						break;
 					}
 					case DocumentNotification.LOOK: {
@@ -761,6 +809,9 @@ public class HtmlBlockPanel extends JComponent implements NodeRenderer, Renderab
 				}
 			}
 			if (topLayout) {
+				reflow.invalidate();
+				revalidatePanel();
+			} else if (!reflow.reflow()) {
 				revalidatePanel();
 			} else {
 				if (repainters != null) {
@@ -793,6 +844,17 @@ public class HtmlBlockPanel extends JComponent implements NodeRenderer, Renderab
 		this.repaint();
 	}
 
+	/** {@inheritDoc} */
+	@Override
+	public void repaint(long tm, int x, int y, int width, int height) {
+		// The root block is at the origin, so damage is in its coordinates.
+		final TileCache tiles = this.tileCache;
+		if (tiles != null && !this.scrolling) {
+			tiles.invalidate(x, y, width, height);
+		}
+		super.repaint(tm, x, y, width, height);
+	}
+
 	/**
 	 * <p>revalidatePanel.</p>
 	 */
@@ -957,7 +1019,9 @@ public class HtmlBlockPanel extends JComponent implements NodeRenderer, Renderab
 	@Override
 	public void setRootNode(NodeImpl node) {
 		if (node != null) {
-			final RBlock block = new RBlock(node, 0, this.ucontext, this.rcontext, this.frameContext, this);
+			final RBlock block = this.tileCache == null
+					? new RBlock(node, 0, this.ucontext, this.rcontext, this.frameContext, this)
+					: new TiledRBlock(node);
 			block.setDefaultOverflowX(this.defaultOverflowX);
 			block.setDefaultOverflowY(this.defaultOverflowY);
 			node.setUINode(block);
@@ -965,6 +1029,9 @@ public class HtmlBlockPanel extends JComponent implements NodeRenderer, Renderab
 		} else {
 			this.rblock = null;
 		}
+		if (this.tileCache != null) {
+			this.tileCache.invalidateAll();
+		}
 		invalidate();
 		validateAll();
 		this.repaint();
@@ -1079,4 +1146,36 @@ public class HtmlBlockPanel extends JComponent implements NodeRenderer, Renderab
 		}
 		toValidate.validate();
 	}
+
+	/**
+	 * The root block when painting from tiles. Its viewport is painted from the
+	 * tile cache, and a scroll only moves the tiles.
+	 */
+	private final class TiledRBlock extends RBlock {
+
+		TiledRBlock(NodeImpl node) {
+			super(node, 0, HtmlBlockPanel.this.ucontext, HtmlBlockPanel.this.rcontext,
+					HtmlBlockPanel.this.frameContext, HtmlBlockPanel.this);
+		}
+
+		@Override
+		protected void paintViewport(Graphics g, RBlockViewport bodyLayout) {
+			if (bodyLayout.hasFixedRenderables()) {
+				// Fixed boxes do not scroll with the tiles.
+				super.paintViewport(g, bodyLayout);
+			} else {
+				tileCache.paint(g, bodyLayout);
+			}
+		}
+
+		@Override
+		protected void repaintScrolled() {
+			scrolling = true;
+			try {
+				super.repaintScrolled();
+			} finally {
+				scrolling = false;
+			}
+		}
+	}
 }
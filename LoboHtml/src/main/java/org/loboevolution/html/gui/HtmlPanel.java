@@ -36,6 +36,7 @@ import java.util.ArrayList;
 import java.util.EventListener;
 import java.util.EventObject;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -49,6 +50,7 @@ import org.loboevolution.component.IBrowserPanel;
 import org.loboevolution.html.dom.domimpl.DocumentNotificationListener;
 import org.loboevolution.html.dom.domimpl.HTMLDocumentImpl;
 import org.loboevolution.html.dom.nodeimpl.NodeImpl;
+import org.loboevolution.html.js.EventLoop;
 import org.loboevolution.html.parser.DocumentBuilderImpl;
 import org.loboevolution.html.parser.InputSourceImpl;
 import org.loboevolution.html.renderer.BoundableRenderable;
@@ -104,7 +106,7 @@ public class HtmlPanel extends JComponent implements FrameContext {
 
 		@Override
 		public void nodeLoaded(NodeImpl node) {
-			addNotification(new DocumentNotification(DocumentNotification.GENERIC, node));
+			addNotification(new DocumentNotification(DocumentNotification.STRUCTURE, node));
 		}
 
 		@Override
@@ -119,7 +121,7 @@ public class HtmlPanel extends JComponent implements FrameContext {
 
 		@Override
 		public void structureInvalidated(NodeImpl node) {
-			addNotification(new DocumentNotification(DocumentNotification.GENERIC, node));
+			addNotification(new DocumentNotification(DocumentNotification.STRUCTURE, node));
 		}
 	}
 
@@ -156,6 +158,9 @@ public class HtmlPanel extends JComponent implements FrameContext {
 	
 	private final List<DocumentNotification> notifications = new ArrayList<>();
 
+	/** Whether processing the notifications is already posted to the GUI thread. */
+	private final AtomicBoolean notificationsPosted = new AtomicBoolean();
+
 	private final Timer notificationTimer;
 
 	private volatile int preferredWidth = -1;
@@ -175,7 +180,10 @@ public class HtmlPanel extends JComponent implements FrameContext {
 		this.notificationTimer = new Timer(NOTIF_TIMER_DELAY, new NotificationTimerAction());
 		this.notificationTimer.setRepeats(false);
 		this.notificationListener = new LocalDocumentNotificationListener();
-		this.notificationImmediateAction = this::processNotifications;
+		this.notificationImmediateAction = () -> {
+			this.notificationsPosted.set(false);
+			processNotifications();
+		};
 	}
 
 	private void addNotification(DocumentNotification notification) {
@@ -184,8 +192,11 @@ public class HtmlPanel extends JComponent implements FrameContext {
 		synchronized (notifs) {
 			notifs.add(notification);
 		}
-		if (SwingUtilities.isEventDispatchThread()) {
-			SwingUtilities.invokeLater(this.notificationImmediateAction);
+		if (SwingUtilities.isEventDispatchThread() || EventLoop.isScriptThread()) {
+			// changes made by scripts are rendered as soon as the GUI thread gets to them
+			if (this.notificationsPosted.compareAndSet(false, true)) {
+				SwingUtilities.invokeLater(this.notificationImmediateAction);
+			}
 		} else {
 			this.notificationTimer.restart();
 		}
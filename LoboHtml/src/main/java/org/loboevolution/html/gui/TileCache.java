@@ -0,0 +1,342 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+package org.loboevolution.html.gui;
+
+import java.awt.Component;
+import java.awt.EventQueue;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.swing.JComponent;
+
+import org.loboevolution.html.renderer.RBlockViewport;
+
+/**
+ * Keeps the content of the viewport of the root block rasterized in fixed-size
+ * tiles, keyed by document coordinates. Painting after a scroll draws the
+ * cached tiles at the new origin instead of painting the renderables again.
+ * <p>
+ * Tiles are dropped when a damaged area covers them, and all of them when the
+ * document is laid out again. Tiles under GUI components are painted directly
+ * every time, since components repaint themselves without notifying the panel.
+ * After a scroll, the rows or columns of tiles ahead of the scroll direction
+ * are rendered one tile per GUI event, so input events queued meanwhile are not
+ * delayed by more than a tile. The tiles are rendered in the GUI thread, which
+ * the renderables are confined to.
+ * <p>
+ * This class is expected to be used in the GUI thread.
+ */
+final class TileCache {
+
+	/** The width and height of a tile. */
+	static final int TILE_SIZE = 256;
+
+	/** The maximum number of tiles kept, 256 KB each. */
+	private static final int MAX_TILES = Integer.getInteger("lobo.paint.maxTiles", 96);
+
+	/** The number of rows or columns of tiles rendered ahead of a scroll. */
+	private static final int PREFETCH_DISTANCE = Integer.getInteger("lobo.paint.prefetchTiles", 3);
+
+	private final JComponent component;
+
+	private final Map<Long, BufferedImage> tiles = new LinkedHashMap<Long, BufferedImage>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+			if (size() > MAX_TILES) {
+				eldest.getValue().flush();
+				return true;
+			}
+			return false;
+		}
+	};
+
+	private RBlockViewport viewport;
+
+	private int originX;
+
+	private int originY;
+
+	private int directionX;
+
+	private int directionY;
+
+	/** The tiles still to render ahead of the last scroll, nearest first. */
+	private final Deque<Long> prefetch = new ArrayDeque<>();
+
+	private RenderingHints prefetchHints;
+
+	private boolean prefetchScheduled;
+
+	private int tilesDrawn;
+
+	private int tilesRendered;
+
+	/**
+	 * <p>Constructor for TileCache.</p>
+	 *
+	 * @param component the component painted, which gives the graphics configuration.
+	 */
+	TileCache(JComponent component) {
+		this.component = component;
+	}
+
+	/**
+	 * <p>Paints the viewport from the tiles, rendering the missing ones.</p>
+	 *
+	 * @param g the graphics, in the coordinates of the block the viewport belongs to.
+	 * @param viewport the viewport, at its scroll origin.
+	 */
+	void paint(Graphics g, RBlockViewport viewport) {
+		final Rectangle clip = g.getClipBounds();
+		if (clip == null || clip.isEmpty()) {
+			return;
+		}
+		final int ox = viewport.getX();
+		final int oy = viewport.getY();
+		if (viewport != this.viewport) {
+			invalidateAll();
+			this.viewport = viewport;
+		} else if (ox != this.originX || oy != this.originY) {
+			// Content moving up means scrolling down.
+			this.directionX = Integer.signum(this.originX - ox);
+			this.directionY = Integer.signum(this.originY - oy);
+		}
+		this.originX = ox;
+		this.originY = oy;
+
+		final Rectangle area = new Rectangle(clip.x - ox, clip.y - oy, clip.width, clip.height);
+		final int fromX = Math.floorDiv(area.x, TILE_SIZE);
+		final int toX = Math.floorDiv(area.x + area.width - 1, TILE_SIZE);
+		final int fromY = Math.floorDiv(area.y, TILE_SIZE);
+		final int toY = Math.floorDiv(area.y + area.height - 1, TILE_SIZE);
+		for (int ty = fromY; ty <= toY; ty++) {
+			for (int tx = fromX; tx <= toX; tx++) {
+				final Rectangle tileBounds = new Rectangle(tx * TILE_SIZE, ty * TILE_SIZE, TILE_SIZE, TILE_SIZE);
+				if (underComponent(tileBounds, ox, oy)) {
+					final Graphics tg = g.create();
+					try {
+						tg.clipRect(tileBounds.x + ox, tileBounds.y + oy, TILE_SIZE, TILE_SIZE);
+						viewport.paint(tg);
+					} finally {
+						tg.dispose();
+					}
+				} else {
+					g.drawImage(getTile(tx, ty, g), tileBounds.x + ox, tileBounds.y + oy, null);
+					this.tilesDrawn++;
+				}
+			}
+		}
+
+		if ((this.directionX | this.directionY) != 0) {
+			queuePrefetch(fromX, toX, fromY, toY);
+			this.prefetchHints = g instanceof Graphics2D ? ((Graphics2D) g).getRenderingHints() : null;
+			if (!this.prefetch.isEmpty() && !this.prefetchScheduled) {
+				this.prefetchScheduled = true;
+				EventQueue.invokeLater(this::prefetchNext);
+			}
+		}
+	}
+
+	/**
+	 * <p>Drops the tiles that intersect a damaged area.</p>
+	 *
+	 * @param x the x coordinate of the area, in the coordinates of the block.
+	 * @param y the y coordinate of the area, in the coordinates of the block.
+	 * @param width the width of the area.
+	 * @param height the height of the area.
+	 */
+	void invalidate(int x, int y, int width, int height) {
+		if (this.tiles.isEmpty() || width <= 0 || height <= 0) {
+			return;
+		}
+		final RBlockViewport viewport = this.viewport;
+		final int docX = viewport == null ? x : x - viewport.getX();
+		final int docY = viewport == null ? y : y - viewport.getY();
+		final int fromX = Math.floorDiv(docX, TILE_SIZE);
+		final int toX = Math.floorDiv(docX + width - 1, TILE_SIZE);
+		final int fromY = Math.floorDiv(docY, TILE_SIZE);
+		final int toY = Math.floorDiv(docY + height - 1, TILE_SIZE);
+		final Iterator<Map.Entry<Long, BufferedImage>> i = this.tiles.entrySet().iterator();
+		while (i.hasNext()) {
+			final Map.Entry<Long, BufferedImage> entry = i.next();
+			final long key = entry.getKey();
+			final int tx = (int) key;
+			final int ty = (int) (key >> 32);
+			if (tx >= fromX && tx <= toX && ty >= fromY && ty <= toY) {
+				entry.getValue().flush();
+				i.remove();
+			}
+		}
+	}
+
+	/**
+	 * <p>Drops all tiles.</p>
+	 */
+	void invalidateAll() {
+		for (BufferedImage image : this.tiles.values()) {
+			image.flush();
+		}
+		this.tiles.clear();
+		this.prefetch.clear();
+		this.directionX = 0;
+		this.directionY = 0;
+	}
+
+	/**
+	 * <p>Returns the number of tiles drawn from the cache and rendered since the
+	 * last call, and resets both.</p>
+	 *
+	 * @return the tiles drawn and rendered.
+	 */
+	int[] takeCounts() {
+		final int[] counts = {this.tilesDrawn, this.tilesRendered};
+		this.tilesDrawn = 0;
+		this.tilesRendered = 0;
+		return counts;
+	}
+
+	private BufferedImage getTile(int tx, int ty, Graphics g) {
+		final Long key = tileKey(tx, ty);
+		BufferedImage image = this.tiles.get(key);
+		if (image == null) {
+			image = renderTile(tx, ty, g instanceof Graphics2D ? ((Graphics2D) g).getRenderingHints() : null);
+			this.tiles.put(key, image);
+		}
+		return image;
+	}
+
+	private BufferedImage renderTile(int tx, int ty, RenderingHints hints) {
+		final GraphicsConfiguration gc = this.component.getGraphicsConfiguration();
+		final BufferedImage image = gc == null ? new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_ARGB)
+				: gc.createCompatibleImage(TILE_SIZE, TILE_SIZE, Transparency.TRANSLUCENT);
+		final Graphics2D g = image.createGraphics();
+		try {
+			if (hints != null) {
+				g.setRenderingHints(hints);
+			}
+			g.setClip(0, 0, TILE_SIZE, TILE_SIZE);
+			// The viewport translates to its origin, so this leaves the tile in document coordinates.
+			g.translate(-tx * TILE_SIZE - this.viewport.getX(), -ty * TILE_SIZE - this.viewport.getY());
+			this.viewport.paint(g);
+		} finally {
+			g.dispose();
+		}
+		this.tilesRendered++;
+		return image;
+	}
+
+	/**
+	 * Replaces the tiles to prefetch with the ones ahead of the scroll direction,
+	 * up to {@link #PREFETCH_DISTANCE} rows or columns away from the visible ones.
+	 */
+	private void queuePrefetch(int fromX, int toX, int fromY, int toY) {
+		this.prefetch.clear();
+		final int columns = toX - fromX + 1;
+		final int rows = toY - fromY + 1;
+		// The tiles ahead must not evict the visible ones.
+		final int budget = MAX_TILES - columns * rows;
+		final RBlockViewport viewport = this.viewport;
+		final Rectangle content = new Rectangle(0, 0, viewport.getWidth(), viewport.getHeight());
+		for (int d = 1; d <= PREFETCH_DISTANCE; d++) {
+			if (this.directionY != 0) {
+				final int ty = this.directionY > 0 ? toY + d : fromY - d;
+				for (int tx = fromX; tx <= toX; tx++) {
+					queueTile(tx, ty, content);
+				}
+			}
+			if (this.directionX != 0) {
+				final int tx = this.directionX > 0 ? toX + d : fromX - d;
+				for (int ty = fromY; ty <= toY; ty++) {
+					queueTile(tx, ty, content);
+				}
+			}
+		}
+		while (this.prefetch.size() > budget && !this.prefetch.isEmpty()) {
+			this.prefetch.removeLast();
+		}
+		this.directionX = 0;
+		this.directionY = 0;
+	}
+
+	private void queueTile(int tx, int ty, Rectangle content) {
+		final Rectangle tileBounds = new Rectangle(tx * TILE_SIZE, ty * TILE_SIZE, TILE_SIZE, TILE_SIZE);
+		if (tileBounds.intersects(content) && !this.tiles.containsKey(tileKey(tx, ty))
+				&& !underComponent(tileBounds, this.originX, this.originY)) {
+			this.prefetch.add(tileKey(tx, ty));
+		}
+	}
+
+	/**
+	 * Renders the next missing tile ahead of the scroll, and posts itself again
+	 * while tiles are left.
+	 */
+	private void prefetchNext() {
+		this.prefetchScheduled = false;
+		Long key;
+		while ((key = this.prefetch.poll()) != null) {
+			if (!this.tiles.containsKey(key)) {
+				final int tx = (int) key.longValue();
+				final int ty = (int) (key >> 32);
+				this.tiles.put(key, renderTile(tx, ty, this.prefetchHints));
+				break;
+			}
+		}
+		if (!this.prefetch.isEmpty()) {
+			this.prefetchScheduled = true;
+			EventQueue.invokeLater(this::prefetchNext);
+		}
+	}
+
+	/**
+	 * <p>Checks whether tiles ahead of the last scroll are still to be rendered.</p>
+	 *
+	 * @return true if the prefetch is not done.
+	 */
+	boolean isPrefetching() {
+		return !this.prefetch.isEmpty();
+	}
+
+	private boolean underComponent(Rectangle tileBounds, int ox, int oy) {
+		for (Component c : this.component.getComponents()) {
+			if (c.isVisible() && c.getWidth() > 0 && c.getHeight() > 0
+					&& tileBounds.intersects(c.getX() - ox, c.getY() - oy, c.getWidth(), c.getHeight())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static Long tileKey(int tx, int ty) {
+		return ((long) ty << 32) | (tx & 0xFFFFFFFFL);
+	}
+}
@@ -0,0 +1,437 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.html.js;
+
+import java.awt.EventQueue;
+import java.awt.SecondaryLoop;
+import java.awt.Toolkit;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <p>EventLoop class.</p>
+ *
+ * The event loop of a window. Timers, tasks posted by other threads (such as
+ * the completions of asynchronous requests), event handlers, the scripts of
+ * the document and microtasks all run one at a time on the script thread, so
+ * that a script always runs to completion and the GUI thread is left to
+ * painting and input. The script thread is shared by the loops of all the
+ * windows, each turn running one task of one loop; it is started on demand and
+ * stops after a while without work.
+ * <p>
+ * Timers are kept in a min-heap by due time. Timeouts nested more than
+ * {@code MAX_NESTING} levels deep are clamped to {@code NESTED_MIN_DELAY}
+ * milliseconds, and the loop wakes up on {@code WAKE_UP_ALIGNMENT}
+ * boundaries only, so that timers due close to each other run in the same
+ * turn. The microtask queue is emptied after every task.
+ *
+ *
+ */
+public final class EventLoop {
+
+	/** The Constant logger. */
+	private static final Logger logger = Logger.getLogger(EventLoop.class.getName());
+
+	/** The min delay of a timer, in milliseconds. */
+	private static final long MIN_DELAY = 1;
+
+	/** The nesting level of timers above which the delay is clamped. */
+	private static final int MAX_NESTING = 5;
+
+	/** The min delay of a deeply nested timer, in milliseconds. */
+	private static final long NESTED_MIN_DELAY = 4;
+
+	/** The granularity of the wake ups for timers, in milliseconds. */
+	private static final long WAKE_UP_ALIGNMENT = 4;
+
+	/** The time after which an idle script thread stops, in milliseconds. */
+	private static final long IDLE_TIMEOUT = 30000;
+
+	/** The thread currently running scripts, if any. */
+	private static volatile Thread scriptThread;
+
+	/** Runs the turns of all the loops. */
+	private static final ScheduledThreadPoolExecutor SCRIPT_EXECUTOR = newScriptExecutor();
+
+	private final WeakReference<Object> ownerRef;
+
+	/** Event handlers and scripts whose callers wait for them. */
+	private final ArrayDeque<Runnable> calls = new ArrayDeque<>();
+
+	private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+	private final ArrayDeque<Runnable> microtasks = new ArrayDeque<>();
+
+	private final PriorityQueue<TimerTask> timers = new PriorityQueue<>();
+
+	private final Map<Integer, TimerTask> timersById = new HashMap<>();
+
+	private long timerSequence;
+
+	/** The next turn scheduled on the script thread, if any. */
+	private ScheduledFuture<?> wake;
+
+	/** The time of {@link #wake}. */
+	private long wakeAt = Long.MAX_VALUE;
+
+	/** Incremented by {@link #cancelAll()}, so that a task already picked is dropped. */
+	private int generation;
+
+	/** The nesting level of the timer running on the script thread. */
+	private int nesting;
+
+	/**
+	 * <p>Constructor for EventLoop.</p>
+	 *
+	 * @param owner the object the loop runs scripts for, only weakly referenced.
+	 */
+	public EventLoop(Object owner) {
+		this.ownerRef = new WeakReference<>(owner);
+	}
+
+	/**
+	 * Posts a task, to be run after the tasks already posted.
+	 *
+	 * @param task a {@link java.lang.Runnable} object.
+	 */
+	public synchronized void post(Runnable task) {
+		this.tasks.add(task);
+		wakeUp();
+	}
+
+	/**
+	 * Queues a microtask, to be run as soon as the running task, if any, is
+	 * over.
+	 *
+	 * @param microtask a {@link java.lang.Runnable} object.
+	 */
+	public synchronized void queueMicrotask(Runnable microtask) {
+		this.microtasks.add(microtask);
+		wakeUp();
+	}
+
+	/**
+	 * Runs a script on the script thread and waits for its result. On the
+	 * script thread itself it runs right away. The GUI thread keeps dispatching
+	 * paint and input events while it waits.
+	 *
+	 * @param <T> the type of the result.
+	 * @param script the script.
+	 * @return the result of the script.
+	 */
+	public <T> T invokeAndWait(Supplier<T> script) {
+		if (isLoopThread()) {
+			return script.get();
+		}
+		final CompletableFuture<T> result = new CompletableFuture<>();
+		synchronized (this) {
+			this.calls.add(() -> {
+				try {
+					result.complete(script.get());
+				} catch (final Throwable t) {
+					result.completeExceptionally(t);
+				}
+			});
+			wakeUp();
+		}
+		if (EventQueue.isDispatchThread()) {
+			final SecondaryLoop secondaryLoop = Toolkit.getDefaultToolkit().getSystemEventQueue().createSecondaryLoop();
+			// posted, so that exit() comes after enter()
+			result.whenComplete((r, t) -> EventQueue.invokeLater(secondaryLoop::exit));
+			secondaryLoop.enter();
+		}
+		try {
+			return result.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	/**
+	 * Schedules a timer, replacing the pending timer with the same id if any.
+	 *
+	 * @param id the id of the timer.
+	 * @param task the task run when the timer is due.
+	 * @param delay the delay, in milliseconds.
+	 * @param repeat whether the task runs again every delay milliseconds.
+	 */
+	public synchronized void schedule(int id, Runnable task, long delay, boolean repeat) {
+		final int level = isLoopThread() ? this.nesting + 1 : 1;
+		long clamped = Math.max(delay, MIN_DELAY);
+		if (level > MAX_NESTING) {
+			clamped = Math.max(clamped, NESTED_MIN_DELAY);
+		}
+		final TimerTask timer = new TimerTask(id, task, clamped, repeat, level);
+		timer.due = now() + clamped;
+		timer.sequence = this.timerSequence++;
+		final TimerTask old = this.timersById.put(id, timer);
+		if (old != null) {
+			old.cancelled = true;
+		}
+		this.timers.add(timer);
+		wakeUp();
+	}
+
+	/**
+	 * Cancels a timer. Nothing happens if it is not pending.
+	 *
+	 * @param id the id of the timer.
+	 */
+	public synchronized void cancel(int id) {
+		final TimerTask timer = this.timersById.remove(id);
+		if (timer != null) {
+			timer.cancelled = true;
+		}
+	}
+
+	/**
+	 * Cancels all the pending timers, tasks and microtasks. The scripts whose
+	 * callers wait for them still run.
+	 */
+	public synchronized void cancelAll() {
+		for (TimerTask timer : this.timers) {
+			timer.cancelled = true;
+		}
+		this.timersById.clear();
+		this.timers.clear();
+		this.tasks.clear();
+		this.microtasks.clear();
+		this.generation++;
+	}
+
+	/**
+	 * <p>isLoopThread.</p>
+	 *
+	 * @return whether the current thread is the script thread.
+	 */
+	public boolean isLoopThread() {
+		return isScriptThread();
+	}
+
+	/**
+	 * <p>isScriptThread.</p>
+	 *
+	 * @return whether the current thread is the one the scripts of all the windows run on.
+	 */
+	public static boolean isScriptThread() {
+		return Thread.currentThread() == scriptThread;
+	}
+
+	/**
+	 * Makes sure a turn is scheduled by the time the next piece of work is due.
+	 */
+	private void wakeUp() {
+		final long now = now();
+		long at;
+		if (!this.calls.isEmpty() || !this.tasks.isEmpty() || !this.microtasks.isEmpty()) {
+			at = now;
+		} else {
+			final TimerTask timer = peekTimer();
+			if (timer == null) {
+				return;
+			}
+			at = Math.max(now, (timer.due + WAKE_UP_ALIGNMENT - 1) / WAKE_UP_ALIGNMENT * WAKE_UP_ALIGNMENT);
+		}
+		if (this.wake != null) {
+			if (this.wakeAt <= at) {
+				return;
+			}
+			this.wake.cancel(false);
+		}
+		this.wakeAt = at;
+		this.wake = SCRIPT_EXECUTOR.schedule(this::turn, at - now, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Runs the next call, due timer or task, and then the microtasks.
+	 */
+	private void turn() {
+		final Runnable call;
+		final Runnable task;
+		final int gen;
+		synchronized (this) {
+			this.wake = null;
+			this.wakeAt = Long.MAX_VALUE;
+			call = this.calls.poll();
+			if (call == null && this.ownerRef.get() == null) {
+				cancelAll();
+				return;
+			}
+			task = call != null ? call : next();
+			gen = this.generation;
+		}
+		try {
+			if (task != null && (task == call || isCurrent(gen))) {
+				runTask(task);
+			}
+			Runnable microtask;
+			while ((microtask = nextMicrotask(gen)) != null) {
+				runTask(microtask);
+			}
+		} finally {
+			synchronized (this) {
+				wakeUp();
+			}
+		}
+	}
+
+	/**
+	 * Picks the next due timer or task.
+	 *
+	 * @return the runnable, or null if only microtasks are pending.
+	 */
+	private Runnable next() {
+		final TimerTask timer = peekTimer();
+		if (timer != null && timer.due <= now()) {
+			this.timers.poll();
+			if (!timer.repeat) {
+				this.timersById.remove(timer.id);
+			}
+			return timer;
+		}
+		return this.tasks.poll();
+	}
+
+	private TimerTask peekTimer() {
+		TimerTask timer = this.timers.peek();
+		while (timer != null && timer.cancelled) {
+			this.timers.poll();
+			timer = this.timers.peek();
+		}
+		return timer;
+	}
+
+	private synchronized boolean isCurrent(int gen) {
+		return gen == this.generation;
+	}
+
+	private synchronized Runnable nextMicrotask(int gen) {
+		return gen == this.generation ? this.microtasks.poll() : null;
+	}
+
+	private synchronized void reschedule(TimerTask timer) {
+		if (!timer.cancelled && this.timersById.get(timer.id) == timer) {
+			final long delay = timer.level > MAX_NESTING ? Math.max(timer.delay, NESTED_MIN_DELAY) : timer.delay;
+			timer.due = now() + delay;
+			timer.sequence = this.timerSequence++;
+			this.timers.add(timer);
+		}
+	}
+
+	private static void runTask(Runnable task) {
+		try {
+			task.run();
+		} catch (final Throwable t) {
+			logger.log(Level.WARNING, t.getMessage(), t);
+		}
+	}
+
+	private static ScheduledThreadPoolExecutor newScriptExecutor() {
+		final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+			final Thread t = new Thread(() -> {
+				scriptThread = Thread.currentThread();
+				r.run();
+			}, "ScriptThread");
+			t.setDaemon(true);
+			return t;
+		});
+		executor.setRemoveOnCancelPolicy(true);
+		executor.setKeepAliveTime(IDLE_TIMEOUT, TimeUnit.MILLISECONDS);
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	private static long now() {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+	}
+
+	private final class TimerTask implements Runnable, Comparable<TimerTask> {
+
+		private final int id;
+
+		private final Runnable task;
+
+		private final long delay;
+
+		private final boolean repeat;
+
+		private int level;
+
+		private long due;
+
+		private long sequence;
+
+		private volatile boolean cancelled;
+
+		private TimerTask(int id, Runnable task, long delay, boolean repeat, int level) {
+			this.id = id;
+			this.task = task;
+			this.delay = delay;
+			this.repeat = repeat;
+			this.level = level;
+		}
+
+		@Override
+		public void run() {
+			if (this.cancelled) {
+				return;
+			}
+			final int outer = EventLoop.this.nesting;
+			EventLoop.this.nesting = this.level;
+			try {
+				this.task.run();
+			} finally {
+				EventLoop.this.nesting = outer;
+				if (this.repeat) {
+					this.level = Math.min(this.level + 1, MAX_NESTING + 1);
+					reschedule(this);
+				}
+			}
+		}
+
+		@Override
+		public int compareTo(TimerTask o) {
+			final int cmp = Long.compare(this.due, o.due);
+			return cmp != 0 ? cmp : Long.compare(this.sequence, o.sequence);
+		}
+	}
+}
@@ -20,18 +20,23 @@
 package org.loboevolution.html.js;
 
 import java.net.URL;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.loboevolution.http.UserAgentContext;
 import org.loboevolution.js.JavaScript;
 import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextFactory;
 import org.mozilla.javascript.Function;
 import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptRuntime;
 import org.mozilla.javascript.ScriptableObject;
+import org.mozilla.javascript.regexp.RegExpImpl;
 import org.loboevolution.html.dom.nodeimpl.NodeImpl;
 import org.loboevolution.html.node.Document;
 import org.loboevolution.html.node.events.Event;
+import org.loboevolution.html.node.js.Window;
 
 /**
  * <p>Executor class.</p>
@@ -48,6 +53,22 @@ public class Executor {
 	 */
 	public static final String SCOPE_KEY = "cobra.js.scope";
 
+	/**
+	 * The invocations and loop iterations after which an interpreted function
+	 * is compiled in the background (system property
+	 * {@code lobo.js.tieredThreshold}), 0 to always interpret.
+	 */
+	private static final int TIERED_THRESHOLD = Integer.getInteger("lobo.js.tieredThreshold", 1000);
+
+	/** The name of the property holding the event being handled. */
+	private static final String EVENT = "event";
+
+	/**
+	 * The context of each thread running scripts, configured once and entered
+	 * again by every later call on the thread.
+	 */
+	private static final ThreadLocal<Context> CONTEXTS = new ThreadLocal<>();
+
 	/**
 	 * This method should be invoked instead of Context.enter.
 	 *
@@ -56,10 +77,65 @@ public class Executor {
 	 * @return a {@link org.mozilla.javascript.Context} object.
 	 */
 	public static Context createContext(URL codeSource, UserAgentContext ucontext) {
+		final Context reusable = CONTEXTS.get();
+		if (reusable != null) {
+			final boolean outermost = Context.getCurrentContext() == null;
+			final Context ctx = ContextFactory.getGlobal().enterContext(reusable);
+			if (ctx != reusable) {
+				// nested in a context entered elsewhere
+				configure(ctx);
+			} else if (outermost) {
+				// The RegExp statics (lastMatch, $1...) live in the proxy, and
+				// the next call may run in another window.
+				ScriptRuntime.setRegExpProxy(ctx, new RegExpImpl());
+			}
+			return ctx;
+		}
+		final boolean created = Context.getCurrentContext() == null;
 		final Context ctx = Context.enter();
+		configure(ctx);
+		if (created) {
+			CONTEXTS.set(ctx);
+		}
+		return ctx;
+	}
+
+	private static void configure(Context ctx) {
 		ctx.setLanguageVersion(Context.VERSION_1_8);
 		ctx.setOptimizationLevel(-1);
-		return ctx;
+		ctx.setTieredCompilationThreshold(TIERED_THRESHOLD);
+	}
+
+	/**
+	 * Binds the event being handled to the event property of thisScope. The
+	 * property is defined on the first event and only updated afterwards.
+	 */
+	private static void bindEvent(Scriptable thisScope, Object event) {
+		final ScriptableObject so = (ScriptableObject) thisScope;
+		if (!so.has(EVENT, so)) {
+			so.defineProperty(EVENT, event, ScriptableObject.READONLY);
+		} else if (so.get(EVENT, so) != event) {
+			so.setAttributes(EVENT, ScriptableObject.EMPTY);
+			so.put(EVENT, so, event);
+			so.setAttributes(EVENT, ScriptableObject.READONLY);
+		}
+	}
+
+	/**
+	 * Runs script on the script thread of the window of doc and waits for its
+	 * result. Documents without a window run it in the calling thread.
+	 *
+	 * @param <T> the type of the result.
+	 * @param doc a {@link org.loboevolution.html.node.Document} object.
+	 * @param script the script.
+	 * @return the result of the script.
+	 */
+	public static <T> T invokeAndWait(Document doc, Supplier<T> script) {
+		final Window window = doc.getDefaultView();
+		if (window instanceof WindowImpl) {
+			return ((WindowImpl) window).getEventLoop().invokeAndWait(script);
+		}
+		return script.get();
 	}
 
 	/**
@@ -90,6 +166,10 @@ public class Executor {
 		if (doc == null) {
 			throw new IllegalStateException("Element does not belong to a document.");
 		}
+		return invokeAndWait(doc, () -> callFunction(doc, element, thisObject, f, event, obj));
+	}
+
+	private static boolean callFunction(Document doc, NodeImpl element, Object thisObject, Function f, Event event, Object[] obj) {
 		final Context ctx = createContext(element.getDocumentURL(), element.getUserAgentContext());
 		try {
 			final Scriptable scope = (Scriptable) doc.getUserData(Executor.SCOPE_KEY);
@@ -102,7 +182,7 @@ public class Executor {
 			final Scriptable thisScope = (Scriptable) js.getJavascriptObject(thisObject, scope);
 			try {
 				final Scriptable eventScriptable = (Scriptable) js.getJavascriptObject(event, thisScope);
-				ScriptableObject.defineProperty(thisScope, "event", eventScriptable, ScriptableObject.READONLY);
+				bindEvent(thisScope, eventScriptable);
 				final Object result = f.call(ctx, thisScope, thisScope, obj);
 				if (!(result instanceof Boolean)) {
 					return true;
@@ -20,7 +20,6 @@
 
 package org.loboevolution.html.js;
 
-import java.awt.event.ActionEvent;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -32,48 +31,37 @@ class ExpressionTimerTask extends WeakWindowTask {
 	private static final Logger logger = Logger.getLogger(ExpressionTimerTask.class.getName());
 	
 	private final String expression;
-	
-	private final boolean removeTask;
-	
-	private final Integer timeIDInt;
 
 	/**
 	 * <p>Constructor for ExpressionTimerTask.</p>
 	 *
 	 * @param window a {@link org.loboevolution.html.js.WindowImpl} object.
-	 * @param timeIDInt a {@link java.lang.Integer} object.
 	 * @param expression a {@link java.lang.String} object.
-	 * @param removeTask a boolean.
 	 */
-	public ExpressionTimerTask(WindowImpl window, Integer timeIDInt, String expression, boolean removeTask) {
+	public ExpressionTimerTask(WindowImpl window, String expression) {
 		super(window);
-		this.timeIDInt = timeIDInt;
 		this.expression = expression;
-		this.removeTask = removeTask;
 	}
 
 	/** {@inheritDoc} */
 	@Override
-	public void actionPerformed(final ActionEvent e) {
-		// This executes in the GUI thread and that's good.
+	public void run() {
+		// This executes in the event loop of the window.
 		try {
 			final WindowImpl window = this.getWindow();
 			if (window == null) {
 				if (logger.isLoggable(Level.INFO)) {
-					logger.info("actionPerformed(): WindowImpl is no longer available.");
+					logger.info("run(): WindowImpl is no longer available.");
 				}
 				return;
 			}
-			if (this.removeTask) {
-				window.forgetTask(this.timeIDInt, false);
-			}
 			final HTMLDocumentImpl doc = (HTMLDocumentImpl) window.getDocument();
 			if (doc == null) {
 				throw new IllegalStateException("Cannot perform operation when document is unset.");
 			}
 			evalInScope(window, this.expression);
 		} catch (final Throwable err) {
-			logger.log(Level.WARNING, "actionPerformed()", err);
+			logger.log(Level.WARNING, "run()", err);
 		}
 	}
 	
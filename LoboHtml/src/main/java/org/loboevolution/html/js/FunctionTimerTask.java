@@ -20,7 +20,6 @@
 
 package org.loboevolution.html.js;
 
-import java.awt.event.ActionEvent;
 import java.lang.ref.WeakReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -34,40 +33,29 @@ class FunctionTimerTask extends WeakWindowTask {
 	
 	private final WeakReference<Function> functionRef;
 
-	private final boolean removeTask;
-
-	private final Integer timeIDInt;
-
 	/**
 	 * <p>Constructor for FunctionTimerTask.</p>
 	 *
 	 * @param window a {@link org.loboevolution.html.js.WindowImpl} object.
-	 * @param timeIDInt a {@link java.lang.Integer} object.
 	 * @param function a {@link org.mozilla.javascript.Function} object.
-	 * @param removeTask a boolean.
 	 */
-	public FunctionTimerTask(WindowImpl window, Integer timeIDInt, Function function, boolean removeTask) {
+	public FunctionTimerTask(WindowImpl window, Function function) {
 		super(window);
-		this.timeIDInt = timeIDInt;
 		this.functionRef = new WeakReference<>(function);
-		this.removeTask = removeTask;
 	}
 
 	/** {@inheritDoc} */
 	@Override
-	public void actionPerformed(final ActionEvent e) {
-		// This executes in the GUI thread and that's good.
+	public void run() {
+		// This executes in the event loop of the window.
 		try {
 			final WindowImpl window = this.getWindow();
 			if (window == null) {
 				if (logger.isLoggable(Level.INFO)) {
-					logger.info("actionPerformed(): WindowImpl is no longer available.");
+					logger.info("run(): WindowImpl is no longer available.");
 				}
 				return;
 			}
-			if (this.removeTask) {
-				window.forgetTask(this.timeIDInt, false);
-			}
 			final HTMLDocumentImpl doc = (HTMLDocumentImpl) window.getDocument();
 			if (doc == null) {
 				throw new IllegalStateException("Cannot perform operation when document is unset.");
@@ -78,7 +66,7 @@ class FunctionTimerTask extends WeakWindowTask {
 			}
 			Executor.executeFunction(window.getWindowScope(), function, doc.getDocumentURL(), window.getUserAgentContext());
 		} catch (final Throwable err) {
-			logger.log(Level.WARNING, "actionPerformed()", err);
+			logger.log(Level.WARNING, "run()", err);
 		}
 	}
 }
@@ -0,0 +1,307 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.html.js;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.loboevolution.store.SQLiteCommon;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Script;
+
+/**
+ * <p>ScriptCache class.</p>
+ *
+ * Process wide cache of compiled scripts, keyed by the SHA-256 of the language
+ * version, optimization level, source name and source. Scripts are held in LRU
+ * order, up to a number of entries (system property
+ * {@code lobo.scriptCache.maxEntries}, 128 by default). When the network cache
+ * is enabled, the interpreter bytecode of the external scripts is also
+ * serialized under the cache store, so that later sessions skip the parser and
+ * the code generator as well. The files are keyed by a hash of the classes of
+ * the interpreter as well, so a build that changes the bytecode format never
+ * reads the files of another one; a file that does not deserialize is deleted.
+ * <p>
+ * A script may run on several threads at once. The bytecode is immutable; the
+ * inline caches and the tiered counters that go with it are only used by one
+ * thread, the others run the script without them.
+ *
+ *
+ */
+public final class ScriptCache {
+
+	/** The Constant logger. */
+	private static final Logger logger = Logger.getLogger(ScriptCache.class.getName());
+
+	/** The default number of entries. */
+	private static final int DEFAULT_MAX_ENTRIES = 128;
+
+	/** The directory of the serialized scripts. */
+	private static final String SCRIPTS_DIR = "scripts";
+
+	/** The version of the serialized form, bumped when it changes. */
+	private static final int FORMAT = 2;
+
+	/** The classes that define the bytecode and its serialized form. */
+	private static final String[] ENGINE_CLASSES = { "Context", "Icode", "Interpreter", "InterpreterData",
+			"InterpretedFunction", "NativeFunction", "Token" };
+
+	/** The hash of the engine classes, or null if they can not be read. */
+	private static final String ENGINE_ID = engineId();
+
+	/** The Constant INSTANCE. */
+	private static final ScriptCache INSTANCE = new ScriptCache(Integer.getInteger("lobo.scriptCache.maxEntries", DEFAULT_MAX_ENTRIES));
+
+	/** The scripts, in access order. */
+	private final LinkedHashMap<String, Entry> scripts = new LinkedHashMap<>(64, 0.75f, true);
+
+	/** The max number of entries. */
+	private final int maxEntries;
+
+	private long hits;
+
+	private long diskHits;
+
+	private long misses;
+
+	private long evictions;
+
+	/** The time spent compiling. */
+	private long compileNanos;
+
+	/** The compile time saved by the hits. */
+	private long savedNanos;
+
+	private ScriptCache(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * <p>getInstance.</p>
+	 *
+	 * @return a {@link org.loboevolution.html.js.ScriptCache} object.
+	 */
+	public static ScriptCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Returns the compiled script of source, compiling it on a miss.
+	 *
+	 * @param ctx a {@link org.mozilla.javascript.Context} object.
+	 * @param source the source.
+	 * @param sourceName the source name, usually the url.
+	 * @param persistent true to store the compiled script on disk as well, that
+	 *                   is for external scripts when the network cache is enabled.
+	 * @return a {@link org.mozilla.javascript.Script} object.
+	 */
+	public Script getScript(Context ctx, String source, String sourceName, boolean persistent) {
+		final String code = source == null ? "" : source;
+		final String key = key(ctx, code, sourceName);
+		synchronized (this) {
+			final Entry entry = scripts.get(key);
+			if (entry != null) {
+				hits++;
+				savedNanos += entry.compileNanos;
+				return entry.script;
+			}
+		}
+
+		final boolean disk = persistent && ctx.getOptimizationLevel() < 0 && ENGINE_ID != null;
+		if (disk) {
+			final long start = System.nanoTime();
+			final Entry entry = read(key);
+			if (entry != null) {
+				synchronized (this) {
+					diskHits++;
+					savedNanos += Math.max(0, entry.compileNanos - (System.nanoTime() - start));
+					put(key, entry);
+				}
+				return entry.script;
+			}
+		}
+
+		final long start = System.nanoTime();
+		final Script script = ctx.compileString(code, sourceName, 1, null);
+		final Entry entry = new Entry(script, System.nanoTime() - start);
+		synchronized (this) {
+			misses++;
+			compileNanos += entry.compileNanos;
+			put(key, entry);
+		}
+		if (disk) {
+			write(key, entry);
+		}
+		return script;
+	}
+
+	/**
+	 * Drops every compiled script held in memory.
+	 */
+	public synchronized void clear() {
+		scripts.clear();
+	}
+
+	/**
+	 * <p>getStatistics.</p>
+	 *
+	 * @return a {@link java.lang.String} object.
+	 */
+	public synchronized String getStatistics() {
+		return "hits=" + hits + ", diskHits=" + diskHits + ", misses=" + misses + ", evictions=" + evictions
+				+ ", entries=" + scripts.size() + "/" + maxEntries + ", compileMs=" + compileNanos / 1000000
+				+ ", savedMs=" + savedNanos / 1000000;
+	}
+
+	private void put(String key, Entry entry) {
+		scripts.put(key, entry);
+		while (scripts.size() > maxEntries) {
+			scripts.remove(scripts.keySet().iterator().next());
+			evictions++;
+		}
+	}
+
+	private static Entry read(String key) {
+		final File file = getScriptFile(key);
+		if (!file.isFile()) {
+			return null;
+		}
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()));
+				ObjectInputStream ois = new ObjectInputStream(in)) {
+			if (ois.readInt() == FORMAT && ENGINE_ID.equals(ois.readUTF())) {
+				final long nanos = ois.readLong();
+				return new Entry((Script) ois.readObject(), nanos);
+			}
+		} catch (Exception | LinkageError e) {
+			logger.log(Level.WARNING, "Discarding the compiled script " + file, e);
+		}
+		delete(file);
+		return null;
+	}
+
+	private static void write(String key, Entry entry) {
+		final File file = getScriptFile(key);
+		Path tmp = null;
+		try {
+			file.getParentFile().mkdirs();
+			tmp = Files.createTempFile(file.getParentFile().toPath(), key, ".tmp");
+			try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp));
+					ObjectOutputStream oos = new ObjectOutputStream(out)) {
+				oos.writeInt(FORMAT);
+				oos.writeUTF(ENGINE_ID);
+				oos.writeLong(entry.compileNanos);
+				oos.writeObject(entry.script);
+			}
+			Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (Exception e) {
+			logger.log(Level.WARNING, "Unable to store the compiled script " + file, e);
+			if (tmp != null) {
+				delete(tmp.toFile());
+			}
+		}
+	}
+
+	private static void delete(File file) {
+		try {
+			Files.deleteIfExists(file.toPath());
+		} catch (Exception e) {
+			logger.log(Level.SEVERE, e.getMessage(), e);
+		}
+	}
+
+	private static File getScriptFile(String key) {
+		final File dir = new File(new File(SQLiteCommon.getCacheStore(), SCRIPTS_DIR), key.substring(0, 2));
+		return new File(dir, key);
+	}
+
+	private static String key(Context ctx, String source, String sourceName) {
+		try {
+			final MessageDigest md = MessageDigest.getInstance("SHA-256");
+			md.update((ENGINE_ID + "\n" + ctx.getLanguageVersion() + "\n" + ctx.getOptimizationLevel() + "\n" + sourceName + "\n").getBytes(StandardCharsets.UTF_8));
+			return toHex(md.digest(source.getBytes(StandardCharsets.UTF_8)));
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Hashes the class files of the interpreter, which change whenever the
+	 * bytecode or the classes serialized with it do.
+	 */
+	private static String engineId() {
+		try {
+			final MessageDigest md = MessageDigest.getInstance("SHA-256");
+			final byte[] buffer = new byte[8192];
+			for (final String name : ENGINE_CLASSES) {
+				try (InputStream in = Context.class.getResourceAsStream(name + ".class")) {
+					if (in == null) {
+						logger.warning("Compiled scripts are not stored: class " + name + " not found.");
+						return null;
+					}
+					int n;
+					while ((n = in.read(buffer)) != -1) {
+						md.update(buffer, 0, n);
+					}
+				}
+			}
+			return toHex(md.digest());
+		} catch (Exception e) {
+			logger.log(Level.WARNING, "Compiled scripts are not stored.", e);
+			return null;
+		}
+	}
+
+	private static String toHex(byte[] digest) {
+		final StringBuilder sb = new StringBuilder(digest.length * 2);
+		for (final byte b : digest) {
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * A compiled script and the time it took to compile.
+	 */
+	private static final class Entry {
+
+		private final Script script;
+
+		private final long compileNanos;
+
+		private Entry(Script script, long compileNanos) {
+			this.script = script;
+			this.compileNanos = compileNanos;
+		}
+	}
+}
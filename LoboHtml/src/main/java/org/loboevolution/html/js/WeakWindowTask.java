@@ -20,10 +20,9 @@
 
 package org.loboevolution.html.js;
 
-import java.awt.event.ActionListener;
 import java.lang.ref.WeakReference;
 
-abstract class WeakWindowTask implements ActionListener {
+abstract class WeakWindowTask implements Runnable {
 	private final WeakReference<WindowImpl> windowRef;
 
 	/**
@@ -56,8 +56,6 @@ import org.mozilla.javascript.Scriptable;
 import org.mozilla.javascript.ScriptableObject;
 import org.w3c.dom.events.EventException;
 
-import javax.swing.Timer;
-import java.awt.event.ActionListener;
 import java.lang.ref.Reference;
 import java.lang.ref.WeakReference;
 import java.net.MalformedURLException;
@@ -75,7 +73,7 @@ public class WindowImpl extends WindowEventHandlersImpl implements Window {
 
 	private static final Map<HtmlRendererContext, WeakReference<WindowImpl>> CONTEXT_WINDOWS = new WeakHashMap<>();
 
-	private Map<Integer, TaskWrapper> taskMap;
+	private final EventLoop eventLoop = new EventLoop(this);
 
 	private List<String> msg;
 
@@ -157,20 +155,30 @@ public class WindowImpl extends WindowEventHandlersImpl implements Window {
 		if (prevDocument != document) {
 			final Function onunload = getOnunload();
 			if (onunload != null) {
-				Executor.executeFunction(this.getWindowScope(), onunload, prevDocument.getDocumentURL(), this.getUaContext());
+				this.eventLoop.invokeAndWait(() -> Executor.executeFunction(this.getWindowScope(), onunload,
+						prevDocument.getDocumentURL(), this.getUaContext()));
 				setOnunload(null);
 			}
 
 			if (prevDocument != null) {
 				this.clearState();
 			}
-			this.forgetAllTasks();
+			this.eventLoop.cancelAll();
 			this.initWindowScope(document);
 			document.setUserData(Executor.SCOPE_KEY, getWindowScope(), null);
 			this.document = document;
 		}
 	}
 
+	/**
+	 * <p>Getter for the field eventLoop.</p>
+	 *
+	 * @return a {@link org.loboevolution.html.js.EventLoop} object.
+	 */
+	public EventLoop getEventLoop() {
+		return this.eventLoop;
+	}
+
 	/**
 	 * <p>getHtmlRendererContext.</p>
 	 *
@@ -224,12 +232,16 @@ public class WindowImpl extends WindowEventHandlersImpl implements Window {
 				return windowScope;
 			}
 			final Context ctx = Context.enter();
+			final int version = ctx.getLanguageVersion();
 			try {
+				// the version of the scripts, which also defines the typed arrays
+				ctx.setLanguageVersion(Context.VERSION_1_8);
 				windowScope = (Scriptable) JavaScript.getInstance().getJavascriptObject(this, null);
 				windowScope = ctx.initSafeStandardObjects((ScriptableObject)windowScope);
 				this.windowScope = windowScope;
 				return windowScope;
 			} finally {
+				ctx.setLanguageVersion(version);
 				Context.exit();
 			}
 		}
@@ -289,15 +301,13 @@ public class WindowImpl extends WindowEventHandlersImpl implements Window {
 	/** {@inheritDoc} */
 	@Override
 	public void clearInterval(final int aTimerID) {
-		final Integer key = aTimerID;
-		forgetTask(key, true);
+		this.eventLoop.cancel(aTimerID);
 	}
 
 	/** {@inheritDoc} */
 	@Override
 	public void clearTimeout(final int timeoutID) {
-		final Integer key = timeoutID;
-		forgetTask(key, true);
+		this.eventLoop.cancel(timeoutID);
 	}
 
 	/** {@inheritDoc} */
@@ -631,26 +641,21 @@ public class WindowImpl extends WindowEventHandlersImpl implements Window {
 			throw new IllegalArgumentException("Timeout value " + aTimeInMs + " is not supported.");
 		}
 		final int timeID = generateTimerID();
-		final Integer timeIDInt = timeID;
-		ActionListener task = null;
+		Runnable task = null;
 
 		if(aFunction instanceof Function){
 			Function function = (Function) aFunction;
-			task = new FunctionTimerTask(this, timeIDInt, function, false);
+			task = new FunctionTimerTask(this, function);
 		}
 
 		if(aFunction instanceof String){
 			String aExpression = (String) aFunction;
-			task = new ExpressionTimerTask(this, timeIDInt, aExpression, false);
+			task = new ExpressionTimerTask(this, aExpression);
 		}
 
-		int t = (int) aTimeInMs;
-		if (t < 1) {
-			t = 1;
+		if (task != null) {
+			this.eventLoop.schedule(timeID, task, (long) aTimeInMs, true); // The only difference with setTimeout
 		}
-		final Timer timer = new Timer(t, task);
-		timer.setRepeats(true); // The only difference with setTimeout
-		putAndStartTask(timeIDInt, timer, aFunction);
 		return timeID;
 	}
 
@@ -727,29 +732,38 @@ public class WindowImpl extends WindowEventHandlersImpl implements Window {
 			throw new IllegalArgumentException("Timeout value " + millis + " is not supported.");
 		}
 		final int timeID = generateTimerID();
-		final Integer timeIDInt = timeID;
-		ActionListener task = null;
+		Runnable task = null;
 
 		if(function instanceof Function) {
 			Function fun = (Function) function;
-			task = new FunctionTimerTask(this, timeIDInt, fun, true);
+			task = new FunctionTimerTask(this, fun);
 		}
 
 		if(function instanceof String){
 			String expr = (String)function;
-			task = new ExpressionTimerTask(this, timeIDInt, expr, true);
+			task = new ExpressionTimerTask(this, expr);
 		}
 
-		int t = (int) millis;
-		if (t < 1) {
-			t = 1;
+		if (task != null) {
+			this.eventLoop.schedule(timeID, task, (long) millis, false);
 		}
-		final Timer timer = new Timer(t, task);
-		timer.setRepeats(false);
-		putAndStartTask(timeIDInt, timer, function);
 		return timeID;
 	}
 
+	/** {@inheritDoc} */
+	@Override
+	public void queueMicrotask(final Object function) {
+		if (function instanceof Function) {
+			final Function fun = (Function) function;
+			this.eventLoop.queueMicrotask(() -> {
+				final HTMLDocumentImpl doc = this.document;
+				if (doc != null) {
+					Executor.executeFunction(getWindowScope(), fun, doc.getDocumentURL(), getUserAgentContext());
+				}
+			});
+		}
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public void addEventListener(final String type, final Function listener) {
@@ -1183,7 +1197,7 @@ public class WindowImpl extends WindowEventHandlersImpl implements Window {
 				throw new IllegalStateException(
 						"Cannot perform operation with documents of type " + doc.getClass().getName() + ".");
 			}
-			return new XMLHttpRequest(getUaContext(), hd.getDocumentURL(), ws);
+			return new XMLHttpRequest(getUaContext(), hd.getDocumentURL(), ws, this.eventLoop);
 		};
 
 		js.defineJsObject(ws, "XMLSerializer",  XMLSerializer.class, XMLSerializer::new);
@@ -1210,22 +1224,6 @@ public class WindowImpl extends WindowEventHandlersImpl implements Window {
 
 	}
 
-	private void forgetAllTasks() {
-		TaskWrapper[] oldTaskWrappers = null;
-		synchronized (this) {
-			final Map<Integer, TaskWrapper> taskMap = this.taskMap;
-			if (taskMap != null) {
-				oldTaskWrappers = taskMap.values().toArray(new TaskWrapper[0]);
-				this.taskMap = null;
-			}
-		}
-		if (oldTaskWrappers != null) {
-			for (final TaskWrapper taskWrapper : oldTaskWrappers) {
-				taskWrapper.timer.stop();
-			}
-		}
-	}
-
 	private void clearState() {
 		Context.enter();
 		try {
@@ -1245,38 +1243,6 @@ public class WindowImpl extends WindowEventHandlersImpl implements Window {
 		}
 	}
 
-	private void putAndStartTask(final Integer timeoutID, final Timer timer, final Object retained) {
-		TaskWrapper oldTaskWrapper = null;
-		synchronized (this) {
-			Map<Integer, TaskWrapper> taskMap = this.taskMap;
-			if (taskMap == null) {
-				taskMap = new HashMap<>(4);
-				this.taskMap = taskMap;
-			} else {
-				oldTaskWrapper = taskMap.get(timeoutID);
-			}
-			taskMap.put(timeoutID, new TaskWrapper(timer, retained));
-		}
-		// Do this outside synchronized block, just in case.
-		if (oldTaskWrapper != null) {
-			oldTaskWrapper.timer.stop();
-		}
-		timer.start();
-	}
-
-	void forgetTask(final Integer timeoutID, final boolean cancel) {
-		TaskWrapper oldTimer = null;
-		synchronized (this) {
-			final Map<Integer, TaskWrapper> taskMap = this.taskMap;
-			if (taskMap != null) {
-				oldTimer = taskMap.remove(timeoutID);
-			}
-		}
-		if (oldTimer != null && cancel) {
-			oldTimer.timer.stop();
-		}
-	}
-
 	@Override
 	public String toString() {
 		return "[object Window]";
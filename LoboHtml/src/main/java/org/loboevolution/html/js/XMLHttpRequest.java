@@ -21,6 +21,9 @@
 package org.loboevolution.html.js;
 
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -33,6 +36,8 @@ import org.loboevolution.js.JavaScript;
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.Function;
 import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.json.JsonParser;
+import org.mozilla.javascript.typedarrays.NativeArrayBuffer;
 import org.loboevolution.html.node.Document;
 
 /**
@@ -55,6 +60,26 @@ public class XMLHttpRequest extends AbstractScriptableDelegate {
 
 	private final Scriptable scope;
 
+	/** The loop running the handler for the changes of an asynchronous request, or null. */
+	private final EventLoop eventLoop;
+
+	/** Whether an asynchronous request has been sent and not aborted or opened again. */
+	private volatile boolean sent;
+
+	private String responseType = "";
+
+	/** The ArrayBuffer sharing the content of the response, once asked for. */
+	private NativeArrayBuffer responseBuffer;
+
+	/** The content of the response parsed as JSON, once asked for. */
+	private Object responseJson;
+
+	/** The bytes responseJson was parsed from. */
+	private byte[] responseJsonBytes;
+
+	/** The state seen by the handler running on the event loop, or -1. */
+	private volatile int dispatchedState = -1;
+
 	/**
 	 * <p>Constructor for XMLHttpRequest.</p>
 	 *
@@ -63,21 +88,53 @@ public class XMLHttpRequest extends AbstractScriptableDelegate {
 	 * @param scope a {@link org.mozilla.javascript.Scriptable} object.
 	 */
 	public XMLHttpRequest(UserAgentContext pcontext, java.net.URL codeSource, Scriptable scope) {
+		this(pcontext, codeSource, scope, null);
+	}
+
+	/**
+	 * <p>Constructor for XMLHttpRequest.</p>
+	 *
+	 * @param pcontext a {@link org.loboevolution.http.UserAgentContext} object.
+	 * @param codeSource a {@link java.net.URL} object.
+	 * @param scope a {@link org.mozilla.javascript.Scriptable} object.
+	 * @param eventLoop a {@link org.loboevolution.html.js.EventLoop} object, or null.
+	 */
+	public XMLHttpRequest(UserAgentContext pcontext, java.net.URL codeSource, Scriptable scope, EventLoop eventLoop) {
 		this.request = pcontext.createHttpRequest();
 		this.pcontext = pcontext;
 		this.scope = scope;
 		this.codeSource = codeSource;
+		this.eventLoop = eventLoop;
 	}
 
 	/**
 	 * <p>abort.</p>
 	 */
 	public void abort() {
+		this.sent = false;
 		this.request.abort();
 	}
 
+	private void readyStateChanged() {
+		final EventLoop loop = this.eventLoop;
+		if (this.sent && loop != null && !loop.isLoopThread()) {
+			// changes of an asynchronous request come from a loader thread,
+			// the handler sees the state of the change it runs for
+			final int state = this.request.getReadyState();
+			loop.post(() -> {
+				this.dispatchedState = state;
+				try {
+					executeReadyStateChange();
+				} finally {
+					this.dispatchedState = -1;
+				}
+			});
+		} else {
+			executeReadyStateChange();
+		}
+	}
+
 	private void executeReadyStateChange() {
-		// Not called in GUI thread to ensure consistency of readyState.
 		try {
 			final Function f = XMLHttpRequest.this.getOnreadystatechange();
 			if (f != null) {
@@ -125,7 +182,8 @@ public class XMLHttpRequest extends AbstractScriptableDelegate {
 	 * @return a int.
 	 */
 	public int getReadyState() {
-		return this.request.getReadyState();
+		final int state = this.dispatchedState;
+		return state >= 0 ? state : this.request.getReadyState();
 	}
 
 	/**
@@ -137,6 +195,83 @@ public class XMLHttpRequest extends AbstractScriptableDelegate {
 		return this.request.getResponseBytes();
 	}
 
+	/**
+	 * <p>Getter for the field responseType.</p>
+	 *
+	 * @return a {@link java.lang.String} object.
+	 */
+	public String getResponseType() {
+		return this.responseType;
+	}
+
+	/**
+	 * <p>Setter for the field responseType.</p>
+	 *
+	 * @param responseType a {@link java.lang.String} object.
+	 */
+	public void setResponseType(String responseType) {
+		this.responseType = responseType == null ? "" : responseType;
+	}
+
+	/**
+	 * <p>getResponse.</p>
+	 *
+	 * @return an ArrayBuffer sharing the bytes of the response if the response
+	 *         type is "arraybuffer", the value parsed from them if it is
+	 *         "json" (null if they are not JSON), the response text otherwise.
+	 */
+	public Object getResponse() {
+		if ("json".equals(this.responseType)) {
+			final byte[] bytes = getResponseBytes();
+			if (bytes == null) {
+				return null;
+			}
+			synchronized (this) {
+				if (this.responseJsonBytes != bytes) {
+					this.responseJson = parseJson(bytes);
+					this.responseJsonBytes = bytes;
+				}
+				return this.responseJson;
+			}
+		}
+		if ("arraybuffer".equals(this.responseType)) {
+			final byte[] bytes = getResponseBytes();
+			if (bytes == null) {
+				return null;
+			}
+			synchronized (this) {
+				if (this.responseBuffer == null || this.responseBuffer.getBuffer() != bytes) {
+					this.responseBuffer = new NativeArrayBuffer(ByteBuffer.wrap(bytes));
+				}
+				return this.responseBuffer;
+			}
+		}
+		return getResponseText();
+	}
+
+	/**
+	 * Parses the bytes of a response as JSON. They are decoded as UTF-8 into
+	 * characters the parser reads in place, without a response text.
+	 */
+	private Object parseJson(byte[] bytes) {
+		int offset = 0;
+		if (bytes.length >= 3 && bytes[0] == (byte) 0xEF && bytes[1] == (byte) 0xBB && bytes[2] == (byte) 0xBF) {
+			// byte order mark
+			offset = 3;
+		}
+		final CharBuffer chars = StandardCharsets.UTF_8.decode(ByteBuffer.wrap(bytes, offset, bytes.length - offset));
+		final Context cx = Context.enter();
+		try {
+			return new JsonParser(cx, this.scope).parseValue(chars.array(),
+					chars.arrayOffset() + chars.position(), chars.remaining());
+		} catch (final JsonParser.ParseException e) {
+			logger.log(Level.INFO, "getResponse(): " + e.getMessage());
+			return null;
+		} finally {
+			Context.exit();
+		}
+	}
+
 	/**
 	 * <p>getResponseHeader.</p>
 	 *
@@ -191,6 +326,7 @@ public class XMLHttpRequest extends AbstractScriptableDelegate {
 	 * @throws java.lang.Exception if any.
 	 */
 	public void open(String method, String url) throws Exception {
+		this.sent = false;
 		this.request.open(method, getFullURL(url));
 	}
 
@@ -203,6 +339,7 @@ public class XMLHttpRequest extends AbstractScriptableDelegate {
 	 * @throws java.lang.Exception if any.
 	 */
 	public void open(String method, String url, boolean asyncFlag) throws Exception {
+		this.sent = false;
 		this.request.open(method, getFullURL(url), asyncFlag);
 	}
 
@@ -216,6 +353,7 @@ public class XMLHttpRequest extends AbstractScriptableDelegate {
 	 * @throws java.lang.Exception if any.
 	 */
 	public void open(String method, String url, boolean asyncFlag, String userName) throws Exception {
+		this.sent = false;
 		this.request.open(method, getFullURL(url), asyncFlag, userName);
 	}
 
@@ -230,6 +368,7 @@ public class XMLHttpRequest extends AbstractScriptableDelegate {
 	 * @throws java.lang.Exception if any.
 	 */
 	public void open(String method, String url, boolean asyncFlag, String userName, String password) throws Exception {
+		this.sent = false;
 		this.request.open(method, getFullURL(url), asyncFlag, userName, password);
 	}
 
@@ -240,6 +379,7 @@ public class XMLHttpRequest extends AbstractScriptableDelegate {
 	 * @throws java.lang.Exception if any.
 	 */
 	public void send(String content) throws Exception {
+		this.sent = this.request.isAsync();
 		this.request.send(content);
 	}
 	
@@ -249,7 +389,7 @@ public class XMLHttpRequest extends AbstractScriptableDelegate {
 	 * @throws java.lang.Exception if any.
 	 */
 	public void send() throws Exception {
-		this.request.send(null);
+		send(null);
 	}
 
 	/**
@@ -261,7 +401,7 @@ public class XMLHttpRequest extends AbstractScriptableDelegate {
 		synchronized (this) {
 			this.onreadystatechange = value;
 			if (value != null && !this.listenerAdded) {
-				this.request.addReadyStateChangeListener(this::executeReadyStateChange);
+				this.request.addReadyStateChangeListener(this::readyStateChanged);
 				this.listenerAdded = true;
 			}
 		}
@@ -333,6 +333,27 @@ abstract class BaseBoundableRenderable extends BaseRenderable implements Boundab
 		}
 	}
 
+	/**
+	 * Invalidates this Renderable and its ancestors up to the given one, which
+	 * keeps the layout of its own ancestors untouched.
+	 *
+	 * @param boundary this Renderable or one of its ancestors.
+	 */
+	public final void invalidateLayoutUpTo(BaseBoundableRenderable boundary) {
+		BaseBoundableRenderable renderable = this;
+		for (;;) {
+			if (renderable.layoutUpTreeCanBeInvalidated) {
+				renderable.layoutUpTreeCanBeInvalidated = false;
+				renderable.invalidateLayoutLocal();
+			}
+			final RCollection parent = renderable.getOriginalOrCurrentParent();
+			if (renderable == boundary || !(parent instanceof BaseBoundableRenderable)) {
+				break;
+			}
+			renderable = (BaseBoundableRenderable) parent;
+		}
+	}
+
 	/**
 	 * <p>isValid.</p>
 	 *
@@ -35,8 +35,11 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 
+import javax.swing.SwingUtilities;
+
 import org.loboevolution.common.GUITasks;
 import org.loboevolution.common.Strings;
 import org.loboevolution.html.dom.domimpl.HTMLDocumentImpl;
@@ -52,7 +55,8 @@ import org.loboevolution.http.UserAgentContext;
 import org.loboevolution.info.BackgroundInfo;
 import org.loboevolution.info.BorderInfo;
 import org.loboevolution.laf.ColorFactory;
-import org.loboevolution.net.HttpNetwork;
+import org.loboevolution.net.ResourceLoader;
+import org.loboevolution.net.ResourcePriority;
 
 /**
  * <p>Abstract BaseElementRenderable class.</p>
@@ -225,13 +229,23 @@ public abstract class BaseElementRenderable extends BaseRCollection implements R
 			this.lastBackgroundImageUri = null;
 		} else if (!backgroundImageUri.equals(this.lastBackgroundImageUri)) {
 			this.lastBackgroundImageUri = backgroundImageUri;
-			backgroundImage = HttpNetwork.getImage(lastBackgroundImageUri.toString(), null);
-			if (backgroundImage != null) {
-				final int w = backgroundImage.getWidth(BaseElementRenderable.this);
-				final int h = backgroundImage.getHeight(BaseElementRenderable.this);
-				if (w != -1 && h != -1) {
-					BaseElementRenderable.this.repaint();
-				}
+			this.backgroundImage = null;
+			final CompletableFuture<Image> future = ResourceLoader.getInstance().loadImage(backgroundImageUri.toString(), null, ResourcePriority.VISIBLE_IMAGE);
+			if (future.isDone()) {
+				backgroundImageLoaded(backgroundImageUri, future.getNow(null));
+			} else {
+				future.thenAccept(img -> SwingUtilities.invokeLater(() -> backgroundImageLoaded(backgroundImageUri, img)));
+			}
+		}
+	}
+
+	private void backgroundImageLoaded(URL backgroundImageUri, Image image) {
+		if (image != null && backgroundImageUri.equals(this.lastBackgroundImageUri)) {
+			this.backgroundImage = image;
+			final int w = image.getWidth(BaseElementRenderable.this);
+			final int h = image.getHeight(BaseElementRenderable.this);
+			if (w != -1 && h != -1) {
+				BaseElementRenderable.this.repaint();
 			}
 		}
 	}
@@ -382,6 +396,26 @@ public abstract class BaseElementRenderable extends BaseRCollection implements R
 		}
 	}
 
+	/**
+	 * <p>Getter for the field guiComponents.</p>
+	 *
+	 * @return the components collected below this node in its last layout, or null.
+	 */
+	protected final Collection<Component> getGUIComponents() {
+		return this.guiComponents;
+	}
+
+	/**
+	 * <p>Tells whether the last layout found both a declared width and a declared height.</p>
+	 *
+	 * @return a boolean.
+	 */
+	protected boolean hasDeclaredSize() {
+		final Integer dw = this.declaredWidth;
+		final Integer dh = this.declaredHeight;
+		return dw != null && dh != null && !INVALID_SIZE.equals(dw) && !INVALID_SIZE.equals(dh);
+	}
+
 	/**
 	 * <p>clearStyle.</p>
 	 *
@@ -660,7 +694,6 @@ public abstract class BaseElementRenderable extends BaseRCollection implements R
 				return -1;
 			}
 			String widthText = props.getWidth();
-			final String textContent = element.getTextContent();
 
 			if ("inherit".equalsIgnoreCase(widthText)) {
 				widthText = element.getParentStyle().getWidth();
@@ -674,7 +707,8 @@ public abstract class BaseElementRenderable extends BaseRCollection implements R
 				width = HtmlValues.getPixelSize(widthText, renderState, doc.getDefaultView(), -1, availWidth);
 			}
 
-			if (width == -1 && Strings.isNotBlank(textContent) && renderState.getDisplay() == RenderState.DISPLAY_INLINE_BLOCK) {
+			final String textContent = width == -1 && renderState.getDisplay() == RenderState.DISPLAY_INLINE_BLOCK ? element.getTextContent() : null;
+			if (Strings.isNotBlank(textContent)) {
 				HtmlInsets paddingInsets = renderState.getPaddingInsets();
 				HtmlInsets marginInsets = renderState.getMarginInsets();
 				int right = 0;
@@ -39,6 +39,8 @@ class OverflowException extends Exception {
 	 * @param renderables a {@link java.util.Collection} object.
 	 */
 	public OverflowException(Collection<Renderable> renderables) {
+		// Thrown for every line break, so no stack trace is kept.
+		super(null, null, false, false);
 		this.renderables = renderables;
 	}
 
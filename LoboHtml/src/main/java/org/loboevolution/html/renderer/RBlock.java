@@ -32,8 +32,15 @@ import org.loboevolution.info.FloatingInfo;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseEvent;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
 import java.util.logging.Logger;
 
 /**
@@ -47,6 +54,10 @@ public class RBlock extends BaseElementRenderable {
 
 	/** Constant logger */
 	protected static final Logger logger = Logger.getLogger(RBlock.class.getName());
+
+	/** Size-only layouts remembered per block before they are all dropped. */
+	private static final int MAX_SIZE_ONLY_LAYOUTS = 8;
+
 	private BoundableRenderable armedRenderable;
 	protected final RBlockViewport bodyLayout;
 	private final RBlockScroll scroll;
@@ -63,6 +74,17 @@ public class RBlock extends BaseElementRenderable {
 
 	protected RenderableSpot startSelection;
 
+	/** The inputs of the full layout the viewport currently holds, or null. */
+	private LayoutKey layoutKey;
+
+	private LayoutValue layoutValue;
+
+	/** The sizes found by size-only layouts since the block was last invalidated. */
+	private Map<LayoutKey, LayoutValue> sizeOnlyLayouts;
+
+	/** Whether size-only layouts were dropped since the block was last invalidated. */
+	private boolean sizeOnlyLayoutsTrimmed;
+
 	/**
 	 * <p>Constructor for RBlock.</p>
 	 *
@@ -120,13 +142,49 @@ public class RBlock extends BaseElementRenderable {
 			FloatingBoundsSource floatBoundsSource, int defaultOverflowX, int defaultOverflowY, boolean sizeOnly) {
 
 		final RenderState renderState = this.modelNode.getRenderState();
-		LayoutValue value = forceLayout(renderState, availWidth, availHeight, expandWidth, expandHeight, floatBoundsSource, defaultOverflowX, defaultOverflowY, sizeOnly);
+		final RenderThreadState state = RenderThreadState.getState();
+		final LayoutKey key = new LayoutKey(availWidth, availHeight, expandWidth, expandHeight, floatBoundsSource,
+				defaultOverflowX, defaultOverflowY, state.overrideNoWrap, renderState);
+		LayoutValue value;
+		if (sizeOnly) {
+			final Map<LayoutKey, LayoutValue> sol = this.sizeOnlyLayouts;
+			value = sol == null ? null : sol.get(key);
+		} else {
+			value = key.equals(this.layoutKey) ? this.layoutValue : null;
+		}
+
+		final boolean reused = value != null;
+		if (reused) {
+			// The viewport still holds this layout, or sizes are all that was asked for.
+			state.blocksReused++;
+		} else {
+			value = forceLayout(renderState, availWidth, availHeight, expandWidth, expandHeight, floatBoundsSource, defaultOverflowX, defaultOverflowY, sizeOnly);
+			state.blocksLaidOut++;
+			if (sizeOnly) {
+				Map<LayoutKey, LayoutValue> sol = this.sizeOnlyLayouts;
+				if (sol == null) {
+					sol = new HashMap<>(2);
+					this.sizeOnlyLayouts = sol;
+				} else if (sol.size() >= MAX_SIZE_ONLY_LAYOUTS) {
+					sol.clear();
+					this.sizeOnlyLayoutsTrimmed = true;
+				}
+				sol.put(key, value);
+				this.layoutKey = null;
+				this.layoutValue = null;
+			} else {
+				this.layoutKey = key;
+				this.layoutValue = value;
+			}
+		}
 		this.width = value.width;
 		this.height = value.height;
 		this.hasHScrollBar = value.hasHScrollBar;
 		this.hasVScrollBar = value.hasVScrollBar;
 
-		bodyLayout.positionDelayed();
+		if (!reused) {
+			bodyLayout.positionDelayed();
+		}
 
 		sendGUIComponentsToParent();
 
@@ -471,9 +529,9 @@ public class RBlock extends BaseElementRenderable {
 	 */
 	/** {@inheritDoc} */
 	@Override
-	public Iterator getRenderables() {
+	public Iterator<Renderable> getRenderables() {
 		final RBlockViewport bodyLayout = this.bodyLayout;
-		return new Iterator() {
+		return new Iterator<Renderable>() {
 			private RBlockViewport bl = bodyLayout;
 
 			@Override
@@ -482,7 +540,7 @@ public class RBlock extends BaseElementRenderable {
 			}
 
 			@Override
-			public Object next() {
+			public Renderable next() {
 				if (this.bl == null) {
 					throw new NoSuchElementException();
 				}
@@ -531,6 +589,126 @@ public class RBlock extends BaseElementRenderable {
 	public void invalidateLayoutLocal() {
 		super.invalidateLayoutLocal();
 		scroll.invalidateLayoutLocal();
+		this.layoutKey = null;
+		this.layoutValue = null;
+		this.sizeOnlyLayouts = null;
+		this.sizeOnlyLayoutsTrimmed = false;
+	}
+
+	/**
+	 * <p>Tells whether the content of the block can be laid out again on its
+	 * own, without its ancestors, as long as its size does not change.</p>
+	 *
+	 * This holds for absolutely positioned boxes and for blocks with a declared
+	 * width and height.
+	 *
+	 * @return a boolean.
+	 */
+	protected boolean isLayoutBoundary() {
+		final ModelNode node = this.modelNode;
+		final RenderState rs = node == null ? null : node.getRenderState();
+		if (rs != null) {
+			final int position = rs.getPosition();
+			if (position == RenderState.POSITION_ABSOLUTE || position == RenderState.POSITION_FIXED) {
+				return true;
+			}
+		}
+		return hasDeclaredSize();
+	}
+
+	/**
+	 * <p>Lays the block out again after some of its descendants changed, with
+	 * the inputs of its last layout, so that its ancestors can keep theirs, and
+	 * repaints it.</p>
+	 *
+	 * That is only possible if the block keeps its box and its visual extent,
+	 * if the size-only layouts its ancestors asked for give the same sizes, and
+	 * if nothing laid out below it reaches its ancestors: exported floats, boxes
+	 * positioned against an ancestor or a different set of components. When
+	 * this method returns false the block may be left with a partial layout,
+	 * and the caller has to invalidate the layout of its ancestors.
+	 *
+	 * @param dirty the renderables that changed, the block or its descendants.
+	 * @return true if the ancestors of the block can keep their layout.
+	 */
+	boolean reflow(Collection<? extends BaseBoundableRenderable> dirty) {
+		final LayoutKey key = this.layoutKey;
+		final LayoutValue value = this.layoutValue;
+		if (key == null || this.sizeOnlyLayoutsTrimmed || getExportableFloatingInfo() != null
+				|| hasDelayedPairsForAncestors()) {
+			return false;
+		}
+		final Map<LayoutKey, LayoutValue> sizeOnly = this.sizeOnlyLayouts == null ? Collections.emptyMap()
+				: new HashMap<>(this.sizeOnlyLayouts);
+		final Set<Component> components = getGUIComponentSet();
+		final Insets marginInsets = this.marginInsets;
+		final Insets borderInsets = this.borderInsets;
+		final Insets paddingInsets = this.paddingInsets;
+		final int x = getX();
+		final int y = getY();
+		final int width = this.width;
+		final int height = this.height;
+		final int visualWidth = getVisualWidth();
+		final int visualHeight = getVisualHeight();
+
+		for (BaseBoundableRenderable renderable : dirty) {
+			renderable.invalidateLayoutUpTo(this);
+		}
+		final RenderThreadState state = RenderThreadState.getState();
+		final boolean overrideNoWrap = state.overrideNoWrap;
+		try {
+			for (Map.Entry<LayoutKey, LayoutValue> entry : sizeOnly.entrySet()) {
+				if (!layoutAgain(entry.getKey(), true).equals(entry.getValue())) {
+					return false;
+				}
+			}
+			if (!layoutAgain(key, false).equals(value)) {
+				return false;
+			}
+		} finally {
+			state.overrideNoWrap = overrideNoWrap;
+		}
+
+		// The parent may have given the block a size other than the one it asked for, as tables do with cells.
+		this.width = width;
+		this.height = height;
+		if (getVisualWidth() != visualWidth || getVisualHeight() != visualHeight
+				|| !Objects.equals(this.marginInsets, marginInsets) || !Objects.equals(this.borderInsets, borderInsets)
+				|| !Objects.equals(this.paddingInsets, paddingInsets) || getExportableFloatingInfo() != null
+				|| hasDelayedPairsForAncestors() || !components.equals(getGUIComponentSet())) {
+			return false;
+		}
+		if (!components.isEmpty()) {
+			updateWidgetBounds();
+		}
+		final Rectangle damage = new Rectangle(x - getX(), y - getY(), visualWidth, visualHeight);
+		damage.add(new Rectangle(0, 0, visualWidth, visualHeight));
+		repaint(damage.x, damage.y, damage.width, damage.height);
+		return true;
+	}
+
+	private LayoutValue layoutAgain(LayoutKey key, boolean sizeOnly) {
+		RenderThreadState.getState().overrideNoWrap = key.overrideNoWrap;
+		this.layout(key.availWidth, key.availHeight, key.expandWidth, key.expandHeight, key.floatBoundsSource,
+				key.defaultOverflowX, key.defaultOverflowY, sizeOnly);
+		return new LayoutValue(this.width, this.height, this.hasHScrollBar, this.hasVScrollBar);
+	}
+
+	private Set<Component> getGUIComponentSet() {
+		final Collection<Component> gc = getGUIComponents();
+		return gc == null || gc.isEmpty() ? Collections.emptySet() : new HashSet<>(gc);
+	}
+
+	private boolean hasDelayedPairsForAncestors() {
+		final Collection<DelayedPair> pairs = this.delayedPairs;
+		if (pairs != null) {
+			for (DelayedPair pair : pairs) {
+				if (pair.getContainingBlock() != this) {
+					return true;
+				}
+			}
+		}
+		return false;
 	}
 
 	/** {@inheritDoc} */
@@ -750,7 +928,7 @@ public class RBlock extends BaseElementRenderable {
 					final int overflowY = this.overflowY;
 					if ((overflowX == RenderState.OVERFLOW_NONE || overflowX == RenderState.OVERFLOW_VISIBLE)
 							&& (overflowY == RenderState.OVERFLOW_NONE || overflowY == RenderState.OVERFLOW_VISIBLE)) {
-						bodyLayout.paint(g);
+						paintViewport(g, bodyLayout);
 					} else {
 						// Clip when there potential scrolling or hidden overflow
 						// was requested.
@@ -760,7 +938,7 @@ public class RBlock extends BaseElementRenderable {
 							// Second, translate
 							newG.translate(-insets.left, -insets.top);
 							// Third, paint in clipped + translated region.
-							bodyLayout.paint(newG);
+							paintViewport(newG, bodyLayout);
 						} finally {
 							newG.dispose();
 						}
@@ -786,6 +964,25 @@ public class RBlock extends BaseElementRenderable {
 		}
 	}
 
+	/**
+	 * <p>Paints the content of the block. The graphics are in the coordinates of
+	 * the block, and the viewport is at its scroll origin.</p>
+	 *
+	 * @param g a {@link java.awt.Graphics} object.
+	 * @param bodyLayout the viewport of the block.
+	 */
+	protected void paintViewport(Graphics g, RBlockViewport bodyLayout) {
+		bodyLayout.paint(g);
+	}
+
+	/**
+	 * <p>Repaints the block after its viewport was scrolled. Only the origin of
+	 * the content changed, not the content itself.</p>
+	 */
+	protected void repaintScrolled() {
+		this.repaint();
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public boolean paintSelection(Graphics g, boolean inSelection, RenderableSpot startPoint, RenderableSpot endPoint) {
@@ -943,6 +1140,56 @@ public class RBlock extends BaseElementRenderable {
 		}
 	}
 
+	/**
+	 * The inputs of a block layout. The render state stands for the font and
+	 * the rest of the style of the block and its ancestors, since it is
+	 * replaced whenever that style changes.
+	 */
+	private static class LayoutKey {
+		private final int availWidth;
+		private final int availHeight;
+		private final boolean expandWidth;
+		private final boolean expandHeight;
+		private final FloatingBoundsSource floatBoundsSource;
+		private final int defaultOverflowX;
+		private final int defaultOverflowY;
+		private final boolean overrideNoWrap;
+		private final RenderState renderState;
+
+		public LayoutKey(int availWidth, int availHeight, boolean expandWidth, boolean expandHeight,
+				FloatingBoundsSource floatBoundsSource, int defaultOverflowX, int defaultOverflowY,
+				boolean overrideNoWrap, RenderState renderState) {
+			this.availWidth = availWidth;
+			this.availHeight = availHeight;
+			this.expandWidth = expandWidth;
+			this.expandHeight = expandHeight;
+			this.floatBoundsSource = floatBoundsSource;
+			this.defaultOverflowX = defaultOverflowX;
+			this.defaultOverflowY = defaultOverflowY;
+			this.overrideNoWrap = overrideNoWrap;
+			this.renderState = renderState;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof LayoutKey)) {
+				return false;
+			}
+			final LayoutKey other = (LayoutKey) obj;
+			return this.availWidth == other.availWidth && this.availHeight == other.availHeight
+					&& this.expandWidth == other.expandWidth && this.expandHeight == other.expandHeight
+					&& this.defaultOverflowX == other.defaultOverflowX && this.defaultOverflowY == other.defaultOverflowY
+					&& this.overrideNoWrap == other.overrideNoWrap && this.renderState == other.renderState
+					&& Objects.equals(this.floatBoundsSource, other.floatBoundsSource);
+		}
+
+		@Override
+		public int hashCode() {
+			final FloatingBoundsSource fbs = this.floatBoundsSource;
+			return this.availWidth * 31 + this.availHeight ^ (fbs == null ? 0 : fbs.hashCode());
+		}
+	}
+
 	private static class LayoutValue {
 		public final boolean hasHScrollBar;
 		public final boolean hasVScrollBar;
@@ -955,5 +1202,20 @@ public class RBlock extends BaseElementRenderable {
 			this.hasHScrollBar = hasHScrollBar;
 			this.hasVScrollBar = hasVScrollBar;
 		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof LayoutValue)) {
+				return false;
+			}
+			final LayoutValue other = (LayoutValue) obj;
+			return this.width == other.width && this.height == other.height
+					&& this.hasHScrollBar == other.hasHScrollBar && this.hasVScrollBar == other.hasVScrollBar;
+		}
+
+		@Override
+		public int hashCode() {
+			return this.width * 31 + this.height;
+		}
 	}
 }
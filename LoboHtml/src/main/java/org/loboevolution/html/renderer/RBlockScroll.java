@@ -240,7 +240,7 @@ public class RBlockScroll {
             }
             resetScrollBars(null);
             rBlock.updateWidgetBounds();
-            rBlock.repaint();
+            rBlock.repaintScrolled();
             return bodyLayout.y != prevY;
         }
         return false;
@@ -260,7 +260,7 @@ public class RBlockScroll {
             }
             resetScrollBars(null);
             rBlock.updateWidgetBounds();
-            rBlock.repaint();
+            rBlock.repaintScrolled();
             return bodyLayout.x != prevX;
         }
         return false;
@@ -108,6 +108,10 @@ public class RBlockViewport extends BaseRCollection {
 
 	private List<Renderable> seqRenderables = null;
 
+	private Map<NodeImpl, TextRun> textRuns = null;
+
+	private int textRunPass;
+
 	private boolean sizeOnly;
 	
 	private int yLimit;
@@ -941,6 +945,24 @@ public class RBlockViewport extends BaseRCollection {
 		}
 	}
 
+	/**
+	 * <p>Checks whether the viewport holds fixed positioned renderables, which
+	 * stay in place when the viewport is scrolled.</p>
+	 *
+	 * @return true if any of its positioned renderables is fixed.
+	 */
+	public boolean hasFixedRenderables() {
+		final SortedSet<PositionedRenderable> others = this.positionedRenderables;
+		if (others != null) {
+			for (PositionedRenderable pr : others) {
+				if (pr.isFixed()) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
 	void importDelayedPair(final DelayedPair pair) {
 		final BoundableRenderable r = pair.positionPairChild();
 		this.addPositionedRenderable(r, false, false, pair.isFixed());
@@ -1308,6 +1330,8 @@ public class RBlockViewport extends BaseRCollection {
 		// Remove exporatable floats...
 		this.exportableFloats = null;
 
+		this.textRunPass++;
+
 		// Call addLine after setting margins
 		this.currentLine = addLine(rootNode, null, this.paddingInsets.top);
 
@@ -1317,6 +1341,13 @@ public class RBlockViewport extends BaseRCollection {
 
 		// This adds last-line floats.
 		lineDone(this.currentLine);
+
+		// Forget the text runs of text nodes that are gone.
+		final Map<NodeImpl, TextRun> runs = this.textRuns;
+		if (runs != null) {
+			final int pass = this.textRunPass;
+			runs.values().removeIf(run -> run.layoutPass != pass);
+		}
 	}
 
 	/**
@@ -1425,43 +1456,22 @@ public class RBlockViewport extends BaseRCollection {
 			final boolean allowOverflow = whiteSpace == RenderState.WS_NOWRAP;
 			this.currentLine.setAllowOverflow(allowOverflow);
 			try {
-				final int length = text.length();
-				boolean firstWord = true;
-				final StringBuilder word = new StringBuilder(12);
-				for (int i = 0; i < length; i++) {
-					char ch = text.charAt(i);
-					if (Character.isWhitespace(ch)) {
-						if (firstWord) {
-							firstWord = false;
-						}
-						final int wlen = word.length();
-						if (wlen > 0) {
-							final RWord rword = new RWord(textNode, word.toString(), this.container, fm, descent,
-									ascentPlusLeading, wordHeight, textTransform);
-							addWordToLine(rword);
-							word.delete(0, wlen);
-						}
+				final TextRun run = getTextRun(textNode, text, fm, textTransform);
+				final int count = run.getWordCount();
+				for (int i = 0; i <= count; i++) {
+					if (run.hasBlankBefore(i)) {
 						final RLine line = this.currentLine;
 						if (line.width > 0) {
 							final RBlank rblank = new RBlank(textNode, fm, this.container, ascentPlusLeading,
 									blankWidth, wordHeight);
 							line.addBlank(rblank);
 						}
-						for (i++; i < length; i++) {
-							ch = text.charAt(i);
-							if (!Character.isWhitespace(ch)) {
-								word.append(ch);
-								break;
-							}
-						}
-					} else {
-						word.append(ch);
 					}
-				}
-				if (word.length() > 0) {
-					final RWord rword = new RWord(textNode, word.toString(), this.container, fm, descent,
-							ascentPlusLeading, wordHeight, textTransform);
-					addWordToLine(rword);
+					if (i < count) {
+						final RWord rword = new RWord(textNode, run.getWord(i), run.getWordWidth(i), this.container,
+								fm, descent, ascentPlusLeading, wordHeight);
+						addWordToLine(rword);
+					}
 				}
 			} finally {
 				this.currentLine.setAllowOverflow(prevAllowOverflow);
@@ -1501,6 +1511,21 @@ public class RBlockViewport extends BaseRCollection {
 		}
 	}
 
+	private TextRun getTextRun(NodeImpl textNode, String text, FontMetrics fm, int textTransform) {
+		Map<NodeImpl, TextRun> runs = this.textRuns;
+		if (runs == null) {
+			runs = new HashMap<>();
+			this.textRuns = runs;
+		}
+		TextRun run = runs.get(textNode);
+		if (run == null || !run.isFor(text, fm, textTransform)) {
+			run = new TextRun(text, fm, textTransform);
+			runs.put(textNode, run);
+		}
+		run.layoutPass = this.textRunPass;
+		return run;
+	}
+
 	private void lineDone(RLine line) {
 		final int yAfterLine = line == null ? this.paddingInsets.top : line.y + line.height;
 		final Collection<RFloatInfo> pfs = this.pendingFloats;
@@ -1838,7 +1863,9 @@ public class RBlockViewport extends BaseRCollection {
 			final int blockShiftRight = paddingInsets.right;
 			final int newX = paddingInsets.left;
 			final FloatingBounds floatBounds = this.floatBounds;
-			final FloatingBoundsSource floatBoundsSource = floatBounds == null ? null
+			// Floats that end above the block cannot affect it, and leaving them out
+			// lets the block reuse its layout when only its position changed.
+			final FloatingBoundsSource floatBoundsSource = floatBounds == null || floatBounds.getClearY(newLineY) <= newLineY ? null
 					: new ParentFloatingBoundsSource(blockShiftRight, expectedWidth, newX, newLineY, floatBounds);
 			renderable.layout(availContentWidth, availContentHeight, true, false, floatBoundsSource, this.sizeOnly);
 			this.addAsSeqBlock(renderable, false, false, false, false);
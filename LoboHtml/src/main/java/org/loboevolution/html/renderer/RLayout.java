@@ -302,8 +302,6 @@ public class RLayout {
 	}
 
 	protected static class ImgLayout extends CommonWidgetLayout {
-		private final Map<String, Image> map = new HashMap<>();
-
 		public ImgLayout() {
 			super(ADD_INLINE);
 		}
@@ -315,7 +313,7 @@ public class RLayout {
 			if (image.getSrc() != null && image.getSrc().endsWith(".svg")) {
 				control = new ImgSvgControl(image);
 			} else {
-				control = new ImgControl(image, map);
+				control = new ImgControl(image);
 			}
 
 			return new RImgControl(markupElement, control, bodyLayout.container, bodyLayout.frameContext, bodyLayout.userAgentContext);
@@ -323,15 +321,13 @@ public class RLayout {
 	}
 
 	protected static class InputLayout extends CommonWidgetLayout {
-		private final Map<String, Image> map = new HashMap<>();
-
 		public InputLayout() {
 			super(ADD_INLINE);
 		}
 
 		@Override
 		protected RElement createRenderable(RBlockViewport bodyLayout, HTMLElementImpl markupElement) {
-			UIControl control = new InputControl((HTMLInputElementImpl) markupElement, map);
+			UIControl control = new InputControl((HTMLInputElementImpl) markupElement);
 			return new RUIControl(markupElement,control, bodyLayout.container,
 					bodyLayout.frameContext, bodyLayout.userAgentContext);
 		}
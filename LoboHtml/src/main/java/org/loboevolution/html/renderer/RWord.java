@@ -28,6 +28,7 @@ import java.awt.Graphics;
 
 import org.loboevolution.html.dom.nodeimpl.ModelNode;
 import org.loboevolution.html.renderstate.RenderState;
+import org.loboevolution.html.renderstate.TextWidthCache;
 
 final class RWord extends BaseBoundableRenderable {
 	public final int ascentPlusLeading;
@@ -59,7 +60,30 @@ final class RWord extends BaseBoundableRenderable {
 		this.height = height;
 		// TODO: In anti-aliasing, stringWidth is said not to be reliable.
 		// Dimensions set when constructed.
-		this.width = fontMetrics.stringWidth(renderedWord);
+		this.width = TextWidthCache.stringWidth(fontMetrics, renderedWord);
+	}
+
+	/**
+	 * <p>Constructor for RWord, for a word already transformed and measured.</p>
+	 *
+	 * @param me a {@link org.loboevolution.html.dom.nodeimpl.ModelNode} object.
+	 * @param shownWord the word, with its text transform applied.
+	 * @param width the width of the word.
+	 * @param container a {@link org.loboevolution.html.renderer.RenderableContainer} object.
+	 * @param fontMetrics a {@link java.awt.FontMetrics} object.
+	 * @param descent a int.
+	 * @param ascentPlusLeading a int.
+	 * @param height a int.
+	 */
+	RWord(ModelNode me, String shownWord, int width, RenderableContainer container, FontMetrics fontMetrics,
+			int descent, int ascentPlusLeading, int height) {
+		super(container, me);
+		this.shownWord = shownWord;
+		this.fontMetrics = fontMetrics;
+		this.descent = descent;
+		this.ascentPlusLeading = ascentPlusLeading;
+		this.height = height;
+		this.width = width;
 	}
 
 	/** {@inheritDoc} */
@@ -281,7 +305,7 @@ final class RWord extends BaseBoundableRenderable {
 		return "RWord[word=" + this.shownWord + "]";
 	}
 
-	private String transformText(String word, int textTransform) {
+	static String transformText(String word, int textTransform) {
 		String string;
 		switch (textTransform) {
 		case RenderState.TEXTTRANSFORM_CAPITALIZE:
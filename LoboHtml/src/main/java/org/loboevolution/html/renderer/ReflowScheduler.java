@@ -0,0 +1,166 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+package org.loboevolution.html.renderer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.loboevolution.html.renderstate.RenderThreadState;
+
+/**
+ * Collects the renderables invalidated by a batch of document changes and lays
+ * out only the subtrees below their nearest layout boundaries.
+ * <p>
+ * A layout boundary is a block whose size does not follow its content, such
+ * as a table cell, an absolutely positioned box or a block with a declared
+ * width and height (see {@link RBlock#isLayoutBoundary()}). When a boundary
+ * keeps its size after its subtree is laid out again, the rest of the document
+ * keeps its layout and only the boundary is repainted. Otherwise, or when a
+ * change has no boundary above it, the layout is invalidated up to the root
+ * block as before.
+ * <p>
+ * This class is expected to be used in the GUI thread.
+ */
+public class ReflowScheduler {
+
+	private static final Logger logger = Logger.getLogger(ReflowScheduler.class.getName());
+
+	private final RBlock rootBlock;
+
+	private final List<BaseBoundableRenderable> dirty = new ArrayList<>();
+
+	private final List<Boolean> contentOnly = new ArrayList<>();
+
+	/**
+	 * <p>Constructor for ReflowScheduler.</p>
+	 *
+	 * @param rootBlock the root block of the document, or null.
+	 */
+	public ReflowScheduler(RBlock rootBlock) {
+		this.rootBlock = rootBlock;
+	}
+
+	/**
+	 * <p>Adds a renderable whose layout is no longer valid.</p>
+	 *
+	 * @param element the renderable.
+	 * @param contentOnly true if only the content of the element changed, and
+	 *        not its own style or attributes, so that it may be a boundary itself.
+	 */
+	public void add(RElement element, boolean contentOnly) {
+		if (element instanceof BaseBoundableRenderable) {
+			this.dirty.add((BaseBoundableRenderable) element);
+			this.contentOnly.add(contentOnly);
+		}
+	}
+
+	/**
+	 * <p>Invalidates the layout of the added renderables up to the root block,
+	 * for when the whole document is going to be laid out anyway.</p>
+	 */
+	public void invalidate() {
+		for (BaseBoundableRenderable renderable : this.dirty) {
+			renderable.invalidateLayoutUpTree();
+		}
+		this.dirty.clear();
+		this.contentOnly.clear();
+	}
+
+	/**
+	 * <p>Lays out the added renderables within their layout boundaries and
+	 * repaints the boundaries.</p>
+	 *
+	 * @return true if the rest of the document keeps its layout, false if the
+	 *         layout was invalidated up to the root block, which then has to
+	 *         be laid out.
+	 */
+	public boolean reflow() {
+		final RBlock root = this.rootBlock;
+		if (this.dirty.isEmpty()) {
+			return true;
+		}
+		if (root == null || !root.isValid()) {
+			invalidate();
+			return false;
+		}
+
+		final Map<RBlock, List<BaseBoundableRenderable>> boundaries = new LinkedHashMap<>();
+		for (int i = 0; i < this.dirty.size(); i++) {
+			final BaseBoundableRenderable renderable = this.dirty.get(i);
+			final RBlock boundary = findBoundary(renderable, this.contentOnly.get(i));
+			if (boundary == null) {
+				invalidate();
+				return false;
+			}
+			boundaries.computeIfAbsent(boundary, k -> new ArrayList<>()).add(renderable);
+		}
+		this.dirty.clear();
+		this.contentOnly.clear();
+
+		final RenderThreadState state = RenderThreadState.getState();
+		state.blocksLaidOut = 0;
+		state.blocksReused = 0;
+		boolean reflowed = true;
+		for (Map.Entry<RBlock, List<BaseBoundableRenderable>> entry : boundaries.entrySet()) {
+			final RBlock boundary = entry.getKey();
+			if (!reflowed || !boundary.reflow(entry.getValue())) {
+				reflowed = false;
+				for (BaseBoundableRenderable renderable : entry.getValue()) {
+					renderable.invalidateLayoutUpTree();
+				}
+				boundary.invalidateLayoutUpTree();
+			}
+		}
+		if (logger.isLoggable(Level.FINE)) {
+			logger.fine("reflow(): " + boundaries.size() + " boundaries " + (reflowed ? "reflowed" : "not reflowed")
+					+ ", laid out " + state.blocksLaidOut + " blocks, reused " + state.blocksReused + ".");
+		}
+		return reflowed;
+	}
+
+	/**
+	 * Finds the nearest layout boundary above a renderable, making sure the
+	 * renderable is still attached to the root block.
+	 */
+	private RBlock findBoundary(BaseBoundableRenderable renderable, boolean contentOnly) {
+		final RBlock root = this.rootBlock;
+		RBlock boundary = null;
+		BaseBoundableRenderable current = contentOnly ? renderable : parentOf(renderable);
+		while (current != null) {
+			if (current == root) {
+				return boundary;
+			}
+			if (boundary == null && current instanceof RBlock && ((RBlock) current).isLayoutBoundary()) {
+				boundary = (RBlock) current;
+			}
+			current = parentOf(current);
+		}
+		return null;
+	}
+
+	private static BaseBoundableRenderable parentOf(BaseBoundableRenderable renderable) {
+		final RCollection parent = renderable.getOriginalOrCurrentParent();
+		return parent instanceof BaseBoundableRenderable ? (BaseBoundableRenderable) parent : null;
+	}
+}
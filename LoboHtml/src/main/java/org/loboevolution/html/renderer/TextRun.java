@@ -0,0 +1,158 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+package org.loboevolution.html.renderer;
+
+import java.awt.FontMetrics;
+
+import org.loboevolution.html.renderstate.RenderState;
+import org.loboevolution.html.renderstate.TextWidthCache;
+
+/**
+ * The words of a text node that is not preformatted, as offsets into its text,
+ * with the shown words and the prefix sums of their widths.
+ * <p>
+ * A run is built once for a text, font and text transform, and kept by the
+ * viewport that lays out the text node, so that laying it out again only
+ * creates the renderables of its words and blanks.
+ */
+final class TextRun {
+
+	private final String text;
+
+	private final FontMetrics fontMetrics;
+
+	private final int textTransform;
+
+	private final int[] starts;
+
+	private final int[] ends;
+
+	private final String[] words;
+
+	/** The width of the words before each word, and of all of them at the end. */
+	private final int[] advances;
+
+	/** The layout pass the run was last used in. */
+	int layoutPass;
+
+	/**
+	 * <p>Constructor for TextRun.</p>
+	 *
+	 * @param text the text of the node.
+	 * @param fontMetrics the font metrics of the node.
+	 * @param textTransform the text transform of the node.
+	 */
+	TextRun(String text, FontMetrics fontMetrics, int textTransform) {
+		this.text = text;
+		this.fontMetrics = fontMetrics;
+		this.textTransform = textTransform;
+		final int length = text.length();
+		int count = 0;
+		boolean inWord = false;
+		for (int i = 0; i < length; i++) {
+			final boolean whitespace = Character.isWhitespace(text.charAt(i));
+			if (!whitespace && !inWord) {
+				count++;
+			}
+			inWord = !whitespace;
+		}
+		final int[] starts = new int[count];
+		final int[] ends = new int[count];
+		final String[] words = new String[count];
+		final int[] advances = new int[count + 1];
+		int w = 0;
+		int i = 0;
+		while (w < count) {
+			while (Character.isWhitespace(text.charAt(i))) {
+				i++;
+			}
+			final int start = i;
+			while (i < length && !Character.isWhitespace(text.charAt(i))) {
+				i++;
+			}
+			final String word = text.substring(start, i);
+			final String shownWord = textTransform == RenderState.TEXTTRANSFORM_NONE ? word
+					: RWord.transformText(word, textTransform);
+			starts[w] = start;
+			ends[w] = i;
+			words[w] = shownWord;
+			advances[w + 1] = advances[w] + TextWidthCache.stringWidth(fontMetrics, shownWord);
+			w++;
+		}
+		this.starts = starts;
+		this.ends = ends;
+		this.words = words;
+		this.advances = advances;
+	}
+
+	/**
+	 * <p>Checks whether the run can be used to lay out a text node.</p>
+	 *
+	 * @param text the text of the node.
+	 * @param fontMetrics the font metrics of the node.
+	 * @param textTransform the text transform of the node.
+	 * @return true if the run was built for the same text, font and transform.
+	 */
+	boolean isFor(String text, FontMetrics fontMetrics, int textTransform) {
+		return this.fontMetrics == fontMetrics && this.textTransform == textTransform && this.text.equals(text);
+	}
+
+	/**
+	 * <p>getWordCount.</p>
+	 *
+	 * @return the number of words.
+	 */
+	int getWordCount() {
+		return this.words.length;
+	}
+
+	/**
+	 * <p>getWord.</p>
+	 *
+	 * @param index the index of the word.
+	 * @return the word, as shown.
+	 */
+	String getWord(int index) {
+		return this.words[index];
+	}
+
+	/**
+	 * <p>getWordWidth.</p>
+	 *
+	 * @param index the index of the word.
+	 * @return the width of the word.
+	 */
+	int getWordWidth(int index) {
+		return this.advances[index + 1] - this.advances[index];
+	}
+
+	/**
+	 * <p>Checks whether there is white space before a word.</p>
+	 *
+	 * @param index the index of the word, or the number of words for the white
+	 *        space at the end of the text.
+	 * @return true if the word is preceded by white space.
+	 */
+	boolean hasBlankBefore(int index) {
+		final int start = index < this.starts.length ? this.starts[index] : this.text.length();
+		final int previousEnd = index == 0 ? 0 : this.ends[index - 1];
+		return start > previousEnd;
+	}
+}
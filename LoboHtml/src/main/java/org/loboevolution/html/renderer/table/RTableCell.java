@@ -199,6 +199,12 @@ public class RTableCell extends RBlock {
 		return true;
 	}
 
+	/** {@inheritDoc} */
+	@Override
+	protected boolean isLayoutBoundary() {
+		return true;
+	}
+
 	/**
 	 * <p>setCellBounds.</p>
 	 *
@@ -126,7 +126,7 @@ public class FontStyleRenderState extends RenderStateDelegator {
 		wi.setAscentPlusLeading(fm.getAscent() + fm.getLeading());
 		wi.setDescent(fm.getDescent());
 		wi.setHeight(fm.getHeight());
-		wi.setWidth(fm.stringWidth(word));
+		wi.setWidth(TextWidthCache.stringWidth(fm, word));
 		map.put(word, wi);
 		return wi;
 	}
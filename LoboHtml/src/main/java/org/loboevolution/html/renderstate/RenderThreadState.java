@@ -42,6 +42,12 @@ public final class RenderThreadState {
 
 	public boolean overrideNoWrap;
 
+	/** Blocks laid out since the counts were last reset. */
+	public int blocksLaidOut;
+
+	/** Blocks whose previous layout was reused since the counts were last reset. */
+	public int blocksReused;
+
 	private RenderThreadState() {
 	}
 }
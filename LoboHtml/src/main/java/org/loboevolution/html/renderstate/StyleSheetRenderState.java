@@ -41,6 +41,7 @@ import java.util.logging.Logger;
 
 import javax.imageio.ImageIO;
 
+import com.gargoylesoftware.css.util.CSSProperties;
 import org.loboevolution.common.Strings;
 import org.loboevolution.html.CSSValues;
 import org.loboevolution.html.dom.HTMLElement;
@@ -296,7 +297,7 @@ public class StyleSheetRenderState implements RenderState {
 				if (bc.equals(CSSValues.INHERIT)) {
 					binfo.setBackgroundColor(this.getPreviousRenderState().getBackgroundColor());
 				} else {
-					binfo.setBackgroundColor(ColorFactory.getInstance().getColor(backgroundColorText));
+					binfo.setBackgroundColor(props.getPropertyColor(CSSProperties.BACKGROUND_COLOR));
 				}
 			}
 			
@@ -378,7 +379,7 @@ public class StyleSheetRenderState implements RenderState {
 					return Color.BLACK;
 				}
 			} else {
-				c = ColorFactory.getInstance().getColor(colorValue);
+				c = props.getPropertyColor(CSSProperties.COLOR);
 				this.iColor = c;
 			}
 			break;
@@ -441,10 +442,8 @@ public class StyleSheetRenderState implements RenderState {
 			this.iDisplay = displayInt;
 			return displayInt;
 		} else {
-			final CSS3Properties props = this.getCssProperties();
-			final String displayText = props == null ? null : props.getDisplay();
-			final String displayTextTL = Strings.isNotBlank(displayText) ? displayText : "";
-			display = CSSValues.get(displayTextTL);
+			final AbstractCSSProperties props = this.getCssProperties();
+			display = props == null ? CSSValues.DEFAULT : props.getPropertyKeyword(CSSProperties.DISPLAY);
 		}
 		
 		switch (display) {
@@ -508,9 +507,7 @@ public class StyleSheetRenderState implements RenderState {
 		}
 		AbstractCSSProperties props = this.getCssProperties();
 		int floatValue = 0;
-		String floatText = props == null ? null : props.getFloat();
-		final String floatTextTL = Strings.isBlank(floatText) ? "" : floatText;
-		CSSValues flt = CSSValues.get(floatTextTL);
+		CSSValues flt = props == null ? CSSValues.DEFAULT : props.getPropertyKeyword(CSSProperties.FLOAT);
 		switch (flt) {
 		case LEFT:
 			floatValue = FLOAT_LEFT;
@@ -653,15 +650,14 @@ public class StyleSheetRenderState implements RenderState {
 		if (props == null) {
 			overflow = OVERFLOW_NONE;
 		} else {
-			String overflowText = props.getPropertyValue("overflow-x");
-			if (overflowText == null) {
-				overflowText = props.getOverflow();
-
-				if (overflowText == null) {
-					return OVERFLOW_NONE;
-				}
+			final CSSValues overx;
+			if (props.getPropertyValue("overflow-x") != null) {
+				overx = props.getPropertyKeyword("overflow-x");
+			} else if (props.getOverflow() != null) {
+				overx = props.getPropertyKeyword(CSSProperties.OVERFLOW);
+			} else {
+				return OVERFLOW_NONE;
 			}
-			CSSValues overx = CSSValues.get(overflowText);
 			switch (overx) {
 			case SCROLL:
 				overflow = OVERFLOW_SCROLL;
@@ -704,15 +700,14 @@ public class StyleSheetRenderState implements RenderState {
 		if (props == null) {
 			overflow = OVERFLOW_NONE;
 		} else {
-			String overflowText = props.getPropertyValue("overflow-y");
-			if (overflowText == null) {
-				overflowText = props.getOverflow();
-
-				if (overflowText == null) {
-					return OVERFLOW_NONE;
-				}
+			final CSSValues overy;
+			if (props.getPropertyValue("overflow-y") != null) {
+				overy = props.getPropertyKeyword("overflow-y");
+			} else if (props.getOverflow() != null) {
+				overy = props.getPropertyKeyword(CSSProperties.OVERFLOW);
+			} else {
+				return OVERFLOW_NONE;
 			}
-			CSSValues overy = CSSValues.get(overflowText);
 			switch (overy) {
 			case SCROLL:
 				overflow = OVERFLOW_SCROLL;
@@ -789,9 +784,7 @@ public class StyleSheetRenderState implements RenderState {
 		}
 		AbstractCSSProperties props = this.getCssProperties();
 		int position = 0;
-		String positionText = props == null ? null : props.getPosition();
-		final String positionTextTL = Strings.isBlank(positionText) ? "" : positionText;
-		CSSValues pos = CSSValues.get(positionTextTL);
+		CSSValues pos = props == null ? CSSValues.DEFAULT : props.getPropertyKeyword(CSSProperties.POSITION);
 		switch (pos) {
 		case ABSOLUTE:
 			position = POSITION_ABSOLUTE;
@@ -987,9 +980,7 @@ public class StyleSheetRenderState implements RenderState {
 		}
 		AbstractCSSProperties props = this.getCssProperties();
 		int visibility;
-		String visibText = props == null ? null : props.getVisibility();
-		final String visibTextTL = Strings.isBlank(visibText) ? "" : visibText;
-		CSSValues visy = CSSValues.get(visibTextTL);
+		CSSValues visy = props == null ? CSSValues.DEFAULT : props.getPropertyKeyword(CSSProperties.VISIBILITY);
 		switch (visy) {
 		case HIDDEN:
 			visibility = VISIBILITY_HIDDEN;
@@ -1023,8 +1014,7 @@ public class StyleSheetRenderState implements RenderState {
 		final AbstractCSSProperties props = getCssProperties();
 		final String whiteSpaceText = props == null ? null : props.getWhiteSpace();
 		int wsValue;
-		final String whiteSpaceTextTL = Strings.isBlank(whiteSpaceText) ? "" : whiteSpaceText;
-		CSSValues white = CSSValues.get(whiteSpaceTextTL);
+		CSSValues white = whiteSpaceText == null ? CSSValues.DEFAULT : props.getPropertyKeyword(CSSProperties.WHITE_SPACE);
 		switch (white) {
 		case NOWRAP:
 			wsValue = WS_NOWRAP;
@@ -1070,7 +1060,7 @@ public class StyleSheetRenderState implements RenderState {
 		wi.setAscentPlusLeading(fm.getAscent() + fm.getLeading());
 		wi.setDescent(fm.getDescent());
 		wi.setHeight(fm.getHeight());
-		wi.setWidth(fm.stringWidth(word));
+		wi.setWidth(TextWidthCache.stringWidth(fm, word));
 		map.put(word, wi);
 		return wi;
 	}
@@ -1179,8 +1169,7 @@ public class StyleSheetRenderState implements RenderState {
 	public int getClear() {
 		if (cachedClear == null) {
 			final AbstractCSSProperties props = this.getCssProperties();
-			final String clearStr = props != null ? props.getClear() : "";
-			CSSValues clear = CSSValues.get(clearStr);
+			CSSValues clear = props != null ? props.getPropertyKeyword(CSSProperties.CLEAR) : CSSValues.DEFAULT;
 			switch (clear) {
 			case RIGHT:
 				cachedClear = LineBreak.RIGHT;
@@ -0,0 +1,104 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.html.renderstate;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.font.FontRenderContext;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>A process-wide cache of the widths of words, by font.</p>
+ *
+ * Render states are invalidated on every style change, so the widths measured
+ * for a document are kept here instead, shared by all documents. Each font
+ * keeps its most recently used words, and long strings such as preformatted
+ * lines are measured without being cached.
+ */
+public final class TextWidthCache {
+
+	static final int MAX_FONTS = 64;
+
+	static final int MAX_WORDS = 2048;
+
+	static final int MAX_WORD_LENGTH = 32;
+
+	private static final Map<Font, Widths> FONTS = new ConcurrentHashMap<>();
+
+	private TextWidthCache() {
+	}
+
+	/**
+	 * <p>Gets the width of a string, as {@link FontMetrics#stringWidth(String)}
+	 * would.</p>
+	 *
+	 * @param fm the font metrics.
+	 * @param text the string.
+	 * @return the width.
+	 */
+	public static int stringWidth(FontMetrics fm, String text) {
+		if (text.length() > MAX_WORD_LENGTH) {
+			return fm.stringWidth(text);
+		}
+		final Font font = fm.getFont();
+		final FontRenderContext frc = fm.getFontRenderContext();
+		Widths widths = FONTS.get(font);
+		if (widths == null) {
+			if (FONTS.size() >= MAX_FONTS) {
+				FONTS.clear();
+			}
+			widths = FONTS.computeIfAbsent(font, f -> new Widths(frc));
+		}
+		if (!widths.frc.equals(frc)) {
+			return fm.stringWidth(text);
+		}
+		synchronized (widths) {
+			final Integer width = widths.get(text);
+			if (width != null) {
+				return width;
+			}
+		}
+		final int width = fm.stringWidth(text);
+		synchronized (widths) {
+			widths.put(text, width);
+		}
+		return width;
+	}
+
+	private static final class Widths extends LinkedHashMap<String, Integer> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient FontRenderContext frc;
+
+		Widths(FontRenderContext frc) {
+			super(64, 0.75f, true);
+			this.frc = frc;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+			return size() > MAX_WORDS;
+		}
+	}
+}
@@ -32,10 +32,12 @@ import org.loboevolution.html.CSSValues;
 import org.loboevolution.html.node.css.CSS3Properties;
 import org.loboevolution.html.style.setter.*;
 import org.loboevolution.js.AbstractScriptableDelegate;
+import org.loboevolution.laf.ColorFactory;
 import org.w3c.dom.DOMException;
 
+import java.awt.Color;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
@@ -74,13 +76,16 @@ public class AbstractCSSProperties extends AbstractScriptableDelegate implements
 
 	private final CSSPropertiesContext context;
 
-	private AbstractCSSProperties localStyleProperties;
+	private volatile AbstractCSSProperties localStyleProperties;
 
 	private String overlayColor;
 
 	private List<CSSStyleDeclarationImpl> styleDeclarations;
 
-	private Map<String, PropertyCSS> valueMap = null;
+	private volatile CSSPropertyTable values = CSSPropertyTable.EMPTY;
+
+	/** The values of custom and unknown properties, by lower case name. */
+	private Map<String, PropertyCSS> otherValues;
 
 	private String cssText;
 
@@ -102,7 +107,7 @@ public class AbstractCSSProperties extends AbstractScriptableDelegate implements
 		synchronized (this) {
 			List<CSSStyleDeclarationImpl> sd = this.styleDeclarations;
 			if (sd == null) {
-				sd = new LinkedList<>();
+				sd = new ArrayList<>(2);
 				this.styleDeclarations = sd;
 			}
 			sd.add(styleDeclaration);
@@ -111,7 +116,7 @@ public class AbstractCSSProperties extends AbstractScriptableDelegate implements
 				final String propertyValue = styleDeclaration.getPropertyValue(propertyName);
 				final String priority = styleDeclaration.getPropertyPriority(propertyName);
 				final boolean important = "important".equals(priority);
-				setPropertyValueProcessed(propertyName.toLowerCase(), propertyValue, styleDeclaration, important);
+				setPropertyValueProcessed(CSSPropertyTable.lowerCaseName(propertyName), propertyValue, styleDeclaration, important);
 			});
 		}
 	}
@@ -2057,26 +2062,90 @@ public class AbstractCSSProperties extends AbstractScriptableDelegate implements
 	 * @return a {@link java.lang.String} object.
 	 */
 	public final String getPropertyValue(String name) {
-		return getPropertyValueLC(name.toLowerCase());
+		return getPropertyValueLC(name);
+	}
+
+	private String getPropertyValueLC(String name) {
+		final int id = CSSPropertyTable.findId(name);
+		return id < 0 ? getOtherValue(name.toLowerCase()) : getPropertyValue(id);
 	}
 
-	private String getPropertyValueLC(String lowerCaseName) {
-		final Map<String, PropertyCSS> vm = this.valueMap;
+	private String getOtherValue(String lowerCaseName) {
+		final AbstractCSSProperties localProps = this.localStyleProperties;
+		if (localProps != null) {
+			final String value = localProps.getOtherValue(lowerCaseName);
+			if (value != null) {
+				return value;
+			}
+		}
 		synchronized (this) {
-			// Local properties have precedence
-			final AbstractCSSProperties localProps = this.localStyleProperties;
-			if (localProps != null) {
-				final String value = localProps.getPropertyValueLC(lowerCaseName);
-				if (value != null) {
-					return value;
-				}
+			final PropertyCSS p = getOtherProperty(lowerCaseName);
+			return p == null ? null : p.value;
+		}
+	}
+
+	private String getPropertyValue(int id) {
+		// Local properties have precedence
+		final AbstractCSSProperties localProps = this.localStyleProperties;
+		if (localProps != null) {
+			final String value = localProps.getPropertyValue(id);
+			if (value != null) {
+				return value;
 			}
-			if (vm != null) {
-				final PropertyCSS p = vm.get(lowerCaseName);
-				return p == null ? null : p.value;
+		}
+		final PropertyCSS p = this.values.get(id);
+		return p == null ? null : p.value;
+	}
+
+	/**
+	 * <p>Gets the keyword a property is set to, parsed once per distinct style.</p>
+	 *
+	 * @param lowerCaseName a {@link java.lang.String} object.
+	 * @return the keyword, {@link CSSValues#DEFAULT} if the property is not set
+	 *         or is not a keyword.
+	 */
+	public final CSSValues getPropertyKeyword(String lowerCaseName) {
+		final int id = CSSPropertyTable.findId(lowerCaseName);
+		if (id < 0) {
+			final String value = getOtherValue(lowerCaseName);
+			return Strings.isBlank(value) ? CSSValues.DEFAULT : CSSValues.get(value);
+		}
+		final CSSValues keyword = getPropertyKeyword(id);
+		return keyword == null ? CSSValues.DEFAULT : keyword;
+	}
+
+	private CSSValues getPropertyKeyword(int id) {
+		final AbstractCSSProperties localProps = this.localStyleProperties;
+		if (localProps != null) {
+			final CSSValues keyword = localProps.getPropertyKeyword(id);
+			if (keyword != null) {
+				return keyword;
 			}
 		}
-		return null;
+		return this.values.getKeyword(id);
+	}
+
+	/**
+	 * <p>Gets the color a property is set to, parsed once per distinct style.</p>
+	 *
+	 * @param lowerCaseName a {@link java.lang.String} object.
+	 * @return the color, or null if the property is not set or is not a color.
+	 */
+	public final Color getPropertyColor(String lowerCaseName) {
+		final int id = CSSPropertyTable.findId(lowerCaseName);
+		if (id < 0) {
+			final String value = getOtherValue(lowerCaseName);
+			return value == null ? null : ColorFactory.getInstance().getColor(value);
+		}
+		return getPropertyColor(id);
+	}
+
+	private Color getPropertyColor(int id) {
+		final AbstractCSSProperties localProps = this.localStyleProperties;
+		if (localProps != null && localProps.getPropertyValue(id) != null) {
+			return localProps.getPropertyColor(id);
+		}
+		return this.values.getColor(id);
 	}
 
 	/**
@@ -2096,13 +2165,13 @@ public class AbstractCSSProperties extends AbstractScriptableDelegate implements
 	 * @param value a {@link java.lang.String} object.
 	 */
 	protected void setPropertyValueLC(String lowerCaseName, String value) {
-		Map<String, PropertyCSS> vm = this.valueMap;
+		final int id = CSSPropertyTable.findId(lowerCaseName);
 		synchronized (this) {
-			if (vm == null) {
-				vm = new HashMap<>(1);
-				this.valueMap = vm;
+			if (id < 0) {
+				setOtherValue(lowerCaseName, new PropertyCSS(value, true));
+			} else {
+				this.values = this.values.with(id, new PropertyCSS(value, true));
 			}
-			vm.put(lowerCaseName, new PropertyCSS(value, true));
 		}
 	}
 
@@ -2153,21 +2222,46 @@ public class AbstractCSSProperties extends AbstractScriptableDelegate implements
 	 * @param important a boolean.
 	 */
 	public final void setPropertyValueLCAlt(String lowerCaseName, String value, boolean important) {
-		Map<String, PropertyCSS> vm = this.valueMap;
+		final int id = CSSPropertyTable.findId(lowerCaseName);
 		synchronized (this) {
-			if (vm == null) {
-				vm = new HashMap<>(1);
-				this.valueMap = vm;
-			} else {
-				if (!important) {
-					final PropertyCSS oldProperty = vm.get(lowerCaseName);
-					if (oldProperty != null && oldProperty.important) {
-						// Ignore setting
-						return;
-					}
+			final CSSPropertyTable vt = this.values;
+			if (!important) {
+				final PropertyCSS oldProperty = id < 0 ? getOtherProperty(lowerCaseName) : vt.get(id);
+				if (oldProperty != null && oldProperty.important) {
+					// Ignore setting
+					return;
 				}
 			}
-			vm.put(lowerCaseName, new PropertyCSS(value, important));
+			if (id < 0) {
+				setOtherValue(lowerCaseName, new PropertyCSS(value, important));
+			} else {
+				this.values = vt.with(id, new PropertyCSS(value, important));
+			}
+		}
+	}
+
+	private PropertyCSS getOtherProperty(String name) {
+		final Map<String, PropertyCSS> ov = this.otherValues;
+		return ov == null ? null : ov.get(name.toLowerCase());
+	}
+
+	private void setOtherValue(String name, PropertyCSS value) {
+		Map<String, PropertyCSS> ov = this.otherValues;
+		if (ov == null) {
+			ov = new HashMap<>(2);
+			this.otherValues = ov;
+		}
+		ov.put(name.toLowerCase(), value);
+	}
+
+	/**
+	 * Replaces the values of this style by an equal table other elements may
+	 * already share. Called once the style of an element is resolved; setting a
+	 * property afterwards copies the table again.
+	 */
+	public void shareValues() {
+		synchronized (this) {
+			this.values = this.values.share();
 		}
 	}
 	
@@ -2197,9 +2291,7 @@ public class AbstractCSSProperties extends AbstractScriptableDelegate implements
 		if (Objects.equals(properties, this)) {
 			throw new IllegalStateException("setting same");
 		}
-		synchronized (this) {
-			this.localStyleProperties = properties;
-		}
+		this.localStyleProperties = properties;
 	}
 
 	/**
@@ -0,0 +1,288 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.html.style;
+
+import java.awt.Color;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.gargoylesoftware.css.util.CSSProperties;
+import org.loboevolution.common.Strings;
+import org.loboevolution.html.CSSValues;
+import org.loboevolution.html.style.setter.PropertyCSS;
+import org.loboevolution.laf.ColorFactory;
+
+/**
+ * <p>An immutable table of CSS property values indexed by property id.</p>
+ *
+ * The names of the known CSS properties, those of
+ * {@link com.gargoylesoftware.css.util.CSSProperties}, are mapped to small
+ * integer ids, and a table keeps its ids sorted next to the values, so a
+ * lookup is a binary search over a few ints. Setting a value returns a new table. Tables with the same content can
+ * be shared between elements through {@link #share()}. A shared table parses
+ * the keywords and colors of its values once, when it is created, so that it
+ * is never written again while other threads read it.
+ */
+public final class CSSPropertyTable {
+
+	/** The table without properties. */
+	public static final CSSPropertyTable EMPTY = new CSSPropertyTable(new int[0], new PropertyCSS[0], true);
+
+	/** A parsed value that is not a color. */
+	private static final Object NO_COLOR = new Object();
+
+	/** The ids of the known CSS properties, by lower case name. */
+	private static final Map<String, Integer> IDS;
+
+	/** The lower case names of the known CSS properties, by id. */
+	private static final String[] NAMES;
+
+	private static final Map<CSSPropertyTable, WeakReference<CSSPropertyTable>> SHARED = new WeakHashMap<>();
+
+	static {
+		final List<String> names = new ArrayList<>();
+		final Map<String, Integer> ids = new HashMap<>();
+		for (Field field : CSSProperties.class.getFields()) {
+			if (field.getType() == String.class) {
+				try {
+					final String name = ((String) field.get(null)).toLowerCase();
+					if (!ids.containsKey(name)) {
+						ids.put(name, names.size());
+						names.add(name);
+					}
+				} catch (final IllegalAccessException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		}
+		IDS = ids;
+		NAMES = names.toArray(new String[0]);
+	}
+
+	private final int[] ids;
+
+	private final PropertyCSS[] values;
+
+	/** The keywords of the values, null unless the table is shared. */
+	private final CSSValues[] keywords;
+
+	/** The colors of the values or NO_COLOR, null unless the table is shared. */
+	private final Object[] colors;
+
+	private int hash;
+
+	private CSSPropertyTable(int[] ids, PropertyCSS[] values) {
+		this(ids, values, false);
+	}
+
+	private CSSPropertyTable(int[] ids, PropertyCSS[] values, boolean shared) {
+		this.ids = ids;
+		this.values = values;
+		if (shared) {
+			this.keywords = new CSSValues[ids.length];
+			this.colors = new Object[ids.length];
+			for (int i = 0; i < ids.length; i++) {
+				final String value = values[i].value;
+				if (value != null) {
+					this.keywords[i] = toKeyword(value);
+					final Color color = ColorFactory.getInstance().getColor(value);
+					this.colors[i] = color == null ? NO_COLOR : color;
+				}
+			}
+		} else {
+			this.keywords = null;
+			this.colors = null;
+		}
+	}
+
+	/**
+	 * <p>Gets the id of a known CSS property. Other names, such as custom
+	 * properties, have no id and are kept by each declaration.</p>
+	 *
+	 * @param name the property name, in any case.
+	 * @return the id, or -1 if the property is not known.
+	 */
+	public static int findId(String name) {
+		Integer id = IDS.get(name);
+		if (id == null) {
+			id = IDS.get(name.toLowerCase());
+		}
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * <p>Gets the lower case name of a property, without allocating it again
+	 * when the property is known.</p>
+	 *
+	 * @param name the property name, in any case.
+	 * @return the lower case name.
+	 */
+	public static String lowerCaseName(String name) {
+		final int id = findId(name);
+		return id < 0 ? name.toLowerCase() : NAMES[id];
+	}
+
+	/**
+	 * <p>get.</p>
+	 *
+	 * @param id the property id.
+	 * @return the value, or null if the property is not set.
+	 */
+	public PropertyCSS get(int id) {
+		final int i = Arrays.binarySearch(this.ids, id);
+		return i < 0 ? null : this.values[i];
+	}
+
+	/**
+	 * <p>Gets the keyword a property is set to.</p>
+	 *
+	 * @param id the property id.
+	 * @return the keyword, {@link CSSValues#DEFAULT} if the value is blank or
+	 *         not a keyword, or null if the property is not set.
+	 */
+	public CSSValues getKeyword(int id) {
+		final int i = Arrays.binarySearch(this.ids, id);
+		if (i < 0 || this.values[i].value == null) {
+			return null;
+		}
+		return this.keywords == null ? toKeyword(this.values[i].value) : this.keywords[i];
+	}
+
+	/**
+	 * <p>Gets the color a property is set to.</p>
+	 *
+	 * @param id the property id.
+	 * @return the color, or null if the property is not set or is not a color.
+	 */
+	public Color getColor(int id) {
+		final int i = Arrays.binarySearch(this.ids, id);
+		if (i < 0 || this.values[i].value == null) {
+			return null;
+		}
+		if (this.colors == null) {
+			return ColorFactory.getInstance().getColor(this.values[i].value);
+		}
+		final Object color = this.colors[i];
+		return color == NO_COLOR ? null : (Color) color;
+	}
+
+	/**
+	 * <p>Returns a table where a property has the given value.</p>
+	 *
+	 * @param id the property id.
+	 * @param value the value.
+	 * @return a new table.
+	 */
+	public CSSPropertyTable with(int id, PropertyCSS value) {
+		final int[] ids = this.ids;
+		final int i = Arrays.binarySearch(ids, id);
+		if (i >= 0) {
+			final PropertyCSS[] newValues = this.values.clone();
+			newValues[i] = value;
+			return new CSSPropertyTable(ids, newValues);
+		}
+		final int at = -i - 1;
+		final int size = ids.length;
+		final int[] newIds = new int[size + 1];
+		final PropertyCSS[] newValues = new PropertyCSS[size + 1];
+		System.arraycopy(ids, 0, newIds, 0, at);
+		System.arraycopy(this.values, 0, newValues, 0, at);
+		newIds[at] = id;
+		newValues[at] = value;
+		System.arraycopy(ids, at, newIds, at + 1, size - at);
+		System.arraycopy(this.values, at, newValues, at + 1, size - at);
+		return new CSSPropertyTable(newIds, newValues);
+	}
+
+	/**
+	 * <p>Returns the table with the same content already shared by other
+	 * elements, or a copy of this one which is shared from now on.</p>
+	 *
+	 * @return a {@link org.loboevolution.html.style.CSSPropertyTable} object.
+	 */
+	public CSSPropertyTable share() {
+		if (this.ids.length == 0) {
+			return EMPTY;
+		}
+		synchronized (SHARED) {
+			final WeakReference<CSSPropertyTable> ref = SHARED.get(this);
+			final CSSPropertyTable shared = ref == null ? null : ref.get();
+			if (shared != null) {
+				return shared;
+			}
+			final CSSPropertyTable table = new CSSPropertyTable(this.ids, this.values, true);
+			SHARED.put(table, new WeakReference<>(table));
+			return table;
+		}
+	}
+
+	/**
+	 * <p>isShared.</p>
+	 *
+	 * @return true if the table was returned by {@link #share()}.
+	 */
+	public boolean isShared() {
+		return this.keywords != null;
+	}
+
+	/**
+	 * <p>size.</p>
+	 *
+	 * @return the number of properties set.
+	 */
+	public int size() {
+		return this.ids.length;
+	}
+
+	private static CSSValues toKeyword(String value) {
+		return CSSValues.get(Strings.isBlank(value) ? "" : value);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public int hashCode() {
+		int h = this.hash;
+		if (h == 0) {
+			h = 31 * Arrays.hashCode(this.ids) + Arrays.hashCode(this.values);
+			this.hash = h;
+		}
+		return h;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof CSSPropertyTable)) {
+			return false;
+		}
+		final CSSPropertyTable other = (CSSPropertyTable) obj;
+		return hashCode() == other.hashCode() && Arrays.equals(this.ids, other.ids) && Arrays.equals(this.values, other.values);
+	}
+}
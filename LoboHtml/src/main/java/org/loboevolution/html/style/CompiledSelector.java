@@ -0,0 +1,383 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.html.style;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.loboevolution.html.dom.HTMLElement;
+import org.loboevolution.html.dom.domimpl.DocumentImpl;
+import org.loboevolution.html.dom.nodeimpl.NodeImpl;
+import org.loboevolution.html.node.Element;
+import org.loboevolution.html.node.Node;
+
+import com.gargoylesoftware.css.parser.condition.Condition;
+import com.gargoylesoftware.css.parser.condition.Condition.ConditionType;
+import com.gargoylesoftware.css.parser.selector.ChildSelector;
+import com.gargoylesoftware.css.parser.selector.DescendantSelector;
+import com.gargoylesoftware.css.parser.selector.DirectAdjacentSelector;
+import com.gargoylesoftware.css.parser.selector.ElementSelector;
+import com.gargoylesoftware.css.parser.selector.GeneralAdjacentSelector;
+import com.gargoylesoftware.css.parser.selector.Selector;
+import com.gargoylesoftware.css.parser.selector.SelectorList;
+import com.gargoylesoftware.css.parser.selector.SimpleSelector;
+
+/**
+ * <p>CompiledSelector class.</p>
+ *
+ * A selector group of querySelector, querySelectorAll, matches and closest,
+ * parsed once and compiled into matchers evaluated from right to left. The tag,
+ * id and classes of every compound are checked before its other conditions, and
+ * a group made of a single selector ending with an id is answered from the id
+ * index of the document.
+ *
+ *
+ */
+public final class CompiledSelector {
+
+	/** The max number of compiled selectors kept. */
+	private static final int MAX_ENTRIES = 256;
+
+	/** The compiled selectors, by selector text. */
+	private static final Map<String, CompiledSelector> CACHE = new LinkedHashMap<String, CompiledSelector>(64, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CompiledSelector> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	/** The matcher of the conditions without a dedicated matcher. */
+	private static final StyleSheetAggregator CONDITIONS = new StyleSheetAggregator();
+
+	/** The selectors of the group. */
+	private final Matcher[] matchers;
+
+	/** The id every element matching the group carries, or null. */
+	private final String id;
+
+	private CompiledSelector(SelectorList selectorList) {
+		this.matchers = new Matcher[selectorList.size()];
+		for (int i = 0; i < matchers.length; i++) {
+			matchers[i] = compile(selectorList.get(i));
+		}
+		this.id = matchers.length == 1 && matchers[0] instanceof CompoundMatcher ? ((CompoundMatcher) matchers[0]).id
+				: matchers.length == 1 && matchers[0] instanceof CombinatorMatcher
+						? ((CombinatorMatcher) matchers[0]).subject.id
+						: null;
+	}
+
+	/**
+	 * <p>compile.</p>
+	 *
+	 * @param selectors the selector group.
+	 * @return the compiled selector, or null if the group can not be parsed.
+	 */
+	public static CompiledSelector compile(String selectors) {
+		synchronized (CACHE) {
+			final CompiledSelector compiled = CACHE.get(selectors);
+			if (compiled != null) {
+				return compiled;
+			}
+		}
+
+		final SelectorList selectorList = CSSUtilities.getSelectorList(selectors);
+		if (selectorList == null) {
+			return null;
+		}
+
+		final CompiledSelector compiled = new CompiledSelector(selectorList);
+		synchronized (CACHE) {
+			CACHE.put(selectors, compiled);
+		}
+		return compiled;
+	}
+
+	/**
+	 * <p>matches.</p>
+	 *
+	 * @param element a {@link org.loboevolution.html.node.Element} object.
+	 * @return true if any selector of the group matches the element.
+	 */
+	public boolean matches(Element element) {
+		if (!(element instanceof HTMLElement)) {
+			return false;
+		}
+		for (Matcher matcher : matchers) {
+			if (matcher.matches((HTMLElement) element)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * <p>first.</p>
+	 *
+	 * @param root a {@link org.loboevolution.html.dom.nodeimpl.NodeImpl} object.
+	 * @return the first descendant of root, in tree order, matching the group, or null.
+	 */
+	public Element first(NodeImpl root) {
+		final List<Element> byId = fromIdIndex(root);
+		if (byId != null) {
+			return byId.isEmpty() ? null : byId.get(0);
+		}
+		return first(root.getNodeList());
+	}
+
+	/**
+	 * <p>all.</p>
+	 *
+	 * @param root a {@link org.loboevolution.html.dom.nodeimpl.NodeImpl} object.
+	 * @return the descendants of root, in tree order, matching the group.
+	 */
+	public List<Node> all(NodeImpl root) {
+		final List<Node> result = new ArrayList<>();
+		final List<Element> byId = fromIdIndex(root);
+		if (byId != null) {
+			result.addAll(byId);
+		} else {
+			all(root.getNodeList(), result);
+		}
+		return result;
+	}
+
+	private Element first(List<Node> children) {
+		for (Node child : children) {
+			if (child instanceof Element) {
+				if (matches((Element) child)) {
+					return (Element) child;
+				}
+				final Element found = first(((NodeImpl) child).getNodeList());
+				if (found != null) {
+					return found;
+				}
+			}
+		}
+		return null;
+	}
+
+	private void all(List<Node> children, List<Node> result) {
+		for (Node child : children) {
+			if (child instanceof Element) {
+				if (matches((Element) child)) {
+					result.add(child);
+				}
+				all(((NodeImpl) child).getNodeList(), result);
+			}
+		}
+	}
+
+	private List<Element> fromIdIndex(NodeImpl root) {
+		if (id == null) {
+			return null;
+		}
+		final DocumentImpl doc = root.getConnectedDocument();
+		if (doc == null) {
+			return null;
+		}
+		final List<Element> elements = doc.getElementsById(id);
+		elements.removeIf(element -> !isProperAncestor(root, element) || !matches(element));
+		return elements;
+	}
+
+	private static boolean isProperAncestor(Node ancestor, Node node) {
+		for (Node parent = node.getParentNode(); parent != null; parent = parent.getParentNode()) {
+			if (parent == ancestor) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static Matcher compile(Selector selector) {
+		switch (selector.getSelectorType()) {
+		case ELEMENT_NODE_SELECTOR:
+			return new CompoundMatcher((ElementSelector) selector);
+		case CHILD_SELECTOR:
+			final ChildSelector cs = (ChildSelector) selector;
+			return combinator(cs, Combinator.CHILD, cs.getSimpleSelector(), cs.getAncestorSelector());
+		case DESCENDANT_SELECTOR:
+			final DescendantSelector ds = (DescendantSelector) selector;
+			return combinator(ds, Combinator.DESCENDANT, ds.getSimpleSelector(), ds.getAncestorSelector());
+		case DIRECT_ADJACENT_SELECTOR:
+			final DirectAdjacentSelector das = (DirectAdjacentSelector) selector;
+			return combinator(das, Combinator.DIRECT_ADJACENT, das.getSimpleSelector(), das.getSelector());
+		case GENERAL_ADJACENT_SELECTOR:
+			final GeneralAdjacentSelector gas = (GeneralAdjacentSelector) selector;
+			return combinator(gas, Combinator.GENERAL_ADJACENT, gas.getSimpleSelector(), gas.getSelector());
+		default:
+			return new FallbackMatcher(selector);
+		}
+	}
+
+	private static Matcher combinator(Selector selector, Combinator combinator, SimpleSelector subject, Selector context) {
+		if (subject.getSelectorType() != Selector.SelectorType.ELEMENT_NODE_SELECTOR) {
+			// The whole selector, so that the context is still checked.
+			return new FallbackMatcher(selector);
+		}
+		return new CombinatorMatcher(combinator, new CompoundMatcher((ElementSelector) subject), compile(context));
+	}
+
+	private enum Combinator {
+		CHILD, DESCENDANT, DIRECT_ADJACENT, GENERAL_ADJACENT
+	}
+
+	/**
+	 * A compiled selector, matched against an element.
+	 */
+	private interface Matcher {
+
+		boolean matches(HTMLElement element);
+	}
+
+	/**
+	 * A compound selector: tag name, id, classes and other conditions.
+	 */
+	private static final class CompoundMatcher implements Matcher {
+
+		private final String tagName;
+
+		private final String id;
+
+		private final String[] classes;
+
+		private final Condition[] conditions;
+
+		private CompoundMatcher(ElementSelector selector) {
+			this.tagName = selector.getLocalNameLowerCase();
+			String elementId = null;
+			final List<String> classList = new ArrayList<>();
+			final List<Condition> others = new ArrayList<>();
+			final List<Condition> selectorConditions = selector.getConditions();
+			if (selectorConditions != null) {
+				for (Condition condition : selectorConditions) {
+					if (condition.getConditionType() == ConditionType.ID_CONDITION && elementId == null) {
+						elementId = condition.getValue();
+					} else if (condition.getConditionType() == ConditionType.CLASS_CONDITION) {
+						classList.add(StyleSheetAggregator.unescape(condition.getValue()));
+					} else {
+						others.add(condition);
+					}
+				}
+			}
+			this.id = elementId;
+			this.classes = classList.toArray(new String[0]);
+			this.conditions = others.toArray(new Condition[0]);
+		}
+
+		@Override
+		public boolean matches(HTMLElement element) {
+			if (tagName != null && !tagName.equalsIgnoreCase(element.getNodeName())) {
+				return false;
+			}
+			if (id != null && !id.equals(element.getId())) {
+				return false;
+			}
+			if (classes.length > 0) {
+				final String className = element.getAttribute("class");
+				for (String clazz : classes) {
+					if (!StyleSheetAggregator.selectsWhitespaceSeparated(clazz, className)) {
+						return false;
+					}
+				}
+			}
+			for (Condition condition : conditions) {
+				if (!CONDITIONS.selects(condition, element, false)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * A compound selector and the selector on the left of its combinator.
+	 */
+	private static final class CombinatorMatcher implements Matcher {
+
+		private final Combinator combinator;
+
+		private final CompoundMatcher subject;
+
+		private final Matcher context;
+
+		private CombinatorMatcher(Combinator combinator, CompoundMatcher subject, Matcher context) {
+			this.combinator = combinator;
+			this.subject = subject;
+			this.context = context;
+		}
+
+		@Override
+		public boolean matches(HTMLElement element) {
+			if (!subject.matches(element)) {
+				return false;
+			}
+			switch (combinator) {
+			case CHILD:
+				final Node parent = element.getParentNode();
+				return parent instanceof HTMLElement && context.matches((HTMLElement) parent);
+			case DESCENDANT:
+				for (Node ancestor = element.getParentNode(); ancestor instanceof HTMLElement; ancestor = ancestor.getParentNode()) {
+					if (context.matches((HTMLElement) ancestor)) {
+						return true;
+					}
+				}
+				return false;
+			case DIRECT_ADJACENT:
+				Node prev = element.getPreviousSibling();
+				while (prev != null && !(prev instanceof HTMLElement)) {
+					prev = prev.getPreviousSibling();
+				}
+				return prev != null && context.matches((HTMLElement) prev);
+			case GENERAL_ADJACENT:
+				for (Node sibling = element.getPreviousSibling(); sibling != null; sibling = sibling.getPreviousSibling()) {
+					if (sibling instanceof HTMLElement && context.matches((HTMLElement) sibling)) {
+						return true;
+					}
+				}
+				return false;
+			default:
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * A selector left to the {@link org.loboevolution.html.style.StyleSheetAggregator}.
+	 */
+	private static final class FallbackMatcher implements Matcher {
+
+		private final Selector selector;
+
+		private FallbackMatcher(Selector selector) {
+			this.selector = selector;
+		}
+
+		@Override
+		public boolean matches(HTMLElement element) {
+			return StyleSheetAggregator.selects(selector, element, null);
+		}
+	}
+}
@@ -125,7 +125,7 @@ public class StyleSheetAggregator {
 		final List<CSSStyleSheetImpl.SelectorEntry> matchingRules = new ArrayList<>();
 		if (isActive(element, index.getMediaList())) {
 			final String elementName = element.getNodeName().toLowerCase();
-			final Iterator<CSSStyleSheetImpl.SelectorEntry> iter = index.getSelectorEntriesIteratorFor(elementName, classes);
+			final Iterator<CSSStyleSheetImpl.SelectorEntry> iter = index.getSelectorEntriesIteratorFor(elementName, element.getId(), classes);
 			CSSStyleSheetImpl.SelectorEntry entry = iter.next();
 			while (null != entry) {
 				if (selects(entry.getSelector(), element, pseudoElement, mouseOver)) {
@@ -221,16 +221,13 @@ public class StyleSheetAggregator {
 		}
 	}
 
-	private boolean selects(final Condition condition, final HTMLElement element, final boolean mouseOver) {
+	boolean selects(final Condition condition, final HTMLElement element, final boolean mouseOver) {
 		switch (condition.getConditionType()) {
 		case ID_CONDITION:
 			return condition.getValue().equals(element.getId());
 
 		case CLASS_CONDITION:
-			String v3 = condition.getValue();
-			if (v3.indexOf('\\') > -1) {
-				v3 = UNESCAPE_SELECTOR.matcher(v3).replaceAll("$1");
-			}
+			final String v3 = unescape(condition.getValue());
 			final String a3 = element.getAttribute("class");
 			return selectsWhitespaceSeparated(v3, a3);
 
@@ -317,7 +314,20 @@ public class StyleSheetAggregator {
 		return attribute.equals(condition);
 	}
 
-	private boolean selectsWhitespaceSeparated(final String condition, final String attribute) {
+	/**
+	 * <p>unescape.</p>
+	 *
+	 * @param value the value of a class or attribute condition.
+	 * @return the value without the escapes of brackets, dots and colons.
+	 */
+	static String unescape(final String value) {
+		if (value.indexOf('\\') > -1) {
+			return UNESCAPE_SELECTOR.matcher(value).replaceAll("$1");
+		}
+		return value;
+	}
+
+	static boolean selectsWhitespaceSeparated(final String condition, final String attribute) {
 		final int conditionLength = condition.length();
 		if (conditionLength < 1 || attribute == null) {
 			return false;
@@ -736,16 +746,19 @@ public class StyleSheetAggregator {
 					final SimpleSelector simpleSel = selector.getSimpleSelector();
 					if (SelectorType.ELEMENT_NODE_SELECTOR == simpleSel.getSelectorType()) {
 						final ElementSelector es = (ElementSelector) simpleSel;
-						boolean wasClass = false;
+						boolean wasKeyed = false;
 						final List<Condition> conds = es.getConditions();
 						if (conds != null && conds.size() == 1) {
 							final Condition c = conds.get(0);
 							if (ConditionType.CLASS_CONDITION == c.getConditionType()) {
 								index.addClassSelector(es, c.getValue(), selector, styleRule);
-								wasClass = true;
+								wasKeyed = true;
+							} else if (ConditionType.ID_CONDITION == c.getConditionType()) {
+								index.addIdSelector(es, c.getValue(), selector, styleRule);
+								wasKeyed = true;
 							}
 						}
-						if (!wasClass) {
+						if (!wasKeyed) {
 							index.addElementSelector(es, selector, styleRule);
 						}
 					} else {
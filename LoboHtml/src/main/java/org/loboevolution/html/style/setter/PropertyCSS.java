@@ -20,6 +20,8 @@
 
 package org.loboevolution.html.style.setter;
 
+import java.util.Objects;
+
 /**
  * <p>PropertyCSS class.</p>
  */
@@ -38,4 +40,23 @@ public class PropertyCSS {
 		this.value = value;
 		this.important = important;
 	}
+
+	/** {@inheritDoc} */
+	@Override
+	public int hashCode() {
+		return Objects.hashCode(this.value) * 2 + (this.important ? 1 : 0);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof PropertyCSS)) {
+			return false;
+		}
+		final PropertyCSS other = (PropertyCSS) obj;
+		return this.important == other.important && Objects.equals(this.value, other.value);
+	}
 }
@@ -35,6 +35,10 @@ import java.net.URL;
 import java.net.URLConnection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -57,6 +61,18 @@ public class HttpRequest {
 
 	private static final Logger logger = Logger.getLogger(HttpRequest.class.getName());
 
+	private static final AtomicInteger threadCount = new AtomicInteger();
+
+	/** The max number of asynchronous requests sent at once. */
+	private static final int MAX_ASYNC_THREADS = Integer.getInteger("lobo.xhr.maxThreads", 6);
+
+	/**
+	 * Sends the asynchronous requests, queueing the ones past
+	 * {@code MAX_ASYNC_THREADS}. It is kept apart from the resource loader, so
+	 * that slow requests do not hold back the page resources.
+	 */
+	private static final ThreadPoolExecutor asyncExecutor = newAsyncExecutor();
+
 	/**
 	 * The complete request state. All operations are finished.
 	 */
@@ -141,6 +157,15 @@ public class HttpRequest {
 		}
 	}
 
+	/**
+	 * <p>isAsync.</p>
+	 *
+	 * @return whether the request is sent asynchronously.
+	 */
+	public synchronized boolean isAsync() {
+		return this.isAsync;
+	}
+
 	/**
 	 * <p>addReadyStateChangeListener.</p>
 	 *
@@ -391,10 +416,22 @@ public class HttpRequest {
 		changeState(HttpRequest.STATE_LOADING, 0, null, null);
 	}
 
+	private static ThreadPoolExecutor newAsyncExecutor() {
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_ASYNC_THREADS, MAX_ASYNC_THREADS, 30,
+				TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+					final Thread t = new Thread(r, "HttpRequest-" + threadCount.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
 	/**
 	 * Sends POST content, if any, and causes the request to proceed.
 	 * <p>
-	 * In the case of asynchronous requests, a new thread is created.
+	 * In the case of asynchronous requests, the request is sent by one of a
+	 * bounded pool of threads.
 	 *
 	 * @param content POST content or null if there's no such content.
 	 * @throws java.lang.Exception if any.
@@ -404,18 +441,14 @@ public class HttpRequest {
 		if (url == null) {
 			throw new Exception("No URL has been provided.");
 		}
-		if (this.isAsync) {
-			// Should use a thread pool instead
-			new Thread("SimpleHttpRequest-" + url.getHost()) {
-				@Override
-				public void run() {
-					try {
-						sendSync(content);
-					} catch (final Throwable thrown) {
-						logger.log(Level.WARNING, "send(): Error in asynchronous request on " + url, thrown);
-					}
+		if (isAsync()) {
+			asyncExecutor.execute(() -> {
+				try {
+					sendSync(content);
+				} catch (final Throwable thrown) {
+					logger.log(Level.WARNING, "send(): Error in asynchronous request on " + url, thrown);
 				}
-			}.start();
+			});
 		} else {
 			sendSync(content);
 		}
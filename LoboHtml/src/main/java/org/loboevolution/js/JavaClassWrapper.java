@@ -21,6 +21,7 @@ package org.loboevolution.js;
 
 import java.lang.reflect.Method;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
 import org.loboevolution.info.PropertyInfo;
@@ -39,6 +40,9 @@ public class JavaClassWrapper {
 	private PropertyInfo nameIndexer;
 	private final Map<String, PropertyInfo> properties = new HashMap<>();
 
+	/** The invokers of the getters and setters of the properties and indexers. */
+	private final Map<Method, JavaInvoker> invokers = new IdentityHashMap<>();
+
 	/**
 	 * <p>Constructor for JavaClassWrapper.</p>
 	 *
@@ -47,6 +51,25 @@ public class JavaClassWrapper {
 	public JavaClassWrapper(Class class1) {
 		this.javaClass = class1;
 		scanMethods();
+		bindAccessors();
+	}
+
+	private void bindAccessors() {
+		for (final PropertyInfo pinfo : this.properties.values()) {
+			bindAccessors(pinfo);
+		}
+		bindAccessors(this.integerIndexer);
+		bindAccessors(this.nameIndexer);
+	}
+
+	private void bindAccessors(PropertyInfo pinfo) {
+		if (pinfo != null) {
+			for (final Method method : new Method[] { pinfo.getGetter(), pinfo.getSetter() }) {
+				if (method != null && !this.invokers.containsKey(method)) {
+					this.invokers.put(method, new JavaInvoker(method));
+				}
+			}
+		}
 	}
 
 	private void ensurePropertyKnown(String methodName, Method method) {
@@ -105,6 +128,17 @@ public class JavaClassWrapper {
 		return this.functions.get(name);
 	}
 
+	/**
+	 * Returns the invoker of a getter or setter of a property of this class.
+	 *
+	 * @param method the getter or setter
+	 * @return a {@link org.loboevolution.js.JavaInvoker} object.
+	 */
+	JavaInvoker getInvoker(Method method) {
+		final JavaInvoker invoker = this.invokers.get(method);
+		return invoker == null ? new JavaInvoker(method) : invoker;
+	}
+
 	/**
 	 * <p>Getter for the field integerIndexer.</p>
 	 *
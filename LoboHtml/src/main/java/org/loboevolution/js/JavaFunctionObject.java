@@ -41,7 +41,7 @@ public class JavaFunctionObject extends ScriptableObject implements Function {
 
 	private static final long serialVersionUID = 1L;
 	private final String className;
-	private final List<Method> methods = new ArrayList<>();
+	private final List<JavaInvoker> methods = new ArrayList<>();
 
 	/**
 	 * <p>Constructor for JavaFunctionObject.</p>
@@ -59,14 +59,14 @@ public class JavaFunctionObject extends ScriptableObject implements Function {
 	 * @param m a {@link java.lang.reflect.Method} object.
 	 */
 	public void addMethod(Method m) {
-		this.methods.add(m);
+		this.methods.add(new JavaInvoker(m));
 	}
 
 	/** {@inheritDoc} */
 	@Override
 	public Object call(Context cx, Scriptable scope, Scriptable thisObj, Object[] args) {
 		final JavaObjectWrapper jcw = (JavaObjectWrapper) thisObj;
-		final Method method = getBestMethod(args);
+		final JavaInvoker method = getBestMethod(args);
 		if (method == null) {
 			throw new EvaluatorException("No method matching " + this.className + " with "
 					+ (args == null ? 0 : args.length) + " arguments.");
@@ -77,9 +77,7 @@ public class JavaFunctionObject extends ScriptableObject implements Function {
 
 		final JavaScript manager = JavaScript.getInstance();
 		for (int i = 0; i < numParams; i++) {
-			final Object arg = args[i];
-			final Object actualArg = manager.getJavaObject(arg, actualArgTypes[i]);
-			actualArgs[i] = actualArg;
+			actualArgs[i] = getJavaObject(manager, args[i], actualArgTypes[i]);
 		}
 		try {
 			final Object raw = method.invoke(jcw.getJavaObject(), actualArgs);
@@ -108,12 +106,29 @@ public class JavaFunctionObject extends ScriptableObject implements Function {
 		throw new UnsupportedOperationException();
 	}
 
-	private Method getBestMethod(Object[] args) {
-		final List<Method> methods = this.methods;
+	/**
+	 * Converts an argument like {@link org.loboevolution.js.JavaScript#getJavaObject(Object, Class)},
+	 * passing the arguments that already have the type of their parameter
+	 * through.
+	 */
+	private static Object getJavaObject(JavaScript manager, Object arg, Class<?> type) {
+		if (type == String.class) {
+			return arg instanceof String ? arg : manager.getJavaObject(arg, type);
+		} else if (type == int.class || type == Integer.class) {
+			return arg instanceof Integer ? arg : manager.getJavaObject(arg, type);
+		} else if (arg instanceof JavaObjectWrapper) {
+			return ((JavaObjectWrapper) arg).getJavaObject();
+		} else {
+			return arg;
+		}
+	}
+
+	private JavaInvoker getBestMethod(Object[] args) {
+		final List<JavaInvoker> methods = this.methods;
 		final int size = methods.size();
 		int matchingNumParams = 0;
-		Method matchingMethod = null;
-		for (final Method m : methods) {
+		JavaInvoker matchingMethod = null;
+		for (final JavaInvoker m : methods) {
 			final Class[] parameterTypes = m.getParameterTypes();
 			if (args == null) {
 				if (parameterTypes == null || parameterTypes.length == 0) {
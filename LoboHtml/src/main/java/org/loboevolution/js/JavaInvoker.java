@@ -0,0 +1,167 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+package org.loboevolution.js;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * <p>JavaInvoker class.</p>
+ *
+ * Calls a method bound to JavaScript through a method handle of generic type
+ * {@code (Object, Object...)Object}, built once per method when its
+ * {@link org.loboevolution.js.JavaClassWrapper} scans the class. A call takes
+ * the handle only when the target and every argument already have the type of
+ * their parameter (or of its box), so that it behaves exactly like
+ * {@link java.lang.reflect.Method#invoke}; any other call goes through
+ * reflection.
+ *
+ *
+ */
+final class JavaInvoker {
+
+	/** The max number of arguments of the calls through a handle. */
+	private static final int MAX_ARITY = 3;
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+	private final Method method;
+
+	private final Class<?>[] parameterTypes;
+
+	/** The parameter types, with the primitive types boxed. */
+	private final Class<?>[] argumentTypes;
+
+	/** The generic handle of the method, or null. */
+	private final MethodHandle handle;
+
+	/**
+	 * <p>Constructor for JavaInvoker.</p>
+	 *
+	 * @param method a {@link java.lang.reflect.Method} object.
+	 */
+	JavaInvoker(Method method) {
+		this.method = method;
+		this.parameterTypes = method.getParameterTypes();
+		this.argumentTypes = new Class<?>[this.parameterTypes.length];
+		for (int i = 0; i < this.argumentTypes.length; i++) {
+			this.argumentTypes[i] = box(this.parameterTypes[i]);
+		}
+		this.handle = handle(method);
+	}
+
+	/**
+	 * <p>Getter for the field method.</p>
+	 *
+	 * @return a {@link java.lang.reflect.Method} object.
+	 */
+	Method getMethod() {
+		return this.method;
+	}
+
+	/**
+	 * <p>Getter for the field parameterTypes.</p>
+	 *
+	 * @return the parameter types, not to be modified
+	 */
+	Class<?>[] getParameterTypes() {
+		return this.parameterTypes;
+	}
+
+	/**
+	 * Invokes the method on target, like {@link java.lang.reflect.Method#invoke}.
+	 *
+	 * @param target the target
+	 * @param args the arguments
+	 * @return the value returned by the method, null if void
+	 * @throws java.lang.IllegalAccessException if any.
+	 * @throws java.lang.reflect.InvocationTargetException if the method throws.
+	 */
+	Object invoke(Object target, Object... args) throws IllegalAccessException, InvocationTargetException {
+		if (this.handle != null && this.method.getDeclaringClass().isInstance(target) && accepts(args)) {
+			try {
+				switch (args.length) {
+				case 0:
+					return (Object) this.handle.invokeExact(target);
+				case 1:
+					return (Object) this.handle.invokeExact(target, args[0]);
+				case 2:
+					return (Object) this.handle.invokeExact(target, args[0], args[1]);
+				default:
+					return (Object) this.handle.invokeExact(target, args[0], args[1], args[2]);
+				}
+			} catch (Throwable t) {
+				throw new InvocationTargetException(t);
+			}
+		}
+		return this.method.invoke(target, args);
+	}
+
+	private boolean accepts(Object[] args) {
+		if (args == null || args.length != this.argumentTypes.length) {
+			return false;
+		}
+		for (int i = 0; i < args.length; i++) {
+			final Object arg = args[i];
+			if (arg == null ? this.parameterTypes[i].isPrimitive() : !this.argumentTypes[i].isInstance(arg)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static MethodHandle handle(Method method) {
+		if (method.getParameterCount() > MAX_ARITY || Modifier.isStatic(method.getModifiers())) {
+			return null;
+		}
+		try {
+			return LOOKUP.unreflect(method).asType(MethodType.genericMethodType(method.getParameterCount() + 1));
+		} catch (IllegalAccessException e) {
+			// public method of a class that is not, left to reflection
+			return null;
+		}
+	}
+
+	private static Class<?> box(Class<?> type) {
+		if (!type.isPrimitive()) {
+			return type;
+		} else if (type == int.class) {
+			return Integer.class;
+		} else if (type == boolean.class) {
+			return Boolean.class;
+		} else if (type == double.class) {
+			return Double.class;
+		} else if (type == long.class) {
+			return Long.class;
+		} else if (type == float.class) {
+			return Float.class;
+		} else if (type == short.class) {
+			return Short.class;
+		} else if (type == byte.class) {
+			return Byte.class;
+		} else {
+			return Character.class;
+		}
+	}
+}
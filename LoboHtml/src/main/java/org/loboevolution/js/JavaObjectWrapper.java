@@ -126,7 +126,7 @@ public class JavaObjectWrapper extends ScriptableObject {
 				if (javaObject == null) {
 					throw new IllegalStateException("Java object (class=" + this.classWrapper + ") is null.");
 				}
-				Object raw = getter.invoke(javaObject, index);
+				Object raw = this.classWrapper.getInvoker(getter).invoke(javaObject, index);
 				if (raw != null) {
 					return JavaScript.getInstance().getJavascriptObject(raw, this.getParentScope());
 				}
@@ -158,7 +158,7 @@ public class JavaObjectWrapper extends ScriptableObject {
 				if (javaObject == null) {
 					throw new IllegalStateException("Java object (class=" + this.classWrapper + ") is null.");
 				}
-				Object val = getter.invoke(javaObject, (Object[]) null);
+				Object val = this.classWrapper.getInvoker(getter).invoke(javaObject);
 				return JavaScript.getInstance().getJavascriptObject(val, start.getParentScope());
 			} catch (Exception err) {
 				logger.log(Level.SEVERE, err.getMessage(), err);
@@ -186,7 +186,7 @@ public class JavaObjectWrapper extends ScriptableObject {
 							throw new IllegalStateException("Java object (class=" + this.classWrapper + ") is null.");
 						}
 						try {
-							Object val = getter.invoke(javaObject, name);
+							Object val = this.classWrapper.getInvoker(getter).invoke(javaObject, name);
 							if (val == null) {
 								// There might not be an indexer setter.
 								return super.get(name, start);
@@ -223,7 +223,7 @@ public class JavaObjectWrapper extends ScriptableObject {
 				}
 				Object actualValue;
 				actualValue = JavaScript.getInstance().getJavaObject(value, pinfo.getPropertyType());
-				setter.invoke(this.getJavaObject(), index, actualValue);
+				this.classWrapper.getInvoker(setter).invoke(this.getJavaObject(), index, actualValue);
 			} catch (Exception err) {
 				logger.log(Level.SEVERE, err.getMessage(), err);
 			}
@@ -252,7 +252,7 @@ public class JavaObjectWrapper extends ScriptableObject {
 				try {
 					Object actualValue;
 					actualValue = JavaScript.getInstance().getJavaObject(value, pinfo.getPropertyType());
-					setter.invoke(this.getJavaObject(), actualValue);
+					this.classWrapper.getInvoker(setter).invoke(this.getJavaObject(), actualValue);
 				} catch (Exception err) {
 					logger.log(Level.SEVERE, err.getMessage(), err);
 				}
@@ -264,7 +264,7 @@ public class JavaObjectWrapper extends ScriptableObject {
 						try {
 							Object actualValue;
 							actualValue = JavaScript.getInstance().getJavaObject(value, ni.getPropertyType());
-							setter.invoke(this.getJavaObject(), name, actualValue);
+							this.classWrapper.getInvoker(setter).invoke(this.getJavaObject(), name, actualValue);
 						} catch (Exception err) {
 							logger.log(Level.SEVERE, err.getMessage(), err);
 						}
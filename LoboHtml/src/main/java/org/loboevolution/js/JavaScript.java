@@ -120,7 +120,17 @@ public class JavaScript {
 	 * @return a {@link java.lang.Object} object.
 	 */
 	public Object getJavascriptObject(Object raw, Scriptable scope) {
-		if (raw instanceof String || raw instanceof Scriptable) {
+		if (raw instanceof String) {
+			return raw;
+		} else if (raw instanceof Scriptable) {
+			if (raw instanceof ScriptableObject && scope != null) {
+				final ScriptableObject object = (ScriptableObject) raw;
+				if (object.getParentScope() == null && object.getPrototype() == null) {
+					// created on the Java side, such as the data of an ImageData
+					object.setParentScope(ScriptableObject.getTopLevelScope(scope));
+					object.setPrototype(ScriptableObject.getClassPrototype(scope, object.getClassName()));
+				}
+			}
 			return raw;
 		} else if (raw == null) {
 			return null;
@@ -442,6 +442,7 @@ public class CSSStyleSheetImpl implements Serializable {
         private MediaListImpl mediaList_ = DEFAULT_MEDIA_LIST;
         private final SelectorIndex elementSelectors_ = new SelectorIndex();
         private final SelectorIndex classSelectors_ = new SelectorIndex();
+        private final SelectorIndex idSelectors_ = new SelectorIndex();
         private final List<SelectorEntry> otherSelectors_ = new ArrayList<>();
 
         /**
@@ -477,6 +478,26 @@ public class CSSStyleSheetImpl implements Serializable {
             classSelectors_.add(key, new SelectorEntry(s, styleRule));
         }
 
+        /**
+         * Add an IdSelector.
+         *
+         * @param elementSelector the selector to be added
+         * @param id              the id
+         * @param s               the selector
+         * @param styleRule       the rule
+         */
+        public void addIdSelector(final ElementSelector elementSelector, final String id,
+                                  final Selector s, final CSSStyleRuleImpl styleRule) {
+            final String elementName = elementSelector.getLocalNameLowerCase();
+            final String key;
+            if (elementName == null) {
+                key = "#" + id;
+            } else {
+                key = elementName + "#" + id;
+            }
+            idSelectors_.add(key, new SelectorEntry(s, styleRule));
+        }
+
         /**
          * Add a OtherSelector.
          *
@@ -529,7 +550,18 @@ public class CSSStyleSheetImpl implements Serializable {
          * @return Iterator of SelectorEntry
          */
         public Iterator<SelectorEntry> getSelectorEntriesIteratorFor(final String elementName, final String[] classes) {
-            return new SelectorEntriesIterator(this, elementName, classes);
+            return new SelectorEntriesIterator(this, elementName, null, classes);
+        }
+
+        /**
+         * @param elementName the element
+         * @param id          the id of the element, may be null
+         * @param classes     the classes
+         * @return Iterator of SelectorEntry
+         */
+        public Iterator<SelectorEntry> getSelectorEntriesIteratorFor(final String elementName, final String id,
+                final String[] classes) {
+            return new SelectorEntriesIterator(this, elementName, id, classes);
         }
     }
 
@@ -538,6 +570,7 @@ public class CSSStyleSheetImpl implements Serializable {
 
         SelectorEntriesIterator(final CSSStyleSheetRuleIndex index,
                                 final String elementName,
+                                final String id,
                                 final String[] classes) {
 
             iterators_ = new LinkedList<>();
@@ -568,6 +601,20 @@ public class CSSStyleSheetImpl implements Serializable {
                 }
             }
 
+            if (id != null && !id.isEmpty()) {
+                selectors = index.idSelectors_.get("#" + id);
+                if (!selectors.isEmpty()) {
+                    iterators_.add(selectors.iterator());
+                }
+
+                if (elementName != null) {
+                    selectors = index.idSelectors_.get(elementName + "#" + id);
+                    if (!selectors.isEmpty()) {
+                        iterators_.add(selectors.iterator());
+                    }
+                }
+            }
+
             if (index.otherSelectors_ != null && !index.otherSelectors_.isEmpty()) {
                 iterators_.add(index.otherSelectors_.iterator());
             }
@@ -94,6 +94,7 @@ class CodeGenerator extends Icode {
                                       scriptOrFn.getSourceName(),
                                       encodedSource,
                                       scriptOrFn.isInStrictMode());
+        itsData.rawSource = tree.getRawSource();
         itsData.topLevel = true;
 
         if (returnFunction) {
@@ -193,6 +194,9 @@ class CodeGenerator extends Icode {
 
         itsData.encodedSourceStart = scriptOrFn.getEncodedSourceStart();
         itsData.encodedSourceEnd = scriptOrFn.getEncodedSourceEnd();
+        itsData.rawSourceStart = scriptOrFn.getRawSourceStart();
+        itsData.rawSourceEnd = scriptOrFn.getRawSourceEnd();
+        itsData.rawSourceLine = scriptOrFn.getBaseLineno();
 
         if (literalIds.size() != 0) {
             itsData.literalIds = literalIds.toArray();
@@ -381,6 +381,20 @@ public class Context
      */
     public static final int FEATURE_ENABLE_JAVA_MAP_ACCESS = 21;
 
+    /**
+     * Enables shaped objects: the named properties of objects created while
+     * the feature is on are laid out by a shape shared by all the objects
+     * whose properties were added in the same order, and the interpreter
+     * caches the position of the properties read and written at every site
+     * for the shapes it has seen there.
+     * <p>
+     * By default {@link #hasFeature(int)} returns the value of the
+     * <code>rhino.shapedObjects</code> system property.
+     *
+     * @since 1.7.14
+     */
+    public static final int FEATURE_SHAPED_OBJECTS = 22;
+
     /** Constant <code>languageVersionProperty="language version"</code> */
     public static final String languageVersionProperty = "language version";
     /** Constant <code>errorReporterProperty="error reporter"</code> */
@@ -536,6 +550,9 @@ public class Context
         if (cx.enterCount < 1) Kit.codeBug();
         if (--cx.enterCount == 0) {
             VMBridge.instance.setContext(helper, null);
+            // the thrower belongs to the scope of the top call, drop it so
+            // that a context entered again runs in other scopes unaffected
+            cx.typeErrorThrower = null;
             cx.factory.onContextReleased(cx);
         }
     }
@@ -1739,6 +1756,26 @@ public class Context
         return result;
     }
 
+    /**
+     * Create a new JavaScript object with room for a number of properties.
+     *
+     * Equivalent to evaluating "new Object()", for callers that know how many
+     * properties they are about to add.
+     *
+     * @param scope the scope to search for the constructor and to evaluate
+     *              against
+     * @param capacity the number of properties the object will have
+     * @return the new object
+     */
+    public Scriptable newObject(Scriptable scope, int capacity)
+    {
+        NativeObject result = new NativeObject();
+        result.presizeSlots(capacity);
+        ScriptRuntime.setBuiltinProtoAndParent(result, scope,
+                TopLevel.Builtins.Object);
+        return result;
+    }
+
     /**
      * Create a new JavaScript object by executing the named constructor.
      *
@@ -2144,6 +2181,36 @@ public class Context
         this.optimizationLevel = optimizationLevel;
     }
 
+    /**
+     * Return the tiered compilation threshold.
+     *
+     * @see #setTieredCompilationThreshold(int)
+     * @return a int.
+     */
+    public final int getTieredCompilationThreshold()
+    {
+        return tieredThreshold;
+    }
+
+    /**
+     * Set the tiered compilation threshold.
+     * <p>
+     * In interpretive mode, a function whose invocations and loop
+     * back-edges reach the threshold is compiled to a class file in the
+     * background, and the class is used from its next invocation on.
+     * A threshold of 0, the default, disables tiered compilation.
+     * It has no effect if the optimizer package doesn't exist at run time.
+     *
+     * @param threshold the number of invocations and loop back-edges
+     *        after which a function is compiled, or 0
+     */
+    public final void setTieredCompilationThreshold(int threshold)
+    {
+        if (sealed) onSealedMutation();
+        if (threshold < 0) throw new IllegalArgumentException();
+        this.tieredThreshold = codegenClass == null ? 0 : threshold;
+    }
+
     /**
      * <p>isValidOptimizationLevel.</p>
      *
@@ -2965,6 +3032,9 @@ public class Context
     int instructionCount;
     int instructionThreshold;
 
+    // For tiered compilation (interpreter only)
+    int tieredThreshold;
+
     // It can be used to return the second uint32 result from function
     long scratchUint32;
 
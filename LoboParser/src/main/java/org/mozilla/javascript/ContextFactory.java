@@ -113,6 +113,8 @@ public class ContextFactory
     private static volatile boolean hasCustomGlobal;
     private static ContextFactory global = new ContextFactory();
 
+    private static final boolean SHAPED_OBJECTS = Boolean.getBoolean("rhino.shapedObjects");
+
     private volatile boolean sealed;
 
     private final Object listenersLock = new Object();
@@ -327,6 +329,9 @@ public class ContextFactory
 
         case Context.FEATURE_ENABLE_JAVA_MAP_ACCESS:
               return false;
+
+        case Context.FEATURE_SHAPED_OBJECTS:
+              return SHAPED_OBJECTS;
         }
         // It is a bug to call the method with unknown featureIndex
         throw new IllegalArgumentException(String.valueOf(featureIndex));
@@ -38,6 +38,9 @@ public class EmbeddedSlotMap
     // initial slot array size, must be a power of 2
     private static final int INITIAL_SLOT_SIZE = 4;
 
+    // size of the first slot array, a power of 2 no less than INITIAL_SLOT_SIZE
+    private final int initialSlotSize;
+
     private static final class Iter
         implements Iterator<ScriptableObject.Slot>
     {
@@ -68,6 +71,22 @@ public class EmbeddedSlotMap
      */
     public EmbeddedSlotMap()
     {
+        initialSlotSize = INITIAL_SLOT_SIZE;
+    }
+
+    /**
+     * Creates a map whose first slot array holds capacity slots without
+     * being grown.
+     *
+     * @param capacity the expected number of slots.
+     */
+    EmbeddedSlotMap(int capacity)
+    {
+        int size = INITIAL_SLOT_SIZE;
+        while (4 * capacity > 3 * size) {
+            size <<= 1;
+        }
+        initialSlotSize = size;
     }
 
     /** {@inheritDoc} */
@@ -174,7 +193,7 @@ public class EmbeddedSlotMap
         ScriptableObject.SlotAccess accessType, ScriptableObject.Slot existingSlot) {
         if (count == 0) {
             // Always throw away old slots if any on empty insert.
-            slots = new ScriptableObject.Slot[INITIAL_SLOT_SIZE];
+            slots = new ScriptableObject.Slot[initialSlotSize];
         } else if (existingSlot != null) {
             // Re-search the slot list because it is a singly-linked list to find
             // where to replace it with a new object if necessary
@@ -265,7 +284,7 @@ public class EmbeddedSlotMap
     @Override
     public void addSlot(ScriptableObject.Slot newSlot) {
         if (slots == null) {
-            slots = new ScriptableObject.Slot[INITIAL_SLOT_SIZE];
+            slots = new ScriptableObject.Slot[initialSlotSize];
         }
         insertNewSlot(newSlot);
     }
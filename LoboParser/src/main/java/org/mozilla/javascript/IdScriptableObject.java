@@ -758,6 +758,15 @@ public abstract class IdScriptableObject extends ScriptableObject implements IdF
         return 0;
     }
 
+    /**
+     * Returns true if the object holds the values of the built-in properties
+     * of a prototype.
+     */
+    final boolean hasPrototypeValues()
+    {
+        return prototypeValues != null;
+    }
+
     /**
      * Map name to id of instance property.
      * Should return 0 if not found or the result of
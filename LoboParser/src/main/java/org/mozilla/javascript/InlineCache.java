@@ -0,0 +1,199 @@
+/* -*- Mode: java; tab-width: 8; indent-tabs-mode: nil; c-basic-offset: 4 -*-
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript;
+
+import java.lang.reflect.Method;
+
+import org.mozilla.javascript.ScriptableObject.Slot;
+
+/**
+ * Inline cache of a property access site of the interpreter. Remembers, for
+ * up to {@link #MAX_ENTRIES} pairs of class and {@link Shape} seen at the
+ * site, the position of the own slot of the property, so that reading or
+ * writing it again takes a shape check instead of a lookup in the slot map.
+ * <p>
+ * Only own data properties of objects laid out by a shape are cached, and
+ * only for classes that do not override the lookup of named properties of
+ * {@link ScriptableObject} and {@link IdScriptableObject}. Every other access
+ * misses and takes the regular path; a site that has seen more than
+ * {@link #MAX_ENTRIES} pairs stops caching.
+ * <p>
+ * The caches of a function are only used by the thread that owns them, see
+ * {@link InterpreterData#ownsCaches()}.
+ */
+final class InlineCache
+{
+    private static final int MAX_ENTRIES = 4;
+
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private static final ClassValue<Boolean> GET_CACHEABLE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type)
+        {
+            return Boolean.valueOf(isBase(declaringClass(type, "get", String.class, Scriptable.class)));
+        }
+    };
+
+    private static final ClassValue<Boolean> PUT_CACHEABLE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type)
+        {
+            boolean cacheable =
+                isBase(declaringClass(type, "put", String.class, Scriptable.class, Object.class))
+                && isBase(declaringClass(type, "has", String.class, Scriptable.class));
+            if (cacheable && IdScriptableObject.class.isAssignableFrom(type)) {
+                // instance ids take precedence over the slots on writes
+                cacheable = declaringClass(type, "findInstanceIdInfo", String.class)
+                    == IdScriptableObject.class;
+            }
+            return Boolean.valueOf(cacheable);
+        }
+    };
+
+    private Entry[] entries = NO_ENTRIES;
+
+    private InlineCache()
+    {
+    }
+
+    /**
+     * Returns the inline cache of the site at pc, creating it if need be.
+     */
+    static InlineCache at(InterpreterData idata, int pc)
+    {
+        InlineCache[] caches = idata.inlineCaches;
+        if (caches == null) {
+            caches = new InlineCache[idata.itsICode.length];
+            idata.inlineCaches = caches;
+        }
+        InlineCache cache = caches[pc];
+        if (cache == null) {
+            cache = new InlineCache();
+            caches[pc] = cache;
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the value of the own data property name of obj, or
+     * {@link Scriptable#NOT_FOUND} if the site has to take the regular path.
+     */
+    Object get(Object obj, String name)
+    {
+        Slot slot = find(obj, name, false);
+        return slot == null ? Scriptable.NOT_FOUND : slot.value;
+    }
+
+    /**
+     * Sets the own data property name of obj to value.
+     *
+     * @return false if the site has to take the regular path.
+     */
+    boolean put(Object obj, String name, Object value)
+    {
+        Slot slot = find(obj, name, true);
+        if (slot == null) {
+            return false;
+        }
+        slot.value = value;
+        return true;
+    }
+
+    private Slot find(Object obj, String name, boolean write)
+    {
+        if (!(obj instanceof ScriptableObject)) {
+            return null;
+        }
+        ScriptableObject so = (ScriptableObject) obj;
+        ShapedSlotMap map = so.getShapedSlotMap();
+        if (map == null) {
+            return null;
+        }
+        if (write && (so.isSealed() || (so instanceof IdScriptableObject
+                                        && ((IdScriptableObject) so).hasPrototypeValues())))
+        {
+            return null;
+        }
+        Entry[] current = entries;
+        if (current == null) {
+            // megamorphic
+            return null;
+        }
+        Shape shape = map.shape;
+        Class<?> type = so.getClass();
+        for (Entry e : current) {
+            if (e.shape == shape && e.type == type) {
+                return usable(map.slots[e.index], write);
+            }
+        }
+        if (current.length >= MAX_ENTRIES) {
+            entries = null;
+            return null;
+        }
+        if (!(write ? PUT_CACHEABLE : GET_CACHEABLE).get(type).booleanValue()) {
+            return null;
+        }
+        int index = shape.indexOf(name);
+        if (index < 0) {
+            return null;
+        }
+        Slot slot = usable(map.slots[index], write);
+        if (slot != null) {
+            Entry[] next = new Entry[current.length + 1];
+            System.arraycopy(current, 0, next, 0, current.length);
+            next[current.length] = new Entry(type, shape, index);
+            entries = next;
+        }
+        return slot;
+    }
+
+    private static Slot usable(Slot slot, boolean write)
+    {
+        // accessors and read-only properties take the regular path
+        if (slot.getClass() != Slot.class || slot.value == Scriptable.NOT_FOUND
+            || (write && (slot.getAttributes() & ScriptableObject.READONLY) != 0))
+        {
+            return null;
+        }
+        return slot;
+    }
+
+    private static boolean isBase(Class<?> type)
+    {
+        return type == ScriptableObject.class || type == IdScriptableObject.class;
+    }
+
+    private static Class<?> declaringClass(Class<?> type, String name, Class<?>... parameterTypes)
+    {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            try {
+                Method method = c.getDeclaredMethod(name, parameterTypes);
+                return method.getDeclaringClass();
+            } catch (NoSuchMethodException e) {
+                // look in the superclass
+            } catch (SecurityException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static final class Entry
+    {
+        final Class<?> type;
+        final Shape shape;
+        final int index;
+
+        Entry(Class<?> type, Shape shape, int index)
+        {
+            this.type = type;
+            this.shape = shape;
+            this.index = index;
+        }
+    }
+}
@@ -16,6 +16,9 @@ final class InterpretedFunction extends NativeFunction implements Script
     SecurityController securityController;
     Object securityDomain;
 
+    /** The function compiled by the {@link TieredCompiler}, in the same scope. */
+    private transient volatile Function compiled;
+
     private InterpretedFunction(InterpreterData idata,
                                 Object staticSecurityDomain)
     {
@@ -103,9 +106,26 @@ final class InterpretedFunction extends NativeFunction implements Script
         if (!ScriptRuntime.hasTopCall(cx)) {
             return ScriptRuntime.doTopCall(this, cx, scope, thisObj, args, idata.isStrict);
         }
+        if (isCompiled()) {
+            if (compiled == null) {
+                compiled = TieredCompiler.instantiate(cx, this);
+            }
+            if (compiled != null) {
+                return compiled.call(cx, scope, thisObj, args);
+            }
+        }
         return Interpreter.interpret(this, cx, scope, thisObj, args);
     }
 
+    /**
+     * Returns true if calls should go through {@link #call} to reach the
+     * function compiled by the {@link TieredCompiler}.
+     */
+    boolean isCompiled()
+    {
+        return idata.compiledConstructor != null;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Object exec(Context cx, Scriptable scope)
@@ -1123,6 +1123,8 @@ public final class Interpreter extends Icode implements Evaluator
         final Object undefined = Undefined.instance;
 
         final boolean instructionCounting = (cx.instructionThreshold != 0);
+        final boolean tieredCounting = (cx.tieredThreshold != 0);
+        final boolean shapeCaching = cx.hasFeature(Context.FEATURE_SHAPED_OBJECTS);
         // arbitrary number to add to instructionCount when calling
         // other functions
         final int INVOCATION_COST = 100;
@@ -1485,6 +1487,13 @@ switch (op) {
     case Token.GETPROPNOWARN : {
         Object lhs = stack[stackTop];
         if (lhs == DBL_MRK) lhs = ScriptRuntime.wrapNumber(sDbl[stackTop]);
+        if (shapeCaching && frame.idata.ownsCaches()) {
+            Object value = InlineCache.at(frame.idata, frame.pc).get(lhs, stringReg);
+            if (value != Scriptable.NOT_FOUND) {
+                stack[stackTop] = value;
+                continue Loop;
+            }
+        }
         stack[stackTop] = ScriptRuntime.getObjectPropNoWarn(lhs, stringReg,
                                                             cx, frame.scope);
         continue Loop;
@@ -1492,6 +1501,13 @@ switch (op) {
     case Token.GETPROP : {
         Object lhs = stack[stackTop];
         if (lhs == DBL_MRK) lhs = ScriptRuntime.wrapNumber(sDbl[stackTop]);
+        if (shapeCaching && frame.idata.ownsCaches()) {
+            Object value = InlineCache.at(frame.idata, frame.pc).get(lhs, stringReg);
+            if (value != Scriptable.NOT_FOUND) {
+                stack[stackTop] = value;
+                continue Loop;
+            }
+        }
         stack[stackTop] = ScriptRuntime.getObjectProp(lhs, stringReg,
                                                       cx, frame.scope);
         continue Loop;
@@ -1502,6 +1518,12 @@ switch (op) {
         --stackTop;
         Object lhs = stack[stackTop];
         if (lhs == DBL_MRK) lhs = ScriptRuntime.wrapNumber(sDbl[stackTop]);
+        if (shapeCaching && frame.idata.ownsCaches()
+            && InlineCache.at(frame.idata, frame.pc).put(lhs, stringReg, rhs))
+        {
+            stack[stackTop] = rhs;
+            continue Loop;
+        }
         stack[stackTop] = ScriptRuntime.setObjectProp(lhs, stringReg, rhs,
                                                       cx, frame.scope);
         continue Loop;
@@ -1632,7 +1654,8 @@ switch (op) {
         }
         if (fun instanceof InterpretedFunction) {
             InterpretedFunction ifun = (InterpretedFunction)fun;
-            if (frame.fnOrScript.securityDomain == ifun.securityDomain) {
+            if (frame.fnOrScript.securityDomain == ifun.securityDomain
+                && !ifun.isCompiled()) {
                 CallFrame callParentFrame = frame;
                 if (op == Icode_TAIL_CALL) {
                     // In principle tail call can re-use the current
@@ -1698,7 +1721,8 @@ switch (op) {
                 Callable applyCallable = ScriptRuntime.getCallable(funThisObj);
                 if (applyCallable instanceof InterpretedFunction) {
                     InterpretedFunction iApplyCallable = (InterpretedFunction)applyCallable;
-                    if (frame.fnOrScript.securityDomain == iApplyCallable.securityDomain) {
+                    if (frame.fnOrScript.securityDomain == iApplyCallable.securityDomain
+                        && !iApplyCallable.isCompiled()) {
                         frame = initFrameForApplyOrCall(cx, frame, indexReg,
                                 stack, sDbl, stackTop, op, calleeScope, ifun,
                                 iApplyCallable);
@@ -1717,7 +1741,8 @@ switch (op) {
             // if the method is in fact an InterpretedFunction
             if (noSuchMethodMethod instanceof InterpretedFunction) {
                 InterpretedFunction ifun = (InterpretedFunction) noSuchMethodMethod;
-                if (frame.fnOrScript.securityDomain == ifun.securityDomain) {
+                if (frame.fnOrScript.securityDomain == ifun.securityDomain
+                    && !ifun.isCompiled()) {
                     frame = initFrameForNoSuchMethod(cx, frame, indexReg, stack, sDbl,
                                              stackTop, op, funThisObj, calleeScope,
                                              noSuchMethodShim, ifun);
@@ -1745,7 +1770,8 @@ switch (op) {
         Object lhs = stack[stackTop];
         if (lhs instanceof InterpretedFunction) {
             InterpretedFunction f = (InterpretedFunction)lhs;
-            if (frame.fnOrScript.securityDomain == f.securityDomain) {
+            if (frame.fnOrScript.securityDomain == f.securityDomain
+                && !f.isCompiled()) {
                 Scriptable newInstance = f.createObject(cx, frame.scope);
                 CallFrame calleeFrame = initFrame(cx, frame.scope, newInstance, stack, sDbl,
                           stackTop + 1, indexReg, f, frame);
@@ -2159,6 +2185,7 @@ switch (op) {
                         addInstructionCount(cx, frame, 2);
                     }
                     int offset = getShort(iCode, frame.pc);
+                    int jumpPc = frame.pc;
                     if (offset != 0) {
                         // -1 accounts for pc pointing to jump opcode + 1
                         frame.pc += offset - 1;
@@ -2166,6 +2193,10 @@ switch (op) {
                         frame.pc = frame.idata.longJumps.
                                        getExistingInt(frame.pc);
                     }
+                    if (tieredCounting && frame.pc < jumpPc) {
+                        // loop back-edge
+                        TieredCompiler.count(cx, frame.fnOrScript);
+                    }
                     if (instructionCounting) {
                         frame.pcPrevBranch = frame.pc;
                     }
@@ -2468,6 +2499,17 @@ switch (op) {
         }
         Object value;
         Object id = stack[stackTop + 1];
+        if (id == DOUBLE_MARK && lhs instanceof NativeArray) {
+            // read an unboxed element onto the number stack
+            NativeArray array = (NativeArray) lhs;
+            double d = sDbl[stackTop + 1];
+            int index = (int) d;
+            if (index == d && array.hasNumber(index)) {
+                stack[stackTop] = DOUBLE_MARK;
+                sDbl[stackTop] = array.getNumber(index);
+                return stackTop;
+            }
+        }
         if (id != DOUBLE_MARK) {
             value = ScriptRuntime.getObjectElem(lhs, id, cx, frame.scope);
         } else {
@@ -2482,6 +2524,19 @@ switch (op) {
                                  double[] sDbl, int stackTop) {
         stackTop -= 2;
         Object rhs = stack[stackTop + 2];
+        if (rhs == DOUBLE_MARK && stack[stackTop + 1] == DOUBLE_MARK &&
+            stack[stackTop] instanceof NativeArray)
+        {
+            // store a number into the unboxed elements without boxing it
+            double d = sDbl[stackTop + 1];
+            int index = (int) d;
+            double number = sDbl[stackTop + 2];
+            if (index == d && ((NativeArray) stack[stackTop]).setNumber(index, number)) {
+                stack[stackTop] = DOUBLE_MARK;
+                sDbl[stackTop] = number;
+                return stackTop;
+            }
+        }
         if (rhs == DOUBLE_MARK) {
             rhs = ScriptRuntime.wrapNumber(sDbl[stackTop + 2]);
         }
@@ -2983,6 +3038,9 @@ switch (op) {
                                   InterpretedFunction fnOrScript,
                                   CallFrame parentFrame)
     {
+        if (cx.tieredThreshold != 0) {
+            TieredCompiler.count(cx, fnOrScript);
+        }
         CallFrame frame = new CallFrame(cx, thisObj, fnOrScript, parentFrame);
         frame.initializeArgs(cx, callerScope, args, argsDbl, argShift, argCount);
         enterFrame(cx, frame, args, false);
@@ -7,6 +7,7 @@
 package org.mozilla.javascript;
 
 import java.io.Serializable;
+import java.lang.reflect.Constructor;
 import java.util.Arrays;
 
 import org.mozilla.javascript.debug.DebuggableScript;
@@ -35,6 +36,7 @@ final class InterpreterData implements Serializable, DebuggableScript
         this.languageVersion = parent.languageVersion;
         this.itsSourceFile = parent.itsSourceFile;
         this.encodedSource = parent.encodedSource;
+        this.rawSource = parent.rawSource;
         this.isStrict = parent.isStrict;
         init();
     }
@@ -75,6 +77,12 @@ final class InterpreterData implements Serializable, DebuggableScript
     int encodedSourceStart;
     int encodedSourceEnd;
 
+    // the source as parsed, with its line breaks, see ScriptNode.getRawSource
+    String rawSource;
+    int rawSourceStart = -1;
+    int rawSourceEnd = -1;
+    int rawSourceLine;
+
     int languageVersion;
 
     boolean isStrict;
@@ -99,6 +107,28 @@ final class InterpreterData implements Serializable, DebuggableScript
     /** true if the function has been declared like "!function() {}". */
     boolean declaredAsFunctionExpression;
 
+    static final int TIERED_COLD = 0;
+    static final int TIERED_QUEUED = 1;
+    static final int TIERED_COMPILED = 2;
+    static final int TIERED_FAILED = 3;
+
+    /**
+     * Invocations and loop back-edges counted by the {@link TieredCompiler}
+     * while the function is cold.
+     */
+    transient int tieredCount;
+
+    transient volatile int tieredState;
+
+    /** Constructor of the class compiled by the {@link TieredCompiler}. */
+    transient volatile Constructor<?> compiledConstructor;
+
+    /** Inline caches of the property access sites, by pc. */
+    transient InlineCache[] inlineCaches;
+
+    /** The thread {@link #tieredCount} and {@link #inlineCaches} are confined to. */
+    private transient volatile Thread cacheOwner;
+
     /** {@inheritDoc} */
     @Override
     public boolean isTopLevel()
@@ -106,6 +136,33 @@ final class InterpreterData implements Serializable, DebuggableScript
         return topLevel;
     }
 
+    /**
+     * Returns true if the tiered counter and the inline caches may be used on
+     * the current thread. The same bytecode may be shared by scripts running
+     * on several threads, so these are owned by the first thread that asks,
+     * until it dies; the other threads take the regular paths.
+     */
+    boolean ownsCaches()
+    {
+        Thread current = Thread.currentThread();
+        Thread owner = cacheOwner;
+        if (owner == current) {
+            return true;
+        }
+        if (owner != null && owner.isAlive()) {
+            return false;
+        }
+        synchronized (this) {
+            if (cacheOwner == owner) {
+                // a dead owner left caches nobody else has seen in a
+                // consistent state
+                inlineCaches = null;
+                cacheOwner = current;
+            }
+            return cacheOwner == current;
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public boolean isFunction()
@@ -415,6 +415,16 @@ public class NativeArray extends IdScriptableObject implements List
     @Override
     public Object get(int index, Scriptable start)
     {
+        if (ints != null) {
+            if (0 <= index && index < length)
+                return Integer.valueOf(ints[index]);
+            return super.get(index, start);
+        }
+        if (doubles != null) {
+            if (0 <= index && index < length)
+                return ScriptRuntime.wrapNumber(doubles[index]);
+            return super.get(index, start);
+        }
         if (!denseOnly && isGetterOrSetter(null, index, false))
             return super.get(index, start);
         if (dense != null && 0 <= index && index < dense.length)
@@ -426,6 +436,8 @@ public class NativeArray extends IdScriptableObject implements List
     @Override
     public boolean has(int index, Scriptable start)
     {
+        if (hasUnboxedElements() && 0 <= index && index < length)
+            return true;
         if (!denseOnly && isGetterOrSetter(null, index, false))
             return super.has(index, start);
         if (dense != null && 0 <= index && index < dense.length)
@@ -479,6 +491,7 @@ public class NativeArray extends IdScriptableObject implements List
             // If the object is sealed, super will throw exception
             long index = toArrayIndex(id);
             if (index >= length) {
+                toObjectElements();
                 length = index + 1;
                 denseOnly = false;
             }
@@ -502,10 +515,217 @@ public class NativeArray extends IdScriptableObject implements List
         return true;
     }
 
+    /**
+     * Returns whether the elements are held unboxed, in <code>ints</code> or
+     * <code>doubles</code>.
+     */
+    private boolean hasUnboxedElements()
+    {
+        return ints != null || doubles != null;
+    }
+
+    /**
+     * Returns whether the element at index is a number held unboxed, that
+     * {@link #getNumber(int)} reads without boxing it.
+     */
+    boolean hasNumber(int index)
+    {
+        return (ints != null || doubles != null) && 0 <= index && index < length;
+    }
+
+    /**
+     * Returns the element at index, which {@link #hasNumber(int)}.
+     */
+    double getNumber(int index)
+    {
+        int[] i = ints;
+        return i != null ? i[index] : doubles[index];
+    }
+
+    /**
+     * Sets the element at index to a number without boxing it, when the
+     * element exists or is the one after the last one and no prototype has
+     * it.
+     *
+     * @return false if the caller has to put the value the regular way
+     */
+    boolean setNumber(int index, double value)
+    {
+        if (index == length) {
+            for (Scriptable p = getPrototype(); p != null; p = p.getPrototype()) {
+                if (p.has(index, this)) {
+                    return false;
+                }
+            }
+        }
+        return storeNumber(index, value);
+    }
+
+    /**
+     * Stores a number at index in the unboxed elements, starting to hold them
+     * unboxed if the array is empty. Only stores to an existing element or
+     * right after the last one are supported, so that the elements stay
+     * without holes.
+     *
+     * @return false if the array cannot hold the value unboxed
+     */
+    private boolean storeNumber(int index, double value)
+    {
+        if (index < 0 || index > length || isSealed() ||
+            (index == length && !isExtensible()))
+        {
+            return false;
+        }
+        boolean int32 = (int) value == value &&
+                        ((int) value != 0 || Double.doubleToRawLongBits(value) == 0L);
+        if (ints == null && doubles == null) {
+            if (dense == null || !denseOnly || length != 0) {
+                return false;
+            }
+            int capacity = Math.max(dense.length, DEFAULT_INITIAL_CAPACITY);
+            if (int32) {
+                ints = new int[capacity];
+            } else {
+                doubles = new double[capacity];
+            }
+            dense = null;
+        }
+        if (ints != null && !int32) {
+            double[] values = new double[ints.length];
+            for (int i = 0; i < length; i++) {
+                values[i] = ints[i];
+            }
+            doubles = values;
+            ints = null;
+        }
+        int capacity = ints != null ? ints.length : doubles.length;
+        if (index == capacity) {
+            if (capacity >= MAX_PRE_GROW_SIZE) {
+                return false;
+            }
+            capacity = Math.max(capacity + 1, (int) (capacity * GROW_FACTOR));
+            if (ints != null) {
+                ints = Arrays.copyOf(ints, capacity);
+            } else {
+                doubles = Arrays.copyOf(doubles, capacity);
+            }
+        }
+        if (ints != null) {
+            ints[index] = (int) value;
+        } else {
+            doubles[index] = value;
+        }
+        if (index == length) {
+            length = index + 1L;
+        }
+        return true;
+    }
+
+    /**
+     * Moves the elements held unboxed, if any, to <code>dense</code>.
+     */
+    private void toObjectElements()
+    {
+        if (ints == null && doubles == null) {
+            return;
+        }
+        int capacity = ints != null ? ints.length : doubles.length;
+        Object[] values = new Object[Math.max(capacity, DEFAULT_INITIAL_CAPACITY)];
+        for (int i = 0; i < length; i++) {
+            values[i] = ints != null ? (Object) Integer.valueOf(ints[i])
+                                     : ScriptRuntime.wrapNumber(doubles[i]);
+        }
+        Arrays.fill(values, (int) length, values.length, NOT_FOUND);
+        dense = values;
+        ints = null;
+        doubles = null;
+    }
+
+    /**
+     * Holds the elements unboxed if the array has no holes and they are all
+     * numbers. Used for array literals, whose elements come in boxed.
+     */
+    void unboxElements()
+    {
+        if (dense == null || !denseOnly || length == 0 || length > dense.length) {
+            return;
+        }
+        int n = (int) length;
+        boolean int32 = true;
+        for (int i = 0; i < n; i++) {
+            Object value = dense[i];
+            if (value instanceof Integer) {
+                continue;
+            } else if (!(value instanceof Double)) {
+                return;
+            }
+            double d = ((Double) value).doubleValue();
+            if ((int) d != d || ((int) d == 0 && Double.doubleToRawLongBits(d) != 0L)) {
+                int32 = false;
+            }
+        }
+        if (int32) {
+            int[] values = new int[n];
+            for (int i = 0; i < n; i++) {
+                values[i] = ((Number) dense[i]).intValue();
+            }
+            ints = values;
+        } else {
+            double[] values = new double[n];
+            for (int i = 0; i < n; i++) {
+                values[i] = ((Number) dense[i]).doubleValue();
+            }
+            doubles = values;
+        }
+        dense = null;
+    }
+
+    /**
+     * Sorts the unboxed elements in the default order, which is the order of
+     * their strings. The string of each number is computed once, rather than
+     * twice on every comparison, and parsed back when sorted.
+     *
+     * @return false if an element is -0, whose string does not tell it from 0
+     */
+    private boolean sortUnboxedElements()
+    {
+        int n = (int) length;
+        String[] keys = new String[n];
+        for (int i = 0; i < n; i++) {
+            if (ints != null) {
+                keys[i] = Integer.toString(ints[i]);
+            } else {
+                double d = doubles[i];
+                if (d == 0 && Double.doubleToRawLongBits(d) != 0L) {
+                    return false;
+                }
+                keys[i] = ScriptRuntime.toString(d);
+            }
+        }
+        Sorting.get().hybridSort(keys, STRING_COMPARATOR);
+        for (int i = 0; i < n; i++) {
+            if (ints != null) {
+                ints[i] = Integer.parseInt(keys[i]);
+            } else {
+                doubles[i] = ScriptRuntime.toNumber(keys[i]);
+            }
+        }
+        return true;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void put(int index, Scriptable start, Object value)
     {
+        if (hasUnboxedElements() || (dense != null && denseOnly && length == 0)) {
+            if (start == this &&
+                (value instanceof Integer || value instanceof Double) &&
+                storeNumber(index, ((Number) value).doubleValue()))
+            {
+                return;
+            }
+            toObjectElements();
+        }
         if (start == this && !isSealed() && dense != null && 0 <= index &&
             (denseOnly || !isGetterOrSetter(null, index, true)))
         {
@@ -540,6 +760,9 @@ public class NativeArray extends IdScriptableObject implements List
     @Override
     public void delete(int index)
     {
+        if (hasUnboxedElements() && 0 <= index && index < length) {
+            toObjectElements();
+        }
         if (dense != null && 0 <= index && index < dense.length &&
             !isSealed() && (denseOnly || !isGetterOrSetter(null, index, true)))
         {
@@ -554,6 +777,15 @@ public class NativeArray extends IdScriptableObject implements List
     public Object[] getIds(boolean nonEnumerable, boolean getSymbols)
     {
         Object[] superIds = super.getIds(nonEnumerable, getSymbols);
+        if (hasUnboxedElements()) {
+            int N = (int) length;
+            Object[] ids = new Object[N + superIds.length];
+            for (int i = 0; i != N; ++i) {
+                ids[i] = Integer.valueOf(i);
+            }
+            System.arraycopy(superIds, 0, ids, N, superIds.length);
+            return ids;
+        }
         if (dense == null) { return superIds; }
         int N = dense.length;
         long currentLength = length;
@@ -626,6 +858,9 @@ public class NativeArray extends IdScriptableObject implements List
     /** {@inheritDoc} */
     @Override
     public int getAttributes(int index) {
+        if (hasUnboxedElements() && index >= 0 && index < length) {
+            return EMPTY;
+        }
         if (dense != null && index >= 0 && index < dense.length
                 && dense[index] != NOT_FOUND) {
             return EMPTY;
@@ -636,6 +871,12 @@ public class NativeArray extends IdScriptableObject implements List
     /** {@inheritDoc} */
     @Override
     protected ScriptableObject getOwnPropertyDescriptor(Context cx, Object id) {
+      if (hasUnboxedElements()) {
+        int index = toDenseIndex(id);
+        if (0 <= index && index < length) {
+          return defaultIndexPropertyDescriptor(get(index, this));
+        }
+      }
       if (dense != null) {
         int index = toDenseIndex(id);
         if (0 <= index && index < dense.length && dense[index] != NOT_FOUND) {
@@ -651,6 +892,7 @@ public class NativeArray extends IdScriptableObject implements List
     protected void defineOwnProperty(Context cx, Object id,
                                      ScriptableObject desc,
                                      boolean checkValid) {
+      toObjectElements();
       if (dense != null) {
         Object[] values = dense;
         dense = null;
@@ -821,6 +1063,8 @@ public class NativeArray extends IdScriptableObject implements List
     void setDenseOnly(boolean denseOnly) {
         if (denseOnly && !this.denseOnly)
             throw new IllegalArgumentException();
+        if (!denseOnly)
+            toObjectElements();
         this.denseOnly = denseOnly;
     }
 
@@ -842,6 +1086,14 @@ public class NativeArray extends IdScriptableObject implements List
             throw ScriptRuntime.rangeError(msg);
         }
 
+        if (hasUnboxedElements()) {
+            if (longVal <= length) {
+                length = longVal;
+                return;
+            }
+            // growing leaves holes
+            toObjectElements();
+        }
         if (denseOnly) {
             if (longVal < length) {
                 // downcast okay because denseOnly
@@ -1101,6 +1353,20 @@ public class NativeArray extends IdScriptableObject implements List
                            : ScriptRuntime.toString(args[0]);
         if (o instanceof NativeArray) {
             NativeArray na = (NativeArray) o;
+            if (na.hasUnboxedElements() && length <= na.length) {
+                StringBuilder sb = new StringBuilder();
+                for (int i = 0; i < length; i++) {
+                    if (i != 0) {
+                        sb.append(separator);
+                    }
+                    if (na.ints != null) {
+                        sb.append(na.ints[i]);
+                    } else {
+                        sb.append(ScriptRuntime.toString(na.doubles[i]));
+                    }
+                }
+                return sb.toString();
+            }
             if (na.denseOnly) {
                 StringBuilder sb = new StringBuilder();
                 for (int i = 0; i < length; i++) {
@@ -1156,6 +1422,22 @@ public class NativeArray extends IdScriptableObject implements List
 
         if (o instanceof NativeArray) {
             NativeArray na = (NativeArray) o;
+            if (na.ints != null) {
+                for (int i=0, j=((int)na.length)-1; i < j; i++,j--) {
+                    int temp = na.ints[i];
+                    na.ints[i] = na.ints[j];
+                    na.ints[j] = temp;
+                }
+                return o;
+            }
+            if (na.doubles != null) {
+                for (int i=0, j=((int)na.length)-1; i < j; i++,j--) {
+                    double temp = na.doubles[i];
+                    na.doubles[i] = na.doubles[j];
+                    na.doubles[j] = temp;
+                }
+                return o;
+            }
             if (na.denseOnly) {
                 for (int i=0, j=((int)na.length)-1; i < j; i++,j--) {
                     Object temp = na.dense[i];
@@ -1221,6 +1503,15 @@ public class NativeArray extends IdScriptableObject implements List
             throw Context.reportRuntimeErrorById(
                 "msg.arraylength.too.big", String.valueOf(llength));
         }
+        if (comparator == DEFAULT_COMPARATOR && o instanceof NativeArray) {
+            NativeArray na = (NativeArray) o;
+            if (na.hasUnboxedElements() && length == na.length &&
+                na.sortUnboxedElements())
+            {
+                return o;
+            }
+        }
+
         // copy the JS array into a working array, so it can be
         // sorted cheaply.
         final Object[] working = new Object[length];
@@ -1245,6 +1536,22 @@ public class NativeArray extends IdScriptableObject implements List
 
         if (o instanceof NativeArray) {
             NativeArray na = (NativeArray) o;
+            if (na.hasUnboxedElements() || (na.dense != null && na.denseOnly && na.length == 0)) {
+                int i = 0;
+                while (i < args.length &&
+                       (args[i] instanceof Integer || args[i] instanceof Double) &&
+                       na.storeNumber((int) na.length, ((Number) args[i]).doubleValue()))
+                {
+                    i++;
+                }
+                if (i == args.length) {
+                    return ScriptRuntime.wrapNumber(na.length);
+                }
+                na.toObjectElements();
+                if (i != 0) {
+                    args = Arrays.copyOfRange(args, i, args.length);
+                }
+            }
             if (na.denseOnly &&
                 na.ensureCapacity((int) na.length + args.length))
             {
@@ -1283,6 +1590,11 @@ public class NativeArray extends IdScriptableObject implements List
         Object result;
         if (o instanceof NativeArray) {
             NativeArray na = (NativeArray) o;
+            if (na.hasUnboxedElements() && na.length > 0) {
+                result = na.get((int) na.length - 1, na);
+                na.length--;
+                return result;
+            }
             if (na.denseOnly && na.length > 0) {
                 na.length--;
                 result = na.dense[(int)na.length];
@@ -1316,6 +1628,16 @@ public class NativeArray extends IdScriptableObject implements List
 
         if (o instanceof NativeArray) {
             NativeArray na = (NativeArray) o;
+            if (na.hasUnboxedElements() && na.length > 0) {
+                Object result = na.get(0, na);
+                na.length--;
+                if (na.ints != null) {
+                    System.arraycopy(na.ints, 1, na.ints, 0, (int)na.length);
+                } else {
+                    System.arraycopy(na.doubles, 1, na.doubles, 0, (int)na.length);
+                }
+                return result;
+            }
             if (na.denseOnly && na.length > 0) {
                 na.length--;
                 Object result = na.dense[0];
@@ -1359,6 +1681,7 @@ public class NativeArray extends IdScriptableObject implements List
 
         if (o instanceof NativeArray) {
             NativeArray na = (NativeArray) o;
+            na.toObjectElements();
             if (na.denseOnly &&
                 na.ensureCapacity((int)na.length + args.length))
             {
@@ -1406,6 +1729,7 @@ public class NativeArray extends IdScriptableObject implements List
         boolean denseMode = false;
         if (o instanceof NativeArray) {
             na = (NativeArray) o;
+            na.toObjectElements();
             denseMode = na.denseOnly;
         }
 
@@ -1575,8 +1899,16 @@ public class NativeArray extends IdScriptableObject implements List
       // First, optimize for a pair of native, dense arrays
       if ((newlen <= Integer.MAX_VALUE) && (result instanceof NativeArray)) {
         final NativeArray denseResult = (NativeArray) result;
+        denseResult.toObjectElements();
         if (denseResult.denseOnly && (arg instanceof NativeArray)) {
           final NativeArray denseArg = (NativeArray) arg;
+          if (denseArg.hasUnboxedElements() && srclen <= denseArg.length) {
+            denseResult.ensureCapacity((int) newlen);
+            for (int i = 0; i < srclen; i++) {
+              denseResult.dense[(int) offset + i] = denseArg.get(i, denseArg);
+            }
+            return newlen;
+          }
           if (denseArg.denseOnly) {
             // Now we can optimize
             denseResult.ensureCapacity((int) newlen);
@@ -1713,6 +2045,18 @@ public class NativeArray extends IdScriptableObject implements List
         }
         if (o instanceof NativeArray) {
             NativeArray na = (NativeArray) o;
+            if (na.hasUnboxedElements() && length <= na.length) {
+                if (!(compareTo instanceof Number)) {
+                    return NEGATIVE_ONE;
+                }
+                double d = ((Number) compareTo).doubleValue();
+                for (int i=(int)start; i < length; i++) {
+                    if (na.getNumber(i) == d) {
+                        return Long.valueOf(i);
+                    }
+                }
+                return NEGATIVE_ONE;
+            }
             if (na.denseOnly) {
                 Scriptable proto = na.getPrototype();
                 for (int i=(int)start; i < length; i++) {
@@ -1769,6 +2113,18 @@ public class NativeArray extends IdScriptableObject implements List
         }
         if (o instanceof NativeArray) {
             NativeArray na = (NativeArray) o;
+            if (na.hasUnboxedElements() && start < na.length) {
+                if (!(compareTo instanceof Number)) {
+                    return NEGATIVE_ONE;
+                }
+                double d = ((Number) compareTo).doubleValue();
+                for (int i=(int)start; i >= 0; i--) {
+                    if (na.getNumber(i) == d) {
+                        return Long.valueOf(i);
+                    }
+                }
+                return NEGATIVE_ONE;
+            }
             if (na.denseOnly) {
                 Scriptable proto = na.getPrototype();
                 for (int i=(int)start; i >= 0; i--) {
@@ -1818,6 +2174,20 @@ public class NativeArray extends IdScriptableObject implements List
         }
         if (o instanceof NativeArray) {
             NativeArray na = (NativeArray) o;
+            if (na.hasUnboxedElements() && len <= na.length) {
+                if (!(compareTo instanceof Number)) {
+                    return Boolean.FALSE;
+                }
+                double d = ((Number) compareTo).doubleValue();
+                boolean nan = Double.isNaN(d);
+                for (int i = (int) k; i < len; i++) {
+                    double elementK = na.getNumber(i);
+                    if (elementK == d || (nan && Double.isNaN(elementK))) {
+                        return Boolean.TRUE;
+                    }
+                }
+                return Boolean.FALSE;
+            }
             if (na.denseOnly) {
                 Scriptable proto = na.getPrototype();
                 for (int i = (int) k; i < len; i++) {
@@ -1933,6 +2303,7 @@ public class NativeArray extends IdScriptableObject implements List
         // and other non-default options then we won't get here.
         if ((o instanceof NativeArray) && (count <= Integer.MAX_VALUE)) {
             NativeArray na = (NativeArray) o;
+            na.toObjectElements();
             if (na.denseOnly) {
                 for (; count > 0; count--) {
                     na.dense[(int)to] = na.dense[(int)from];
@@ -2653,7 +3024,23 @@ public class NativeArray extends IdScriptableObject implements List
     private Object[] dense;
 
     /**
-     * True if all numeric properties are stored in <code>dense</code>.
+     * Unboxed storage of a dense array without holes whose elements are all
+     * int32 numbers, used in place of <code>dense</code>. Null unless the
+     * array has been filled with such numbers from its first element on; the
+     * first element of another kind moves the elements to
+     * <code>doubles</code> or <code>dense</code>, for good.
+     */
+    private int[] ints;
+
+    /**
+     * Unboxed storage of a dense array without holes whose elements are all
+     * numbers, used in place of <code>dense</code>, or null.
+     */
+    private double[] doubles;
+
+    /**
+     * True if all numeric properties are stored in <code>dense</code>,
+     * <code>ints</code> or <code>doubles</code>.
      */
     private boolean denseOnly;
 
@@ -7,8 +7,6 @@
 package org.mozilla.javascript;
 
 import java.util.Arrays;
-import java.util.Collection;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Stack;
@@ -30,6 +28,8 @@ public final class NativeJSON extends IdScriptableObject
 
     private static final int MAX_STRINGIFY_GAP_LENGTH = 10;
 
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     static void init(Scriptable scope, boolean sealed)
     {
         NativeJSON obj = new NativeJSON();
@@ -215,6 +215,9 @@ public final class NativeJSON extends IdScriptableObject
         }
 
         Stack<Scriptable> stack = new Stack<Scriptable>();
+        // the text written so far: values are written in place, and a member
+        // whose value turns out not to be serializable is cut off again
+        StringBuilder out = new StringBuilder();
         String indent;
         String gap;
         Callable replacer;
@@ -285,11 +288,19 @@ public final class NativeJSON extends IdScriptableObject
         wrapper.setParentScope(scope);
         wrapper.setPrototype(ScriptableObject.getObjectPrototype(scope));
         wrapper.defineProperty("", value, 0);
-        return str("", wrapper, state);
+        if (!str("", wrapper, state)) {
+            return Undefined.instance;
+        }
+        return state.out.toString();
     }
 
-    private static Object str(Object key, Scriptable holder,
-                              StringifyState state)
+    /**
+     * Writes the value of key in holder to the output of state.
+     *
+     * @return false, having written nothing, if the value is not serializable
+     */
+    private static boolean str(Object key, Scriptable holder,
+                               StringifyState state)
     {
         Object value = null;
         if (key instanceof String) {
@@ -320,48 +331,54 @@ public final class NativeJSON extends IdScriptableObject
             value = ((NativeBoolean) value).getDefaultValue(ScriptRuntime.BooleanClass);
         }
 
-        if (value == null) return "null";
-        if (value.equals(Boolean.TRUE)) return "true";
-        if (value.equals(Boolean.FALSE)) return "false";
+        StringBuilder out = state.out;
+        if (value == null) {
+            out.append("null");
+            return true;
+        }
+        if (value.equals(Boolean.TRUE)) {
+            out.append("true");
+            return true;
+        }
+        if (value.equals(Boolean.FALSE)) {
+            out.append("false");
+            return true;
+        }
 
         if (value instanceof CharSequence) {
-            return quote(value.toString());
+            quote(value.toString(), out);
+            return true;
         }
 
         if (value instanceof Number) {
+            if (value instanceof Integer) {
+                out.append(((Integer) value).intValue());
+                return true;
+            }
             double d = ((Number) value).doubleValue();
             if (!Double.isNaN(d) && d != Double.POSITIVE_INFINITY &&
                 d != Double.NEGATIVE_INFINITY)
             {
-                return ScriptRuntime.toString(value);
+                out.append(ScriptRuntime.toString(value));
+            } else {
+                out.append("null");
             }
-            return "null";
+            return true;
         }
 
         if (value instanceof Scriptable && !(value instanceof Callable)) {
             if (value instanceof NativeArray) {
-                return ja((NativeArray) value, state);
+                ja((NativeArray) value, state);
+            } else {
+                jo((Scriptable) value, state);
             }
-            return jo((Scriptable) value, state);
+            return true;
         }
 
-        return Undefined.instance;
+        return false;
     }
 
-    private static String join(Collection<Object> objs, String delimiter) {
-        if (objs == null || objs.isEmpty()) {
-            return "";
-        }
-        Iterator<Object> iter = objs.iterator();
-        if (!iter.hasNext()) return "";
-        StringBuilder builder = new StringBuilder(iter.next().toString());
-        while (iter.hasNext()) {
-            builder.append(delimiter).append(iter.next());
-        }
-        return builder.toString();
-    }
-
-    private static String jo(Scriptable value, StringifyState state) {
+    private static void jo(Scriptable value, StringifyState state) {
         if (state.stack.search(value) != -1) {
             throw ScriptRuntime.typeErrorById("msg.cyclic.value");
         }
@@ -376,41 +393,39 @@ public final class NativeJSON extends IdScriptableObject
             k = value.getIds();
         }
 
-        List<Object> partial = new LinkedList<Object>();
-
+        StringBuilder out = state.out;
+        boolean indented = state.gap.length() > 0;
+        boolean empty = true;
+        out.append('{');
         for (Object p : k) {
-            Object strP = str(p, value, state);
-            if (strP != Undefined.instance) {
-                String member = quote(p.toString()) + ":";
-                if (state.gap.length() > 0) {
-                    member = member + " ";
-                }
-                member = member + strP;
-                partial.add(member);
+            int mark = out.length();
+            if (!empty) {
+                out.append(',');
             }
-        }
-
-        final String finalValue;
-
-        if (partial.isEmpty()) {
-            finalValue = "{}";
-        } else {
-            if (state.gap.length() == 0) {
-                finalValue = '{' + join(partial, ",") + '}';
+            if (indented) {
+                out.append('\n').append(state.indent);
+            }
+            quote(p.toString(), out);
+            out.append(':');
+            if (indented) {
+                out.append(' ');
+            }
+            if (str(p, value, state)) {
+                empty = false;
             } else {
-                String separator = ",\n" + state.indent;
-                String properties = join(partial, separator);
-                finalValue = "{\n" + state.indent + properties + '\n' +
-                    stepback + '}';
+                out.setLength(mark);
             }
         }
+        if (!empty && indented) {
+            out.append('\n').append(stepback);
+        }
+        out.append('}');
 
         state.stack.pop();
         state.indent = stepback;
-        return finalValue;
     }
 
-    private static String ja(NativeArray value, StringifyState state) {
+    private static void ja(NativeArray value, StringifyState state) {
         if (state.stack.search(value) != -1) {
             throw ScriptRuntime.typeErrorById("msg.cyclic.value");
         }
@@ -418,48 +433,48 @@ public final class NativeJSON extends IdScriptableObject
 
         String stepback = state.indent;
         state.indent = state.indent + state.gap;
-        List<Object> partial = new LinkedList<Object>();
-
+        StringBuilder out = state.out;
+        boolean indented = state.gap.length() > 0;
+        out.append('[');
         long len = value.getLength();
         for (long index = 0; index < len; index++) {
-            Object strP;
+            if (index > 0) {
+                out.append(',');
+            }
+            if (indented) {
+                out.append('\n').append(state.indent);
+            }
+            boolean written;
             if (index > Integer.MAX_VALUE) {
-                strP = str(Long.toString(index), value, state);
+                written = str(Long.toString(index), value, state);
             } else {
-                strP = str(Integer.valueOf((int) index), value, state);
+                written = str(Integer.valueOf((int) index), value, state);
             }
-            if (strP == Undefined.instance) {
-                partial.add("null");
-            } else {
-                partial.add(strP);
+            if (!written) {
+                out.append("null");
             }
         }
-
-        final String finalValue;
-
-        if (partial.isEmpty()) {
-            finalValue = "[]";
-        } else {
-            if (state.gap.length() == 0) {
-                finalValue = '[' + join(partial, ",") + ']';
-            } else {
-                String separator = ",\n" + state.indent;
-                String properties = join(partial, separator);
-                finalValue = "[\n" + state.indent + properties + '\n' + stepback + ']';
-            }
+        if (len > 0 && indented) {
+            out.append('\n').append(stepback);
         }
+        out.append(']');
 
         state.stack.pop();
         state.indent = stepback;
-        return finalValue;
     }
 
-    private static String quote(String string) {
-        StringBuilder product = new StringBuilder(string.length()+2); // two extra chars for " on either side
+    private static void quote(String string, StringBuilder product) {
         product.append('"');
         int length = string.length();
+        int start = 0;
         for (int i = 0; i < length; i++) {
             char c = string.charAt(i);
+            if (c >= ' ' && c != '"' && c != '\\') {
+                continue;
+            }
+            // copy the characters that need no escape in one go
+            product.append(string, start, i);
+            start = i + 1;
             switch (c) {
                 case '"':
                     product.append("\\\"");
@@ -483,19 +498,14 @@ public final class NativeJSON extends IdScriptableObject
                     product.append("\\t");
                     break;
                 default:
-                    if (c < ' ') {
-                        product.append("\\u");
-                        String hex = String.format("%04x", Integer.valueOf((int) c));
-                        product.append(hex);
-                    }
-                    else {
-                        product.append(c);
-                    }
+                    product.append("\\u00")
+                        .append(HEX_DIGITS[c >> 4])
+                        .append(HEX_DIGITS[c & 0xf]);
                     break;
             }
         }
+        product.append(string, start, length);
         product.append('"');
-        return product.toString();
     }
 
 // #string_id_map#
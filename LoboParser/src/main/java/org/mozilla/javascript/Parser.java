@@ -595,7 +595,11 @@ public class Parser
         }
         this.ts = new TokenStream(this, null, sourceString, lineno);
         try {
-            return parse();
+            AstRoot root = parse();
+            if (compilerEnv.isGeneratingSource()) {
+                root.setRawSource(sourceString);
+            }
+            return root;
         } catch (IOException iox) {
             // Should never happen
             throw new IllegalStateException();
@@ -958,6 +962,7 @@ public class Parser
             parseFunctionParams(fnNode);
             fnNode.setBody(parseFunctionBody(type, fnNode));
             fnNode.setEncodedSourceBounds(functionSourceStart, ts.tokenEnd);
+            fnNode.setRawSourceBounds(functionSourceStart, ts.tokenEnd);
             fnNode.setLength(ts.tokenEnd - functionSourceStart);
 
             if (compilerEnv.isStrictMode()
@@ -1039,6 +1044,7 @@ public class Parser
 
             fnNode.setBody(parseFunctionBody(FunctionNode.ARROW_FUNCTION, fnNode));
             fnNode.setEncodedSourceBounds(functionSourceStart, ts.tokenEnd);
+            fnNode.setRawSourceBounds(functionSourceStart, ts.tokenEnd);
             fnNode.setLength(ts.tokenEnd - functionSourceStart);
         } finally {
             savedVars.restore();
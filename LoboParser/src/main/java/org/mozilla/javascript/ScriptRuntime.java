@@ -1984,6 +1984,14 @@ public class ScriptRuntime {
     public static Object getObjectIndex(Object obj, double dblIndex,
                                         Context cx, Scriptable scope)
     {
+        if (obj instanceof NativeArray) {
+            // elements held unboxed
+            NativeArray array = (NativeArray) obj;
+            int index = (int)dblIndex;
+            if (index == dblIndex && array.hasNumber(index)) {
+                return array.get(index, array);
+            }
+        }
         Scriptable sobj = toObjectOrNull(cx, obj, scope);
         if (sobj == null) {
             throw undefReadError(obj, toString(dblIndex));
@@ -2175,6 +2183,17 @@ public class ScriptRuntime {
                                         Object value, Context cx,
                                         Scriptable scope)
     {
+        if (obj instanceof NativeArray &&
+            (value instanceof Integer || value instanceof Double))
+        {
+            // elements held unboxed
+            int index = (int)dblIndex;
+            if (index == dblIndex &&
+                ((NativeArray) obj).setNumber(index, ((Number) value).doubleValue()))
+            {
+                return value;
+            }
+        }
         Scriptable sobj = toObjectOrNull(cx, obj, scope);
         if (sobj == null) {
             throw undefWriteError(obj, String.valueOf(dblIndex), value);
@@ -5092,7 +5111,11 @@ public class ScriptRuntime {
                     ++j;
                 }
             }
-            return cx.newArray(scope, sparse);
+            Scriptable array = cx.newArray(scope, sparse);
+            if (skipCount == 0 && array instanceof NativeArray) {
+                ((NativeArray) array).unboxElements();
+            }
+            return array;
         }
 
         Scriptable array = cx.newArray(scope, length);
@@ -375,7 +375,28 @@ public abstract class ScriptableObject implements Scriptable,
         if ((cx != null) && cx.hasFeature(Context.FEATURE_THREAD_SAFE_OBJECTS)) {
             return new ThreadSafeSlotMapContainer(initialSize);
         }
-        return new SlotMapContainer(initialSize);
+        return new SlotMapContainer(initialSize,
+            (cx != null) && cx.hasFeature(Context.FEATURE_SHAPED_OBJECTS));
+    }
+
+    /**
+     * Sizes the slots of an object without properties for capacity
+     * properties, so that adding them does not grow the slot table.
+     */
+    final void presizeSlots(int capacity)
+    {
+        if (slotMap.isEmpty()) {
+            slotMap = createSlotMap(capacity);
+        }
+    }
+
+    /**
+     * Returns the slots of the object if they are laid out by a shape.
+     */
+    final ShapedSlotMap getShapedSlotMap()
+    {
+        SlotMap map = slotMap.map;
+        return map instanceof ShapedSlotMap ? (ShapedSlotMap) map : null;
     }
 
     /**
@@ -0,0 +1,165 @@
+/* -*- Mode: java; tab-width: 8; indent-tabs-mode: nil; c-basic-offset: 4 -*-
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/*
+ * The layout of the properties of a ShapedSlotMap: the keys in insertion
+ * order, and so the position of the slot of every key. Shapes are immutable
+ * and shared through a tree of transitions rooted at EMPTY, so that objects
+ * whose properties were added in the same order have the same shape. An
+ * inline cache that has seen a shape can then read the slot of a key from
+ * its position, without looking the key up.
+ *
+ * A shape holds its transitions weakly: a shape lives only as long as the
+ * objects and inline caches that use it, so the key sequences of documents
+ * that are gone do not stay in the tree.
+ */
+
+/**
+ * <p>Shape class.</p>
+ *
+ *
+ *
+ */
+final class Shape
+{
+    /** The shape without properties. */
+    static final Shape EMPTY = new Shape(null, null);
+
+    /** The max number of properties of a shape. */
+    static final int MAX_SIZE = 64;
+
+    // max number of transitions from a shape, past which objects fall back
+    // to a dictionary; bounds the tree built by objects used as maps
+    private static final int MAX_TRANSITIONS = 32;
+
+    // shapes up to this size are searched linearly
+    private static final int LINEAR_SEARCH_SIZE = 8;
+
+    private final Object[] keys;
+    private final int[] hashes;
+
+    private Map<Object, WeakReference<Shape>> transitions;
+    private volatile Map<Object, Integer> lookup;
+
+    private Shape(Shape parent, Object key)
+    {
+        if (parent == null) {
+            keys = new Object[0];
+            hashes = new int[0];
+        } else {
+            int size = parent.keys.length;
+            keys = new Object[size + 1];
+            hashes = new int[size + 1];
+            System.arraycopy(parent.keys, 0, keys, 0, size);
+            System.arraycopy(parent.hashes, 0, hashes, 0, size);
+            keys[size] = key;
+            hashes[size] = key.hashCode();
+        }
+    }
+
+    int size()
+    {
+        return keys.length;
+    }
+
+    Object getKey(int index)
+    {
+        return keys[index];
+    }
+
+    /**
+     * Returns the position of key, or -1.
+     */
+    int indexOf(Object key)
+    {
+        if (keys.length > LINEAR_SEARCH_SIZE) {
+            Integer index = getLookup().get(key);
+            return index == null ? -1 : index.intValue();
+        }
+        int hash = key.hashCode();
+        for (int i = keys.length - 1; i >= 0; i--) {
+            Object k = keys[i];
+            if (k == key || (hashes[i] == hash && key.equals(k))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the existing shape with key added last, or null.
+     */
+    synchronized Shape getTransition(Object key)
+    {
+        if (transitions == null) {
+            return null;
+        }
+        WeakReference<Shape> ref = transitions.get(key);
+        return ref == null ? null : ref.get();
+    }
+
+    /**
+     * Returns the shape with key added last, or null if this shape can not
+     * grow any further.
+     */
+    Shape addKey(Object key)
+    {
+        if (keys.length >= MAX_SIZE) {
+            return null;
+        }
+        synchronized (this) {
+            if (transitions == null) {
+                transitions = new HashMap<Object, WeakReference<Shape>>();
+            }
+            WeakReference<Shape> ref = transitions.get(key);
+            Shape next = ref == null ? null : ref.get();
+            if (next == null) {
+                if (transitions.size() >= MAX_TRANSITIONS && purgeTransitions() >= MAX_TRANSITIONS) {
+                    return null;
+                }
+                next = new Shape(this, key);
+                transitions.put(key, new WeakReference<Shape>(next));
+            }
+            return next;
+        }
+    }
+
+    /**
+     * Drops the transitions to collected shapes.
+     *
+     * @return the number of transitions left.
+     */
+    private int purgeTransitions()
+    {
+        Iterator<WeakReference<Shape>> i = transitions.values().iterator();
+        while (i.hasNext()) {
+            if (i.next().get() == null) {
+                i.remove();
+            }
+        }
+        return transitions.size();
+    }
+
+    private Map<Object, Integer> getLookup()
+    {
+        Map<Object, Integer> map = lookup;
+        if (map == null) {
+            map = new HashMap<Object, Integer>(keys.length * 2);
+            for (int i = 0; i < keys.length; i++) {
+                map.put(keys[i], Integer.valueOf(i));
+            }
+            lookup = map;
+        }
+        return map;
+    }
+}
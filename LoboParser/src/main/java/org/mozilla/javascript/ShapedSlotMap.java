@@ -0,0 +1,210 @@
+/* -*- Mode: java; tab-width: 8; indent-tabs-mode: nil; c-basic-offset: 4 -*-
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript;
+
+/*
+ * This class implements the SlotMap interface with a Shape and an array of
+ * slots in the order of the keys of the shape. It only holds named
+ * properties, is never shrunk and holds at most Shape.MAX_SIZE slots: the
+ * SlotMapContainer replaces it with a dictionary (an EmbeddedSlotMap) before
+ * an indexed property is added, a property is removed or the shape can not
+ * grow any further. A map that keeps adding keys no other object has added
+ * in that order, as objects used as dictionaries do, is also replaced once
+ * it has created MAX_NEW_SHAPES shapes.
+ */
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.mozilla.javascript.ScriptableObject.Slot;
+import org.mozilla.javascript.ScriptableObject.SlotAccess;
+
+/**
+ * <p>ShapedSlotMap class.</p>
+ *
+ *
+ *
+ */
+final class ShapedSlotMap
+    implements SlotMap
+{
+    private static final Slot[] NO_SLOTS = new Slot[0];
+
+    private static final int MAX_NEW_SHAPES = 32;
+
+    Shape shape = Shape.EMPTY;
+
+    Slot[] slots = NO_SLOTS;
+
+    // the shapes this map added to the tree
+    private int newShapes;
+
+    // the shape checked by canAdd, held until addSlot since the tree only
+    // holds it weakly
+    private Shape checked;
+
+    /**
+     * Creates a map with room for capacity slots.
+     */
+    ShapedSlotMap(int capacity)
+    {
+        if (capacity > 0) {
+            slots = new Slot[Math.min(capacity, Shape.MAX_SIZE)];
+        }
+    }
+
+    /**
+     * Returns true if the map can hold a new slot for key.
+     */
+    boolean canAdd(Object key)
+    {
+        if (key == null) {
+            return false;
+        }
+        checked = shape.getTransition(key);
+        if (checked != null) {
+            return true;
+        }
+        if (newShapes >= MAX_NEW_SHAPES) {
+            return false;
+        }
+        checked = shape.addKey(key);
+        if (checked == null) {
+            return false;
+        }
+        newShapes++;
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int size()
+    {
+        return shape.size();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isEmpty()
+    {
+        return shape.size() == 0;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Slot query(Object key, int index)
+    {
+        if (key == null) {
+            return null;
+        }
+        int i = shape.indexOf(key);
+        return i < 0 ? null : slots[i];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Slot get(Object key, int index, SlotAccess accessType)
+    {
+        int i = key == null ? -1 : shape.indexOf(key);
+        Slot slot = i < 0 ? null : slots[i];
+        if (slot == null) {
+            if (accessType == SlotAccess.QUERY) {
+                return null;
+            }
+            Slot newSlot = accessType == SlotAccess.MODIFY_GETTER_SETTER
+                ? new ScriptableObject.GetterSlot(key, key.hashCode(), 0)
+                : new Slot(key, key.hashCode(), 0);
+            if (accessType == SlotAccess.MODIFY_CONST) {
+                newSlot.setAttributes(ScriptableObject.CONST);
+            }
+            addSlot(newSlot);
+            return newSlot;
+        }
+
+        Slot newSlot;
+        switch (accessType) {
+            case MODIFY_GETTER_SETTER:
+                if (slot instanceof ScriptableObject.GetterSlot) {
+                    return slot;
+                }
+                newSlot = new ScriptableObject.GetterSlot(key, slot.indexOrHash, slot.getAttributes());
+                break;
+            case CONVERT_ACCESSOR_TO_DATA:
+                if (!(slot instanceof ScriptableObject.GetterSlot)) {
+                    return slot;
+                }
+                newSlot = new Slot(key, slot.indexOrHash, slot.getAttributes());
+                break;
+            case MODIFY_CONST:
+                return null;
+            default:
+                return slot;
+        }
+        // a value is redefined as an accessor or the other way around: the
+        // key keeps its position, inline caches check the kind of the slot
+        newSlot.value = slot.value;
+        slots[i] = newSlot;
+        return newSlot;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addSlot(Slot newSlot)
+    {
+        Shape next = checked;
+        checked = null;
+        if (next == null || next.size() != shape.size() + 1
+            || !next.getKey(shape.size()).equals(newSlot.name))
+        {
+            next = shape.addKey(newSlot.name);
+        }
+        if (next == null) {
+            // the container checks canAdd first
+            throw Kit.codeBug();
+        }
+        int size = shape.size();
+        if (size == slots.length) {
+            Slot[] newSlots = new Slot[size == 0 ? 4 : size * 2];
+            System.arraycopy(slots, 0, newSlots, 0, size);
+            slots = newSlots;
+        }
+        slots[size] = newSlot;
+        shape = next;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void remove(Object key, int index)
+    {
+        // the container moves to a dictionary first
+        throw Kit.codeBug();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Iterator<Slot> iterator()
+    {
+        return new Iterator<Slot>() {
+            private int next;
+
+            @Override
+            public boolean hasNext()
+            {
+                return next < shape.size();
+            }
+
+            @Override
+            public Slot next()
+            {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return slots[next++];
+            }
+        };
+    }
+}
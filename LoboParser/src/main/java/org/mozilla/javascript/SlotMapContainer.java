@@ -28,11 +28,18 @@ class SlotMapContainer
   protected SlotMap map;
 
   SlotMapContainer(int initialSize)
+  {
+    this(initialSize, false);
+  }
+
+  SlotMapContainer(int initialSize, boolean shaped)
   {
     if (initialSize > LARGE_HASH_SIZE) {
       map = new HashSlotMap();
+    } else if (shaped) {
+      map = new ShapedSlotMap(initialSize);
     } else {
-      map = new EmbeddedSlotMap();
+      map = new EmbeddedSlotMap(initialSize);
     }
   }
 
@@ -63,6 +70,7 @@ class SlotMapContainer
   public Slot get(Object key, int index, SlotAccess accessType)
   {
     if (accessType != SlotAccess.QUERY) {
+      checkShape(key, index);
       checkMapSize();
     }
     return map.get(key, index, accessType);
@@ -78,6 +86,7 @@ class SlotMapContainer
   @Override
   public void addSlot(Slot newSlot)
   {
+    checkShape(newSlot.name, 0);
     checkMapSize();
     map.addSlot(newSlot);
   }
@@ -85,6 +94,12 @@ class SlotMapContainer
   /** {@inheritDoc} */
   @Override
   public void remove(Object key, int index) {
+    if (map instanceof ShapedSlotMap) {
+      if (map.query(key, index) == null) {
+        return;
+      }
+      toDictionary();
+    }
     map.remove(key, index);
   }
 
@@ -129,4 +144,24 @@ class SlotMapContainer
       map = newMap;
     }
   }
+
+  /**
+   * Replaces a ShapedSlotMap that can not hold key with a dictionary.
+   */
+  protected void checkShape(Object key, int index)
+  {
+    if ((map instanceof ShapedSlotMap) && map.query(key, index) == null
+        && !((ShapedSlotMap) map).canAdd(key)) {
+      toDictionary();
+    }
+  }
+
+  private void toDictionary()
+  {
+    SlotMap newMap = new EmbeddedSlotMap();
+    for (Slot s : map) {
+      newMap.addSlot(s);
+    }
+    map = newMap;
+  }
 }
@@ -0,0 +1,204 @@
+/* -*- Mode: java; tab-width: 8; indent-tabs-mode: nil; c-basic-offset: 4 -*-
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package org.mozilla.javascript;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.mozilla.javascript.ast.AstRoot;
+import org.mozilla.javascript.ast.FunctionNode;
+import org.mozilla.javascript.ast.ScriptNode;
+
+/**
+ * Second tier of the interpreter. Interpreted functions count their
+ * invocations and loop back-edges; once the count crosses
+ * {@link Context#getTieredCompilationThreshold()} the function source is
+ * compiled to a JVM class by the optimizer on a background thread, and
+ * {@link InterpretedFunction#call} delegates to an instance of that class
+ * from the next call on.
+ * <p>
+ * The function is compiled anonymously, so that its name keeps resolving to
+ * the interpreted function: through the enclosing scope for a declaration,
+ * through a scope holding just the name for a named function expression.
+ * The function is compiled from its source as parsed, starting at the line
+ * it was declared on, so that the compiled code reports the line numbers of
+ * the page rather than those of the decompiled source.
+ * Functions using <code>arguments.callee</code>, generators, arrow functions
+ * and functions run under a security controller or a debugger are never
+ * compiled.
+ */
+final class TieredCompiler
+{
+    private static final Logger logger = Logger.getLogger(TieredCompiler.class.getName());
+
+    private static final String CODEGEN_CLASS = "org.mozilla.javascript.optimizer.Codegen";
+
+    private static final int OPTIMIZATION_LEVEL = 9;
+
+    private static final ExecutorService EXECUTOR =
+        Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "Rhino tiered compiler");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+
+    private TieredCompiler()
+    {
+    }
+
+    /**
+     * Counts an invocation or a loop back-edge of fnOrScript, and queues it
+     * for compilation once it is hot.
+     */
+    static void count(Context cx, InterpretedFunction fnOrScript)
+    {
+        InterpreterData idata = fnOrScript.idata;
+        if (idata.tieredState != InterpreterData.TIERED_COLD || !idata.ownsCaches()
+            || ++idata.tieredCount < cx.tieredThreshold)
+        {
+            return;
+        }
+        if (!isCompilable(cx, fnOrScript)) {
+            idata.tieredState = InterpreterData.TIERED_FAILED;
+            return;
+        }
+        idata.tieredState = InterpreterData.TIERED_QUEUED;
+        EXECUTOR.execute(() -> compile(idata));
+    }
+
+    /**
+     * Creates the compiled counterpart of fnOrScript, in the same scope.
+     *
+     * @return the compiled function, or null if there is none.
+     */
+    static Function instantiate(Context cx, InterpretedFunction fnOrScript)
+    {
+        Constructor<?> ctor = fnOrScript.idata.compiledConstructor;
+        if (ctor == null) {
+            return null;
+        }
+        Scriptable scope = fnOrScript.getParentScope();
+        String name = fnOrScript.idata.itsName;
+        if (fnOrScript.idata.itsFunctionType != FunctionNode.FUNCTION_STATEMENT
+            && name != null && name.length() > 0)
+        {
+            NativeObject nameScope = new NativeObject();
+            nameScope.setParentScope(scope);
+            nameScope.defineProperty(name, fnOrScript, ScriptableObject.READONLY);
+            scope = nameScope;
+        }
+        try {
+            return (Function) ctor.newInstance(scope, cx, Integer.valueOf(0));
+        } catch (Exception e) {
+            fnOrScript.idata.compiledConstructor = null;
+            fnOrScript.idata.tieredState = InterpreterData.TIERED_FAILED;
+            return null;
+        }
+    }
+
+    private static boolean isCompilable(Context cx, InterpretedFunction fnOrScript)
+    {
+        InterpreterData idata = fnOrScript.idata;
+        if (!idata.isFunction() || idata.isES6Generator
+            || idata.itsFunctionType == FunctionNode.ARROW_FUNCTION
+            || idata.rawSource == null || idata.rawSourceStart < 0 || idata.evalScriptFlag
+            || fnOrScript.securityDomain != null
+            || cx.getSecurityController() != null || cx.getDebugger() != null)
+        {
+            return false;
+        }
+        return !refersTo(idata, "callee");
+    }
+
+    private static boolean refersTo(InterpreterData idata, String name)
+    {
+        if (idata.itsStringTable != null) {
+            for (String s : idata.itsStringTable) {
+                if (name.equals(s)) {
+                    return true;
+                }
+            }
+        }
+        if (idata.itsNestedFunctions != null) {
+            for (InterpreterData nested : idata.itsNestedFunctions) {
+                if (refersTo(nested, name)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void compile(InterpreterData idata)
+    {
+        Context cx = Context.enter();
+        try {
+            cx.setLanguageVersion(idata.languageVersion);
+            cx.setOptimizationLevel(OPTIMIZATION_LEVEL);
+
+            String source = anonymous(idata.rawSource.substring(idata.rawSourceStart, idata.rawSourceEnd));
+            CompilerEnvirons compilerEnv = new CompilerEnvirons();
+            compilerEnv.initFromContext(cx);
+            ErrorReporter reporter = compilerEnv.getErrorReporter();
+
+            Parser parser = new Parser(compilerEnv, reporter);
+            parser.calledByCompileFunction = true;
+            if (idata.isStrict) {
+                parser.setDefaultUseStrictDirective(true);
+            }
+            AstRoot ast = parser.parse(source, idata.itsSourceFile, idata.rawSourceLine);
+            if (ast.getFirstChild() == null || ast.getFirstChild().getType() != Token.FUNCTION) {
+                throw new IllegalStateException("Not a function: " + idata.itsName);
+            }
+            ScriptNode tree = new IRFactory(compilerEnv, reporter).transformTree(ast);
+
+            Evaluator codegen = (Evaluator) Kit.newInstanceOrNull(Kit.classOrNull(CODEGEN_CLASS));
+            if (codegen == null) {
+                throw new IllegalStateException("No optimizer");
+            }
+            Object[] nameBytes = (Object[]) codegen.compile(compilerEnv, tree, tree.getEncodedSource(), true);
+            GeneratedClassLoader loader =
+                SecurityController.createLoader(TieredCompiler.class.getClassLoader(), null);
+            Class<?> cl = loader.defineClass((String) nameBytes[0], (byte[]) nameBytes[1]);
+            loader.linkClass(cl);
+
+            idata.compiledConstructor = cl.getConstructors()[0];
+            idata.tieredState = InterpreterData.TIERED_COMPILED;
+        } catch (Throwable t) {
+            idata.tieredState = InterpreterData.TIERED_FAILED;
+            logger.log(Level.WARNING, "compile(): could not compile " + idata.itsName + " in "
+                       + idata.itsSourceFile + ", it stays interpreted.", t);
+        } finally {
+            Context.exit();
+        }
+    }
+
+    /**
+     * Rewrites the header of a function declaration, named function
+     * expression or method, up to its parameter list, as
+     * <code>function</code>, keeping the line breaks of the header.
+     */
+    private static String anonymous(String source)
+    {
+        int lp = source.indexOf('(');
+        if (lp < 0) {
+            return source;
+        }
+        StringBuilder sb = new StringBuilder(source.length() + 9).append("function");
+        for (int i = 0; i < lp; i++) {
+            char c = source.charAt(i);
+            if (c == '\n' || c == '\r') {
+                sb.append(c);
+            }
+        }
+        return sb.append(' ').append(source, lp, source.length()).toString();
+    }
+}
@@ -26,6 +26,9 @@ public class ScriptNode extends Scope {
     private int encodedSourceEnd = -1;
     private String sourceName;
     private String encodedSource;
+    private int rawSourceStart = -1;
+    private int rawSourceEnd = -1;
+    private String rawSource;
     private int endLineno = -1;
 
     private List<FunctionNode> functions;
@@ -163,6 +166,58 @@ public class ScriptNode extends Scope {
         return encodedSource;
     }
 
+    /**
+     * Returns the start offset of this script or function in the source it
+     * was parsed from.
+     *
+     * @return a int.
+     */
+    public int getRawSourceStart() {
+        return rawSourceStart;
+    }
+
+    /**
+     * Returns the end offset of this script or function in the source it
+     * was parsed from.
+     *
+     * @return a int.
+     */
+    public int getRawSourceEnd() {
+        return rawSourceEnd;
+    }
+
+    /**
+     * Used by the parser.
+     *
+     * @param start a int.
+     * @param end a int.
+     */
+    public void setRawSourceBounds(int start, int end) {
+        this.rawSourceStart = start;
+        this.rawSourceEnd = end;
+    }
+
+    /**
+     * Returns the source this script was parsed from, as given to the parser,
+     * or {@code null} if it was not recorded. Unlike the encoded source it
+     * keeps the line breaks, so code compiled again from it reports the
+     * original line numbers.
+     *
+     * @return a {@link java.lang.String} object.
+     */
+    public String getRawSource() {
+        return rawSource;
+    }
+
+    /**
+     * Used by the parser.
+     *
+     * @param rawSource a {@link java.lang.String} object.
+     */
+    public void setRawSource(String rawSource) {
+        this.rawSource = rawSource;
+    }
+
     /**
      * <p>getBaseLineno.</p>
      *
@@ -6,8 +6,7 @@
 
 package org.mozilla.javascript.json;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.ScriptRuntime;
@@ -17,6 +16,15 @@ import org.mozilla.javascript.Scriptable;
  * This class converts a stream of JSON tokens into a JSON value.
  *
  * See ECMA 15.12.
+ * <p>
+ * The parser reads an array of characters, so that text decoded from bytes
+ * does not have to be copied into a string first. The members of an object
+ * and the elements of an array are collected on a stack owned by the parser
+ * and added to the object or array once it is complete, which is then
+ * created with room for all of them. The keys of objects are looked up in a
+ * table of the keys read so far by their characters, so that a key repeated
+ * throughout the text is a single string. A parser is meant for one thread;
+ * parsers used by several threads do not block each other.
  *
  * Author Raphael Speyer
  * Author Hannes Wallnoefer
@@ -27,9 +35,24 @@ public class JsonParser {
     private Context cx;
     private Scriptable scope;
 
+    // keys up to this length are interned
+    private static final int MAX_INTERNED_KEY_LENGTH = 32;
+
+    // number of entries of the table of keys, a power of 2
+    private static final int KEY_TABLE_SIZE = 256;
+
     private int pos;
     private int length;
-    private String src;
+    private char[] src;
+
+    // the ids and values of the members of the objects, and the elements of
+    // the arrays, being read, the innermost last
+    private Object[] stack = new Object[32];
+    private int top;
+
+    // the keys read so far, by hash of their characters, and their ids
+    private String[] keyNames;
+    private Object[] keyIds;
 
     /**
      * <p>Constructor for JsonParser.</p>
@@ -49,25 +72,47 @@ public class JsonParser {
      * @return a {@link java.lang.Object} object.
      * @throws org.mozilla.javascript.json.JsonParser.ParseException if any.
      */
-    public synchronized Object parseValue(String json) throws ParseException {
+    public Object parseValue(String json) throws ParseException {
         if (json == null) {
             throw new ParseException("Input string may not be null");
         }
-        pos = 0;
-        length = json.length();
+        return parseValue(json.toCharArray(), 0, json.length());
+    }
+
+    /**
+     * Parses count characters of json from offset on, which are not copied.
+     *
+     * @param json an array of {@link char} objects.
+     * @param offset a int.
+     * @param count a int.
+     * @return a {@link java.lang.Object} object.
+     * @throws org.mozilla.javascript.json.JsonParser.ParseException if any.
+     */
+    public Object parseValue(char[] json, int offset, int count) throws ParseException {
+        if (json == null) {
+            throw new ParseException("Input string may not be null");
+        }
+        pos = offset;
+        length = offset + count;
         src = json;
-        Object value = readValue();
-        consumeWhitespace();
-        if (pos < length) {
-            throw new ParseException("Expected end of stream at char " + pos);
+        top = 0;
+        try {
+            Object value = readValue();
+            consumeWhitespace();
+            if (pos < length) {
+                throw new ParseException("Expected end of stream at char " + pos);
+            }
+            return value;
+        } finally {
+            src = null;
+            Arrays.fill(stack, null);
         }
-        return value;
     }
 
     private Object readValue() throws ParseException {
         consumeWhitespace();
         while (pos < length) {
-            char c = src.charAt(pos++);
+            char c = src[pos++];
             switch (c) {
                 case '{':
                     return readObject();
@@ -102,23 +147,23 @@ public class JsonParser {
 
     private Object readObject() throws ParseException {
         consumeWhitespace();
-        Scriptable object = cx.newObject(scope);
         // handle empty object literal case early
-        if (pos < length && src.charAt(pos) == '}') {
+        if (pos < length && src[pos] == '}') {
             pos += 1;
-            return object;
+            return cx.newObject(scope);
         }
-        String id;
+        final int base = top;
+        Object id;
         Object value;
         boolean needsComma = false;
         while (pos < length) {
-            char c = src.charAt(pos++);
+            char c = src[pos++];
             switch(c) {
                 case '}':
                     if (!needsComma) {
                         throw new ParseException("Unexpected comma in object literal");
                     }
-                    return object;
+                    return newObject(base);
                 case ',':
                     if (!needsComma) {
                         throw new ParseException("Unexpected comma in object literal");
@@ -129,16 +174,11 @@ public class JsonParser {
                     if (needsComma) {
                         throw new ParseException("Missing comma in object literal");
                     }
-                    id = readString();
+                    id = readId();
                     consume(':');
                     value = readValue();
-
-                    long index = ScriptRuntime.indexFromString(id);
-                    if (index < 0) {
-                      object.put(id, object, value);
-                    } else {
-                      object.put((int)index, object, value);
-                    }
+                    push(id);
+                    push(value);
 
                     needsComma = true;
                     break;
@@ -150,24 +190,40 @@ public class JsonParser {
         throw new ParseException("Unterminated object literal");
     }
 
+    private Scriptable newObject(int base) {
+        Scriptable object = cx.newObject(scope, (top - base) / 2);
+        for (int i = base; i < top; i += 2) {
+            Object id = stack[i];
+            if (id instanceof String) {
+                object.put((String) id, object, stack[i + 1]);
+            } else {
+                object.put(((Integer) id).intValue(), object, stack[i + 1]);
+            }
+        }
+        top = base;
+        return object;
+    }
+
     private Object readArray() throws ParseException {
         consumeWhitespace();
         // handle empty array literal case early
-        if (pos < length && src.charAt(pos) == ']') {
+        if (pos < length && src[pos] == ']') {
             pos += 1;
             return cx.newArray(scope, 0);
         }
-        List<Object> list = new ArrayList<Object>();
+        final int base = top;
         boolean needsComma = false;
         while (pos < length) {
-            char c = src.charAt(pos);
+            char c = src[pos];
             switch(c) {
                 case ']':
                     if (!needsComma) {
                         throw new ParseException("Unexpected comma in array literal");
                     }
                     pos += 1;
-                    return cx.newArray(scope, list.toArray());
+                    Object[] elements = Arrays.copyOfRange(stack, base, top);
+                    top = base;
+                    return ScriptRuntime.newArrayLiteral(elements, null, cx, scope);
                 case ',':
                     if (!needsComma) {
                         throw new ParseException("Unexpected comma in array literal");
@@ -179,7 +235,7 @@ public class JsonParser {
                     if (needsComma) {
                         throw new ParseException("Missing comma in array literal");
                     }
-                    list.add(readValue());
+                    push(readValue());
                     needsComma = true;
             }
             consumeWhitespace();
@@ -187,6 +243,68 @@ public class JsonParser {
         throw new ParseException("Unterminated array literal");
     }
 
+    private void push(Object value) {
+        if (top == stack.length) {
+            stack = Arrays.copyOf(stack, top * 2);
+        }
+        stack[top++] = value;
+    }
+
+    /**
+     * Reads the key of a member, returning it as an Integer if it is an
+     * array index, and as a String shared with the equal keys read before
+     * otherwise.
+     */
+    private Object readId() throws ParseException {
+        int start = pos;
+        int hash = 0;
+        while (pos < length) {
+            char c = src[pos++];
+            if (c <= '\u001F') {
+                throw new ParseException("String contains control character");
+            } else if (c == '\\') {
+                // escaped characters are not interned
+                pos = start;
+                return toId(readString());
+            } else if (c == '"') {
+                return internId(start, pos - 1 - start, hash);
+            }
+            hash = 31 * hash + c;
+        }
+        throw new ParseException("Unterminated string literal");
+    }
+
+    private Object internId(int start, int count, int hash) {
+        if (count > MAX_INTERNED_KEY_LENGTH) {
+            return toId(new String(src, start, count));
+        }
+        if (keyNames == null) {
+            keyNames = new String[KEY_TABLE_SIZE];
+            keyIds = new Object[KEY_TABLE_SIZE];
+        }
+        int entry = (hash ^ (hash >>> 16)) & (KEY_TABLE_SIZE - 1);
+        String name = keyNames[entry];
+        if (name != null && name.length() == count) {
+            int i = 0;
+            while (i < count && name.charAt(i) == src[start + i]) {
+                i++;
+            }
+            if (i == count) {
+                return keyIds[entry];
+            }
+        }
+        name = new String(src, start, count);
+        Object id = toId(name);
+        keyNames[entry] = name;
+        keyIds[entry] = id;
+        return id;
+    }
+
+    private static Object toId(String name) {
+        long index = ScriptRuntime.indexFromString(name);
+        return index < 0 ? name : Integer.valueOf((int) index);
+    }
+
     private String readString() throws ParseException {
         /*
          * Optimization: if the source contains no escaped characters, create the
@@ -194,13 +312,13 @@ public class JsonParser {
          */
         int stringStart = pos;
         while (pos < length) {
-            char c = src.charAt(pos++);
+            char c = src[pos++];
             if (c <= '\u001F') {
                 throw new ParseException("String contains control character");
             } else if (c == '\\') {
                 break;
             } else if (c == '"') {
-                return src.substring(stringStart, pos - 1);
+                return new String(src, stringStart, pos - 1 - stringStart);
             }
         }
 
@@ -211,12 +329,12 @@ public class JsonParser {
          */
         StringBuilder b = new StringBuilder();
         while (pos < length) {
-            assert src.charAt(pos - 1) == '\\';
-            b.append(src, stringStart, pos - 1);
+            assert src[pos - 1] == '\\';
+            b.append(src, stringStart, pos - 1 - stringStart);
             if (pos >= length) {
                 throw new ParseException("Unterminated string");
             }
-            char c = src.charAt(pos++);
+            char c = src[pos++];
             switch (c) {
                 case '"':
                     b.append('"');
@@ -244,14 +362,14 @@ public class JsonParser {
                     break;
                 case 'u':
                     if (length - pos < 5) {
-                        throw new ParseException("Invalid character code: \\u" + src.substring(pos));
+                        throw new ParseException("Invalid character code: \\u" + new String(src, pos, length - pos));
                     }
-                    int code = fromHex(src.charAt(pos + 0)) << 12
-                             | fromHex(src.charAt(pos + 1)) << 8
-                             | fromHex(src.charAt(pos + 2)) << 4
-                             | fromHex(src.charAt(pos + 3));
+                    int code = fromHex(src[pos + 0]) << 12
+                             | fromHex(src[pos + 1]) << 8
+                             | fromHex(src[pos + 2]) << 4
+                             | fromHex(src[pos + 3]);
                     if (code < 0) {
-                        throw new ParseException("Invalid character code: " + src.substring(pos, pos + 4));
+                        throw new ParseException("Invalid character code: " + new String(src, pos, 4));
                     }
                     pos += 4;
                     b.append((char) code);
@@ -261,13 +379,13 @@ public class JsonParser {
             }
             stringStart = pos;
             while (pos < length) {
-                c = src.charAt(pos++);
+                c = src[pos++];
                 if (c <= '\u001F') {
                     throw new ParseException("String contains control character");
                 } else if (c == '\\') {
                     break;
                 } else if (c == '"') {
-                    b.append(src, stringStart, pos - 1);
+                    b.append(src, stringStart, pos - 1 - stringStart);
                     return b.toString();
                 }
             }
@@ -285,6 +403,7 @@ public class JsonParser {
     private Number readNumber(char c) throws ParseException {
         assert c == '-' || (c >= '0' && c <= '9');
         final int numberStart = pos - 1;
+        boolean integral = true;
         if (c == '-') {
             c = nextOrNumberError(numberStart);
             if (!(c >= '0' && c <= '9')) {
@@ -296,8 +415,9 @@ public class JsonParser {
         }
         // read optional fraction part
         if (pos < length) {
-            c = src.charAt(pos);
+            c = src[pos];
             if (c == '.') {
+                integral = false;
                 pos += 1;
                 c = nextOrNumberError(numberStart);
                 if (!(c >= '0' && c <= '9')) {
@@ -308,8 +428,9 @@ public class JsonParser {
         }
         // read optional exponent part
         if (pos < length) {
-            c = src.charAt(pos);
+            c = src[pos];
             if (c == 'e' || c == 'E') {
+                integral = false;
                 pos += 1;
                 c = nextOrNumberError(numberStart);
                 if (c == '-' || c == '+') {
@@ -321,7 +442,16 @@ public class JsonParser {
                 readDigits();
             }
         }
-        String num = src.substring(numberStart, pos);
+        int digitsStart = src[numberStart] == '-' ? numberStart + 1 : numberStart;
+        if (integral && pos - digitsStart <= 9) {
+            // fits an int, no need for a string
+            int ival = 0;
+            for (int i = digitsStart; i < pos; i++) {
+                ival = ival * 10 + (src[i] - '0');
+            }
+            return Integer.valueOf(digitsStart == numberStart ? ival : -ival);
+        }
+        String num = new String(src, numberStart, pos - numberStart);
         final double dval = Double.parseDouble(num);
         final int ival = (int)dval;
         if (ival == dval) {
@@ -331,19 +461,19 @@ public class JsonParser {
     }
 
     private ParseException numberError(int start, int end) {
-        return new ParseException("Unsupported number format: " + src.substring(start, end));
+        return new ParseException("Unsupported number format: " + new String(src, start, end - start));
     }
 
     private char nextOrNumberError(int numberStart) throws ParseException {
         if (pos >= length) {
             throw numberError(numberStart, length);
         }
-        return src.charAt(pos++);
+        return src[pos++];
     }
 
     private void readDigits() {
         for (; pos < length; ++pos) {
-            char c = src.charAt(pos);
+            char c = src[pos];
             if (!(c >= '0' && c <= '9')) {
                 break;
             }
@@ -352,9 +482,9 @@ public class JsonParser {
 
     private Boolean readTrue() throws ParseException {
         if (length - pos < 3
-                || src.charAt(pos) != 'r'
-                || src.charAt(pos + 1) != 'u'
-                || src.charAt(pos + 2) != 'e') {
+                || src[pos] != 'r'
+                || src[pos + 1] != 'u'
+                || src[pos + 2] != 'e') {
             throw new ParseException("Unexpected token: t");
         }
         pos += 3;
@@ -363,10 +493,10 @@ public class JsonParser {
 
     private Boolean readFalse() throws ParseException {
         if (length - pos < 4
-                || src.charAt(pos) != 'a'
-                || src.charAt(pos + 1) != 'l'
-                || src.charAt(pos + 2) != 's'
-                || src.charAt(pos + 3) != 'e') {
+                || src[pos] != 'a'
+                || src[pos + 1] != 'l'
+                || src[pos + 2] != 's'
+                || src[pos + 3] != 'e') {
             throw new ParseException("Unexpected token: f");
         }
         pos += 4;
@@ -375,9 +505,9 @@ public class JsonParser {
 
     private Object readNull() throws ParseException {
         if (length - pos < 3
-                || src.charAt(pos) != 'u'
-                || src.charAt(pos + 1) != 'l'
-                || src.charAt(pos + 2) != 'l') {
+                || src[pos] != 'u'
+                || src[pos + 1] != 'l'
+                || src[pos + 2] != 'l') {
             throw new ParseException("Unexpected token: n");
         }
         pos += 3;
@@ -386,7 +516,7 @@ public class JsonParser {
 
     private void consumeWhitespace() {
         while (pos < length) {
-            char c = src.charAt(pos);
+            char c = src[pos];
             switch (c) {
                 case ' ':
                 case '\t':
@@ -405,7 +535,7 @@ public class JsonParser {
         if (pos >= length) {
             throw new ParseException("Expected " + token + " but reached end of stream");
         }
-        char c = src.charAt(pos++);
+        char c = src[pos++];
         if (c == token) {
             return;
         }
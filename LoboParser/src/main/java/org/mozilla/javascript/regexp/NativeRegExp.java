@@ -7,6 +7,11 @@
 package org.mozilla.javascript.regexp;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.IdFunctionObject;
@@ -57,6 +62,24 @@ public class NativeRegExp extends IdScriptableObject
 
     private static final boolean debug = false;
 
+    /* max number of compiled programs kept by compileRE */
+    private static final int CACHE_SIZE = 256;
+
+    /* compiled programs by kind, flags and source, in access order */
+    private static final Map<String, RECompiled> cache =
+        new LinkedHashMap<String, RECompiled>(64, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RECompiled> eldest)
+            {
+                return size() > CACHE_SIZE;
+            }
+        };
+
+    /* size of the shift tables of the literal prefixes */
+    private static final int PREFIX_SHIFT_SIZE = 256;
+
     private static final byte REOP_SIMPLE_START  = 1;  /* start of 'simple opcodes' */
     private static final byte REOP_EMPTY         = 1;  /* match rest of input against rest of r.e. */
     private static final byte REOP_BOL           = 2;  /* beginning of input (or line if multiline) */
@@ -286,6 +309,33 @@ public class NativeRegExp extends IdScriptableObject
     }
 
     static RECompiled compileRE(Context cx, String str, String global, boolean flat)
+    {
+        // compiled programs are immutable once built (the bitmaps of the
+        // classes are built under a lock), so instances can share them; the
+        // warnings of the parse are kept with the program and replayed for
+        // every caller, whether it compiled the program or not
+        String key = (flat ? 'F' : 'R') + (global == null ? "" : global) + '/' + str;
+        RECompiled regexp;
+        synchronized (cache) {
+            regexp = cache.get(key);
+        }
+        if (regexp == null) {
+            regexp = compileREImpl(cx, str, global, flat);
+            if (regexp != null) {
+                synchronized (cache) {
+                    cache.put(key, regexp);
+                }
+            }
+        }
+        if (regexp != null && regexp.warnings != null) {
+            for (int i = 0; i < regexp.warnings.length; i += 2) {
+                reportWarning(cx, regexp.warnings[i], regexp.warnings[i + 1]);
+            }
+        }
+        return regexp;
+    }
+
+    private static RECompiled compileREImpl(Context cx, String str, String global, boolean flat)
     {
         RECompiled regexp = new RECompiled(str);
         int length = str.length();
@@ -311,7 +361,9 @@ public class NativeRegExp extends IdScriptableObject
         }
         regexp.flags = flags;
 
+        List<String> warnings = new ArrayList<String>();
         CompilerState state = new CompilerState(cx, regexp.source, length, flags);
+        state.warnings = warnings;
         if (flat && length > 0) {
             if (debug) {
                 System.out.println("flat = \"" + str + "\"");
@@ -329,12 +381,17 @@ public class NativeRegExp extends IdScriptableObject
             // specified in \#, the \# is taken as an octal escape"
             if (state.maxBackReference > state.parenCount) {
                 state = new CompilerState(cx, regexp.source, length, flags);
+                state.warnings = warnings;
                 state.backReferenceLimit = state.parenCount;
                 if (!parseDisjunction(state))
                     return null;
             }
         }
 
+        if (!warnings.isEmpty()) {
+            regexp.warnings = warnings.toArray(new String[warnings.size()]);
+        }
+
         regexp.program = new byte[state.progLength + 1];
         if (state.classCount != 0) {
             regexp.classList = new RECharSet[state.classCount];
@@ -364,6 +421,10 @@ public class NativeRegExp extends IdScriptableObject
                 regexp.anchorCh = (char)(regexp.program[1] & 0xFF);
                 break;
             case REOP_FLAT:
+                initPrefix(regexp, getIndex(regexp.program, 1),
+                           getIndex(regexp.program, 1 + INDEX_LEN));
+                regexp.anchorCh = regexp.source[getIndex(regexp.program, 1)];
+                break;
             case REOP_FLATi:
                 int k = getIndex(regexp.program, 1);
                 regexp.anchorCh = regexp.source[k];
@@ -387,6 +448,49 @@ public class NativeRegExp extends IdScriptableObject
         return regexp;
     }
 
+    /*
+     * Sets up the Boyer-Moore-Horspool search of the literal every match of
+     * the regexp starts with.
+     */
+    private static void initPrefix(RECompiled regexp, int offset, int length)
+    {
+        char[] prefix = new char[length];
+        System.arraycopy(regexp.source, offset, prefix, 0, length);
+        int[] shift = new int[PREFIX_SHIFT_SIZE];
+        Arrays.fill(shift, length);
+        // chars sharing a bucket get the smallest shift of any of them
+        for (int i = 0; i < length - 1; i++) {
+            shift[prefix[i] & (PREFIX_SHIFT_SIZE - 1)] = length - 1 - i;
+        }
+        regexp.prefix = prefix;
+        regexp.prefixShift = shift;
+    }
+
+    /*
+     * Returns the first index from start of the literal prefix of the
+     * regexp in input, or -1.
+     */
+    private static int indexOfPrefix(RECompiled re, String input, int start, int end)
+    {
+        char[] prefix = re.prefix;
+        int[] shift = re.prefixShift;
+        int last = prefix.length - 1;
+        for (int i = start; i + last < end; ) {
+            char c = input.charAt(i + last);
+            if (c == prefix[last]) {
+                int j = last - 1;
+                while (j >= 0 && input.charAt(i + j) == prefix[j]) {
+                    j--;
+                }
+                if (j < 0) {
+                    return i;
+                }
+            }
+            i += shift[c & (PREFIX_SHIFT_SIZE - 1)];
+        }
+        return -1;
+    }
+
     static boolean isDigit(char c)
     {
         return '0' <= c && c <= '9';
@@ -849,7 +953,7 @@ public class NativeRegExp extends IdScriptableObject
  * http://wiki.ecmascript.org/doku.php?id=harmony:regexp_match_web_reality
  * http://wiki.ecmascript.org/doku.php?id=strawman:match_web_reality_spec
  */
-                    reportWarning(state.cx, "msg.bad.backref", "");
+                    addWarning(state, "msg.bad.backref", "");
                     /* octal escape */
                     num = 0;
                     // follow spidermonkey and allow multiple leading zeros,
@@ -879,7 +983,7 @@ public class NativeRegExp extends IdScriptableObject
                     num = getDecimalValue(c, state, 0xFFFF,
                                           "msg.overlarge.backref");
                     if (num > state.backReferenceLimit)
-                        reportWarning(state.cx, "msg.bad.backref", "");
+                        addWarning(state, "msg.bad.backref", "");
                     /*
                      * n > count of parentheses, then treat as octal instead.
                      * Also see note above concerning 'web reality'
@@ -2386,7 +2490,12 @@ public class NativeRegExp extends IdScriptableObject
             // the string until that match is made, or fail if it can't be
             // found at all.
             //
-            if (anchorCh >= 0) {
+            if (re.prefix != null) {
+                i = indexOfPrefix(re, input, i, end);
+                if (i < 0) {
+                    return false;
+                }
+            } else if (anchorCh >= 0) {
                 for (;;) {
                     if (i == end) {
                         return false;
@@ -2553,6 +2662,12 @@ public class NativeRegExp extends IdScriptableObject
         return re.flags;
     }
 
+    private static void addWarning(CompilerState state, String messageId, String arg)
+    {
+        state.warnings.add(messageId);
+        state.warnings.add(arg);
+    }
+
     private static void reportWarning(Context cx, String messageId, String arg)
     {
         if (cx.hasFeature(Context.FEATURE_STRICT_MODE)) {
@@ -2849,6 +2964,9 @@ class RECompiled implements Serializable
     int classCount;         /* count [...] bitmaps */
     RECharSet[] classList;  /* list of [...] bitmaps */
     int anchorCh = -1;      /* if >= 0, then re starts with this literal char */
+    char[] prefix;          /* if not null, then re starts with this literal */
+    int[] prefixShift;      /* Horspool shifts of prefix, by low bits of char */
+    String[] warnings;      /* message ids and args of the parse warnings */
 
     RECompiled(String str) {
         this.source = str.toCharArray();
@@ -2917,6 +3035,7 @@ class CompilerState {
     int         classCount;   /* number of [] encountered */
     int         progLength;   /* estimated bytecode length */
     RENode      result;
+    List<String> warnings;    /* message ids and args to report */
 }
 
 class REProgState
@@ -6,9 +6,14 @@
 
 package org.mozilla.javascript.typedarrays;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 /**
  * <p>ByteIo class.</p>
  *
+ * Reads and writes values at absolute offsets of a ByteBuffer in either byte order, whatever the
+ * order of the buffer, without changing its position or order.
  *
  *
  */
@@ -17,84 +22,82 @@ public class ByteIo
     /**
      * <p>readInt8.</p>
      *
-     * @param buf an array of {@link byte} objects.
+     * @param buf a {@link java.nio.ByteBuffer} object.
      * @param offset a int.
      * @return a {@link java.lang.Byte} object.
      */
-    public static Byte readInt8(byte[] buf, int offset)
+    public static Byte readInt8(ByteBuffer buf, int offset)
     {
-        return Byte.valueOf(buf[offset]);
+        return Byte.valueOf(buf.get(offset));
     }
 
     /**
      * <p>writeInt8.</p>
      *
-     * @param buf an array of {@link byte} objects.
+     * @param buf a {@link java.nio.ByteBuffer} object.
      * @param offset a int.
      * @param val a int.
      */
-    public static void writeInt8(byte[] buf, int offset, int val)
+    public static void writeInt8(ByteBuffer buf, int offset, int val)
     {
-        buf[offset] = (byte)val;
+        buf.put(offset, (byte)val);
     }
 
     /**
      * <p>readUint8.</p>
      *
-     * @param buf an array of {@link byte} objects.
+     * @param buf a {@link java.nio.ByteBuffer} object.
      * @param offset a int.
      * @return a {@link java.lang.Integer} object.
      */
-    public static Integer readUint8(byte[] buf, int offset)
+    public static Integer readUint8(ByteBuffer buf, int offset)
     {
-        return Integer.valueOf(buf[offset] & 0xff);
+        return Integer.valueOf(buf.get(offset) & 0xff);
     }
 
     /**
      * <p>writeUint8.</p>
      *
-     * @param buf an array of {@link byte} objects.
+     * @param buf a {@link java.nio.ByteBuffer} object.
      * @param offset a int.
      * @param val a int.
      */
-    public static void writeUint8(byte[] buf, int offset, int val)
+    public static void writeUint8(ByteBuffer buf, int offset, int val)
+    {
+        buf.put(offset, (byte)(val & 0xff));
+    }
+
+    private static boolean swap(ByteBuffer buf, boolean littleEndian)
+    {
+        return (buf.order() == ByteOrder.LITTLE_ENDIAN) != littleEndian;
+    }
+
+    private static short doReadInt16(ByteBuffer buf, int offset, boolean littleEndian)
     {
-        buf[offset] = (byte)(val & 0xff);
+        short val = buf.getShort(offset);
+        return swap(buf, littleEndian) ? Short.reverseBytes(val) : val;
     }
 
-    private static short doReadInt16(byte[] buf, int offset, boolean littleEndian)
+    private static void doWriteInt16(ByteBuffer buf, int offset, int val, boolean littleEndian)
     {
-        // Need to coalesce to short here so that we stay in range
-        if (littleEndian) {
-            return
-                (short)((buf[offset]      & 0xff) |
-                       ((buf[offset + 1] & 0xff) << 8));
-        }
-        return
-            (short)(((buf[offset]    & 0xff) << 8) |
-                    (buf[offset + 1] & 0xff));
+        buf.putShort(offset, swap(buf, littleEndian) ? Short.reverseBytes((short)val) : (short)val);
     }
 
-    private static void doWriteInt16(byte[] buf, int offset, int val, boolean littleEndian)
+    private static int doReadInt32(ByteBuffer buf, int offset, boolean littleEndian)
     {
-        if (littleEndian) {
-            buf[offset] =     (byte)(val & 0xff);
-            buf[offset + 1] = (byte)((val >>> 8) & 0xff);
-        } else {
-            buf[offset]         =     (byte)((val >>> 8) & 0xff);
-            buf[offset + 1]     =     (byte)(val & 0xff);
-        }
+        int val = buf.getInt(offset);
+        return swap(buf, littleEndian) ? Integer.reverseBytes(val) : val;
     }
 
     /**
      * <p>readInt16.</p>
      *
-     * @param buf an array of {@link byte} objects.
+     * @param buf a {@link java.nio.ByteBuffer} object.
      * @param offset a int.
      * @param littleEndian a boolean.
      * @return a {@link java.lang.Short} object.
      */
-    public static Short readInt16(byte[] buf, int offset, boolean littleEndian)
+    public static Short readInt16(ByteBuffer buf, int offset, boolean littleEndian)
     {
         return Short.valueOf(doReadInt16(buf, offset, littleEndian));
     }
@@ -102,12 +105,12 @@ public class ByteIo
     /**
      * <p>writeInt16.</p>
      *
-     * @param buf an array of {@link byte} objects.
+     * @param buf a {@link java.nio.ByteBuffer} object.
      * @param offset a int.
      * @param val a int.
      * @param littleEndian a boolean.
      */
-    public static void writeInt16(byte[] buf, int offset, int val, boolean littleEndian)
+    public static void writeInt16(ByteBuffer buf, int offset, int val, boolean littleEndian)
     {
         doWriteInt16(buf, offset, val, littleEndian);
     }
@@ -115,12 +118,12 @@ public class ByteIo
     /**
      * <p>readUint16.</p>
      *
-     * @param buf an array of {@link byte} objects.
+     * @param buf a {@link java.nio.ByteBuffer} object.
      * @param offset a int.
      * @param littleEndian a boolean.
      * @return a {@link java.lang.Integer} object.
      */
-    public static Integer readUint16(byte[] buf, int offset, boolean littleEndian)
+    public static Integer readUint16(ByteBuffer buf, int offset, boolean littleEndian)
     {
         return Integer.valueOf(doReadInt16(buf, offset, littleEndian) & 0xffff);
     }
@@ -128,12 +131,12 @@ public class ByteIo
     /**
      * <p>writeUint16.</p>
      *
-     * @param buf an array of {@link byte} objects.
+     * @param buf a {@link java.nio.ByteBuffer} object.
      * @param offset a int.
      * @param val a int.
      * @param littleEndian a boolean.
      */
-    public static void writeUint16(byte[] buf, int offset, int val, boolean littleEndian)
+    public static void writeUint16(ByteBuffer buf, int offset, int val, boolean littleEndian)
     {
         doWriteInt16(buf, offset, val & 0xffff, littleEndian);
     }
@@ -141,108 +144,64 @@ public class ByteIo
     /**
      * <p>readInt32.</p>
      *
-     * @param buf an array of {@link byte} objects.
+     * @param buf a {@link java.nio.ByteBuffer} object.
      * @param offset a int.
      * @param littleEndian a boolean.
      * @return a {@link java.lang.Integer} object.
      */
-    public static Integer readInt32(byte[] buf, int offset, boolean littleEndian)
+    public static Integer readInt32(ByteBuffer buf, int offset, boolean littleEndian)
     {
-        if (littleEndian) {
-            return Integer.valueOf(
-                (buf[offset]      & 0xff) |
-                ((buf[offset + 1] & 0xff) << 8) |
-                ((buf[offset + 2] & 0xff) << 16) |
-                ((buf[offset + 3] & 0xff) << 24));
-        }
-        return Integer.valueOf(
-            ((buf[offset]     & 0xff) << 24) |
-            ((buf[offset + 1] & 0xff) << 16) |
-            ((buf[offset + 2] & 0xff) << 8) |
-            (buf[offset + 3]  & 0xff));
+        return Integer.valueOf(doReadInt32(buf, offset, littleEndian));
     }
 
     /**
      * <p>writeInt32.</p>
      *
-     * @param buf an array of {@link byte} objects.
+     * @param buf a {@link java.nio.ByteBuffer} object.
      * @param offset a int.
      * @param val a int.
      * @param littleEndian a boolean.
      */
-    public static void writeInt32(byte[] buf, int offset, int val, boolean littleEndian)
+    public static void writeInt32(ByteBuffer buf, int offset, int val, boolean littleEndian)
     {
-        if (littleEndian) {
-            buf[offset] =     (byte)(val & 0xff);
-            buf[offset + 1] = (byte)((val >>> 8)  & 0xff);
-            buf[offset + 2] = (byte)((val >>> 16) & 0xff);
-            buf[offset + 3] = (byte)((val >>> 24) & 0xff);
-        } else {
-            buf[offset] =     (byte)((val >>> 24) & 0xff);
-            buf[offset + 1] = (byte)((val >>> 16) & 0xff);
-            buf[offset + 2] = (byte)((val >>> 8) & 0xff);
-            buf[offset + 3] = (byte)(val & 0xff);
-        }
+        buf.putInt(offset, swap(buf, littleEndian) ? Integer.reverseBytes(val) : val);
     }
 
     /**
      * <p>readUint32Primitive.</p>
      *
-     * @param buf an array of {@link byte} objects.
+     * @param buf a {@link java.nio.ByteBuffer} object.
      * @param offset a int.
      * @param littleEndian a boolean.
      * @return a long.
      */
-    public static long readUint32Primitive(byte[] buf, int offset, boolean littleEndian)
+    public static long readUint32Primitive(ByteBuffer buf, int offset, boolean littleEndian)
     {
-        if (littleEndian) {
-            return
-                ((buf[offset]      & 0xffL) |
-                 ((buf[offset + 1] & 0xffL) << 8L) |
-                 ((buf[offset + 2] & 0xffL) << 16L) |
-                 ((buf[offset + 3] & 0xffL) << 24L)) &
-                0xffffffffL;
-        }
-        return
-            (((buf[offset]     & 0xffL) << 24L) |
-             ((buf[offset + 1] & 0xffL) << 16L) |
-             ((buf[offset + 2] & 0xffL) << 8L) |
-             (buf[offset + 3]  & 0xffL)) &
-             0xffffffffL;
+        return doReadInt32(buf, offset, littleEndian) & 0xffffffffL;
     }
 
     /**
      * <p>writeUint32.</p>
      *
-     * @param buf an array of {@link byte} objects.
+     * @param buf a {@link java.nio.ByteBuffer} object.
      * @param offset a int.
      * @param val a long.
      * @param littleEndian a boolean.
      */
-    public static void writeUint32(byte[] buf, int offset, long val, boolean littleEndian)
+    public static void writeUint32(ByteBuffer buf, int offset, long val, boolean littleEndian)
     {
-        if (littleEndian) {
-            buf[offset] =     (byte)(val & 0xffL);
-            buf[offset + 1] = (byte)((val >>> 8L)  & 0xffL);
-            buf[offset + 2] = (byte)((val >>> 16L) & 0xffL);
-            buf[offset + 3] = (byte)((val >>> 24L) & 0xffL);
-        } else {
-            buf[offset] =     (byte)((val >>> 24L) & 0xffL);
-            buf[offset + 1] = (byte)((val >>> 16L) & 0xffL);
-            buf[offset + 2] = (byte)((val >>> 8L)  & 0xffL);
-            buf[offset + 3] = (byte)(val & 0xffL);
-        }
+        writeInt32(buf, offset, (int)(val & 0xffffffffL), littleEndian);
     }
 
     /**
      * <p>readUint32.</p>
      *
-     * @param buf an array of {@link byte} objects.
+     * @param buf a {@link java.nio.ByteBuffer} object.
      * @param offset a int.
      * @param littleEndian a boolean.
      * @return a {@link java.lang.Object} object.
      */
-    public static Object readUint32(byte[] buf, int offset, boolean littleEndian)
+    public static Object readUint32(ByteBuffer buf, int offset, boolean littleEndian)
     {
         return Long.valueOf(readUint32Primitive(buf, offset, littleEndian));
     }
@@ -250,119 +209,79 @@ public class ByteIo
     /**
      * <p>readUint64Primitive.</p>
      *
-     * @param buf an array of {@link byte} objects.
+     * @param buf a {@link java.nio.ByteBuffer} object.
      * @param offset a int.
      * @param littleEndian a boolean.
      * @return a long.
      */
-    public static long readUint64Primitive(byte[] buf, int offset, boolean littleEndian)
+    public static long readUint64Primitive(ByteBuffer buf, int offset, boolean littleEndian)
     {
-        if (littleEndian) {
-            return
-                   ((buf[offset]     & 0xffL) |
-                    ((buf[offset + 1] & 0xffL) << 8L) |
-                    ((buf[offset + 2] & 0xffL) << 16L) |
-                    ((buf[offset + 3] & 0xffL) << 24L) |
-                    ((buf[offset + 4] & 0xffL) << 32L) |
-                    ((buf[offset + 5] & 0xffL) << 40L) |
-                    ((buf[offset + 6] & 0xffL) << 48L) |
-                    ((buf[offset + 7] & 0xffL) << 56L));
-        }
-        return
-            (((buf[offset]     & 0xffL) << 56L) |
-             ((buf[offset + 1] & 0xffL) << 48L) |
-             ((buf[offset + 2] & 0xffL) << 40L) |
-             ((buf[offset + 3] & 0xffL) << 32L) |
-             ((buf[offset + 4] & 0xffL) << 24L) |
-             ((buf[offset + 5] & 0xffL) << 16L) |
-             ((buf[offset + 6] & 0xffL) << 8L) |
-             ((buf[offset + 7] & 0xffL) << 0L));
+        long val = buf.getLong(offset);
+        return swap(buf, littleEndian) ? Long.reverseBytes(val) : val;
     }
 
     /**
      * <p>writeUint64.</p>
      *
-     * @param buf an array of {@link byte} objects.
+     * @param buf a {@link java.nio.ByteBuffer} object.
      * @param offset a int.
      * @param val a long.
      * @param littleEndian a boolean.
      */
-    public static void writeUint64(byte[] buf, int offset, long val, boolean littleEndian)
+    public static void writeUint64(ByteBuffer buf, int offset, long val, boolean littleEndian)
     {
-        if (littleEndian) {
-            buf[offset] =     (byte)(val & 0xffL);
-            buf[offset + 1] = (byte)((val >>> 8L)  & 0xffL);
-            buf[offset + 2] = (byte)((val >>> 16L) & 0xffL);
-            buf[offset + 3] = (byte)((val >>> 24L) & 0xffL);
-            buf[offset + 4] = (byte)((val >>> 32L)  & 0xffL);
-            buf[offset + 5] = (byte)((val >>> 40L)  & 0xffL);
-            buf[offset + 6] = (byte)((val >>> 48L) & 0xffL);
-            buf[offset + 7] = (byte)((val >>> 56L) & 0xffL);
-        } else {
-            buf[offset] =     (byte)((val >>> 56L) & 0xffL);
-            buf[offset + 1] = (byte)((val >>> 48L) & 0xffL);
-            buf[offset + 2] = (byte)((val >>> 40L) & 0xffL);
-            buf[offset + 3] = (byte)((val >>> 32L) & 0xffL);
-            buf[offset + 4] = (byte)((val >>> 24L) & 0xffL);
-            buf[offset + 5] = (byte)((val >>> 16L) & 0xffL);
-            buf[offset + 6] = (byte)((val >>> 8L)  & 0xffL);
-            buf[offset + 7] = (byte)(val & 0xffL);
-        }
+        buf.putLong(offset, swap(buf, littleEndian) ? Long.reverseBytes(val) : val);
     }
 
     /**
      * <p>readFloat32.</p>
      *
-     * @param buf an array of {@link byte} objects.
+     * @param buf a {@link java.nio.ByteBuffer} object.
      * @param offset a int.
      * @param littleEndian a boolean.
      * @return a {@link java.lang.Float} object.
      */
-    public static Float readFloat32(byte[] buf, int offset, boolean littleEndian)
+    public static Float readFloat32(ByteBuffer buf, int offset, boolean littleEndian)
     {
-        long base = readUint32Primitive(buf, offset, littleEndian);
-        return Float.valueOf(Float.intBitsToFloat((int)base));
+        return Float.valueOf(Float.intBitsToFloat(doReadInt32(buf, offset, littleEndian)));
     }
 
     /**
      * <p>writeFloat32.</p>
      *
-     * @param buf an array of {@link byte} objects.
+     * @param buf a {@link java.nio.ByteBuffer} object.
      * @param offset a int.
      * @param val a double.
      * @param littleEndian a boolean.
      */
-    public static void writeFloat32(byte[] buf, int offset, double val, boolean littleEndian)
+    public static void writeFloat32(ByteBuffer buf, int offset, double val, boolean littleEndian)
     {
-        long base = Float.floatToIntBits((float)val);
-        writeUint32(buf, offset, base, littleEndian);
+        writeInt32(buf, offset, Float.floatToIntBits((float)val), littleEndian);
     }
 
     /**
      * <p>readFloat64.</p>
      *
-     * @param buf an array of {@link byte} objects.
+     * @param buf a {@link java.nio.ByteBuffer} object.
      * @param offset a int.
      * @param littleEndian a boolean.
      * @return a {@link java.lang.Double} object.
      */
-    public static Double readFloat64(byte[] buf, int offset, boolean littleEndian)
+    public static Double readFloat64(ByteBuffer buf, int offset, boolean littleEndian)
     {
-        long base = readUint64Primitive(buf, offset, littleEndian);
-        return Double.valueOf(Double.longBitsToDouble(base));
+        return Double.valueOf(Double.longBitsToDouble(readUint64Primitive(buf, offset, littleEndian)));
     }
 
     /**
      * <p>writeFloat64.</p>
      *
-     * @param buf an array of {@link byte} objects.
+     * @param buf a {@link java.nio.ByteBuffer} object.
      * @param offset a int.
      * @param val a double.
      * @param littleEndian a boolean.
      */
-    public static void writeFloat64(byte[] buf, int offset, double val, boolean littleEndian)
+    public static void writeFloat64(ByteBuffer buf, int offset, double val, boolean littleEndian)
     {
-        long base = Double.doubleToLongBits(val);
-        writeUint64(buf, offset, base, littleEndian);
+        writeUint64(buf, offset, Double.doubleToLongBits(val), littleEndian);
     }
 }
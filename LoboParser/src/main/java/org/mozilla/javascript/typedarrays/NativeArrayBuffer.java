@@ -6,6 +6,13 @@
 
 package org.mozilla.javascript.typedarrays;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.IdFunctionObject;
 import org.mozilla.javascript.IdScriptableObject;
@@ -15,7 +22,11 @@ import org.mozilla.javascript.Undefined;
 
 /**
  * A NativeArrayBuffer is the backing buffer for a typed array. Used inside JavaScript code,
- * it implements the ArrayBuffer interface. Used directly from Java, it simply holds a byte array.
+ * it implements the ArrayBuffer interface. Used directly from Java, it holds a ByteBuffer:
+ * a byte array for most buffers, off-heap memory for the ones of at least
+ * "rhino.directArrayBufferThreshold" bytes (a system property, no buffer is off-heap when it is
+ * not set), or any buffer handed over by the embedding. The typed arrays read and write the
+ * content through views of that ByteBuffer, and so share it with Java without any copy.
  *
  *
  *
@@ -30,8 +41,15 @@ public class NativeArrayBuffer
 
     private static final byte[] EMPTY_BUF = new byte[0];
 
+    /** The min length of the buffers allocated off-heap, or -1. */
+    private static final int DIRECT_THRESHOLD = Integer.getInteger("rhino.directArrayBufferThreshold", -1).intValue();
+
+    /** The backing array, or null if the content is not a whole array. */
     final byte[] buffer;
 
+    /** The content, in big endian order: positions, limit and order are never changed. */
+    transient ByteBuffer data;
+
     /** {@inheritDoc} */
     @Override
     public String getClassName()
@@ -58,6 +76,7 @@ public class NativeArrayBuffer
     public NativeArrayBuffer()
     {
         buffer = EMPTY_BUF;
+        data = ByteBuffer.wrap(buffer);
     }
 
     /**
@@ -83,30 +102,90 @@ public class NativeArrayBuffer
         if (intLen < 0) {
             throw ScriptRuntime.rangeError("Negative array length " + len);
         }
-        if (intLen == 0) {
-            buffer = EMPTY_BUF;
+        if (DIRECT_THRESHOLD >= 0 && intLen >= DIRECT_THRESHOLD && intLen > 0) {
+            buffer = null;
+            data = ByteBuffer.allocateDirect(intLen);
         } else {
-            buffer = new byte[intLen];
+            buffer = intLen == 0 ? EMPTY_BUF : new byte[intLen];
+            data = ByteBuffer.wrap(buffer);
         }
     }
 
+    /**
+     * Create a buffer sharing the remaining content of bytes, without copying it. Changes to
+     * the content of bytes will be reflected in the buffer and all its views, and the other way
+     * around.
+     *
+     * @param bytes a {@link java.nio.ByteBuffer} object.
+     */
+    public NativeArrayBuffer(ByteBuffer bytes)
+    {
+        ByteBuffer content = bytes.slice().order(ByteOrder.BIG_ENDIAN);
+        if (content.hasArray() && content.arrayOffset() == 0
+            && content.capacity() == content.array().length)
+        {
+            buffer = content.array();
+        } else {
+            buffer = null;
+        }
+        data = content;
+    }
+
     /**
      * Get the number of bytes in the buffer.
      *
      * @return a int.
      */
     public int getLength() {
-        return buffer.length;
+        return data.capacity();
     }
 
     /**
      * Return the actual bytes that back the buffer. This is a reference to the real buffer,
      * so changes to bytes here will be reflected in the actual object and all its views.
+     * If the buffer is not backed by a whole byte array, this is a copy of its content.
      *
      * @return an array of {@link byte} objects.
      */
     public byte[] getBuffer() {
-        return buffer;
+        if (buffer != null) {
+            return buffer;
+        }
+        byte[] copy = new byte[data.capacity()];
+        data.duplicate().get(copy);
+        return copy;
+    }
+
+    /**
+     * Return the content of the buffer, in big endian order. The content is shared, so changes
+     * to it will be reflected in the actual object and all its views.
+     *
+     * @return a {@link java.nio.ByteBuffer} object.
+     */
+    public ByteBuffer getByteBuffer() {
+        return data.duplicate();
+    }
+
+    /**
+     * Return whether the content of the buffer is held outside of the Java heap.
+     *
+     * @return a boolean.
+     */
+    public boolean isDirect() {
+        return data.isDirect();
+    }
+
+    /**
+     * Return the bytes from offset to offset + length of the buffer, in the given order, with
+     * shared content.
+     */
+    ByteBuffer view(int offset, int length, boolean littleEndian)
+    {
+        ByteBuffer view = data.duplicate();
+        // through Buffer, as ByteBuffer only overrides these from Java 9 on
+        ((Buffer) view).limit(offset + length);
+        ((Buffer) view).position(offset);
+        return view.slice().order(littleEndian ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
     }
 
     // Actual implementations of actual code
@@ -126,15 +205,40 @@ public class NativeArrayBuffer
     {
         // Handle negative start as relative to start
         // Clamp as per the spec to between 0 and length
-        int end = ScriptRuntime.toInt32(Math.max(0, Math.min(buffer.length, (e < 0 ? buffer.length + e : e))));
-        int start = ScriptRuntime.toInt32(Math.min(end, Math.max(0, (s < 0 ? buffer.length + s : s))));
+        int length = getLength();
+        int end = ScriptRuntime.toInt32(Math.max(0, Math.min(length, (e < 0 ? length + e : e))));
+        int start = ScriptRuntime.toInt32(Math.min(end, Math.max(0, (s < 0 ? length + s : s))));
         int len = end - start;
 
         NativeArrayBuffer newBuf = new NativeArrayBuffer(len);
-        System.arraycopy(buffer, start, newBuf.buffer, 0, len);
+        if (len > 0) {
+            newBuf.data.duplicate().put(view(start, len, false));
+        }
         return newBuf;
     }
 
+    private void writeObject(ObjectOutputStream out) throws IOException
+    {
+        out.defaultWriteObject();
+        if (buffer == null) {
+            out.writeBoolean(data.isDirect());
+            out.writeObject(getBuffer());
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+    {
+        in.defaultReadObject();
+        if (buffer != null) {
+            data = ByteBuffer.wrap(buffer);
+        } else {
+            boolean direct = in.readBoolean();
+            byte[] content = (byte[]) in.readObject();
+            data = direct ? ByteBuffer.allocateDirect(content.length) : ByteBuffer.allocate(content.length);
+            data.duplicate().put(content);
+        }
+    }
+
     // Function-calling dispatcher
 
     /** {@inheritDoc} */
@@ -157,7 +261,7 @@ public class NativeArrayBuffer
         case Id_slice:
             NativeArrayBuffer self = realThis(thisObj, f);
             double start = isArg(args, 0) ? ScriptRuntime.toNumber(args[0]) : 0;
-            double end = isArg(args, 1) ? ScriptRuntime.toNumber(args[1]) : self.buffer.length;
+            double end = isArg(args, 1) ? ScriptRuntime.toNumber(args[1]) : self.getLength();
             return self.slice(start, end);
         }
         throw new IllegalArgumentException(String.valueOf(id));
@@ -251,7 +355,7 @@ public class NativeArrayBuffer
     protected Object getInstanceIdValue(int id)
     {
         if (id == Id_byteLength) {
-            return ScriptRuntime.wrapInt(buffer.length);
+            return ScriptRuntime.wrapInt(getLength());
         }
         return super.getInstanceIdValue(id);
     }
@@ -6,6 +6,8 @@
 
 package org.mozilla.javascript.typedarrays;
 
+import java.nio.FloatBuffer;
+
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.IdFunctionObject;
 import org.mozilla.javascript.ScriptRuntime;
@@ -27,6 +29,8 @@ public class NativeFloat32Array
     private static final String CLASS_NAME = "Float32Array";
     private static final int BYTES_PER_ELEMENT = 4;
 
+    private transient FloatBuffer view;
+
     /**
      * <p>Constructor for NativeFloat32Array.</p>
      */
@@ -97,6 +101,16 @@ public class NativeFloat32Array
         return ensureType(thisObj, NativeFloat32Array.class, f);
     }
 
+    private FloatBuffer view()
+    {
+        FloatBuffer v = view;
+        if (v == null) {
+            v = arrayBuffer.view(offset, byteLength, useLittleEndian()).asFloatBuffer();
+            view = v;
+        }
+        return v;
+    }
+
     /** {@inheritDoc} */
     @Override
     protected Object js_get(int index)
@@ -104,7 +118,7 @@ public class NativeFloat32Array
         if (checkIndex(index)) {
             return Undefined.instance;
         }
-        return ByteIo.readFloat32(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, useLittleEndian());
+        return Float.valueOf(view().get(index));
     }
 
     /** {@inheritDoc} */
@@ -115,7 +129,7 @@ public class NativeFloat32Array
             return Undefined.instance;
         }
         double val = ScriptRuntime.toNumber(c);
-        ByteIo.writeFloat32(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, val, useLittleEndian());
+        view().put(index, (float)val);
         return null;
     }
 
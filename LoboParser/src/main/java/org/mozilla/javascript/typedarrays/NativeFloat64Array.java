@@ -6,6 +6,8 @@
 
 package org.mozilla.javascript.typedarrays;
 
+import java.nio.DoubleBuffer;
+
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.IdFunctionObject;
 import org.mozilla.javascript.ScriptRuntime;
@@ -27,6 +29,8 @@ public class NativeFloat64Array
     private static final String CLASS_NAME = "Float64Array";
     private static final int BYTES_PER_ELEMENT = 8;
 
+    private transient DoubleBuffer view;
+
     /**
      * <p>Constructor for NativeFloat64Array.</p>
      */
@@ -97,6 +101,16 @@ public class NativeFloat64Array
         return ensureType(thisObj, NativeFloat64Array.class, f);
     }
 
+    private DoubleBuffer view()
+    {
+        DoubleBuffer v = view;
+        if (v == null) {
+            v = arrayBuffer.view(offset, byteLength, useLittleEndian()).asDoubleBuffer();
+            view = v;
+        }
+        return v;
+    }
+
     /** {@inheritDoc} */
     @Override
     protected Object js_get(int index)
@@ -104,8 +118,7 @@ public class NativeFloat64Array
         if (checkIndex(index)) {
             return Undefined.instance;
         }
-        long base = ByteIo.readUint64Primitive(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, useLittleEndian());
-        return Double.valueOf(Double.longBitsToDouble(base));
+        return Double.valueOf(view().get(index));
     }
 
     /** {@inheritDoc} */
@@ -116,8 +129,7 @@ public class NativeFloat64Array
             return Undefined.instance;
         }
         double val = ScriptRuntime.toNumber(c);
-        long base = Double.doubleToLongBits(val);
-        ByteIo.writeUint64(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, base, useLittleEndian());
+        view().put(index, val);
         return null;
     }
 
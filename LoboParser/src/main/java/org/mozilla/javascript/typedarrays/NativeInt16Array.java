@@ -6,6 +6,8 @@
 
 package org.mozilla.javascript.typedarrays;
 
+import java.nio.ShortBuffer;
+
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.IdFunctionObject;
 import org.mozilla.javascript.Scriptable;
@@ -26,6 +28,8 @@ public class NativeInt16Array
     private static final String CLASS_NAME = "Int16Array";
     private static final int BYTES_PER_ELEMENT = 2;
 
+    private transient ShortBuffer view;
+
     /**
      * <p>Constructor for NativeInt16Array.</p>
      */
@@ -96,6 +100,16 @@ public class NativeInt16Array
         return ensureType(thisObj, NativeInt16Array.class, f);
     }
 
+    private ShortBuffer view()
+    {
+        ShortBuffer v = view;
+        if (v == null) {
+            v = arrayBuffer.view(offset, byteLength, useLittleEndian()).asShortBuffer();
+            view = v;
+        }
+        return v;
+    }
+
     /** {@inheritDoc} */
     @Override
     protected Object js_get(int index)
@@ -103,7 +117,7 @@ public class NativeInt16Array
         if (checkIndex(index)) {
             return Undefined.instance;
         }
-        return ByteIo.readInt16(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, useLittleEndian());
+        return Short.valueOf(view().get(index));
     }
 
     /** {@inheritDoc} */
@@ -114,7 +128,7 @@ public class NativeInt16Array
             return Undefined.instance;
         }
         int val = Conversions.toInt16(c);
-        ByteIo.writeInt16(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, val, useLittleEndian());
+        view().put(index, (short)val);
         return null;
     }
 
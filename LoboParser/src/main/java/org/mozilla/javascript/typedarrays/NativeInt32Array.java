@@ -6,6 +6,8 @@
 
 package org.mozilla.javascript.typedarrays;
 
+import java.nio.IntBuffer;
+
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.IdFunctionObject;
 import org.mozilla.javascript.ScriptRuntime;
@@ -27,6 +29,8 @@ public class NativeInt32Array
     private static final String CLASS_NAME = "Int32Array";
     private static final int BYTES_PER_ELEMENT = 4;
 
+    private transient IntBuffer view;
+
     /**
      * <p>Constructor for NativeInt32Array.</p>
      */
@@ -97,6 +101,16 @@ public class NativeInt32Array
         return ensureType(thisObj, NativeInt32Array.class, f);
     }
 
+    private IntBuffer view()
+    {
+        IntBuffer v = view;
+        if (v == null) {
+            v = arrayBuffer.view(offset, byteLength, useLittleEndian()).asIntBuffer();
+            view = v;
+        }
+        return v;
+    }
+
     /** {@inheritDoc} */
     @Override
     protected Object js_get(int index)
@@ -104,7 +118,7 @@ public class NativeInt32Array
         if (checkIndex(index)) {
             return Undefined.instance;
         }
-        return ByteIo.readInt32(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, useLittleEndian());
+        return Integer.valueOf(view().get(index));
     }
 
     /** {@inheritDoc} */
@@ -115,7 +129,7 @@ public class NativeInt32Array
             return Undefined.instance;
         }
         int val = ScriptRuntime.toInt32(c);
-        ByteIo.writeInt32(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, val, useLittleEndian());
+        view().put(index, val);
         return null;
     }
 
@@ -102,7 +102,7 @@ public class NativeInt8Array
         if (checkIndex(index)) {
             return Undefined.instance;
         }
-        return ByteIo.readInt8(arrayBuffer.buffer, index + offset);
+        return ByteIo.readInt8(arrayBuffer.data, index + offset);
     }
 
     /** {@inheritDoc} */
@@ -113,7 +113,7 @@ public class NativeInt8Array
             return Undefined.instance;
         }
         int val = Conversions.toInt8(c);
-        ByteIo.writeInt8(arrayBuffer.buffer, index + offset, val);
+        ByteIo.writeInt8(arrayBuffer.data, index + offset, val);
         return null;
     }
 
@@ -205,10 +205,10 @@ public abstract class NativeTypedArrayView<T> extends NativeArrayBufferView impl
                 byteLen = na.getLength() - byteOff;
             }
 
-            if ((byteOff < 0) || (byteOff > na.buffer.length)) {
+            if ((byteOff < 0) || (byteOff > na.getLength())) {
                 throw ScriptRuntime.rangeError("offset out of range");
             }
-            if ((byteLen < 0) || ((byteOff + byteLen) > na.buffer.length)) {
+            if ((byteLen < 0) || ((byteOff + byteLen) > na.getLength())) {
                 throw ScriptRuntime.rangeError("length out of range");
             }
             if ((byteOff % getBytesPerElement()) != 0) {
@@ -6,6 +6,8 @@
 
 package org.mozilla.javascript.typedarrays;
 
+import java.nio.IntBuffer;
+
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.IdFunctionObject;
 import org.mozilla.javascript.Scriptable;
@@ -26,6 +28,8 @@ public class NativeUint32Array
     private static final String CLASS_NAME = "Uint32Array";
     private static final int BYTES_PER_ELEMENT = 4;
 
+    private transient IntBuffer view;
+
     /**
      * <p>Constructor for NativeUint32Array.</p>
      */
@@ -96,6 +100,16 @@ public class NativeUint32Array
         return ensureType(thisObj, NativeUint32Array.class, f);
     }
 
+    private IntBuffer view()
+    {
+        IntBuffer v = view;
+        if (v == null) {
+            v = arrayBuffer.view(offset, byteLength, useLittleEndian()).asIntBuffer();
+            view = v;
+        }
+        return v;
+    }
+
     /** {@inheritDoc} */
     @Override
     protected Object js_get(int index)
@@ -103,7 +117,7 @@ public class NativeUint32Array
         if (checkIndex(index)) {
             return Undefined.instance;
         }
-        return ByteIo.readUint32(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, useLittleEndian());
+        return Long.valueOf(view().get(index) & 0xffffffffL);
     }
 
     /** {@inheritDoc} */
@@ -114,7 +128,7 @@ public class NativeUint32Array
             return Undefined.instance;
         }
         long val = Conversions.toUint32(c);
-        ByteIo.writeUint32(arrayBuffer.buffer, (index * BYTES_PER_ELEMENT) + offset, val, useLittleEndian());
+        view().put(index, (int)val);
         return null;
     }
 
@@ -102,7 +102,7 @@ public class NativeUint8Array
         if (checkIndex(index)) {
             return Undefined.instance;
         }
-        return ByteIo.readUint8(arrayBuffer.buffer, index + offset);
+        return ByteIo.readUint8(arrayBuffer.data, index + offset);
     }
 
     /** {@inheritDoc} */
@@ -113,7 +113,7 @@ public class NativeUint8Array
             return Undefined.instance;
         }
         int val = Conversions.toUint8(c);
-        ByteIo.writeUint8(arrayBuffer.buffer, index + offset, val);
+        ByteIo.writeUint8(arrayBuffer.data, index + offset, val);
         return null;
     }
 
@@ -0,0 +1,224 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.html.gui;
+
+import org.junit.Test;
+import org.loboevolution.html.renderer.RBlockViewport;
+
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link org.loboevolution.html.gui.TileCache}. The counts checked are
+ * the tiles drawn and, among them, the tiles rendered.
+ */
+public class TileCacheUnitTest {
+
+    private static final Logger logger = Logger.getLogger(TileCacheUnitTest.class.getName());
+
+    private static final int SIZE = TileCache.TILE_SIZE;
+
+    private final BufferedImage screen = new BufferedImage(2 * SIZE, 2 * SIZE, BufferedImage.TYPE_INT_ARGB);
+
+    @Test
+    public void repaintDropsDamagedTiles() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            final TileCache cache = new TileCache(new JPanel());
+            final TestViewport viewport = new TestViewport(0);
+            paint(cache, viewport);
+            assertArrayEquals(new int[] {4, 4}, cache.takeCounts());
+            paint(cache, viewport);
+            assertArrayEquals(new int[] {4, 0}, cache.takeCounts());
+
+            // repaint(x, y, w, h) of a box inside the second tile
+            cache.invalidate(SIZE + 10, 10, 20, 20);
+            paint(cache, viewport);
+            assertArrayEquals(new int[] {4, 1}, cache.takeCounts());
+        });
+    }
+
+    @Test
+    public void reflowDamageDropsAllTilesUnder() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            final TileCache cache = new TileCache(new JPanel());
+            final TestViewport viewport = new TestViewport(0);
+            paint(cache, viewport);
+            cache.takeCounts();
+
+            // the damage of a partial reflow across the corner of four tiles
+            cache.invalidate(SIZE - 10, SIZE - 10, 20, 20);
+            paint(cache, viewport);
+            assertArrayEquals(new int[] {4, 4}, cache.takeCounts());
+
+            // the whole layout
+            cache.invalidateAll();
+            paint(cache, viewport);
+            assertArrayEquals(new int[] {4, 4}, cache.takeCounts());
+        });
+    }
+
+    @Test
+    public void damageIsMappedToTheScrolledContent() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            final TileCache cache = new TileCache(new JPanel());
+            final TestViewport viewport = new TestViewport(0);
+            paint(cache, viewport);
+            viewport.setY(-SIZE);
+            paint(cache, viewport);
+            assertArrayEquals(new int[] {8, 6}, cache.takeCounts());
+
+            // the top left corner of the panel is now the second row of tiles
+            cache.invalidate(0, 0, 10, 10);
+            viewport.setY(0);
+            paint(cache, viewport);
+            assertArrayEquals(new int[] {4, 1}, cache.takeCounts());
+        });
+    }
+
+    @Test
+    public void scrollDoesNotRenderPrefetchedTiles() throws Exception {
+        final TileCache cache = new TileCache(new JPanel());
+        final TestViewport viewport = new TestViewport(0);
+        SwingUtilities.invokeAndWait(() -> {
+            paint(cache, viewport);
+            viewport.setY(-100);
+            paint(cache, viewport);
+            assertTrue(cache.isPrefetching());
+        });
+        drainPrefetch(cache);
+        SwingUtilities.invokeAndWait(() -> {
+            final int[] counts = cache.takeCounts();
+            // rows 3 to 5 of both columns were rendered ahead of the scroll
+            assertArrayEquals(new int[] {4 + 6, 4 + 2 + 6}, counts);
+            viewport.setY(-100 - 3 * SIZE);
+            paint(cache, viewport);
+            assertArrayEquals(new int[] {6, 0}, cache.takeCounts());
+        });
+    }
+
+    @Test
+    public void scrollFrameTime() throws Exception {
+        final int frames = 40;
+        long directNanos = Long.MAX_VALUE;
+        long tiledNanos = Long.MAX_VALUE;
+        // Interleaved runs, keeping the best of each, so that neither side pays
+        // alone for JIT compilation or a collection.
+        for (int run = 0; run < 3; run++) {
+            directNanos = Math.min(directNanos, scroll(null, new TestViewport(4000), frames));
+            tiledNanos = Math.min(tiledNanos, scroll(new TileCache(new JPanel()), new TestViewport(4000), frames));
+        }
+
+        logger.info("Scroll frame: direct " + directNanos / frames / 1000 + " us, tiled " + tiledNanos / frames / 1000
+                + " us over " + frames + " frames.");
+        assertTrue(tiledNanos < directNanos);
+    }
+
+    /**
+     * Scrolls down by 32 pixels per frame, and returns the time spent painting the
+     * frames. Tiles are prefetched between frames, as the GUI thread would do when
+     * idle.
+     */
+    private long scroll(TileCache cache, TestViewport viewport, int frames) throws Exception {
+        final long[] nanos = new long[1];
+        for (int i = 0; i < frames; i++) {
+            final int y = -32 * i;
+            SwingUtilities.invokeAndWait(() -> {
+                viewport.setY(y);
+                final long start = System.nanoTime();
+                if (cache == null) {
+                    final Graphics g = clip();
+                    try {
+                        viewport.paint(g);
+                    } finally {
+                        g.dispose();
+                    }
+                } else {
+                    paint(cache, viewport);
+                }
+                nanos[0] += System.nanoTime() - start;
+            });
+            if (cache != null) {
+                drainPrefetch(cache);
+            }
+        }
+        return nanos[0];
+    }
+
+    private void paint(TileCache cache, RBlockViewport viewport) {
+        final Graphics g = clip();
+        try {
+            cache.paint(g, viewport);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private Graphics clip() {
+        final Graphics2D g = this.screen.createGraphics();
+        g.setClip(0, 0, 2 * SIZE, 2 * SIZE);
+        return g;
+    }
+
+    private static void drainPrefetch(TileCache cache) throws Exception {
+        final boolean[] prefetching = {true};
+        for (int i = 0; i < 100 && prefetching[0]; i++) {
+            SwingUtilities.invokeAndWait(() -> prefetching[0] = cache.isPrefetching());
+        }
+        assertFalse(prefetching[0]);
+    }
+
+    /**
+     * A viewport 1024 by 4096 wide, painting a number of strings in its clip.
+     */
+    private static final class TestViewport extends RBlockViewport {
+
+        private final int strings;
+
+        TestViewport(int strings) {
+            super(null, null, 0, null, null, null, null);
+            this.strings = strings;
+            setBounds(0, 0, 4 * SIZE, 16 * SIZE);
+        }
+
+        @Override
+        public void paint(Graphics g) {
+            final Graphics g2 = g.create();
+            try {
+                g2.translate(getX(), getY());
+                g2.setColor(Color.BLACK);
+                for (int i = 0; i < this.strings; i++) {
+                    g2.drawString("Lorem ipsum dolor sit amet", (i * 37) % (4 * SIZE), (i * 13) % (16 * SIZE));
+                }
+            } finally {
+                g2.dispose();
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.html.renderer;
+
+import org.junit.Test;
+import org.loboevolution.html.dom.domimpl.HTMLDocumentImpl;
+import org.loboevolution.html.dom.nodeimpl.NodeImpl;
+import org.loboevolution.html.gui.HtmlPanel;
+import org.loboevolution.html.renderstate.RenderThreadState;
+import org.loboevolution.http.HtmlRendererContext;
+import org.loboevolution.http.UserAgentContext;
+
+import javax.swing.SwingUtilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the layout cache of {@link org.loboevolution.html.renderer.RBlock}.
+ * The counts checked are the blocks laid out and the blocks reused by one
+ * layout of the root block.
+ */
+public class LayoutCacheUnitTest {
+
+    private static final int DIVS = 20;
+
+    @Test
+    public void sameInputsReuseTheLayout() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            final RBlock block = render(newPanel());
+            final int laidOut = layout(block, 800, 600, false)[0];
+            assertTrue(laidOut > DIVS);
+            final int height = block.getHeight();
+
+            assertCounts(0, 1, layout(block, 800, 600, false));
+            assertEquals(height, block.getHeight());
+        });
+    }
+
+    @Test
+    public void changedInputsMiss() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            final RBlock block = render(newPanel());
+            final int laidOut = layout(block, 800, 600, false)[0];
+
+            assertCounts(laidOut, 0, layout(block, 400, 600, false));
+            assertCounts(laidOut, 0, layout(block, 400, 300, false));
+            assertCounts(0, 1, layout(block, 400, 300, false));
+        });
+    }
+
+    @Test
+    public void invalidatedBlockIsLaidOutAlone() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            final HtmlPanel panel = newPanel();
+            final RBlock block = render(panel);
+            final int laidOut = layout(block, 800, 600, false)[0];
+
+            final NodeImpl div = (NodeImpl) ((HTMLDocumentImpl) panel.getRootNode()).getElementById("d5");
+            final RBlock child = (RBlock) div.findUINode();
+            child.invalidateLayoutUpTree();
+
+            // The root, the body and the invalidated div are laid out again; the other divs are reused.
+            final int[] counts = layout(block, 800, 600, false);
+            assertTrue(counts[0] > 1 && counts[0] < laidOut);
+            assertTrue(counts[1] >= DIVS - 1);
+        });
+    }
+
+    @Test
+    public void sizeOnlyLayoutsAreKeptApart() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            final RBlock block = render(newPanel());
+            final int laidOut = layout(block, 800, 600, false)[0];
+
+            final int sizeOnlyLaidOut = layout(block, 300, 600, true)[0];
+            assertTrue(sizeOnlyLaidOut > 0);
+            assertCounts(0, 1, layout(block, 300, 600, true));
+
+            // A size-only miss lays out the viewport again, so the full layout it held is gone.
+            assertCounts(laidOut, 0, layout(block, 800, 600, false));
+
+            // A full layout leaves the size-only ones in place, and a size-only hit
+            // does not touch the viewport.
+            assertCounts(0, 1, layout(block, 300, 600, true));
+            assertCounts(0, 1, layout(block, 800, 600, false));
+        });
+    }
+
+    private static HtmlPanel newPanel() {
+        return new HtmlPanel();
+    }
+
+    private static RBlock render(HtmlPanel panel) {
+        final HtmlRendererContext rc = new HtmlRendererContext(panel, new UserAgentContext());
+        rc.setTest(true);
+        final StringBuilder html = new StringBuilder("<html><body>");
+        for (int i = 0; i < DIVS; i++) {
+            html.append("<div id='d").append(i).append("'><p>Paragraph ").append(i).append("</p></div>");
+        }
+        html.append("</body></html>");
+        panel.setHtml(html.toString(), "http://localhost/test.html", rc);
+        return (RBlock) panel.getBlockRenderable();
+    }
+
+    private static int[] layout(RBlock block, int width, int height, boolean sizeOnly) {
+        final RenderThreadState state = RenderThreadState.getState();
+        state.blocksLaidOut = 0;
+        state.blocksReused = 0;
+        block.layout(width, height, !sizeOnly, !sizeOnly, null, 0, 0, sizeOnly);
+        return new int[] {state.blocksLaidOut, state.blocksReused};
+    }
+
+    private static void assertCounts(int laidOut, int reused, int[] counts) {
+        assertEquals("blocks laid out", laidOut, counts[0]);
+        assertEquals("blocks reused", reused, counts[1]);
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.html.renderer;
+
+import org.junit.Test;
+import org.loboevolution.html.dom.domimpl.HTMLDocumentImpl;
+import org.loboevolution.html.dom.nodeimpl.NodeImpl;
+import org.loboevolution.html.gui.HtmlPanel;
+import org.loboevolution.html.renderstate.RenderThreadState;
+import org.loboevolution.http.HtmlRendererContext;
+import org.loboevolution.http.UserAgentContext;
+
+import javax.swing.SwingUtilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link org.loboevolution.html.renderer.ReflowScheduler}: which
+ * block is picked as the layout boundary of a change, and when the scheduler
+ * falls back to invalidating the layout up to the root block.
+ */
+public class ReflowSchedulerUnitTest {
+
+    private static final String PAGE = "<html><body>"
+            + "<div id='box' style='width: 200px; height: 100px'><p id='inBox'>Short</p></div>"
+            + "<div id='free' style='width: 200px'><p id='inFree'>Short</p></div>"
+            + "<p>After</p><p>After</p><p>After</p>"
+            + "</body></html>";
+
+    private static final String LINES = "Text wrapped on a few lines";
+
+    @Test
+    public void changeInsideBoundaryKeepsRootLayout() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            final HtmlPanel panel = new HtmlPanel();
+            final RBlock root = render(panel);
+            final HTMLDocumentImpl doc = (HTMLDocumentImpl) panel.getRootNode();
+            final RBlock box = block(doc, "box");
+            final int boxY = box.getY();
+            final int boxHeight = box.getHeight();
+            final int before = block(doc, "inBox").getHeight();
+
+            doc.getElementById("inBox").setTextContent(LINES);
+            final ReflowScheduler reflow = new ReflowScheduler(root);
+            reflow.add(block(doc, "inBox"), true);
+            assertTrue(reflow.reflow());
+
+            // Only the box and the paragraph were laid out; the root keeps its layout.
+            assertTrue(root.isValid());
+            final RenderThreadState state = RenderThreadState.getState();
+            assertTrue(state.blocksLaidOut >= 1 && state.blocksLaidOut <= 3);
+            assertTrue(block(doc, "inBox").getHeight() > before);
+            assertEquals(boxY, box.getY());
+            assertEquals(boxHeight, box.getHeight());
+            assertReused(root);
+        });
+    }
+
+    @Test
+    public void changedBoundaryIsNotItsOwnBoundary() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            final HtmlPanel panel = new HtmlPanel();
+            final RBlock root = render(panel);
+            final HTMLDocumentImpl doc = (HTMLDocumentImpl) panel.getRootNode();
+
+            // A change of the content of the box leaves its style alone, so the box can take it.
+            ReflowScheduler reflow = new ReflowScheduler(root);
+            reflow.add(block(doc, "box"), true);
+            assertTrue(reflow.reflow());
+            assertTrue(root.isValid());
+
+            // A change of the box itself needs a boundary above it, and there is none.
+            reflow = new ReflowScheduler(root);
+            reflow.add(block(doc, "box"), false);
+            assertFalse(reflow.reflow());
+            assertFalse(root.isValid());
+        });
+    }
+
+    @Test
+    public void noBoundaryFallsBackToRoot() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            final HtmlPanel panel = new HtmlPanel();
+            final RBlock root = render(panel);
+            final HTMLDocumentImpl doc = (HTMLDocumentImpl) panel.getRootNode();
+
+            // A declared width alone is not enough for a boundary.
+            doc.getElementById("inFree").setTextContent(LINES);
+            final ReflowScheduler reflow = new ReflowScheduler(root);
+            reflow.add(block(doc, "inFree"), true);
+            assertFalse(reflow.reflow());
+            assertFalse(root.isValid());
+            assertFalse(block(doc, "free").isValid());
+        });
+    }
+
+    @Test
+    public void overflowingBoundaryFallsBackToRoot() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            final HtmlPanel panel = new HtmlPanel();
+            final RBlock root = render(panel);
+            final HTMLDocumentImpl doc = (HTMLDocumentImpl) panel.getRootNode();
+
+            // The box keeps its size, but its visible content now reaches below it.
+            final StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 10; i++) {
+                text.append(LINES).append(' ');
+            }
+            doc.getElementById("inBox").setTextContent(text.toString());
+            final ReflowScheduler reflow = new ReflowScheduler(root);
+            reflow.add(block(doc, "inBox"), true);
+            assertFalse(reflow.reflow());
+            assertFalse(root.isValid());
+        });
+    }
+
+    @Test
+    public void invalidRootFallsBackToRoot() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            final HtmlPanel panel = new HtmlPanel();
+            final RBlock root = render(panel);
+            final HTMLDocumentImpl doc = (HTMLDocumentImpl) panel.getRootNode();
+
+            root.invalidateLayoutUpTree();
+            final ReflowScheduler reflow = new ReflowScheduler(root);
+            reflow.add(block(doc, "inBox"), true);
+            assertFalse(reflow.reflow());
+            assertFalse(block(doc, "inBox").isValid());
+
+            // Nothing added, nothing to do.
+            assertTrue(new ReflowScheduler(root).reflow());
+        });
+    }
+
+    private static RBlock render(HtmlPanel panel) {
+        final HtmlRendererContext rc = new HtmlRendererContext(panel, new UserAgentContext());
+        rc.setTest(true);
+        panel.setHtml(PAGE, "http://localhost/test.html", rc);
+        final RBlock root = (RBlock) panel.getBlockRenderable();
+        root.layout(800, 600, true, true, null, 0, 0, false);
+        return root;
+    }
+
+    private static RBlock block(HTMLDocumentImpl doc, String id) {
+        return (RBlock) ((NodeImpl) doc.getElementById(id)).findUINode();
+    }
+
+    private static void assertReused(RBlock root) {
+        final RenderThreadState state = RenderThreadState.getState();
+        state.blocksLaidOut = 0;
+        state.blocksReused = 0;
+        root.layout(800, 600, true, true, null, 0, 0, false);
+        assertEquals(0, state.blocksLaidOut);
+        assertEquals(1, state.blocksReused);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.html.renderstate;
+
+import org.junit.Test;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.AffineTransform;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link org.loboevolution.html.renderstate.TextWidthCache}. The
+ * cache is process-wide, so each test measures with fonts of its own.
+ */
+public class TextWidthCacheUnitTest {
+
+    private static final FontRenderContext PLAIN = new FontRenderContext(null, false, false);
+
+    private static final FontRenderContext SCALED = new FontRenderContext(AffineTransform.getScaleInstance(2, 2),
+            RenderingHints.VALUE_TEXT_ANTIALIAS_ON, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+
+    @Test
+    public void wordsAreMeasuredOnce() {
+        final CountingMetrics fm = new CountingMetrics(new Font("TextWidthCacheOnce", Font.PLAIN, 12), PLAIN, 7);
+        assertEquals(35, TextWidthCache.stringWidth(fm, "hello"));
+        assertEquals(35, TextWidthCache.stringWidth(fm, "hello"));
+        assertEquals(1, fm.calls);
+
+        // Another metrics object for an equal font shares the widths.
+        final CountingMetrics other = new CountingMetrics(new Font("TextWidthCacheOnce", Font.PLAIN, 12), PLAIN, 7);
+        assertEquals(35, TextWidthCache.stringWidth(other, "hello"));
+        assertEquals(0, other.calls);
+    }
+
+    @Test
+    public void longStringsAreNotCached() {
+        final CountingMetrics fm = new CountingMetrics(new Font("TextWidthCacheLong", Font.PLAIN, 12), PLAIN, 1);
+        final String text = repeat('x', TextWidthCache.MAX_WORD_LENGTH + 1);
+        TextWidthCache.stringWidth(fm, text);
+        TextWidthCache.stringWidth(fm, text);
+        assertEquals(2, fm.calls);
+    }
+
+    @Test
+    public void wordsPerFontAreBounded() {
+        final CountingMetrics fm = new CountingMetrics(new Font("TextWidthCacheWords", Font.PLAIN, 12), PLAIN, 1);
+        TextWidthCache.stringWidth(fm, "first");
+        TextWidthCache.stringWidth(fm, "kept");
+        for (int i = 0; i < TextWidthCache.MAX_WORDS - 2; i++) {
+            TextWidthCache.stringWidth(fm, "w" + i);
+            if (i % 100 == 0) {
+                // Recently used words stay in the cache.
+                TextWidthCache.stringWidth(fm, "kept");
+            }
+        }
+        fm.calls = 0;
+        TextWidthCache.stringWidth(fm, "first");
+        TextWidthCache.stringWidth(fm, "kept");
+        assertEquals(0, fm.calls);
+
+        // One more word evicts the least recently used one, which is the oldest filler.
+        TextWidthCache.stringWidth(fm, "extra");
+        fm.calls = 0;
+        TextWidthCache.stringWidth(fm, "first");
+        TextWidthCache.stringWidth(fm, "kept");
+        TextWidthCache.stringWidth(fm, "w" + (TextWidthCache.MAX_WORDS - 3));
+        assertEquals(0, fm.calls);
+        TextWidthCache.stringWidth(fm, "w0");
+        assertEquals(1, fm.calls);
+    }
+
+    @Test
+    public void fontsAreBounded() {
+        final CountingMetrics first = new CountingMetrics(new Font("TextWidthCacheFonts", Font.PLAIN, 1), PLAIN, 1);
+        TextWidthCache.stringWidth(first, "word");
+        for (int size = 2; size <= TextWidthCache.MAX_FONTS + 1; size++) {
+            TextWidthCache.stringWidth(new CountingMetrics(new Font("TextWidthCacheFonts", Font.PLAIN, size), PLAIN, 1), "word");
+        }
+
+        // Going over the number of fonts starts over, so the first font measures again.
+        TextWidthCache.stringWidth(first, "word");
+        assertEquals(2, first.calls);
+    }
+
+    @Test
+    public void otherRenderContextIsMeasuredDirectly() {
+        final Font font = new Font("TextWidthCacheFrc", Font.PLAIN, 12);
+        final CountingMetrics plain = new CountingMetrics(font, PLAIN, 7);
+        final CountingMetrics scaled = new CountingMetrics(font, SCALED, 9);
+        assertEquals(35, TextWidthCache.stringWidth(plain, "hello"));
+
+        // The widths cached for the font were measured with another context, so they are not used, nor replaced.
+        assertEquals(45, TextWidthCache.stringWidth(scaled, "hello"));
+        assertEquals(45, TextWidthCache.stringWidth(scaled, "hello"));
+        assertEquals(2, scaled.calls);
+        assertEquals(35, TextWidthCache.stringWidth(plain, "hello"));
+        assertEquals(1, plain.calls);
+    }
+
+    private static String repeat(char c, int count) {
+        final StringBuilder sb = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Font metrics giving every character the same width, and counting the
+     * strings measured.
+     */
+    private static final class CountingMetrics extends FontMetrics {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient FontRenderContext frc;
+
+        private final int charWidth;
+
+        private int calls;
+
+        CountingMetrics(Font font, FontRenderContext frc, int charWidth) {
+            super(font);
+            this.frc = frc;
+            this.charWidth = charWidth;
+        }
+
+        @Override
+        public FontRenderContext getFontRenderContext() {
+            return this.frc;
+        }
+
+        @Override
+        public int stringWidth(String str) {
+            this.calls++;
+            return str.length() * this.charWidth;
+        }
+    }
+}
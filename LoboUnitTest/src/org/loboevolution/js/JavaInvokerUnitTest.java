@@ -0,0 +1,217 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.js;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link org.loboevolution.js.JavaInvoker}: calls of up to three
+ * arguments of the right types go through the method handle, the others
+ * through reflection with the same results; and for the overload selection of
+ * {@link org.loboevolution.js.JavaFunctionObject}.
+ */
+public class JavaInvokerUnitTest {
+
+    private Bean bean;
+
+    private Context cx;
+
+    private Scriptable scope;
+
+    @Before
+    public void setUp() {
+        bean = new Bean();
+        cx = Context.enter();
+        scope = cx.initStandardObjects();
+        final JavaObjectWrapper wrapper = new JavaObjectWrapper(
+                JavaClassWrapperFactory.getInstance().getClassWrapper(Bean.class), bean);
+        wrapper.setParentScope(scope);
+        ScriptableObject.putProperty(scope, "bean", wrapper);
+    }
+
+    @After
+    public void tearDown() {
+        Context.exit();
+    }
+
+    @Test
+    public void upToThreeArgumentsUseTheHandle() throws Exception {
+        assertEquals("0", invoker("echo").invoke(bean));
+        assertFalse(bean.reflective);
+        assertEquals("1:a", invoker("echo", String.class).invoke(bean, "a"));
+        assertFalse(bean.reflective);
+        assertEquals("2:a2", invoker("echo", String.class, int.class).invoke(bean, "a", 2));
+        assertFalse(bean.reflective);
+        assertEquals("3:a2b", invoker("echo", String.class, int.class, String.class).invoke(bean, "a", 2, "b"));
+        assertFalse(bean.reflective);
+    }
+
+    @Test
+    public void fourArgumentsUseReflection() throws Exception {
+        assertEquals(10, invoker("sum", int.class, int.class, int.class, int.class).invoke(bean, 1, 2, 3, 4));
+        assertTrue(bean.reflective);
+    }
+
+    @Test
+    public void otherTypesUseReflection() throws Exception {
+        final JavaInvoker wide = invoker("wide", long.class);
+        assertEquals(8L, wide.invoke(bean, 4L));
+        assertFalse(bean.reflective);
+        assertEquals(6L, wide.invoke(bean, 3));
+        assertTrue(bean.reflective);
+        try {
+            wide.invoke(bean, (Object) null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // as Method.invoke
+        }
+        try {
+            wide.invoke("not a bean", 4L);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // as Method.invoke
+        }
+    }
+
+    @Test
+    public void staticMethodsUseReflection() throws Exception {
+        assertEquals("static:a", invoker("twice", String.class).invoke(null, "a"));
+    }
+
+    @Test
+    public void exceptionsAreWrappedOnBothPaths() throws Exception {
+        final JavaInvoker handle = invoker("fail", String.class);
+        try {
+            handle.invoke(bean, "handle");
+            fail();
+        } catch (InvocationTargetException e) {
+            assertEquals("handle", e.getCause().getMessage());
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        final JavaInvoker reflection = invoker("fail", String.class, int.class, int.class, int.class);
+        try {
+            reflection.invoke(bean, "reflection", 1, 2, 3);
+            fail();
+        } catch (InvocationTargetException e) {
+            assertEquals("reflection", e.getCause().getMessage());
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void overloadByArgumentCount() {
+        assertEquals("0", eval("bean.echo()"));
+        assertEquals("1:a", eval("bean.echo('a')"));
+        assertEquals("2:a2", eval("bean.echo('a', 2)"));
+        assertEquals("3:a2b", eval("bean.echo('a', 2, 'b')"));
+    }
+
+    @Test
+    public void overloadFallsBackToTheLongestThatFits() {
+        assertEquals("3:a2b", eval("bean.echo('a', 2, 'b', 'extra')"));
+        assertEquals("2:a7", eval("bean.echo('a', 7.0)"));
+        assertEquals("1:5", eval("String(bean.echo(5))"));
+    }
+
+    private Object eval(String source) {
+        return cx.evaluateString(scope, source, "test.js", 1, null);
+    }
+
+    private static JavaInvoker invoker(String name, Class<?>... types) throws NoSuchMethodException {
+        final Method method = Bean.class.getMethod(name, types);
+        return new JavaInvoker(method);
+    }
+
+    /**
+     * A bean recording whether it was called through reflection.
+     */
+    public static class Bean {
+
+        private boolean reflective;
+
+        public String echo() {
+            record();
+            return "0";
+        }
+
+        public String echo(String a) {
+            record();
+            return "1:" + a;
+        }
+
+        public String echo(String a, int b) {
+            record();
+            return "2:" + a + b;
+        }
+
+        public String echo(String a, int b, String c) {
+            record();
+            return "3:" + a + b + c;
+        }
+
+        public int sum(int a, int b, int c, int d) {
+            record();
+            return a + b + c + d;
+        }
+
+        public long wide(long value) {
+            record();
+            return value * 2;
+        }
+
+        public static String twice(String value) {
+            return "static:" + value;
+        }
+
+        public void fail(String message) {
+            throw new IllegalStateException(message);
+        }
+
+        public void fail(String message, int a, int b, int c) {
+            throw new IllegalStateException(message);
+        }
+
+        private void record() {
+            reflective = false;
+            for (StackTraceElement element : new Throwable().getStackTrace()) {
+                if (JavaInvoker.class.getName().equals(element.getClassName())) {
+                    return;
+                }
+                if ("java.lang.reflect.Method".equals(element.getClassName()) && "invoke".equals(element.getMethodName())) {
+                    reflective = true;
+                }
+            }
+        }
+    }
+}
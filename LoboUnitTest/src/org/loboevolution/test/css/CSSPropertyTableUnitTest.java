@@ -0,0 +1,141 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.test.css;
+
+import com.gargoylesoftware.css.util.CSSProperties;
+import org.junit.Test;
+import org.loboevolution.html.CSSValues;
+import org.loboevolution.html.style.AbstractCSSProperties;
+import org.loboevolution.html.style.CSSPropertyTable;
+import org.loboevolution.html.style.setter.PropertyCSS;
+
+import java.awt.Color;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link org.loboevolution.html.style.CSSPropertyTable} and for the
+ * two stores of {@link org.loboevolution.html.style.AbstractCSSProperties}:
+ * the shared table of the known properties and the map of the others.
+ */
+public class CSSPropertyTableUnitTest {
+
+    private static final int COLOR = CSSPropertyTable.findId(CSSProperties.COLOR);
+
+    private static final int DISPLAY = CSSPropertyTable.findId(CSSProperties.DISPLAY);
+
+    @Test
+    public void knownPropertiesHaveIds() {
+        assertTrue(COLOR >= 0);
+        assertEquals(COLOR, CSSPropertyTable.findId("COLOR"));
+        assertEquals(-1, CSSPropertyTable.findId("--main-color"));
+        assertSame(CSSPropertyTable.lowerCaseName("color"), CSSPropertyTable.lowerCaseName("Color"));
+    }
+
+    @Test
+    public void withKeepsTheOriginal() {
+        final CSSPropertyTable one = CSSPropertyTable.EMPTY.with(COLOR, new PropertyCSS("red", false));
+        final CSSPropertyTable two = one.with(DISPLAY, new PropertyCSS("block", false));
+        assertEquals(1, one.size());
+        assertNull(one.get(DISPLAY));
+        assertEquals(2, two.size());
+        assertEquals("red", two.get(COLOR).value);
+        assertEquals("block", two.get(DISPLAY).value);
+    }
+
+    @Test
+    public void equalTablesAreShared() {
+        final CSSPropertyTable first = table("red", "block").share();
+        final CSSPropertyTable second = table("red", "block").share();
+        assertSame(first, second);
+        assertTrue(first.isShared());
+        assertFalse(table("red", "inline").share() == first);
+        assertSame(CSSPropertyTable.EMPTY, CSSPropertyTable.EMPTY.share());
+    }
+
+    @Test
+    public void sharedTableIsParsedWhenShared() {
+        final CSSPropertyTable table = table("#0000ff", "none");
+        assertFalse(table.isShared());
+        final CSSPropertyTable shared = table.share();
+        assertEquals(CSSValues.NONE, shared.getKeyword(DISPLAY));
+        assertEquals(new Color(0, 0, 255), shared.getColor(COLOR));
+        assertNull(shared.getColor(DISPLAY));
+        assertEquals(table.getKeyword(DISPLAY), shared.getKeyword(DISPLAY));
+        assertEquals(table.getColor(COLOR), shared.getColor(COLOR));
+    }
+
+    @Test
+    public void customPropertiesAreKeptPerDeclaration() {
+        final AbstractCSSProperties first = new AbstractCSSProperties(null);
+        final AbstractCSSProperties second = new AbstractCSSProperties(null);
+        first.setPropertyValueLCAlt("color", "red", false);
+        second.setPropertyValueLCAlt("color", "red", false);
+        first.setPropertyValueLCAlt("--main-color", "#008000", false);
+        second.setPropertyValueLCAlt("--main-color", "blue", false);
+        first.shareValues();
+        second.shareValues();
+
+        assertEquals("red", first.getPropertyValue("color"));
+        assertEquals("red", second.getPropertyValue("color"));
+        assertEquals("#008000", first.getPropertyValue("--main-color"));
+        assertEquals("blue", second.getPropertyValue("--MAIN-COLOR"));
+        assertEquals(new Color(0, 128, 0), first.getPropertyColor("--main-color"));
+    }
+
+    @Test
+    public void importantWinsInBothStores() {
+        final AbstractCSSProperties props = new AbstractCSSProperties(null);
+        props.setPropertyValueLCAlt("color", "red", true);
+        props.setPropertyValueLCAlt("--gap", "1px", true);
+        props.shareValues();
+
+        props.setPropertyValueLCAlt("color", "blue", false);
+        props.setPropertyValueLCAlt("--gap", "2px", false);
+        assertEquals("red", props.getPropertyValue("color"));
+        assertEquals("1px", props.getPropertyValue("--gap"));
+
+        props.setPropertyValueLCAlt("color", "blue", true);
+        props.setPropertyValueLCAlt("--gap", "2px", true);
+        assertEquals("blue", props.getPropertyValue("color"));
+        assertEquals("2px", props.getPropertyValue("--gap"));
+    }
+
+    @Test
+    public void importanceDoesNotCrossStores() {
+        final AbstractCSSProperties props = new AbstractCSSProperties(null);
+        props.setPropertyValueLCAlt("--color", "red", true);
+        props.setPropertyValueLCAlt("color", "blue", false);
+        props.setPropertyValueLCAlt("color", "green", false);
+        assertEquals("green", props.getPropertyValue("color"));
+        assertEquals("red", props.getPropertyValue("--color"));
+    }
+
+    private static CSSPropertyTable table(String color, String display) {
+        return CSSPropertyTable.EMPTY
+                .with(COLOR, new PropertyCSS(color, false))
+                .with(DISPLAY, new PropertyCSS(display, false));
+    }
+}
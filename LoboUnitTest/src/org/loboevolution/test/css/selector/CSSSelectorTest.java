@@ -1747,4 +1747,54 @@ public class CSSSelectorTest extends LoboUnitTest {
         final String[] messages = {"2", "ONE", "<CHILD>Two</CHILD>", "0", "2", "ONE", "<CHILD>Two</CHILD>", "1", "ONE", "1", "Two"};
         checkHtmlAlert(html, messages);
     }
+
+    @Test
+    public void querySelectorAllGroupMatchesClosest() {
+        final String html = "<html><head>\n"
+                + "<script>\n"
+                + "function test() {\n"
+                + "  var res = document.querySelectorAll('li.a, #li2, ul > li.b');\n"
+                + "  alert(res.length);\n"
+                + "  alert(res[0].id + res[1].id);\n"
+                + "  alert(document.querySelector('div #li3').id);\n"
+                + "  alert(document.querySelector('span #li3') == null);\n"
+                + "  var li = document.getElementById('li2');\n"
+                + "  alert(li.matches('ul li.a'));\n"
+                + "  alert(li.matches('li.b'));\n"
+                + "  alert(li.closest('div').id);\n"
+                + "  alert(li.closest('li').id);\n"
+                + "  alert(li.closest('span') == null);\n"
+                + "}\n"
+                + "</script></head>\n"
+                + "<body onload='test()'>\n"
+                + "<div id='d1'><ul>\n"
+                + "  <li id='li1' class='a'></li>\n"
+                + "  <li id='li2' class='a b'></li>\n"
+                + "  <li id='li3'></li>\n"
+                + "</ul></div>\n"
+                + "</body></html>";
+        final String[] messages = {"2", "li1li2", "li3", "true", "true", "true", "d1", "li2", "true"};
+        checkHtmlAlert(html, messages);
+    }
+
+    @Test
+    public void querySelectorAllPseudoElementKeepsContext() {
+        final String html = "<html><head>\n"
+                + "<script>\n"
+                + "function test() {\n"
+                + "  alert(document.querySelectorAll('span > li::before').length);\n"
+                + "  alert(document.querySelectorAll('div ~ li::after').length);\n"
+                + "  alert(document.querySelectorAll('span li::first-line').length);\n"
+                + "  alert(document.querySelector('p + li::before') == null);\n"
+                + "}\n"
+                + "</script></head>\n"
+                + "<body onload='test()'>\n"
+                + "<div id='d1'><ul>\n"
+                + "  <li id='li1'></li>\n"
+                + "  <li id='li2'></li>\n"
+                + "</ul></div>\n"
+                + "</body></html>";
+        final String[] messages = {"0", "0", "0", "true"};
+        checkHtmlAlert(html, messages);
+    }
 }
@@ -0,0 +1,158 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.test.dom;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.loboevolution.html.dom.domimpl.HTMLDocumentImpl;
+import org.loboevolution.html.node.Element;
+import org.loboevolution.html.node.Node;
+import org.loboevolution.http.UserAgentContext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests that the sibling lookups, which start at the index a node had in its
+ * parent on the previous lookup, stay right when the children are renumbered.
+ */
+public class SiblingIndexUnitTest {
+
+    private HTMLDocumentImpl doc;
+
+    private Element parent;
+
+    @Before
+    public void setUp() {
+        doc = new HTMLDocumentImpl(new UserAgentContext(), null, null, "http://localhost/test.html");
+        parent = doc.createElement("div");
+        doc.appendChild(parent);
+        for (int i = 0; i < 5; i++) {
+            parent.appendChild(span("s" + i));
+            parent.appendChild(doc.createTextNode("t" + i));
+        }
+    }
+
+    @Test
+    public void walkForwardAndBackward() {
+        assertOrder("s0", "t0", "s1", "t1", "s2", "t2", "s3", "t3", "s4", "t4");
+        assertElementOrder("s0", "s1", "s2", "s3", "s4");
+    }
+
+    @Test
+    public void insertAtFrontShiftsIndices() {
+        final Element s2 = byId("s2");
+        assertEquals("t1", name(s2.getPreviousSibling()));
+        parent.insertBefore(span("new"), parent.getFirstChild());
+        assertEquals("t1", name(s2.getPreviousSibling()));
+        assertEquals("t2", name(s2.getNextSibling()));
+        assertOrder("new", "s0", "t0", "s1", "t1", "s2", "t2", "s3", "t3", "s4", "t4");
+        assertElementOrder("new", "s0", "s1", "s2", "s3", "s4");
+    }
+
+    @Test
+    public void removeInTheMiddle() {
+        final Element s3 = byId("s3");
+        assertEquals("t2", name(s3.getPreviousSibling()));
+        parent.removeChild(byId("s1"));
+        parent.removeChild(byId("s2"));
+        assertEquals("t2", name(s3.getPreviousSibling()));
+        assertEquals("s0", name(s3.getPreviousElementSibling()));
+        assertOrder("s0", "t0", "t1", "t2", "s3", "t3", "s4", "t4");
+    }
+
+    @Test
+    public void replaceKeepsThePosition() {
+        final Element s1 = byId("s1");
+        assertEquals("t0", name(s1.getPreviousSibling()));
+        final Element other = span("other");
+        parent.replaceChild(other, s1);
+        assertNull(s1.getParentNode());
+        assertNull(s1.getNextSibling());
+        assertEquals("t0", name(other.getPreviousSibling()));
+        assertEquals("t1", name(other.getNextSibling()));
+    }
+
+    @Test
+    public void moveToAnotherParent() {
+        final Element s4 = byId("s4");
+        assertEquals("t4", name(s4.getNextSibling()));
+        final Element other = doc.createElement("div");
+        doc.appendChild(other);
+        other.appendChild(span("a"));
+        other.appendChild(s4);
+        other.appendChild(span("b"));
+        assertSame(other, s4.getParentNode());
+        assertEquals("a", name(s4.getPreviousSibling()));
+        assertEquals("b", name(s4.getNextSibling()));
+        assertEquals("t3", name(byId("s3").getNextSibling()));
+        assertEquals("t4", name(byId("s3").getNextSibling().getNextSibling()));
+        assertOrder("s0", "t0", "s1", "t1", "s2", "t2", "s3", "t3", "t4");
+    }
+
+    private Element span(String id) {
+        final Element span = doc.createElement("span");
+        span.setId(id);
+        return span;
+    }
+
+    private Element byId(String id) {
+        return (Element) doc.getElementById(id);
+    }
+
+    private static String name(Node node) {
+        if (node == null) {
+            return null;
+        }
+        return node instanceof Element ? ((Element) node).getId() : node.getTextContent();
+    }
+
+    private void assertOrder(String... names) {
+        Node node = parent.getFirstChild();
+        for (String name : names) {
+            assertEquals(name, name(node));
+            node = node.getNextSibling();
+        }
+        assertNull(node);
+        node = parent.getLastChild();
+        for (int i = names.length - 1; i >= 0; i--) {
+            assertEquals(names[i], name(node));
+            node = node.getPreviousSibling();
+        }
+        assertNull(node);
+    }
+
+    private void assertElementOrder(String... names) {
+        Element element = parent.getFirstElementChild();
+        for (String name : names) {
+            assertEquals(name, name(element));
+            element = element.getNextElementSibling();
+        }
+        assertNull(element);
+        element = parent.getLastElementChild();
+        for (int i = names.length - 1; i >= 0; i--) {
+            assertEquals(names[i], name(element));
+            element = element.getPreviousElementSibling();
+        }
+        assertNull(element);
+    }
+}
@@ -22,11 +22,13 @@ package org.loboevolution.test.driver;
 
 import org.loboevolution.html.dom.HTMLElement;
 import org.loboevolution.html.dom.domimpl.HTMLDocumentImpl;
+import org.loboevolution.html.js.WindowImpl;
 import org.loboevolution.html.node.css.CSS3Properties;
 import org.loboevolution.html.node.css.CSSStyleDeclaration;
 import org.loboevolution.html.node.js.Window;
 import org.loboevolution.html.style.ComputedCSSStyleDeclaration;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -82,6 +84,41 @@ public class LoboUnitTest extends LoboWebDriver {
         }
     }
 
+    /**
+     * <p>checkHtmlAlert.</p>
+     *
+     * Waits for the alerts of timers and other tasks of the event loop, which
+     * run on the script thread after the document is loaded.
+     *
+     * @param html a {@link java.lang.String} object.
+     * @param messages an array of {@link java.lang.String} objects.
+     * @param timeout the max time to wait for the messages, in milliseconds.
+     */
+    public void checkHtmlAlert(final String html, final String[] messages, final long timeout) {
+        final List<String> alerts = Arrays.asList(messages);
+        List<String> result = new ArrayList<>();
+
+        try {
+            final HTMLDocumentImpl doc = loadHtml(html);
+            final WindowImpl window = (WindowImpl) doc.getDefaultView();
+            final long end = System.currentTimeMillis() + timeout;
+            for (;;) {
+                result = window.getEventLoop().invokeAndWait(() ->
+                        window.getMsg() == null ? new ArrayList<>() : new ArrayList<>(window.getMsg()));
+                if (result.size() >= alerts.size() || System.currentTimeMillis() > end) {
+                    break;
+                }
+                Thread.sleep(10);
+            }
+        } catch (Exception ex) {
+            logger.severe(ex.getMessage());
+        }
+
+        if (!alerts.equals(result)) {
+            throw new AssertionError("Result expected: " +  alerts + " Result: " + result);
+        }
+    }
+
     /**
      * <p>mockCssLink.</p>
      *
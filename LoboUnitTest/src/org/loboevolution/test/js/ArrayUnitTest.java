@@ -0,0 +1,174 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.test.js;
+
+import org.junit.Test;
+import org.loboevolution.test.driver.LoboUnitTest;
+
+/**
+ * Tests for the element storage of {@link org.mozilla.javascript.NativeArray}.
+ */
+public class ArrayUnitTest extends LoboUnitTest {
+
+    @Test
+    public void denseTransitions() {
+        final String html
+                = "<html><head><script>\n"
+                + "  function test() {\n"
+                + "    var a = [1, 2, 3];\n"
+                + "    a.push(4);\n"
+                + "    alert(a.join());\n"
+                + "    a[1] = 2.5;\n"
+                + "    alert(a.join());\n"
+                + "    a[2] = 'x';\n"
+                + "    alert(a.join());\n"
+                + "    alert(a.length);\n"
+                + "    alert(a.pop() + a.pop());\n"
+                + "    alert(a.join());\n"
+                + "  }\n"
+                + "</script></head><body onload='test()'>\n"
+                + "</body></html>";
+        final String[] messages = {"1,2,3,4", "1,2.5,3,4", "1,2.5,x,4", "4", "4x", "1,2.5"};
+        checkHtmlAlert(html, messages);
+    }
+
+    @Test
+    public void denseNumbers() {
+        final String html
+                = "<html><head><script>\n"
+                + "  function test() {\n"
+                + "    var a = [];\n"
+                + "    for (var i = 0; i < 5; i++) {\n"
+                + "      a[i] = i * 2;\n"
+                + "    }\n"
+                + "    alert(a.join());\n"
+                + "    alert(a.indexOf(6) + ',' + a.lastIndexOf(7));\n"
+                + "    a[0] = -0;\n"
+                + "    alert(1 / a[0]);\n"
+                + "    a[1] = NaN;\n"
+                + "    alert(a.indexOf(NaN));\n"
+                + "    alert([10, 9, 1, 100].sort().join());\n"
+                + "    alert([3, 1.5, 2].reverse().join());\n"
+                + "    alert([1, 2].concat([3.5], 'x').join());\n"
+                + "  }\n"
+                + "</script></head><body onload='test()'>\n"
+                + "</body></html>";
+        final String[] messages = {"0,2,4,6,8", "3,-1", "-Infinity", "-1", "1,10,100,9", "2,1.5,3", "1,2,3.5,x"};
+        checkHtmlAlert(html, messages);
+    }
+
+    @Test
+    public void holeyTransitions() {
+        final String html
+                = "<html><head><script>\n"
+                + "  function test() {\n"
+                + "    var a = [1, 2, 3];\n"
+                + "    delete a[1];\n"
+                + "    alert(1 in a);\n"
+                + "    alert(a.length);\n"
+                + "    alert(a.join());\n"
+                + "    var b = [1, 2];\n"
+                + "    b[5] = 6;\n"
+                + "    alert(b.length);\n"
+                + "    alert(b[3]);\n"
+                + "    alert(b.join('-'));\n"
+                + "    var c = new Array(3);\n"
+                + "    alert(0 in c);\n"
+                + "    c[0] = 1;\n"
+                + "    alert(c.join());\n"
+                + "    Array.prototype[1] = 'proto';\n"
+                + "    alert(c[1]);\n"
+                + "    delete Array.prototype[1];\n"
+                + "  }\n"
+                + "</script></head><body onload='test()'>\n"
+                + "</body></html>";
+        final String[] messages = {"false", "3", "1,,3", "6", "undefined", "1-2----6", "false", "1,,", "proto"};
+        checkHtmlAlert(html, messages);
+    }
+
+    @Test
+    public void sparse() {
+        final String html
+                = "<html><head><script>\n"
+                + "  function test() {\n"
+                + "    var a = [];\n"
+                + "    a[1000000] = 1;\n"
+                + "    alert(a.length);\n"
+                + "    alert(Object.keys(a).join());\n"
+                + "    a[5] = 5.5;\n"
+                + "    alert(Object.keys(a).join());\n"
+                + "    alert(a.indexOf(5.5));\n"
+                + "    alert(a[999999]);\n"
+                + "  }\n"
+                + "</script></head><body onload='test()'>\n"
+                + "</body></html>";
+        final String[] messages = {"1000001", "1000000", "5,1000000", "5", "undefined"};
+        checkHtmlAlert(html, messages);
+    }
+
+    @Test
+    public void lengthTruncation() {
+        final String html
+                = "<html><head><script>\n"
+                + "  function test() {\n"
+                + "    var a = [1, 2, 3, 4, 5];\n"
+                + "    a.length = 2;\n"
+                + "    alert(a.join());\n"
+                + "    alert(a[3]);\n"
+                + "    a.length = 4;\n"
+                + "    alert(a.join());\n"
+                + "    alert(2 in a);\n"
+                + "    var b = [1.5, 2.5, 3.5];\n"
+                + "    b.length = 1;\n"
+                + "    alert(b.join());\n"
+                + "    b.push(2);\n"
+                + "    alert(b.join());\n"
+                + "    var c = ['x', 'y'];\n"
+                + "    c.length = 0;\n"
+                + "    alert(c.length + ',' + c[0]);\n"
+                + "    try {\n"
+                + "      c.length = -1;\n"
+                + "    } catch (e) {\n"
+                + "      alert(e.name);\n"
+                + "    }\n"
+                + "  }\n"
+                + "</script></head><body onload='test()'>\n"
+                + "</body></html>";
+        final String[] messages = {"1,2", "undefined", "1,2,,", "false", "1.5", "1.5,2", "0,undefined", "RangeError"};
+        checkHtmlAlert(html, messages);
+    }
+
+    @Test
+    public void frozen() {
+        final String html
+                = "<html><head><script>\n"
+                + "  function test() {\n"
+                + "    var a = Object.freeze([1, 2]);\n"
+                + "    a[0] = 5;\n"
+                + "    alert(a.join());\n"
+                + "    alert(a.length);\n"
+                + "  }\n"
+                + "</script></head><body onload='test()'>\n"
+                + "</body></html>";
+        final String[] messages = {"1,2", "2"};
+        checkHtmlAlert(html, messages);
+    }
+}
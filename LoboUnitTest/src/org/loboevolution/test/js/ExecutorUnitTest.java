@@ -0,0 +1,146 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.test.js;
+
+import org.junit.Test;
+import org.loboevolution.html.js.Executor;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Scriptable;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests for the context {@link org.loboevolution.html.js.Executor} keeps per
+ * thread: it is configured once, entered again by later calls, and does not
+ * carry the RegExp statics from one call to the next.
+ */
+public class ExecutorUnitTest {
+
+    @Test
+    public void contextIsReused() throws Exception {
+        runInThread(() -> {
+            final Context first = Executor.createContext(null, null);
+            Context.exit();
+            final Context second = Executor.createContext(null, null);
+            try {
+                assertSame(first, second);
+                assertEquals(Context.VERSION_1_8, second.getLanguageVersion());
+                assertEquals(-1, second.getOptimizationLevel());
+            } finally {
+                Context.exit();
+            }
+            assertNull(Context.getCurrentContext());
+        });
+    }
+
+    @Test
+    public void threadsHaveTheirOwnContext() throws Exception {
+        final AtomicReference<Context> other = new AtomicReference<>();
+        runInThread(() -> {
+            other.set(Executor.createContext(null, null));
+            Context.exit();
+        });
+        runInThread(() -> {
+            try {
+                assertNotSame(other.get(), Executor.createContext(null, null));
+            } finally {
+                Context.exit();
+            }
+        });
+    }
+
+    @Test
+    public void contextEnteredElsewhereIsJoinedNotKept() throws Exception {
+        runInThread(() -> {
+            final Context outer = Context.enter();
+            try {
+                final Context joined = Executor.createContext(null, null);
+                assertSame(outer, joined);
+                assertEquals(Context.VERSION_1_8, joined.getLanguageVersion());
+                Context.exit();
+            } finally {
+                Context.exit();
+            }
+            final Context own = Executor.createContext(null, null);
+            Context.exit();
+            assertNotSame(outer, own);
+            assertSame(own, Executor.createContext(null, null));
+            Context.exit();
+        });
+    }
+
+    @Test
+    public void regExpStaticsAreResetOnEachCall() throws Exception {
+        runInThread(() -> {
+            Context cx = Executor.createContext(null, null);
+            final Scriptable scope;
+            try {
+                scope = cx.initStandardObjects();
+                cx.evaluateString(scope, "/a(b)c/.exec('xabcx')", "first.js", 1, null);
+                assertEquals("abc", eval(cx, scope, "RegExp.lastMatch"));
+                assertEquals("b", eval(cx, scope, "RegExp.$1"));
+
+                // a nested call is part of the same call
+                final Context nested = Executor.createContext(null, null);
+                assertSame(cx, nested);
+                assertEquals("abc", eval(nested, scope, "RegExp.lastMatch"));
+                Context.exit();
+            } finally {
+                Context.exit();
+            }
+
+            cx = Executor.createContext(null, null);
+            try {
+                assertEquals("", eval(cx, scope, "RegExp.lastMatch"));
+                assertEquals("", eval(cx, scope, "RegExp.$1"));
+            } finally {
+                Context.exit();
+            }
+        });
+    }
+
+    private static Object eval(Context cx, Scriptable scope, String source) {
+        return Context.toString(cx.evaluateString(scope, source, "test.js", 1, null));
+    }
+
+    private static void runInThread(Runnable test) throws Exception {
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Thread thread = new Thread(() -> {
+            try {
+                test.run();
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        thread.start();
+        thread.join();
+        if (failure.get() instanceof Error) {
+            throw (Error) failure.get();
+        } else if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+    }
+}
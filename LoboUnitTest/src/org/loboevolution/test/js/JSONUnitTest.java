@@ -0,0 +1,181 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.test.js;
+
+import org.junit.Test;
+import org.loboevolution.test.driver.LoboUnitTest;
+
+/**
+ * Tests for {@link org.mozilla.javascript.NativeJSON}.
+ */
+public class JSONUnitTest extends LoboUnitTest {
+
+    @Test
+    public void parse() {
+        final String html
+                = "<html><head><script>\n"
+                + "  function test() {\n"
+                + "    var o = JSON.parse(' {\"a\": [1, 2.5, -3e2], \"b\": {\"c\": null}, \"1\": true} ');\n"
+                + "    alert(o.a.join());\n"
+                + "    alert(o.b.c);\n"
+                + "    alert(o[1]);\n"
+                + "    alert(Object.keys(o).length);\n"
+                + "    alert(JSON.parse('[]').length + ',' + Object.keys(JSON.parse('{}')).length);\n"
+                + "    var list = JSON.parse('[{\"id\": 1}, {\"id\": 2}]');\n"
+                + "    alert(list[0].id + list[1].id);\n"
+                + "  }\n"
+                + "</script></head><body onload='test()'>\n"
+                + "</body></html>";
+        final String[] messages = {"1,2.5,-300", "null", "true", "3", "0,0", "3"};
+        checkHtmlAlert(html, messages);
+    }
+
+    @Test
+    public void parseEscapes() {
+        final String html
+                = "<html><head><script>\n"
+                + "  function test() {\n"
+                + "    var s = JSON.parse('\"\\\\u0041\\\\t\\\\\"b\\\\\"\\\\/\"');\n"
+                + "    alert(s.length);\n"
+                + "    alert(s.charCodeAt(1));\n"
+                + "    alert(s.charAt(0) + s.substring(2));\n"
+                + "    alert(JSON.parse('{\"\\\\u0061\": 1}').a);\n"
+                + "  }\n"
+                + "</script></head><body onload='test()'>\n"
+                + "</body></html>";
+        final String[] messages = {"6", "9", "A\"b\"/", "1"};
+        checkHtmlAlert(html, messages);
+    }
+
+    @Test
+    public void parseErrors() {
+        final String html
+                = "<html><head><script>\n"
+                + "  function error(text) {\n"
+                + "    try {\n"
+                + "      JSON.parse(text);\n"
+                + "      return 'no error';\n"
+                + "    } catch (e) {\n"
+                + "      return e.name + ': ' + e.message;\n"
+                + "    }\n"
+                + "  }\n"
+                + "  function test() {\n"
+                + "    alert(error('[1, 2] x'));\n"
+                + "    alert(error('{\"a\": 1,}'));\n"
+                + "    alert(error('[1,,2]'));\n"
+                + "    alert(error('[1 2]'));\n"
+                + "    alert(error('\"abc'));\n"
+                + "    alert(error('\"\\\\x\"'));\n"
+                + "    alert(error(''));\n"
+                + "  }\n"
+                + "</script></head><body onload='test()'>\n"
+                + "</body></html>";
+        final String[] messages = {
+                "SyntaxError: Expected end of stream at char 7",
+                "SyntaxError: Unexpected comma in object literal",
+                "SyntaxError: Unexpected comma in array literal",
+                "SyntaxError: Missing comma in array literal",
+                "SyntaxError: Unterminated string literal",
+                "SyntaxError: Unexpected character in string: '\\x'",
+                "SyntaxError: Empty JSON string"};
+        checkHtmlAlert(html, messages);
+    }
+
+    @Test
+    public void parseReviver() {
+        final String html
+                = "<html><head><script>\n"
+                + "  function test() {\n"
+                + "    var text = '{\"a\": 1, \"b\": {\"c\": 2}}';\n"
+                + "    var r = JSON.parse(text, function(k, v) { return typeof v === 'number' ? v * 10 : v; });\n"
+                + "    alert(r.a + ',' + r.b.c);\n"
+                + "    var keys = [];\n"
+                + "    JSON.parse(text, function(k, v) { keys.push(k); return v; });\n"
+                + "    alert(keys.join());\n"
+                + "    var d = JSON.parse(text, function(k, v) { return k === 'a' ? undefined : v; });\n"
+                + "    alert(('a' in d) + ',' + d.b.c);\n"
+                + "  }\n"
+                + "</script></head><body onload='test()'>\n"
+                + "</body></html>";
+        final String[] messages = {"10,20", "a,c,b,", "false,2"};
+        checkHtmlAlert(html, messages);
+    }
+
+    @Test
+    public void stringify() {
+        final String html
+                = "<html><head><script>\n"
+                + "  function test() {\n"
+                + "    alert(JSON.stringify({a: 1, b: [true, null, 'x'], c: {}}));\n"
+                + "    alert(JSON.stringify({a: undefined, b: function() {}, c: 1}));\n"
+                + "    alert(JSON.stringify([undefined, function() {}, NaN]));\n"
+                + "    alert(JSON.stringify('a\"b\\\\c\\n\\u0001'));\n"
+                + "    alert(JSON.stringify({d: {toJSON: function() { return 'X'; }}}));\n"
+                + "    alert(JSON.stringify(undefined));\n"
+                + "  }\n"
+                + "</script></head><body onload='test()'>\n"
+                + "</body></html>";
+        final String[] messages = {
+                "{\"a\":1,\"b\":[true,null,\"x\"],\"c\":{}}",
+                "{\"c\":1}",
+                "[null,null,null]",
+                "\"a\\\"b\\\\c\\n\\u0001\"",
+                "{\"d\":\"X\"}",
+                "undefined"};
+        checkHtmlAlert(html, messages);
+    }
+
+    @Test
+    public void stringifyReplacer() {
+        final String html
+                = "<html><head><script>\n"
+                + "  function test() {\n"
+                + "    var o = {a: 1, b: 'x', c: [1, 2]};\n"
+                + "    alert(JSON.stringify(o, function(k, v) { return k === 'b' ? undefined : v; }));\n"
+                + "    alert(JSON.stringify(o, function(k, v) { return typeof v === 'number' ? v + 1 : v; }));\n"
+                + "    alert(JSON.stringify({a: 1, b: 2, c: 3}, ['c', 'a']));\n"
+                + "  }\n"
+                + "</script></head><body onload='test()'>\n"
+                + "</body></html>";
+        final String[] messages = {"{\"a\":1,\"c\":[1,2]}", "{\"a\":2,\"b\":\"x\",\"c\":[2,3]}", "{\"c\":3,\"a\":1}"};
+        checkHtmlAlert(html, messages);
+    }
+
+    @Test
+    public void stringifyIndent() {
+        final String html
+                = "<html><head><script>\n"
+                + "  function test() {\n"
+                + "    alert(JSON.stringify({a: [1, {b: 2}]}, null, 2).replace(/\\n/g, '|'));\n"
+                + "    alert(JSON.stringify([1], null, '--').replace(/\\n/g, '|'));\n"
+                + "    alert(JSON.stringify({a: [], b: {}}, null, 1).replace(/\\n/g, '|'));\n"
+                + "    alert(JSON.stringify([1, 2], null, 0));\n"
+                + "  }\n"
+                + "</script></head><body onload='test()'>\n"
+                + "</body></html>";
+        final String[] messages = {
+                "{|  \"a\": [|    1,|    {|      \"b\": 2|    }|  ]|}",
+                "[|--1|]",
+                "{| \"a\": [],| \"b\": {}|}",
+                "[1,2]"};
+        checkHtmlAlert(html, messages);
+    }
+}
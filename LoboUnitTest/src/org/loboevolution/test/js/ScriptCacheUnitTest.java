@@ -0,0 +1,166 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.test.js;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.loboevolution.html.js.ScriptCache;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Script;
+import org.mozilla.javascript.Scriptable;
+
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests for {@link org.loboevolution.html.js.ScriptCache}, storing the compiled
+ * scripts under a temporary home directory.
+ */
+public class ScriptCacheUnitTest {
+
+    private final ScriptCache cache = ScriptCache.getInstance();
+
+    private String userHome;
+
+    private Path home;
+
+    private Context cx;
+
+    @Before
+    public void setUp() throws Exception {
+        userHome = System.getProperty("user.home");
+        home = Files.createTempDirectory("scripts");
+        System.setProperty("user.home", home.toString());
+        cx = Context.enter();
+        cx.setLanguageVersion(Context.VERSION_1_8);
+        cx.setOptimizationLevel(-1);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Context.exit();
+        System.setProperty("user.home", userHome);
+        try (Stream<Path> files = Files.walk(home)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Test
+    public void memoryRoundTrip() {
+        final String source = "var a = 6; a * 7; // memory " + System.nanoTime();
+        final Script script = cache.getScript(cx, source, "memory.js", false);
+        assertSame(script, cache.getScript(cx, source, "memory.js", false));
+        assertNotSame(script, cache.getScript(cx, source, "other.js", false));
+        assertEquals(42, run(script));
+        assertEquals(0, scriptFiles().size());
+    }
+
+    @Test
+    public void diskRoundTrip() {
+        final String source = "var a = 6; a * 7; // disk " + System.nanoTime();
+        final Script script = cache.getScript(cx, source, "disk.js", true);
+        assertEquals(1, scriptFiles().size());
+
+        final long diskHits = diskHits();
+        cache.clear();
+        final Script read = cache.getScript(cx, source, "disk.js", true);
+        assertNotSame(script, read);
+        assertEquals(diskHits + 1, diskHits());
+        assertEquals(42, run(read));
+    }
+
+    @Test
+    public void corruptFileIsDiscarded() throws Exception {
+        final String source = "var a = 6; a * 7; // corrupt " + System.nanoTime();
+        cache.getScript(cx, source, "corrupt.js", true);
+        final Path file = scriptFiles().get(0);
+        final String engine = engineId(file);
+        Files.write(file, new byte[] {1, 2, 3});
+
+        final long diskHits = diskHits();
+        cache.clear();
+        assertEquals(42, run(cache.getScript(cx, source, "corrupt.js", true)));
+        assertEquals(diskHits, diskHits());
+        // compiled and stored again
+        assertEquals(engine, engineId(file));
+    }
+
+    @Test
+    public void otherEngineIsDiscarded() throws Exception {
+        final String source = "var a = 6; a * 7; // engine " + System.nanoTime();
+        cache.getScript(cx, source, "engine.js", true);
+        final Path file = scriptFiles().get(0);
+        final String engine = engineId(file);
+        try (ObjectOutputStream oos = new ObjectOutputStream(Files.newOutputStream(file))) {
+            oos.writeInt(2);
+            oos.writeUTF("another build");
+            oos.writeLong(0);
+            oos.writeObject("not a script");
+        }
+
+        final long diskHits = diskHits();
+        cache.clear();
+        assertEquals(42, run(cache.getScript(cx, source, "engine.js", true)));
+        assertEquals(diskHits, diskHits());
+        assertEquals(engine, engineId(file));
+    }
+
+    private int run(Script script) {
+        final Scriptable scope = cx.initStandardObjects();
+        return (int) Context.toNumber(script.exec(cx, scope));
+    }
+
+    private List<Path> scriptFiles() {
+        try (Stream<Path> files = Files.walk(home)) {
+            return files.filter(Files::isRegularFile).collect(Collectors.toList());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String engineId(Path file) throws Exception {
+        try (InputStream in = Files.newInputStream(file);
+             ObjectInputStream ois = new ObjectInputStream(in)) {
+            ois.readInt();
+            return ois.readUTF();
+        }
+    }
+
+    private long diskHits() {
+        for (String stat : cache.getStatistics().split(", ")) {
+            if (stat.startsWith("diskHits=")) {
+                return Long.parseLong(stat.substring("diskHits=".length()));
+            }
+        }
+        throw new IllegalStateException(cache.getStatistics());
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.test.js;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.loboevolution.html.dom.canvas.ImageDataImpl;
+import org.loboevolution.html.js.XMLHttpRequest;
+import org.loboevolution.http.UserAgentContext;
+import org.loboevolution.js.JavaScript;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+import org.mozilla.javascript.typedarrays.NativeArrayBuffer;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the ByteBuffer backed typed arrays: sharing their content with
+ * Java, the byte order of DataView and of the element views, canvas
+ * ImageData and XMLHttpRequest responses of type arraybuffer.
+ */
+public class TypedArrayUnitTest {
+
+    private Context cx;
+
+    private Scriptable scope;
+
+    @Before
+    public void setUp() {
+        cx = Context.enter();
+        cx.setLanguageVersion(Context.VERSION_1_8);
+        scope = cx.initStandardObjects();
+    }
+
+    @After
+    public void tearDown() {
+        Context.exit();
+    }
+
+    @Test
+    public void arrayBufferSharesJavaBytes() {
+        final byte[] bytes = new byte[4];
+        final NativeArrayBuffer buffer = share(new NativeArrayBuffer(ByteBuffer.wrap(bytes)));
+        ScriptableObject.putProperty(scope, "buffer", buffer);
+        eval("new Uint8Array(buffer)[1] = 7");
+        assertEquals(7, bytes[1]);
+        bytes[2] = 9;
+        assertEquals("9", eval("new Uint8Array(buffer)[2]"));
+        assertSame(bytes, buffer.getBuffer());
+        buffer.getByteBuffer().put(3, (byte) 5);
+        assertEquals("5", eval("new Uint8Array(buffer)[3]"));
+    }
+
+    @Test
+    public void directBufferViews() {
+        final ByteBuffer direct = ByteBuffer.allocateDirect(16);
+        final NativeArrayBuffer buffer = share(new NativeArrayBuffer(direct));
+        assertTrue(buffer.isDirect());
+        ScriptableObject.putProperty(scope, "buffer", buffer);
+        eval("new Int32Array(buffer)[1] = 0x01020304; new Float64Array(buffer)[1] = 1.5");
+        final ByteBuffer content = buffer.getByteBuffer().order(order());
+        assertEquals(0x01020304, content.getInt(4));
+        assertEquals(1.5, content.getDouble(8), 0);
+        assertEquals("16909060,1.5", eval("new Int32Array(buffer)[1] + ',' + new Float64Array(buffer)[1]"));
+
+        // not backed by an array, so getBuffer copies
+        final byte[] copy = buffer.getBuffer();
+        assertEquals(16, copy.length);
+        copy[0] = 42;
+        assertEquals("0", eval("new Uint8Array(buffer)[0]"));
+    }
+
+    @Test
+    public void dataViewByteOrder() {
+        assertEquals("1,2,2,1", eval("var b = new ArrayBuffer(4); var v = new DataView(b);"
+                + "v.setInt16(0, 0x0102); v.setInt16(2, 0x0102, true);"
+                + "Array.prototype.join.call(new Uint8Array(b))"));
+        assertEquals("258,513", eval("v.getInt16(0) + ',' + v.getInt16(0, true)"));
+        assertEquals("-2,4294967294,-0.25", eval("var d = new DataView(new ArrayBuffer(8));"
+                + "d.setInt32(0, -2, true); d.setFloat32(4, -0.25);"
+                + "d.getInt32(0, true) + ',' + d.getUint32(0, true) + ',' + d.getFloat32(4)"));
+    }
+
+    @Test
+    public void elementViewsUseTheContextByteOrder() {
+        final boolean little = cx.hasFeature(Context.FEATURE_LITTLE_ENDIAN);
+        assertEquals("258,258,1.25", eval("var b = new ArrayBuffer(16);"
+                + "new Int16Array(b)[0] = 0x0102; new Float32Array(b)[1] = 1.25;"
+                + "var v = new DataView(b);"
+                + "v.getInt16(0, " + little + ") + ',' + new Uint16Array(b)[0] + ',' + v.getFloat32(4, " + little + ")"));
+    }
+
+    @Test
+    public void imageDataSharesPixels() {
+        final ImageDataImpl imageData = new ImageDataImpl(2, 1);
+        ScriptableObject.putProperty(scope, "data",
+                JavaScript.getInstance().getJavascriptObject(imageData.getData(), scope));
+        assertEquals("8", eval("data.length"));
+        eval("data[0] = 255; data[1] = -5; data[2] = 300; data[3] = 128");
+        assertArrayEquals(new int[] {255, 0, 255, 128}, imageData.getImage().getRaster().getPixel(0, 0, (int[]) null));
+        imageData.getImage().getRaster().setPixel(1, 0, new int[] {1, 2, 3, 4});
+        assertEquals("1,2,3,4", eval("[data[4], data[5], data[6], data[7]].join()"));
+        assertSame(imageData.getData(), imageData.getData());
+    }
+
+    @Test
+    public void xmlHttpRequestArrayBuffer() throws Exception {
+        final byte[] body = {1, 2, 3, (byte) 250};
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/data.bin", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        try {
+            final XMLHttpRequest request = new XMLHttpRequest(new UserAgentContext(), null, scope);
+            request.setResponseType("arraybuffer");
+            request.open("GET", "http://127.0.0.1:" + server.getAddress().getPort() + "/data.bin", false);
+            request.send();
+            final NativeArrayBuffer response = (NativeArrayBuffer) request.getResponse();
+            assertArrayEquals(body, response.getBuffer());
+            assertSame(request.getResponseBytes(), response.getBuffer());
+            assertSame(response, request.getResponse());
+            ScriptableObject.putProperty(scope, "response", share(response));
+            assertEquals("4,250", eval("response.byteLength + ',' + new Uint8Array(response)[3]"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private NativeArrayBuffer share(NativeArrayBuffer buffer) {
+        buffer.setParentScope(scope);
+        buffer.setPrototype(ScriptableObject.getClassPrototype(scope, buffer.getClassName()));
+        return buffer;
+    }
+
+    private ByteOrder order() {
+        return cx.hasFeature(Context.FEATURE_LITTLE_ENDIAN) ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+    }
+
+    private String eval(String source) {
+        return Context.toString(cx.evaluateString(scope, source, "test.js", 1, null));
+    }
+}
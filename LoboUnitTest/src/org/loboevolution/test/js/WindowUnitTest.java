@@ -1502,4 +1502,105 @@ public class WindowUnitTest extends LoboUnitTest {
         final String[] messages = {"1"};
         checkHtmlAlert(html, messages);
     }
+
+    @Test
+    public void setTimeoutOrder() {
+        final String html
+                = "<html><head><script>\n"
+                + "  function test() {\n"
+                + "    setTimeout(function() { alert('a'); }, 40);\n"
+                + "    setTimeout(function() { alert('b'); }, 0);\n"
+                + "    setTimeout(function() { alert('c'); }, 20);\n"
+                + "    setTimeout(function() { alert('d'); }, 0);\n"
+                + "    alert('sync');\n"
+                + "  }\n"
+                + "</script></head><body onload='test()'>\n"
+                + "</body></html>";
+        final String[] messages = {"sync", "b", "d", "c", "a"};
+        checkHtmlAlert(html, messages, 2000);
+    }
+
+    @Test
+    public void setTimeoutString() {
+        final String html
+                = "<html><head><script>\n"
+                + "  function test() {\n"
+                + "    var id = setTimeout(\"alert('expression')\", 0);\n"
+                + "    alert(typeof id);\n"
+                + "  }\n"
+                + "</script></head><body onload='test()'>\n"
+                + "</body></html>";
+        final String[] messages = {"number", "expression"};
+        checkHtmlAlert(html, messages, 2000);
+    }
+
+    @Test
+    public void clearTimeout() {
+        final String html
+                = "<html><head><script>\n"
+                + "  function test() {\n"
+                + "    var id = setTimeout(function() { alert('cleared'); }, 0);\n"
+                + "    setTimeout(function() { alert('done'); }, 30);\n"
+                + "    clearTimeout(id);\n"
+                + "    clearTimeout(-1);\n"
+                + "  }\n"
+                + "</script></head><body onload='test()'>\n"
+                + "</body></html>";
+        final String[] messages = {"done"};
+        checkHtmlAlert(html, messages, 2000);
+    }
+
+    @Test
+    public void clearTimeoutFromTimer() {
+        final String html
+                = "<html><head><script>\n"
+                + "  function test() {\n"
+                + "    var later;\n"
+                + "    setTimeout(function() { alert('first'); clearTimeout(later); }, 0);\n"
+                + "    later = setTimeout(function() { alert('later'); }, 20);\n"
+                + "    setTimeout(function() { alert('last'); }, 40);\n"
+                + "  }\n"
+                + "</script></head><body onload='test()'>\n"
+                + "</body></html>";
+        final String[] messages = {"first", "last"};
+        checkHtmlAlert(html, messages, 2000);
+    }
+
+    @Test
+    public void setInterval() {
+        final String html
+                = "<html><head><script>\n"
+                + "  function test() {\n"
+                + "    var count = 0;\n"
+                + "    var id = setInterval(function() {\n"
+                + "      count++;\n"
+                + "      alert(count);\n"
+                + "      if (count == 3) {\n"
+                + "        clearInterval(id);\n"
+                + "        setTimeout(function() { alert('stopped ' + count); }, 50);\n"
+                + "      }\n"
+                + "    }, 5);\n"
+                + "  }\n"
+                + "</script></head><body onload='test()'>\n"
+                + "</body></html>";
+        final String[] messages = {"1", "2", "3", "stopped 3"};
+        checkHtmlAlert(html, messages, 2000);
+    }
+
+    @Test
+    public void queueMicrotaskInTimer() {
+        final String html
+                = "<html><head><script>\n"
+                + "  function test() {\n"
+                + "    setTimeout(function() {\n"
+                + "      queueMicrotask(function() { alert('microtask'); });\n"
+                + "      alert('timer 1');\n"
+                + "    }, 0);\n"
+                + "    setTimeout(function() { alert('timer 2'); }, 0);\n"
+                + "  }\n"
+                + "</script></head><body onload='test()'>\n"
+                + "</body></html>";
+        final String[] messages = {"timer 1", "microtask", "timer 2"};
+        checkHtmlAlert(html, messages, 2000);
+    }
 }
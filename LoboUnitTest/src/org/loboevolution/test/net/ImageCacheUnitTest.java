@@ -0,0 +1,117 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.test.net;
+
+import org.junit.After;
+import org.junit.Test;
+import org.loboevolution.net.ImageCache;
+import org.loboevolution.net.ResourceLoader;
+import org.loboevolution.net.ResourcePriority;
+
+import javax.imageio.ImageIO;
+import java.awt.Image;
+import java.awt.Toolkit;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests for {@link org.loboevolution.net.ImageCache} and the image requests of
+ * {@link org.loboevolution.net.ResourceLoader}.
+ */
+public class ImageCacheUnitTest {
+
+    private final ImageCache cache = ImageCache.getInstance();
+
+    @After
+    public void tearDown() {
+        cache.clear();
+        cache.setMaxBytes(64L * 1024 * 1024);
+    }
+
+    @Test
+    public void putAndGet() {
+        cache.clear();
+        final Image image = new BufferedImage(10, 20, BufferedImage.TYPE_INT_ARGB);
+        cache.put("http://localhost/a.png", image);
+        assertSame(image, cache.get("http://localhost/a.png"));
+        assertNull(cache.get("http://localhost/b.png"));
+        assertEquals(4 * 10 * 20, cache.getBytes());
+    }
+
+    @Test
+    public void budgetEvictsTheEldest() {
+        cache.clear();
+        cache.setMaxBytes(4 * 10 * 10 + 100);
+        final Image first = new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+        final Image second = new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+        cache.put("http://localhost/first.png", first);
+        cache.put("http://localhost/second.png", second);
+        assertEquals(4 * 10 * 10, cache.getBytes());
+
+        // still reachable through its soft reference, and held again
+        assertSame(first, cache.get("http://localhost/first.png"));
+        assertEquals(4 * 10 * 10, cache.getBytes());
+    }
+
+    @Test
+    public void loadingImageIsCountedOnceLoaded() throws Exception {
+        cache.clear();
+        final Image image = Toolkit.getDefaultToolkit().createImage(png(30, 40));
+        cache.put("http://localhost/loading.png", image);
+        final long end = System.currentTimeMillis() + 5000;
+        while (cache.getBytes() != 4 * 30 * 40 && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals(4 * 30 * 40, cache.getBytes());
+    }
+
+    @Test
+    public void concurrentLoadsShareTheRequest() throws Exception {
+        cache.clear();
+        final File file = File.createTempFile("image", ".png");
+        try {
+            Files.write(file.toPath(), png(8, 8));
+            final String url = file.toURI().toURL().toExternalForm();
+            final ResourceLoader loader = ResourceLoader.getInstance();
+            final CompletableFuture<Image> first = loader.loadImage(url, null, ResourcePriority.VISIBLE_IMAGE);
+            final CompletableFuture<Image> second = loader.loadImage(url, null, ResourcePriority.VISIBLE_IMAGE);
+            final Image image = first.get(10, TimeUnit.SECONDS);
+            assertSame(image, second.get(10, TimeUnit.SECONDS));
+            assertSame(image, cache.get(url));
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.test.net;
+
+import org.junit.Test;
+import org.loboevolution.common.Urls;
+
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link org.loboevolution.common.Urls#getExpiration}, which is in
+ * milliseconds.
+ */
+public class UrlsUnitTest {
+
+    private static final long NOW = 1_600_000_000_000L;
+
+    @Test
+    public void maxAgeIsInSeconds() throws Exception {
+        assertEquals(NOW + 60_000L, expiration("Cache-Control", "max-age=60"));
+        assertEquals(NOW + 60_000L, expiration("Cache-Control", "public, max-age=60"));
+    }
+
+    @Test
+    public void noCacheExpiresAtOnce() throws Exception {
+        assertEquals(0L, expiration("Cache-Control", "no-cache"));
+        assertEquals(0L, expiration("Cache-Control", "max-age=60, no-cache"));
+    }
+
+    @Test
+    public void mustRevalidateKeepsMaxAge() throws Exception {
+        assertEquals(NOW + 60_000L, expiration("Cache-Control", "max-age=60, must-revalidate"));
+        assertEquals(0L, expiration("Cache-Control", "must-revalidate"));
+    }
+
+    @Test
+    public void maxAgeWinsOverExpires() throws Exception {
+        final Map<String, String> headers = new HashMap<>();
+        headers.put("Cache-Control", "max-age=10");
+        headers.put("Expires", "Thu, 01 Jan 2037 00:00:00 GMT");
+        assertEquals(NOW + 10_000L, (long) Urls.getExpiration(connection(headers), NOW));
+    }
+
+    @Test
+    public void expiresDate() throws Exception {
+        assertEquals(2114380800000L, expiration("Expires", "Thu, 01 Jan 2037 00:00:00 GMT"));
+        assertEquals(0L, expiration("Pragma", "no-cache"));
+    }
+
+    private static long expiration(String name, String value) throws Exception {
+        final Map<String, String> headers = new HashMap<>();
+        headers.put(name, value);
+        return Urls.getExpiration(connection(headers), NOW);
+    }
+
+    private static URLConnection connection(Map<String, String> headers) throws Exception {
+        return new URLConnection(new URL("http://localhost/test.js")) {
+            @Override
+            public void connect() {
+            }
+
+            @Override
+            public String getHeaderField(String name) {
+                return headers.get(name);
+            }
+        };
+    }
+}
@@ -566,6 +566,62 @@ public class DocumentUnitTest extends LoboUnitTest {
         checkHtmlAlert(html, messages);
     }
 
+    @Test
+    public void getElementById_liveIndex() {
+        final String html
+                = "<html><head><script>\n"
+                + "function doTest() {\n"
+                + "  var div = document.createElement('div');\n"
+                + "  div.id = 'created';\n"
+                + "  alert(document.getElementById('created') == null);\n"
+                + "  document.body.appendChild(div);\n"
+                + "  alert(document.getElementById('created') == div);\n"
+                + "  div.id = 'renamed';\n"
+                + "  alert(document.getElementById('created') == null);\n"
+                + "  alert(document.getElementById('renamed') == div);\n"
+                + "  document.body.removeChild(div);\n"
+                + "  alert(document.getElementById('renamed') == null);\n"
+                + "  var second = document.getElementById('second');\n"
+                + "  second.id = 'first';\n"
+                + "  alert(document.getElementById('first').title);\n"
+                + "  document.body.insertBefore(second, document.getElementById('first'));\n"
+                + "  alert(document.getElementById('first').title);\n"
+                + "}\n"
+                + "</script></head><body onload='doTest()'>\n"
+                + "<div id='first' title='a'></div>\n"
+                + "<div id='second' title='b'></div>\n"
+                + "</body></html>";
+
+        final String[] messages = {"true", "true", "true", "true", "true", "a", "b"};
+        checkHtmlAlert(html, messages);
+    }
+
+    @Test
+    public void getElementsByTagName_live() {
+        final String html
+                = "<html><head><script>\n"
+                + "function doTest() {\n"
+                + "  var divs = document.getElementsByTagName('div');\n"
+                + "  var cls = document.getElementsByClassName('x');\n"
+                + "  var kids = document.body.children;\n"
+                + "  alert(divs.length + ' ' + cls.length + ' ' + kids.length);\n"
+                + "  var div = document.createElement('div');\n"
+                + "  div.className = 'x';\n"
+                + "  document.body.appendChild(div);\n"
+                + "  alert(divs.length + ' ' + cls.length + ' ' + kids.length);\n"
+                + "  document.getElementById('a').className = 'y';\n"
+                + "  alert(cls.length + ' ' + cls[0].id);\n"
+                + "  document.body.removeChild(document.getElementById('b'));\n"
+                + "  alert(divs.length + ' ' + kids.length + ' ' + (divs[0] == document.getElementById('a')));\n"
+                + "}\n"
+                + "</script></head><body onload='doTest()'>"
+                + "<div id='a' class='x'></div><div id='b' class='x z'></div>"
+                + "</body></html>";
+
+        final String[] messages = {"2 2 2", "3 3 3", "2 b", "2 2 true"};
+        checkHtmlAlert(html, messages);
+    }
+
     @Test
     public void parentNode_Nested() {
         final String html
@@ -0,0 +1,261 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.test.store;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.loboevolution.store.ExternalResourcesStore;
+import org.loboevolution.store.GeneralStore;
+import org.loboevolution.store.SQLiteCommon;
+import org.loboevolution.store.SQLiteConnectionPool;
+import org.loboevolution.store.SettingsSnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests for the expiry, the revalidation, the shared body files and the charset
+ * of {@link org.loboevolution.store.ExternalResourcesStore}.
+ */
+public class ExternalResourcesStoreUnitTest {
+
+    private static final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+    private static final Map<String, String> conditions = new ConcurrentHashMap<>();
+
+    private static String home;
+
+    private static File tmp;
+
+    private static HttpServer server;
+
+    private static String base;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        home = System.getProperty("user.home");
+        tmp = Files.createTempDirectory("lobo").toFile();
+        System.setProperty("user.home", tmp.getPath());
+        SQLiteCommon.createDatabaseDirectory();
+        try (Connection conn = SQLiteCommon.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE NETWORK (js integer, css integer, cookie integer, cache integer, navigation integer)");
+        }
+        GeneralStore.insertNetwork(true, true, true, true, true);
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", ExternalResourcesStoreUnitTest::handle);
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        server.stop(0);
+        SQLiteConnectionPool.shutdown();
+        System.setProperty("user.home", home);
+        SettingsSnapshot.invalidate();
+        try (Stream<Path> paths = Files.walk(tmp.toPath())) {
+            paths.sorted((a, b) -> b.compareTo(a)).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void maxAgeServesFromCache() {
+        assertEquals("var maxAge = 1;", load("max-age.js"));
+        assertEquals("var maxAge = 1;", load("max-age.js"));
+        assertEquals(1, requests("max-age.js"));
+    }
+
+    @Test
+    public void mustRevalidateKeepsMaxAge() {
+        assertEquals("var revalidate = 1;", load("must-revalidate.js"));
+        assertEquals("var revalidate = 1;", load("must-revalidate.js"));
+        assertEquals(1, requests("must-revalidate.js"));
+    }
+
+    @Test
+    public void noCacheRevalidatesWithETag() {
+        assertEquals("var etag = 1;", load("etag.js"));
+        assertNull(conditions.get("etag.js"));
+        assertEquals("var etag = 1;", load("etag.js"));
+        assertEquals(2, requests("etag.js"));
+        assertEquals("\"v1\"", conditions.get("etag.js"));
+    }
+
+    @Test
+    public void noCacheRevalidatesWithLastModified() {
+        assertEquals("var modified = 1;", load("last-modified.js"));
+        assertEquals("var modified = 1;", load("last-modified.js"));
+        assertEquals(2, requests("last-modified.js"));
+        assertEquals("Thu, 01 Jan 2015 00:00:00 GMT", conditions.get("last-modified.js"));
+    }
+
+    @Test
+    public void noStoreIsNotCached() {
+        assertEquals("var noStore = 1;", load("no-store.js"));
+        assertEquals("var noStore = 1;", load("no-store.js"));
+        assertEquals(2, requests("no-store.js"));
+    }
+
+    @Test
+    public void sameBodySharesOneFile() throws Exception {
+        assertEquals("var shared = 1;", load("shared-a.js"));
+        assertEquals("var shared = 1;", load("shared-b.js"));
+        final File dir = new File(SQLiteCommon.getCacheStore(), "resources");
+        final String hash = sha256("var shared = 1;");
+        final File[] files = new File(dir, hash.substring(0, 2)).listFiles((d, name) -> name.equals(hash));
+        assertEquals(1, files.length);
+    }
+
+    @Test
+    public void contentTypeCharset() {
+        assertEquals("var s = '\u00e9';", load("latin1.js"));
+    }
+
+    @Test
+    public void charsetAttributeWithoutContentTypeCharset() {
+        assertEquals("var s = '\u20ac';", ExternalResourcesStore.getSourceCache(base + "cp1252.js", "JS", "windows-1252"));
+    }
+
+    @Test
+    public void utf8ByDefault() {
+        assertEquals("var s = '\u00e9';", load("utf8.js"));
+    }
+
+    @Test
+    public void byteOrderMark() {
+        assertEquals("var s = '\u00e9';", ExternalResourcesStore.getSourceCache(base + "bom.js", "JS", "windows-1252"));
+    }
+
+    private static String load(String path) {
+        return ExternalResourcesStore.getSourceCache(base + path, "JS");
+    }
+
+    private static int requests(String path) {
+        return requests.get(path).get();
+    }
+
+    private static String sha256(String body) throws Exception {
+        final byte[] digest = MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8));
+        final StringBuilder sb = new StringBuilder();
+        for (final byte b : digest) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getPath().substring(1);
+        requests.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+        final String etag = exchange.getRequestHeaders().getFirst("If-None-Match");
+        final String since = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+        if (etag != null) {
+            conditions.put(path, etag);
+        } else if (since != null) {
+            conditions.put(path, since);
+        }
+
+        String type = "application/javascript";
+        byte[] body;
+        switch (path) {
+        case "max-age.js":
+            exchange.getResponseHeaders().set("Cache-Control", "max-age=600");
+            body = "var maxAge = 1;".getBytes(StandardCharsets.UTF_8);
+            break;
+        case "must-revalidate.js":
+            exchange.getResponseHeaders().set("Cache-Control", "max-age=600, must-revalidate");
+            body = "var revalidate = 1;".getBytes(StandardCharsets.UTF_8);
+            break;
+        case "etag.js":
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.getResponseHeaders().set("ETag", "\"v1\"");
+            if ("\"v1\"".equals(etag)) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            body = "var etag = 1;".getBytes(StandardCharsets.UTF_8);
+            break;
+        case "last-modified.js":
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.getResponseHeaders().set("Last-Modified", "Thu, 01 Jan 2015 00:00:00 GMT");
+            if (since != null) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            body = "var modified = 1;".getBytes(StandardCharsets.UTF_8);
+            break;
+        case "no-store.js":
+            exchange.getResponseHeaders().set("Cache-Control", "no-store");
+            exchange.getResponseHeaders().set("ETag", "\"v1\"");
+            body = "var noStore = 1;".getBytes(StandardCharsets.UTF_8);
+            break;
+        case "shared-a.js":
+        case "shared-b.js":
+            exchange.getResponseHeaders().set("Cache-Control", "max-age=600");
+            body = "var shared = 1;".getBytes(StandardCharsets.UTF_8);
+            break;
+        case "latin1.js":
+            type = "application/javascript; charset=ISO-8859-1";
+            body = "var s = '\u00e9';".getBytes(StandardCharsets.ISO_8859_1);
+            break;
+        case "cp1252.js":
+            body = "var s = '\u20ac';".getBytes("windows-1252");
+            break;
+        case "bom.js":
+            final byte[] text = "var s = '\u00e9';".getBytes(StandardCharsets.UTF_8);
+            body = new byte[text.length + 3];
+            body[0] = (byte) 0xEF;
+            body[1] = (byte) 0xBB;
+            body[2] = (byte) 0xBF;
+            System.arraycopy(text, 0, body, 3, text.length);
+            break;
+        default:
+            body = "var s = '\u00e9';".getBytes(StandardCharsets.UTF_8);
+            break;
+        }
+        exchange.getResponseHeaders().set("Content-Type", type);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
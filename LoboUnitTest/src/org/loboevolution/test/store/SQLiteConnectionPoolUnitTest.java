@@ -0,0 +1,138 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.loboevolution.test.store;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.loboevolution.store.SQLiteConnectionPool;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link org.loboevolution.store.SQLiteConnectionPool}.
+ */
+public class SQLiteConnectionPoolUnitTest {
+
+    private File file;
+
+    private String url;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("pool", ".db");
+        url = "jdbc:sqlite:" + file.getAbsolutePath();
+        try (Connection conn = SQLiteConnectionPool.getConnection(url);
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE item (name TEXT)");
+            stmt.execute("INSERT INTO item VALUES ('a'), ('b')");
+        }
+    }
+
+    @After
+    public void tearDown() {
+        SQLiteConnectionPool.shutdown();
+        file.delete();
+    }
+
+    @Test
+    public void reuseConnectionAndStatement() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            try (Connection conn = SQLiteConnectionPool.getConnection(url);
+                 PreparedStatement stmt = conn.prepareStatement("SELECT name FROM item WHERE name = ?")) {
+                stmt.setString(1, "a");
+                try (ResultSet rs = stmt.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals("a", rs.getString(1));
+                }
+            }
+        }
+        assertEquals("opened=1, reused=3, idle=1, statementHits=2, statementMisses=1",
+                SQLiteConnectionPool.getStatistics(url));
+    }
+
+    @Test
+    public void closeStatementClosesResultSet() throws Exception {
+        try (Connection conn = SQLiteConnectionPool.getConnection(url)) {
+            final PreparedStatement stmt = conn.prepareStatement("SELECT name FROM item");
+            final ResultSet rs = stmt.executeQuery();
+            assertTrue(rs.next());
+            stmt.close();
+            assertTrue(rs.isClosed());
+            assertTrue(stmt.isClosed());
+
+            final PreparedStatement again = conn.prepareStatement("SELECT name FROM item");
+            assertFalse(again.isClosed());
+            try (ResultSet next = again.executeQuery()) {
+                assertTrue(next.next());
+                assertEquals("a", next.getString(1));
+            }
+            again.close();
+        }
+    }
+
+    @Test
+    public void closeConnectionClosesStatements() throws Exception {
+        final Statement stmt;
+        final ResultSet rs;
+        try (Connection conn = SQLiteConnectionPool.getConnection(url)) {
+            stmt = conn.createStatement();
+            rs = stmt.executeQuery("SELECT name FROM item");
+        }
+        assertTrue(stmt.isClosed());
+        assertTrue(rs.isClosed());
+    }
+
+    @Test
+    public void statementConnectionIsThePooledOne() throws Exception {
+        try (Connection conn = SQLiteConnectionPool.getConnection(url);
+             PreparedStatement stmt = conn.prepareStatement("SELECT name FROM item");
+             Statement plain = conn.createStatement()) {
+            assertSame(conn, stmt.getConnection());
+            assertSame(conn, plain.getConnection());
+
+            final PreparedStatement busy = conn.prepareStatement("SELECT name FROM item");
+            assertNotSame(stmt, busy);
+            assertSame(conn, busy.getConnection());
+            busy.close();
+        }
+    }
+
+    @Test(expected = SQLException.class)
+    public void closedStatementRejectsCalls() throws Exception {
+        try (Connection conn = SQLiteConnectionPool.getConnection(url)) {
+            final PreparedStatement stmt = conn.prepareStatement("SELECT name FROM item");
+            stmt.close();
+            stmt.executeQuery();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * GNU GENERAL LICENSE
+ * Copyright (C) 2014 - 2021 Lobo Evolution
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation; either
+ * verion 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contact info: ivan.difrancesco@yahoo.it
+ */
+
+package org.mozilla.javascript;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link org.mozilla.javascript.TieredCompiler}: compiled functions
+ * give the same results and report the line numbers of the original source.
+ */
+public class TieredCompilerUnitTest {
+
+    private static final String SCRIPT =
+            "var counter = {\n"
+            + "  total: 0,\n"
+            + "  add(n) {\n"
+            + "    this.total += n;\n"
+            + "    return this.total;\n"
+            + "  }\n"
+            + "};\n"
+            + "\n"
+            + "/* a comment\n"
+            + "   over two lines */\n"
+            + "function hot(n)\n"
+            + "{\n"
+            + "\n"
+            + "  if (n < 0) {\n"
+            + "    // reject negatives\n"
+            + "\n"
+            + "    throw new Error('negative ' + n);\n"
+            + "  }\n"
+            + "  return n + 1;\n"
+            + "}\n"
+            + "var named = function fact(n) { return n <= 1 ? 1 : n * fact(n - 1); };\n";
+
+    private Context cx;
+
+    private Scriptable scope;
+
+    @Before
+    public void setUp() {
+        cx = Context.enter();
+        cx.setOptimizationLevel(-1);
+        cx.setTieredCompilationThreshold(10);
+        scope = cx.initStandardObjects();
+        cx.evaluateString(scope, SCRIPT, "tiered.js", 5, null);
+    }
+
+    @After
+    public void tearDown() {
+        Context.exit();
+    }
+
+    @Test
+    public void declarationKeepsLineNumbers() throws Exception {
+        final int interpreted = throwingLine("hot");
+        warmUp("hot", "hot(1)");
+        assertEquals(2.0, Context.toNumber(cx.evaluateString(scope, "hot(1)", "call.js", 1, null)), 0);
+        assertEquals(interpreted, throwingLine("hot"));
+        assertEquals(21, interpreted);
+    }
+
+    @Test
+    public void methodIsCompiled() throws Exception {
+        final InterpretedFunction add = function(cx.evaluateString(scope, "counter.add", "get.js", 1, null));
+        for (int i = 0; i < 20; i++) {
+            cx.evaluateString(scope, "counter.add(1)", "call.js", 1, null);
+        }
+        waitForTier(add);
+        assertEquals(InterpreterData.TIERED_COMPILED, add.idata.tieredState);
+        assertEquals(21.0, Context.toNumber(cx.evaluateString(scope, "counter.add(1)", "call.js", 1, null)), 0);
+    }
+
+    @Test
+    public void namedExpressionKeepsItsName() throws Exception {
+        warmUp("named", "named(5)");
+        assertEquals(120.0, Context.toNumber(cx.evaluateString(scope, "named(5)", "call.js", 1, null)), 0);
+        assertEquals(Boolean.TRUE, cx.evaluateString(scope, "named.name === 'fact'", "call.js", 1, null));
+    }
+
+    private int throwingLine(String name) {
+        try {
+            cx.evaluateString(scope, name + "(-1)", "call.js", 1, null);
+            fail();
+        } catch (JavaScriptException e) {
+            assertEquals("tiered.js", e.sourceName());
+            return e.lineNumber();
+        }
+        return -1;
+    }
+
+    private void warmUp(String name, String call) throws Exception {
+        final InterpretedFunction fn = function(ScriptableObject.getProperty(scope, name));
+        for (int i = 0; i < 20; i++) {
+            cx.evaluateString(scope, call, "call.js", 1, null);
+        }
+        waitForTier(fn);
+        assertEquals(InterpreterData.TIERED_COMPILED, fn.idata.tieredState);
+        assertTrue(fn.isCompiled());
+    }
+
+    private static InterpretedFunction function(Object value) {
+        assertTrue(value instanceof InterpretedFunction);
+        return (InterpretedFunction) value;
+    }
+
+    private static void waitForTier(InterpretedFunction fn) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10_000L;
+        while (fn.idata.tieredState == InterpreterData.TIERED_QUEUED && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -50,4 +50,11 @@ public interface WindowOrWorkerGlobalScope {
      * @return a {@link java.lang.Integer} object.
      */
     int setInterval(final Object function, double millis);
+
+    /**
+     * <p>queueMicrotask.</p>
+     *
+     * @param function a {@link java.lang.Object} object.
+     */
+    void queueMicrotask(final Object function);
 }